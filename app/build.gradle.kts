@@ -42,6 +42,9 @@ android {
 
 dependencies {
 
+    implementation(project(":nutrition-core"))
+    annotationProcessor(project(":mapper-processor")) // Generates the Firestore document mappers
+
     implementation(libs.androidx.core.ktx)
     implementation(libs.androidx.lifecycle.runtime.ktx)
     implementation(libs.androidx.activity.compose)
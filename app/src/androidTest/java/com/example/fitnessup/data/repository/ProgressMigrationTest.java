@@ -0,0 +1,126 @@
+package com.example.fitnessup.data.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.fitnessup.data.model.WeightProgress;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the progress migration against the Firestore emulator, started on the host with
+ * firebase emulators:start --only firestore. Each test uses fresh user IDs.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ProgressMigrationTest {
+
+    private static final String EMULATOR_HOST = "10.0.2.2"; // The host machine, seen from the Android emulator
+    private static final int EMULATOR_PORT = 8080;
+
+    private static FirebaseFirestore firestore;
+
+    @BeforeClass
+    public static void connectToEmulator() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        FirebaseApp app = FirebaseApp.initializeApp(context, FirebaseApp.getInstance().getOptions(), "migration-test");
+        firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        firestore.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setPersistenceEnabled(false)
+                .build());
+    }
+
+    private static <T> T await(Task<T> task) throws Exception {
+        return Tasks.await(task, 30, TimeUnit.SECONDS);
+    }
+
+    private static Set<String> seedLegacyEntries(String userId, int count) throws Exception {
+        Set<String> ids = new HashSet<>();
+        WriteBatch batch = firestore.batch();
+        for (int i = 0; i < count; i++) {
+            WeightProgress entry = new WeightProgress(null, userId, 80 - i * 0.01,
+                    new Timestamp(new Date(1_704_067_200_000L + i * 86_400_000L)));
+            Map<String, Object> map = SyncEngine.stamped(entry.toMap());
+            String id = firestore.collection(UserRepository.LEGACY_PROGRESS_COLLECTION).document().getId();
+            batch.set(firestore.collection(UserRepository.LEGACY_PROGRESS_COLLECTION).document(id), map);
+            ids.add(id);
+        }
+        await(batch.commit());
+        return ids;
+    }
+
+    @Test
+    public void movesEveryEntryAndLeavesOtherUsersAlone() throws Exception {
+        String userId = "migrasi-" + System.nanoTime();
+        String otherUserId = userId + "-lain";
+        // More than two batches, ending with a short one
+        Set<String> ids = seedLegacyEntries(userId, ProgressMigration.BATCH_DOCUMENTS * 2 + 50);
+        seedLegacyEntries(otherUserId, 3);
+
+        ProgressMigration migration = new ProgressMigration(firestore);
+        assertFalse(migration.isComplete(userId));
+        assertEquals(ids.size(), (int) await(migration.migrate(userId)));
+        assertTrue(migration.isComplete(userId));
+
+        assertTrue(await(UserRepository.legacyProgressQuery(firestore, userId).get()).isEmpty());
+        assertEquals(3, await(UserRepository.legacyProgressQuery(firestore, otherUserId).get()).size());
+
+        QuerySnapshot moved = await(UserRepository.progressCollection(firestore, userId).get());
+        Set<String> movedIds = new HashSet<>();
+        for (DocumentSnapshot document : moved.getDocuments()) {
+            movedIds.add(document.getId());
+            assertFalse(document.contains(UserRepository.USER_ID_FIELD));
+            assertTrue(document.contains(SyncEngine.UPDATED_AT_FIELD));
+            assertEquals(userId, UserRepository.toWeightProgress(document).getUserId());
+        }
+        assertEquals(ids, movedIds);
+
+        DocumentSnapshot user = await(firestore.collection(UserRepository.USERS_COLLECTION).document(userId).get());
+        assertEquals((long) ids.size(), (long) user.getLong(ProgressMigration.STATE_FIELD + "." + ProgressMigration.MOVED_KEY));
+        assertEquals(Boolean.TRUE, user.getBoolean(ProgressMigration.STATE_FIELD + "." + ProgressMigration.DONE_KEY));
+
+        // Nothing left: running again moves nothing
+        assertEquals(0, (int) await(new ProgressMigration(firestore).migrate(userId)));
+    }
+
+    @Test
+    public void resumesAfterAnInterruptedRun() throws Exception {
+        String userId = "migrasi-" + System.nanoTime();
+        seedLegacyEntries(userId, 30);
+        // State left by a run that moved one full batch and stopped
+        await(firestore.collection(UserRepository.USERS_COLLECTION).document(userId)
+                .set(Collections.singletonMap(ProgressMigration.STATE_FIELD, Collections.singletonMap(
+                        ProgressMigration.MOVED_KEY, (long) ProgressMigration.BATCH_DOCUMENTS))));
+
+        assertEquals(30, (int) await(new ProgressMigration(firestore).migrate(userId)));
+
+        DocumentSnapshot user = await(firestore.collection(UserRepository.USERS_COLLECTION).document(userId).get());
+        assertEquals(ProgressMigration.BATCH_DOCUMENTS + 30L,
+                (long) user.getLong(ProgressMigration.STATE_FIELD + "." + ProgressMigration.MOVED_KEY));
+        assertEquals(30, await(UserRepository.progressCollection(firestore, userId).get()).size());
+    }
+}
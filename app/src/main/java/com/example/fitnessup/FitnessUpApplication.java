@@ -2,11 +2,12 @@ package com.example.fitnessup;
 
 import android.app.Application;
 
+import com.example.fitnessup.data.local.FitnessDatabase;
 import com.example.fitnessup.firebase.FirebaseManager;
 
 /**
  * Application class for the FitnessUp app.
- * Responsible for initializing app-wide components like Firebase.
+ * Responsible for initializing app-wide components like Firebase and the local database.
  */
 public class FitnessUpApplication extends Application {
 
@@ -16,5 +17,8 @@ public class FitnessUpApplication extends Application {
         
         // Initialize Firebase
         FirebaseManager.initialize(this);
+        
+        // Open the local database the repositories read from first
+        FitnessDatabase.initialize(this);
     }
 }
\ No newline at end of file
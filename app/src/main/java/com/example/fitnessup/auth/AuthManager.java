@@ -116,8 +116,7 @@ public class AuthManager {
         firebaseAuth.signInWithCredential(credential)
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        userLiveData.setValue(user);
+                        onSignedIn(firebaseAuth.getCurrentUser());
                     } else {
                         Log.w(TAG, "signInWithCredential:failure", task.getException());
                         errorLiveData.setValue("Authentication failed: " + 
@@ -126,6 +125,17 @@ public class AuthManager {
                 });
     }
 
+    /**
+     * Publish the signed-in user and prefetch their data into the Firestore cache
+     * @param user User who signed in
+     */
+    private void onSignedIn(FirebaseUser user) {
+        userLiveData.setValue(user);
+        if (user != null) {
+            userRepository.warmUpCache(user.getUid());
+        }
+    }
+
     /**
      * Register a new user with email and password
      * @param email User's email
@@ -154,8 +164,7 @@ public class AuthManager {
         firebaseAuth.signInWithEmailAndPassword(email, password)
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        userLiveData.setValue(user);
+                        onSignedIn(firebaseAuth.getCurrentUser());
                     } else {
                         Log.w(TAG, "signInWithEmail:failure", task.getException());
                         errorLiveData.setValue("Login failed: " + 
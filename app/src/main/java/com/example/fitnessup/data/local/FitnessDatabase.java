@@ -0,0 +1,148 @@
+package com.example.fitnessup.data.local;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+
+/**
+ * On-device SQLite database that mirrors the Firestore users and progress collections.
+ * Screens read from it first, so they render on cold start and without a network;
+ * SyncEngine keeps it in step with Firestore. Column names follow the Firestore keys.
+ * Weight histories are also kept as compressed time series under getSeriesDirectory().
+ * Follows the singleton pattern like FirebaseManager.
+ */
+public class FitnessDatabase extends SQLiteOpenHelper {
+    private static final String DATABASE_NAME = "fitnessup.db";
+    private static final int DATABASE_VERSION = 2;
+
+    static final String TABLE_USERS = "users";
+    static final String TABLE_PROGRESS = "progress";
+    static final String TABLE_SYNC_STATE = "sync_state";
+
+    // Shared columns
+    static final String COLUMN_ID = "id";
+    static final String COLUMN_USER_ID = "userId";
+    static final String COLUMN_PENDING = "tertunda"; // 1 while a local write has not reached Firestore
+
+    // users
+    static final String COLUMN_NAME = "nama";
+    static final String COLUMN_EMAIL = "email";
+    static final String COLUMN_AGE = "usia";
+    static final String COLUMN_GENDER = "jenisKelamin";
+    static final String COLUMN_HEIGHT = "tinggiBadan";
+    static final String COLUMN_ACTIVITY_LEVEL = "tingkatAktivitas";
+    static final String COLUMN_TARGET_WEIGHT = "beratBadanTujuan";
+    static final String COLUMN_INITIAL_WEIGHT = "beratBadanAwal";
+    static final String COLUMN_BODY_FAT = "persentaseLemakTubuh";
+    static final String COLUMN_BMR_FORMULA = "rumusBmr";
+
+    // progress
+    static final String COLUMN_WEIGHT = "beratBadan";
+    static final String COLUMN_TIMESTAMP = "timestamp"; // epoch millis
+
+    // sync_state
+    static final String COLUMN_HIGH_WATER_MARK = "batasSinkron"; // epoch nanos of the newest pulled change (millis before version 2)
+
+    private static FitnessDatabase instance;
+
+    private final File seriesDirectory;
+
+    private FitnessDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        seriesDirectory = new File(context.getFilesDir(), "series");
+    }
+
+    /**
+     * @return Directory holding the time-series stores, one subdirectory per user
+     */
+    public File getSeriesDirectory() {
+        return seriesDirectory;
+    }
+
+    /**
+     * Initialize the database singleton with application context.
+     * Should be called from Application class onCreate().
+     *
+     * @param application Application instance
+     * @return FitnessDatabase singleton instance
+     */
+    public static FitnessDatabase initialize(@NonNull Application application) {
+        if (instance == null) {
+            synchronized (FitnessDatabase.class) {
+                if (instance == null) {
+                    instance = new FitnessDatabase(application.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the database singleton instance.
+     * Must be initialized first with initialize().
+     *
+     * @return FitnessDatabase singleton instance
+     * @throws IllegalStateException if not initialized
+     */
+    public static FitnessDatabase getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("FitnessDatabase not initialized. Call initialize() first.");
+        }
+        return instance;
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Readers on the main-thread callbacks do not block the sync writer
+        db.enableWriteAheadLogging();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_USERS + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_NAME + " TEXT, "
+                + COLUMN_EMAIL + " TEXT, "
+                + COLUMN_AGE + " INTEGER NOT NULL, "
+                + COLUMN_GENDER + " TEXT, "
+                + COLUMN_HEIGHT + " REAL NOT NULL, "
+                + COLUMN_ACTIVITY_LEVEL + " TEXT, "
+                + COLUMN_TARGET_WEIGHT + " REAL NOT NULL, "
+                + COLUMN_INITIAL_WEIGHT + " REAL NOT NULL, "
+                + COLUMN_BODY_FAT + " REAL NOT NULL, "
+                + COLUMN_BMR_FORMULA + " TEXT, "
+                + COLUMN_PENDING + " INTEGER NOT NULL DEFAULT 0)");
+
+        db.execSQL("CREATE TABLE " + TABLE_PROGRESS + " ("
+                + COLUMN_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_USER_ID + " TEXT NOT NULL, "
+                + COLUMN_WEIGHT + " REAL NOT NULL, "
+                + COLUMN_TIMESTAMP + " INTEGER NOT NULL, "
+                + COLUMN_PENDING + " INTEGER NOT NULL DEFAULT 0)");
+        // History and latest-weight reads are range scans on this index
+        db.execSQL("CREATE INDEX index_progress_user_timestamp ON " + TABLE_PROGRESS
+                + " (" + COLUMN_USER_ID + ", " + COLUMN_TIMESTAMP + ", " + COLUMN_ID + ")");
+        // Only pending rows are indexed, so finding them does not scan the history
+        db.execSQL("CREATE INDEX index_progress_pending ON " + TABLE_PROGRESS
+                + " (" + COLUMN_USER_ID + ") WHERE " + COLUMN_PENDING + " = 1");
+
+        db.execSQL("CREATE TABLE " + TABLE_SYNC_STATE + " ("
+                + COLUMN_USER_ID + " TEXT PRIMARY KEY, "
+                + COLUMN_HIGH_WATER_MARK + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // High-water marks were millis; as nanos they are floored, so the next pull repeats at most one change
+            db.execSQL("UPDATE " + TABLE_SYNC_STATE + " SET " + COLUMN_HIGH_WATER_MARK + " = "
+                    + COLUMN_HIGH_WATER_MARK + " * 1000000");
+        }
+    }
+}
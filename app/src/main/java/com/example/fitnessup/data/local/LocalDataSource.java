@@ -0,0 +1,573 @@
+package com.example.fitnessup.data.local;
+
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_ACTIVITY_LEVEL;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_AGE;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_BMR_FORMULA;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_BODY_FAT;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_EMAIL;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_GENDER;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_HEIGHT;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_HIGH_WATER_MARK;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_ID;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_INITIAL_WEIGHT;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_NAME;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_PENDING;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_TARGET_WEIGHT;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_TIMESTAMP;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_USER_ID;
+import static com.example.fitnessup.data.local.FitnessDatabase.COLUMN_WEIGHT;
+import static com.example.fitnessup.data.local.FitnessDatabase.TABLE_PROGRESS;
+import static com.example.fitnessup.data.local.FitnessDatabase.TABLE_SYNC_STATE;
+import static com.example.fitnessup.data.local.FitnessDatabase.TABLE_USERS;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.data.model.WeightStats;
+import com.example.fitnessup.util.series.TimeSeriesStore;
+import com.example.fitnessup.util.series.WeightSeries;
+import com.google.firebase.Timestamp;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Typed reads and writes on the local database. Every method blocks on disk,
+ * so run them on getExecutor(); it is single-threaded, which keeps writes ordered.
+ * Rows written locally stay pending until SyncEngine has pushed them, and a pull
+ * never overwrites a pending row.
+ * Each user's weights are also kept in a compressed TimeSeriesStore for reads that only need
+ * the numbers. Once open, a store follows every write to the progress table; when it is first
+ * opened it is checked against the table and rebuilt if they differ.
+ * Writes that change a weight history are reported to WeightChangeListeners, so in-memory
+ * copies can apply the change instead of reading the history again.
+ */
+public class LocalDataSource {
+    private static final String TAG = "LocalDataSource";
+    private static LocalDataSource instance;
+
+    private final FitnessDatabase database;
+    private final Executor executor = Executors.newSingleThreadExecutor();
+    private final Map<String, TimeSeriesStore> weightStores = new HashMap<>(); // Open stores by user ID
+    private final CopyOnWriteArrayList<WeightChangeListener> weightChangeListeners = new CopyOnWriteArrayList<>();
+
+    // Singleton pattern to ensure only one instance of LocalDataSource exists
+    public static LocalDataSource getInstance() {
+        if (instance == null) {
+            instance = new LocalDataSource(FitnessDatabase.getInstance());
+        }
+        return instance;
+    }
+
+    private LocalDataSource(FitnessDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Get the executor all local reads and writes should run on
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Read a user profile
+     * @param userId ID of the user
+     * @return Stored profile, or null if the user has never been synced to this device
+     */
+    public User getUser(String userId) {
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_USERS, null,
+                COLUMN_ID + " = ?", new String[]{userId}, null, null, null)) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            User user = new User(userId,
+                    cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_NAME)),
+                    cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_EMAIL)),
+                    cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_AGE)),
+                    cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_GENDER)),
+                    cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_HEIGHT)),
+                    cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ACTIVITY_LEVEL)),
+                    cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_TARGET_WEIGHT)),
+                    cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_INITIAL_WEIGHT)));
+            user.setBodyFatPercentage(cursor.getDouble(cursor.getColumnIndexOrThrow(COLUMN_BODY_FAT)));
+            user.setBmrFormula(cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_BMR_FORMULA)));
+            return user;
+        }
+    }
+
+    /**
+     * Store a user profile
+     * @param user Profile to store
+     * @param pending True for a local edit that still has to be pushed, false for data pulled from Firestore
+     */
+    public void putUser(User user, boolean pending) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ID, user.getUserId());
+        values.put(COLUMN_NAME, user.getName());
+        values.put(COLUMN_EMAIL, user.getEmail());
+        values.put(COLUMN_AGE, user.getAge());
+        values.put(COLUMN_GENDER, user.getGender());
+        values.put(COLUMN_HEIGHT, user.getHeight());
+        values.put(COLUMN_ACTIVITY_LEVEL, user.getActivityLevel());
+        values.put(COLUMN_TARGET_WEIGHT, user.getTargetWeight());
+        values.put(COLUMN_INITIAL_WEIGHT, user.getInitialWeight());
+        values.put(COLUMN_BODY_FAT, user.getBodyFatPercentage());
+        values.put(COLUMN_BMR_FORMULA, user.getBmrFormula());
+        values.put(COLUMN_PENDING, pending ? 1 : 0);
+        upsert(TABLE_USERS, user.getUserId(), values, pending);
+    }
+
+    /**
+     * @param userId ID of the user
+     * @return Whether the stored profile has a local edit that has not been pushed yet
+     */
+    public boolean isUserPending(String userId) {
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_USERS, new String[]{COLUMN_PENDING},
+                COLUMN_ID + " = ?", new String[]{userId}, null, null, null)) {
+            return cursor.moveToFirst() && cursor.getInt(0) == 1;
+        }
+    }
+
+    /**
+     * Mark a user profile as pushed
+     * @param userId ID of the user
+     */
+    public void markUserSynced(String userId) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_PENDING, 0);
+        database.getWritableDatabase().update(TABLE_USERS, values, COLUMN_ID + " = ?", new String[]{userId});
+    }
+
+    /**
+     * Read a user's weight history with an index range scan
+     * @param userId ID of the user
+     * @return Entries oldest first; ties keep document ID order like the Firestore query
+     */
+    public List<WeightProgress> getWeightHistory(String userId) {
+        return queryWeightProgress(COLUMN_USER_ID + " = ?", new String[]{userId},
+                COLUMN_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC", null);
+    }
+
+    /**
+     * Read a user's weight history as primitive columns from the compressed time-series store,
+     * without creating an object per entry
+     * @param userId ID of the user
+     * @return Timestamps and weights in getWeightHistory() order
+     * @throws IOException if the store can neither be opened nor rebuilt
+     */
+    public WeightSeries getWeightSeries(String userId) throws IOException {
+        TimeSeriesStore store = weightStore(userId);
+        WeightSeries series = new WeightSeries((int) store.size());
+        store.readInto(series);
+        return series;
+    }
+
+    /**
+     * Read one page of a user's weight history, oldest first, with a keyset range scan,
+     * so reading page after page costs the same however far into the history it is
+     * @param userId ID of the user
+     * @param startAfter Last entry of the previous page, or null for the first page
+     * @param pageSize Maximum number of entries
+     * @return Entries in getWeightHistory() order after startAfter; fewer than pageSize at the end
+     */
+    public List<WeightProgress> getWeightHistoryPage(String userId, WeightProgress startAfter, int pageSize) {
+        String orderBy = COLUMN_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC";
+        if (startAfter == null) {
+            return queryWeightProgress(COLUMN_USER_ID + " = ?", new String[]{userId}, orderBy,
+                    String.valueOf(pageSize));
+        }
+        String timestamp = String.valueOf(startAfter.getDate().getTime());
+        return queryWeightProgress(COLUMN_USER_ID + " = ? AND (" + COLUMN_TIMESTAMP + " > ? OR ("
+                        + COLUMN_TIMESTAMP + " = ? AND " + COLUMN_ID + " > ?))",
+                new String[]{userId, timestamp, timestamp, startAfter.getProgressId()}, orderBy,
+                String.valueOf(pageSize));
+    }
+
+    /**
+     * Read a user's most recent weight entry
+     * @param userId ID of the user
+     * @return Latest entry, or null if there is none
+     */
+    public WeightProgress getLatestWeight(String userId) {
+        List<WeightProgress> latest = queryWeightProgress(COLUMN_USER_ID + " = ?", new String[]{userId},
+                COLUMN_TIMESTAMP + " DESC, " + COLUMN_ID + " DESC", "1");
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    /**
+     * Count and sum a user's stored weight entries in a time window, in SQLite
+     * @param userId ID of the user
+     * @param fromMillis Start of the window in epoch millis, inclusive
+     * @param toMillis End of the window in epoch millis, exclusive
+     * @return Stats of the stored entries, marked as not from the server
+     */
+    public WeightStats getWeightStats(String userId, long fromMillis, long toMillis) {
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_PROGRESS,
+                new String[]{"COUNT(*)", "TOTAL(" + COLUMN_WEIGHT + ")"},
+                COLUMN_USER_ID + " = ? AND " + COLUMN_TIMESTAMP + " >= ? AND " + COLUMN_TIMESTAMP + " < ?",
+                new String[]{userId, String.valueOf(fromMillis), String.valueOf(toMillis)},
+                null, null, null)) {
+            cursor.moveToFirst();
+            return new WeightStats(fromMillis, toMillis, cursor.getLong(0), cursor.getDouble(1), false);
+        }
+    }
+
+    /**
+     * Read the weight entries written on this device that have not been pushed yet
+     * @param userId ID of the user
+     * @return Pending entries, oldest first
+     */
+    public List<WeightProgress> getPendingWeightProgress(String userId) {
+        return queryWeightProgress(COLUMN_USER_ID + " = ? AND " + COLUMN_PENDING + " = 1",
+                new String[]{userId}, COLUMN_TIMESTAMP + " ASC", null);
+    }
+
+    /**
+     * What a write changed in the stored weight histories. An edited entry appears in both lists:
+     * its previous time and weight as removed, its new ones as added.
+     */
+    public static final class WeightChanges {
+        private final List<WeightProgress> added;
+        private final List<WeightProgress> removed;
+
+        WeightChanges(List<WeightProgress> added, List<WeightProgress> removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /**
+         * @return Entries whose time and weight entered a history: new rows and edited rows
+         */
+        public List<WeightProgress> getAdded() {
+            return added;
+        }
+
+        /**
+         * @return Entries as they were stored before leaving a history: deleted rows and the
+         * previous state of edited rows
+         */
+        public List<WeightProgress> getRemoved() {
+            return removed;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    /**
+     * Told about every write that changed a weight history, on the executor right after the write
+     */
+    public interface WeightChangeListener {
+        void onWeightChanges(WeightChanges changes);
+    }
+
+    public void addWeightChangeListener(WeightChangeListener listener) {
+        weightChangeListeners.addIfAbsent(listener);
+    }
+
+    public void removeWeightChangeListener(WeightChangeListener listener) {
+        weightChangeListeners.remove(listener);
+    }
+
+    /**
+     * Store weight entries in one transaction. Each entry is compared with its stored row by
+     * document ID; writing it again with the same time and weight changes nothing but its pending
+     * flag, so it leaves the weight store as it is and is not reported.
+     * @param entries Entries to store; each needs its document ID and timestamp
+     * @param pending True for local writes that still have to be pushed, false for data pulled from Firestore
+     * @return What the write changed
+     */
+    public WeightChanges putWeightProgress(List<WeightProgress> entries, boolean pending) {
+        Map<String, List<WeightProgress>> inserted = new HashMap<>(); // New rows by user ID
+        Set<String> rewritten = new HashSet<>(); // Users with an existing row given a new time or weight
+        List<WeightProgress> added = new ArrayList<>();
+        List<WeightProgress> removed = new ArrayList<>();
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (WeightProgress entry : entries) {
+                long timestampMillis = entry.getDate().getTime();
+                ContentValues values = new ContentValues();
+                values.put(COLUMN_ID, entry.getProgressId());
+                values.put(COLUMN_USER_ID, entry.getUserId());
+                values.put(COLUMN_WEIGHT, entry.getWeight());
+                values.put(COLUMN_TIMESTAMP, timestampMillis);
+                values.put(COLUMN_PENDING, pending ? 1 : 0);
+                WeightProgress stored = getStoredWeightProgress(entry.getProgressId());
+                Upsert result = upsert(TABLE_PROGRESS, entry.getProgressId(), values, pending);
+                if (result == Upsert.INSERTED) {
+                    List<WeightProgress> userEntries = inserted.get(entry.getUserId());
+                    if (userEntries == null) {
+                        userEntries = new ArrayList<>();
+                        inserted.put(entry.getUserId(), userEntries);
+                    }
+                    userEntries.add(entry);
+                    added.add(entry);
+                } else if (result == Upsert.UPDATED && stored != null
+                        && (stored.getDate().getTime() != timestampMillis
+                        || Double.compare(stored.getWeight(), entry.getWeight()) != 0)) {
+                    rewritten.add(entry.getUserId());
+                    removed.add(stored);
+                    added.add(entry);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        for (Map.Entry<String, List<WeightProgress>> userEntries : inserted.entrySet()) {
+            updateWeightStore(userEntries.getKey(), userEntries.getValue(), rewritten.contains(userEntries.getKey()));
+        }
+        for (String userId : rewritten) {
+            if (!inserted.containsKey(userId)) {
+                updateWeightStore(userId, Collections.emptyList(), true);
+            }
+        }
+        return notifyWeightChanges(new WeightChanges(added, removed));
+    }
+
+    /**
+     * Remove weight entries that were deleted in Firestore
+     * @param progressIds Document IDs of the entries
+     * @return What the deletion changed
+     */
+    public WeightChanges deleteWeightProgress(List<String> progressIds) {
+        List<WeightProgress> removed = new ArrayList<>();
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String progressId : progressIds) {
+                WeightProgress stored = getStoredWeightProgress(progressId);
+                if (stored != null && db.delete(TABLE_PROGRESS, COLUMN_ID + " = ?", new String[]{progressId}) > 0) {
+                    removed.add(stored);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        Set<String> userIds = new HashSet<>();
+        for (WeightProgress entry : removed) {
+            userIds.add(entry.getUserId());
+        }
+        for (String userId : userIds) {
+            updateWeightStore(userId, Collections.emptyList(), true);
+        }
+        return notifyWeightChanges(new WeightChanges(Collections.emptyList(), removed));
+    }
+
+    /**
+     * Mark weight entries as pushed
+     * @param progressIds Document IDs of the entries
+     */
+    public void markWeightProgressSynced(List<String> progressIds) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_PENDING, 0);
+            for (String progressId : progressIds) {
+                db.update(TABLE_PROGRESS, values, COLUMN_ID + " = ?", new String[]{progressId});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @param userId ID of the user
+     * @return Server time in epoch nanos of the newest change pulled for the user, or 0 before the first pull
+     */
+    public long getHighWaterMark(String userId) {
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_SYNC_STATE,
+                new String[]{COLUMN_HIGH_WATER_MARK}, COLUMN_USER_ID + " = ?", new String[]{userId},
+                null, null, null)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+
+    /**
+     * @param userId ID of the user
+     * @param highWaterMark Server time in epoch nanos of the newest change pulled for the user
+     */
+    public void setHighWaterMark(String userId, long highWaterMark) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_USER_ID, userId);
+        values.put(COLUMN_HIGH_WATER_MARK, highWaterMark);
+        database.getWritableDatabase().insertWithOnConflict(TABLE_SYNC_STATE, null, values,
+                SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Outcome of an upsert
+     */
+    private enum Upsert {
+        INSERTED,
+        UPDATED,
+        KEPT // A pending local write that a pulled row did not overwrite
+    }
+
+    /**
+     * Insert a row, or update it unless a pulled row would overwrite a pending local write
+     */
+    private Upsert upsert(String table, String id, ContentValues values, boolean pending) {
+        SQLiteDatabase db = database.getWritableDatabase();
+        if (db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_IGNORE) != -1) {
+            return Upsert.INSERTED;
+        }
+        int updated;
+        if (pending) {
+            updated = db.update(table, values, COLUMN_ID + " = ?", new String[]{id});
+        } else {
+            updated = db.update(table, values, COLUMN_ID + " = ? AND " + COLUMN_PENDING + " = 0", new String[]{id});
+        }
+        return updated > 0 ? Upsert.UPDATED : Upsert.KEPT;
+    }
+
+    private WeightProgress getStoredWeightProgress(String progressId) {
+        List<WeightProgress> stored = queryWeightProgress(COLUMN_ID + " = ?", new String[]{progressId}, null, "1");
+        return stored.isEmpty() ? null : stored.get(0);
+    }
+
+    private WeightChanges notifyWeightChanges(WeightChanges changes) {
+        if (!changes.isEmpty()) {
+            for (WeightChangeListener listener : weightChangeListeners) {
+                listener.onWeightChanges(changes);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Open a user's weight store, checking it against the progress table the first time
+     */
+    private TimeSeriesStore weightStore(String userId) throws IOException {
+        TimeSeriesStore store = weightStores.get(userId);
+        if (store != null) {
+            return store;
+        }
+        File directory = new File(new File(database.getSeriesDirectory(), userId), COLUMN_WEIGHT);
+        try {
+            store = TimeSeriesStore.open(directory);
+        } catch (IOException e) {
+            Log.w(TAG, "Rebuilding unreadable weight series: " + e.getMessage());
+            File[] segments = directory.listFiles();
+            if (segments != null) {
+                for (File segment : segments) {
+                    segment.delete();
+                }
+            }
+            store = TimeSeriesStore.open(directory);
+        }
+        // A crash between a table write and the store, or data from before the store existed
+        if (!matchesProgressTable(userId, store)) {
+            rebuildWeightStore(userId, store);
+        }
+        weightStores.put(userId, store);
+        return store;
+    }
+
+    /**
+     * Compare the store's count and sums with the user's rows in the progress table
+     */
+    private boolean matchesProgressTable(String userId, TimeSeriesStore store) {
+        long[] timestampSum = new long[1];
+        double[] weightSum = new double[1];
+        store.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestampMillis, weight) -> {
+            timestampSum[0] += timestampMillis;
+            weightSum[0] += weight;
+        });
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_PROGRESS,
+                new String[]{"COUNT(*)", "SUM(" + COLUMN_TIMESTAMP + ")", "TOTAL(" + COLUMN_WEIGHT + ")"},
+                COLUMN_USER_ID + " = ?", new String[]{userId}, null, null, null)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0) == store.size() && cursor.getLong(1) == timestampSum[0]
+                    && Math.abs(cursor.getDouble(2) - weightSum[0]) < 0.001;
+        }
+    }
+
+    private void rebuildWeightStore(String userId, TimeSeriesStore store) throws IOException {
+        WeightSeries series = new WeightSeries();
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_PROGRESS,
+                new String[]{COLUMN_TIMESTAMP, COLUMN_WEIGHT}, COLUMN_USER_ID + " = ?", new String[]{userId},
+                null, null, COLUMN_TIMESTAMP + " ASC, " + COLUMN_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                series.add(cursor.getLong(0), cursor.getDouble(1));
+            }
+        }
+        store.replaceAll(series);
+    }
+
+    /**
+     * Bring an open weight store in step after a write to the progress table. New entries after
+     * the newest point are appended, which is the usual new weigh-in; anything else rebuilds the
+     * store from the table. A store that is not open yet is checked when it is opened.
+     * @param inserted Entries that were new rows
+     * @param rebuild Whether existing rows got a new time or weight
+     */
+    private void updateWeightStore(String userId, List<WeightProgress> inserted, boolean rebuild) {
+        TimeSeriesStore store = weightStores.get(userId);
+        if (store == null) {
+            return;
+        }
+        try {
+            List<WeightProgress> appended = new ArrayList<>(inserted);
+            Collections.sort(appended, Comparator.comparingLong((WeightProgress entry) -> entry.getDate().getTime())
+                    .thenComparing(WeightProgress::getProgressId));
+            if (!rebuild && !appended.isEmpty() && !store.isEmpty()
+                    && appended.get(0).getDate().getTime() <= store.lastTimestamp()) {
+                rebuild = true;
+            }
+            if (rebuild) {
+                rebuildWeightStore(userId, store);
+                return;
+            }
+            for (WeightProgress entry : appended) {
+                store.append(entry.getDate().getTime(), entry.getWeight());
+            }
+        } catch (IOException e) {
+            // Reopening checks it against the table again
+            Log.e(TAG, "Weight series out of step, closing it: " + e.getMessage());
+            weightStores.remove(userId);
+            try {
+                store.close();
+            } catch (IOException ignored) {
+                // Already failing; the mapping is released either way
+            }
+        }
+    }
+
+    private List<WeightProgress> queryWeightProgress(String selection, String[] args, String orderBy, String limit) {
+        List<WeightProgress> entries = new ArrayList<>();
+        try (Cursor cursor = database.getReadableDatabase().query(TABLE_PROGRESS,
+                new String[]{COLUMN_ID, COLUMN_USER_ID, COLUMN_WEIGHT, COLUMN_TIMESTAMP},
+                selection, args, null, null, orderBy, limit)) {
+            while (cursor.moveToNext()) {
+                entries.add(new WeightProgress(cursor.getString(0), cursor.getString(1),
+                        cursor.getDouble(2), new Timestamp(new Date(cursor.getLong(3)))));
+            }
+        }
+        return entries;
+    }
+}
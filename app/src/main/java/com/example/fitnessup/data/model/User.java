@@ -1,25 +1,40 @@
 package com.example.fitnessup.data.model;
 
+import com.example.fitnessup.util.mapper.FirestoreDocument;
+import com.example.fitnessup.util.mapper.FirestoreField;
 import com.google.firebase.firestore.DocumentId;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Model class representing a user in the application.
  * This class maps to documents in the 'users' collection in Firestore.
+ * Documents are converted by the generated UserMapper, which uses the stored keys.
  */
-public class User {
+@FirestoreDocument
+public class User implements NutritionProfile {
     @DocumentId
     private String userId; // Same as Firebase Auth UID
+    @FirestoreField("nama")
     private String name;
+    @FirestoreField("email")
     private String email;
+    @FirestoreField("usia")
     private int age;
+    @FirestoreField("jenisKelamin")
     private String gender; // "PRIA" or "WANITA"
+    @FirestoreField("tinggiBadan")
     private double height; // in cm
+    @FirestoreField("tingkatAktivitas")
     private String activityLevel; // e.g., "Aktivitas Sedang"
+    @FirestoreField("beratBadanTujuan")
     private double targetWeight; // in kg
+    @FirestoreField("beratBadanAwal")
     private double initialWeight; // in kg, saved when account is created
+    @FirestoreField("persentaseLemakTubuh")
+    private double bodyFatPercentage; // in percent, 0 if unknown
+    @FirestoreField("rumusBmr")
+    private String bmrFormula; // BmrFormula name, null for Mifflin-St Jeor
 
     // Empty constructor required for Firestore
     public User() {
@@ -40,16 +55,7 @@ public class User {
 
     // Convert User object to Firestore document
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("nama", name);
-        map.put("email", email);
-        map.put("usia", age);
-        map.put("jenisKelamin", gender);
-        map.put("tinggiBadan", height);
-        map.put("tingkatAktivitas", activityLevel);
-        map.put("beratBadanTujuan", targetWeight);
-        map.put("beratBadanAwal", initialWeight);
-        return map;
+        return UserMapper.INSTANCE.toMap(this);
     }
 
     // Getters and Setters
@@ -78,6 +84,7 @@ public class User {
         this.email = email;
     }
 
+    @Override
     public int getAge() {
         return age;
     }
@@ -86,6 +93,7 @@ public class User {
         this.age = age;
     }
 
+    @Override
     public String getGender() {
         return gender;
     }
@@ -94,6 +102,7 @@ public class User {
         this.gender = gender;
     }
 
+    @Override
     public double getHeight() {
         return height;
     }
@@ -102,6 +111,7 @@ public class User {
         this.height = height;
     }
 
+    @Override
     public String getActivityLevel() {
         return activityLevel;
     }
@@ -110,6 +120,7 @@ public class User {
         this.activityLevel = activityLevel;
     }
 
+    @Override
     public double getTargetWeight() {
         return targetWeight;
     }
@@ -125,4 +136,22 @@ public class User {
     public void setInitialWeight(double initialWeight) {
         this.initialWeight = initialWeight;
     }
+
+    @Override
+    public double getBodyFatPercentage() {
+        return bodyFatPercentage;
+    }
+
+    public void setBodyFatPercentage(double bodyFatPercentage) {
+        this.bodyFatPercentage = bodyFatPercentage;
+    }
+
+    @Override
+    public String getBmrFormula() {
+        return bmrFormula;
+    }
+
+    public void setBmrFormula(String bmrFormula) {
+        this.bmrFormula = bmrFormula;
+    }
 }
\ No newline at end of file
@@ -1,21 +1,27 @@
 package com.example.fitnessup.data.model;
 
+import com.example.fitnessup.util.mapper.FirestoreDocument;
+import com.example.fitnessup.util.mapper.FirestoreField;
 import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.DocumentId;
 
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Model class representing a weight progress entry in the application.
  * This class maps to documents in the 'progress' collection in Firestore.
+ * Documents are converted by the generated WeightProgressMapper, which uses the stored keys.
  */
+@FirestoreDocument
 public class WeightProgress {
     @DocumentId
     private String progressId;
+    @FirestoreField("userId")
     private String userId; // Reference to the user who created this entry
+    @FirestoreField("beratBadan")
     private double weight; // Weight in kg
+    @FirestoreField("timestamp")
     private Timestamp timestamp; // Date and time when the entry was created
 
     // Empty constructor required for Firestore
@@ -37,11 +43,7 @@ public class WeightProgress {
 
     // Convert WeightProgress object to Firestore document
     public Map<String, Object> toMap() {
-        Map<String, Object> map = new HashMap<>();
-        map.put("userId", userId);
-        map.put("beratBadan", weight);
-        map.put("timestamp", timestamp);
-        return map;
+        return WeightProgressMapper.INSTANCE.toMap(this);
     }
 
     // Getters and Setters
@@ -0,0 +1,69 @@
+package com.example.fitnessup.data.model;
+
+/**
+ * Entry count, weight sum and average weight of a user's entries in a time window, as computed
+ * by a Firestore aggregation query without downloading the entries
+ */
+public final class WeightStats {
+    private final long fromMillis;
+    private final long toMillis;
+    private final long count;
+    private final double sumWeight;
+    private final boolean fromServer;
+
+    public WeightStats(long fromMillis, long toMillis, long count, double sumWeight, boolean fromServer) {
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.count = count;
+        this.sumWeight = sumWeight;
+        this.fromServer = fromServer;
+    }
+
+    /**
+     * @return Start of the window in epoch millis, inclusive
+     */
+    public long getFromMillis() {
+        return fromMillis;
+    }
+
+    /**
+     * @return End of the window in epoch millis, exclusive
+     */
+    public long getToMillis() {
+        return toMillis;
+    }
+
+    /**
+     * @return Number of entries in the window
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return Sum of the weights in the window in kg
+     */
+    public double getSumWeight() {
+        return sumWeight;
+    }
+
+    /**
+     * @return Average weight in the window in kg, or NaN if it has no entries
+     */
+    public double getAverageWeight() {
+        return count == 0 ? Double.NaN : sumWeight / count;
+    }
+
+    /**
+     * @return Whether the stats were aggregated by Firestore; false when they were counted from
+     * the entries on the device because the server could not be reached
+     */
+    public boolean isFromServer() {
+        return fromServer;
+    }
+
+    @Override
+    public String toString() {
+        return count + " entries, average " + getAverageWeight() + " kg";
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fitnessup.data.repository;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SnapshotMetadata;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Looks after the Firestore on-device cache, whose size budget is set in FirebaseManager.
+ * Counts, per query, how many snapshots were served from the cache and how many came from the server
+ * (SnapshotMetadata.isFromCache()), so the budget and the warmup can be tuned against real hit rates.
+ * After login, warmUp() prefetches the profile and the most recent weigh-ins, so the first screens
+ * and an offline start read them from the cache. Thread-safe.
+ */
+public class CacheManager {
+    private static final String TAG = "CacheManager";
+
+    static final int WARMUP_ENTRIES = 30; // About a month of daily weigh-ins, what the dashboard and chart open on
+
+    /**
+     * Counters of one query
+     */
+    public static final class Counts {
+        private final long fromCache;
+        private final long fromServer;
+
+        Counts(long fromCache, long fromServer) {
+            this.fromCache = fromCache;
+            this.fromServer = fromServer;
+        }
+
+        /**
+         * @return Snapshots served from the on-device cache
+         */
+        public long getFromCache() {
+            return fromCache;
+        }
+
+        /**
+         * @return Snapshots with data from the server
+         */
+        public long getFromServer() {
+            return fromServer;
+        }
+
+        /**
+         * @return Share of snapshots served from the cache, between 0 and 1; 0 if there were none
+         */
+        public double getHitRate() {
+            long total = fromCache + fromServer;
+            return total == 0 ? 0 : (double) fromCache / total;
+        }
+
+        @Override
+        public String toString() {
+            return fromCache + " from cache, " + fromServer + " from server";
+        }
+    }
+
+    private final Map<String, long[]> counters = new TreeMap<>(); // Query -> {fromCache, fromServer}
+
+    CacheManager() {
+    }
+
+    /**
+     * Count where a snapshot was served from
+     * @param query Name of the query, for the counters
+     * @param metadata Metadata of the snapshot
+     */
+    public synchronized void record(String query, SnapshotMetadata metadata) {
+        long[] count = counters.get(query);
+        if (count == null) {
+            count = new long[2];
+            counters.put(query, count);
+        }
+        count[metadata.isFromCache() ? 0 : 1]++;
+    }
+
+    /**
+     * Count where a document or query read was served from once it succeeds
+     * @param query Name of the query, for the counters
+     * @param read Task of the read
+     * @return The same task
+     */
+    <T> Task<T> track(String query, Task<T> read) {
+        read.addOnSuccessListener(Runnable::run, snapshot -> {
+            if (snapshot instanceof QuerySnapshot) {
+                record(query, ((QuerySnapshot) snapshot).getMetadata());
+            } else if (snapshot instanceof DocumentSnapshot) {
+                record(query, ((DocumentSnapshot) snapshot).getMetadata());
+            }
+        });
+        return read;
+    }
+
+    /**
+     * Wrap a snapshot listener so each snapshot it receives is counted
+     * @param query Name of the query, for the counters
+     * @param listener Listener to pass the snapshots on to
+     * @return Counting listener
+     */
+    EventListener<QuerySnapshot> track(String query, EventListener<QuerySnapshot> listener) {
+        return (snapshot, error) -> {
+            if (snapshot != null) {
+                record(query, snapshot.getMetadata());
+            }
+            listener.onEvent(snapshot, error);
+        };
+    }
+
+    /**
+     * Prefetch what the app reads right after login into the cache: the user's profile and their
+     * most recent weigh-ins. Offline the reads are answered from whatever the cache holds.
+     * @param repository Repository to read through, so the reads join identical ones in flight
+     * @param userId ID of the user who logged in
+     * @return Task that completes when both reads have, successfully or not
+     */
+    Task<Void> warmUp(UserRepository repository, String userId) {
+        Task<?> profile = repository.syncUserProfile(userId);
+        Task<?> recent = repository.getWeightProgressPage(userId, null, WARMUP_ENTRIES);
+        return Tasks.whenAllComplete(profile, recent).continueWith(task -> {
+            if (!profile.isSuccessful() || !recent.isSuccessful()) {
+                Log.w(TAG, "Cache warmup incomplete for " + userId + ": "
+                        + (profile.isSuccessful() ? recent.getException() : profile.getException()));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @return Counters by query name
+     */
+    public synchronized Map<String, Counts> getCounts() {
+        Map<String, Counts> counts = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            counts.put(entry.getKey(), new Counts(entry.getValue()[0], entry.getValue()[1]));
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+}
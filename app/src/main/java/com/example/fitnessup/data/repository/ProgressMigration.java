@@ -0,0 +1,142 @@
+package com.example.fitnessup.data.repository;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves a user's weight entries from the global progress collection into users/{uid}/progress.
+ * Each batch copies up to BATCH_DOCUMENTS entries under the same document ID, deletes the
+ * originals and counts them in the user document, all in one atomic WriteBatch. The legacy
+ * collection therefore only ever holds entries that still need moving, and an interrupted run
+ * resumes by running again. Entries keep their fields, including the sync stamp, so devices that
+ * already pulled them do not pull them again; only the redundant userId is dropped. Entries
+ * written before the stamp existed get one, so the pull finds them by server time.
+ * Until a user's migration has finished in this session, reads query both layouts.
+ * The user document's migrasiProgres field counts the moved entries and records when the
+ * legacy collection was found empty, for checking a rollout.
+ */
+public class ProgressMigration {
+    private static final String TAG = "ProgressMigration";
+
+    // A set and a delete per entry, plus the counter update, within Firestore's 500 writes per batch
+    static final int BATCH_DOCUMENTS = 200;
+
+    // Migration state in the user document
+    static final String STATE_FIELD = "migrasiProgres";
+    static final String MOVED_KEY = "dipindahkan";
+    static final String DONE_KEY = "selesai";
+
+    private final FirebaseFirestore firestore;
+    private final Set<String> completedUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Task<Integer>> running = new ConcurrentHashMap<>();
+
+    ProgressMigration(FirebaseFirestore firestore) {
+        this.firestore = firestore;
+    }
+
+    /**
+     * Move every legacy entry of a user. Runs at most once per user at a time; a call while a run is
+     * in progress joins it. Safe to repeat: with nothing left to move it costs one empty query.
+     * @param userId ID of the user to migrate
+     * @return Task resolving to the number of entries moved by this run
+     */
+    public Task<Integer> migrate(String userId) {
+        Task<Integer> existing = running.get(userId);
+        if (existing != null && !existing.isComplete()) {
+            return existing;
+        }
+        Task<Integer> run = moveNextBatch(userId, 0)
+                .addOnCompleteListener(task -> running.remove(userId));
+        running.put(userId, run);
+        return run;
+    }
+
+    /**
+     * @return Whether a run in this session found no legacy entries left for the user, so
+     * reads can skip the legacy layout
+     */
+    public boolean isComplete(String userId) {
+        return completedUsers.contains(userId);
+    }
+
+    private Task<Integer> moveNextBatch(String userId, int movedSoFar) {
+        return UserRepository.legacyProgressQuery(firestore, userId)
+                .limit(BATCH_DOCUMENTS)
+                .get()
+                .continueWithTask(task -> {
+                    QuerySnapshot page = task.getResult();
+                    DocumentReference userDocument = firestore.collection(UserRepository.USERS_COLLECTION)
+                            .document(userId);
+                    if (page.isEmpty()) {
+                        return markComplete(userId, userDocument, movedSoFar);
+                    }
+
+                    WriteBatch batch = firestore.batch();
+                    for (DocumentSnapshot document : page.getDocuments()) {
+                        Map<String, Object> data = document.getData();
+                        if (data == null) {
+                            continue;
+                        }
+                        data.remove(UserRepository.USER_ID_FIELD);
+                        if (!data.containsKey(SyncEngine.UPDATED_AT_FIELD)) {
+                            SyncEngine.stamped(data);
+                        }
+                        batch.set(UserRepository.progressCollection(firestore, userId).document(document.getId()), data);
+                        batch.delete(document.getReference());
+                    }
+                    // A short page is the last one, so it also marks the migration done
+                    boolean last = page.size() < BATCH_DOCUMENTS;
+                    batch.set(userDocument, stateUpdate(FieldValue.increment(page.size()), last), SetOptions.merge());
+
+                    int moved = movedSoFar + page.size();
+                    return batch.commit().continueWithTask(commit -> {
+                        if (!commit.isSuccessful()) {
+                            Log.e(TAG, "Migration of " + userId + " stopped after " + movedSoFar + " entries");
+                            return Tasks.<Integer>forException(commit.getException());
+                        }
+                        if (last) {
+                            completedUsers.add(userId);
+                            Log.d(TAG, "Moved " + moved + " weight entries of " + userId);
+                            return Tasks.<Integer>forResult(moved);
+                        }
+                        return moveNextBatch(userId, moved);
+                    });
+                });
+    }
+
+    private Task<Integer> markComplete(String userId, DocumentReference userDocument, int moved) {
+        completedUsers.add(userId);
+        if (moved == 0) {
+            return Tasks.forResult(0); // Nothing to move; the state was written by the run that emptied it
+        }
+        // The previous batch was full and happened to be the last one
+        Log.d(TAG, "Moved " + moved + " weight entries of " + userId);
+        return userDocument.set(stateUpdate(null, true), SetOptions.merge())
+                .continueWith(task -> moved);
+    }
+
+    private static Map<String, Object> stateUpdate(Object moved, boolean done) {
+        Map<String, Object> state = new HashMap<>();
+        if (moved != null) {
+            state.put(MOVED_KEY, moved);
+        }
+        state.put(DONE_KEY, done);
+        Map<String, Object> update = new HashMap<>();
+        update.put(STATE_FIELD, state);
+        return update;
+    }
+}
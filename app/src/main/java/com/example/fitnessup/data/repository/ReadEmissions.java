@@ -0,0 +1,75 @@
+package com.example.fitnessup.data.repository;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Decides what a read under a ReadPolicy emits as its cache and server reads complete.
+ * Free of Android and Firestore types, so the emission order can be unit tested; ReadPolicy
+ * feeds it the results of the Tasks. Not thread-safe; ReadPolicy calls it on the main thread.
+ */
+final class ReadEmissions<T> {
+    private final Function<T, Object> content;
+    private final ReadPolicy.Receiver<T> receiver;
+    private int pending; // Reads not completed yet
+    private boolean emitted;
+    private Object emittedContent;
+    private boolean serverAnswered;
+
+    /**
+     * @param policy Policy of the read; decides which results are expected
+     * @param content Extracts what two results are compared by; only called with non-null results
+     * @param receiver Receives the emissions
+     */
+    ReadEmissions(ReadPolicy policy, Function<T, Object> content, ReadPolicy.Receiver<T> receiver) {
+        this.content = content;
+        this.receiver = receiver;
+        this.pending = policy == ReadPolicy.CACHE_THEN_SERVER ? 2 : 1;
+    }
+
+    /**
+     * The cache read completed. A cached copy is dropped once the server has answered.
+     * @param successful Whether the read succeeded
+     * @param value Cached copy, or null if it is not cached
+     */
+    void onCached(boolean successful, T value) {
+        pending--;
+        if (serverAnswered) {
+            return;
+        }
+        if (successful && value != null) {
+            emit(value, false);
+        } else if (pending == 0) {
+            emit(null, false);
+        }
+    }
+
+    /**
+     * The server read completed. A failure after a cached copy leaves that copy in place.
+     * @param successful Whether the read succeeded
+     * @param value Server copy
+     */
+    void onServer(boolean successful, T value) {
+        pending--;
+        if (successful) {
+            serverAnswered = true;
+            if (emitted && Objects.equals(contentOf(value), emittedContent)) {
+                receiver.onConfirmed();
+            } else {
+                emit(value, true);
+            }
+        } else if (!emitted && pending == 0) {
+            emit(null, false);
+        }
+    }
+
+    private void emit(T value, boolean fromServer) {
+        emitted = true;
+        emittedContent = contentOf(value);
+        receiver.onValue(value, fromServer);
+    }
+
+    private Object contentOf(T value) {
+        return value != null ? content.apply(value) : null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.fitnessup.data.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.Source;
+
+import java.util.function.Function;
+
+/**
+ * Where a UserRepository read is answered from.
+ * CACHE_THEN_SERVER is stale-while-revalidate: the cached copy is emitted as soon as it is read,
+ * without waiting for the network, and the server copy replaces it only if its content differs.
+ */
+public enum ReadPolicy {
+    /**
+     * Only the Firestore cache; emits null if the data is not cached
+     */
+    CACHE_ONLY,
+    /**
+     * Only the server; emits null if the server cannot be reached
+     */
+    SERVER_ONLY,
+    /**
+     * The cached copy at once, then the server copy if it differs
+     */
+    CACHE_THEN_SERVER;
+
+    /**
+     * A read that can be run against a given source
+     */
+    public interface SourcedRead<T> {
+        Task<T> run(Source source);
+    }
+
+    /**
+     * Receives what a read under a policy emits, on the main thread
+     */
+    public interface Receiver<T> {
+        /**
+         * @param value Cached or server copy, or null when no source answered
+         * @param fromServer Whether the value is the server's copy
+         */
+        void onValue(T value, boolean fromServer);
+
+        /**
+         * The server answered with the content already emitted from the cache, which is not emitted again
+         */
+        default void onConfirmed() {
+        }
+    }
+
+    /**
+     * Run a read under this policy. With CACHE_THEN_SERVER both reads are issued at once; a cached
+     * copy arriving after the server copy is dropped. Emits null when no source answered.
+     * @param read Runs the read against a source
+     * @param content Extracts what two results are compared by, so an unchanged server copy is not
+     * emitted again; only called with non-null results
+     * @return LiveData emitting once, or twice when the server copy differs from the cached one
+     */
+    <T> LiveData<T> read(SourcedRead<T> read, Function<T, Object> content) {
+        MutableLiveData<T> liveData = new MutableLiveData<>();
+        read(read, content, (value, fromServer) -> liveData.setValue(value));
+        return liveData;
+    }
+
+    /**
+     * Run a read under this policy, for callers that need to know which source a value came from
+     * @param read Runs the read against a source
+     * @param content Extracts what two results are compared by; only called with non-null results
+     * @param receiver Receives each value once, or twice when the server copy differs from the cached one
+     */
+    public <T> void read(SourcedRead<T> read, Function<T, Object> content, Receiver<T> receiver) {
+        ReadEmissions<T> emissions = new ReadEmissions<>(this, content, receiver);
+        if (this != SERVER_ONLY) {
+            read.run(Source.CACHE).addOnCompleteListener(task ->
+                    emissions.onCached(task.isSuccessful(), task.isSuccessful() ? task.getResult() : null));
+        }
+        if (this != CACHE_ONLY) {
+            read.run(Source.SERVER).addOnCompleteListener(task ->
+                    emissions.onServer(task.isSuccessful(), task.isSuccessful() ? task.getResult() : null));
+        }
+    }
+}
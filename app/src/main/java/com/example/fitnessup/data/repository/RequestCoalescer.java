@@ -0,0 +1,123 @@
+package com.example.fitnessup.data.repository;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Single-flight request coalescing: while a request for a key is in flight, further identical
+ * requests get the same Task instead of starting another Firestore read. Once the Task completes
+ * the key is released, so the next request reads fresh data; nothing is cached beyond that.
+ * Several screens loading the same user at once therefore cost one read per query.
+ * Results are shared between every caller of the coalesced Task and must not be modified.
+ * Counts issued and coalesced requests per operation. Thread-safe.
+ */
+public class RequestCoalescer {
+
+    /**
+     * Counters of one operation
+     */
+    public static final class Counts {
+        private final long issued;
+        private final long coalesced;
+
+        Counts(long issued, long coalesced) {
+            this.issued = issued;
+            this.coalesced = coalesced;
+        }
+
+        /**
+         * @return Requests that started a read
+         */
+        public long getIssued() {
+            return issued;
+        }
+
+        /**
+         * @return Requests that joined a read already in flight, i.e. reads saved
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        @Override
+        public String toString() {
+            return issued + " issued, " + coalesced + " coalesced";
+        }
+    }
+
+    private final Map<String, Task<?>> inFlight = new HashMap<>();
+    private final Map<String, long[]> counters = new TreeMap<>(); // Operation -> {issued, coalesced}
+
+    RequestCoalescer() {
+    }
+
+    /**
+     * Run a request, or join the identical one already in flight
+     * @param operation Name of the operation, for the counters
+     * @param key Arguments that make two requests of the operation identical
+     * @param request Starts the read; only called when no identical request is in flight
+     * @return Task of the request, possibly shared with other callers
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Task<T> execute(String operation, String key, Callable<Task<T>> request) {
+        String flightKey = operation + '/' + key;
+        long[] count = counters.get(operation);
+        if (count == null) {
+            count = new long[2];
+            counters.put(operation, count);
+        }
+
+        Task<T> running = (Task<T>) inFlight.get(flightKey);
+        if (running != null) {
+            count[1]++;
+            return running;
+        }
+
+        Task<T> task;
+        try {
+            task = request.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to start " + operation, e);
+        }
+        count[0]++;
+        if (!task.isComplete()) {
+            inFlight.put(flightKey, task);
+            // Release on whichever thread completes the task, so a following request starts a new read
+            task.addOnCompleteListener(Runnable::run, done -> release(flightKey, done));
+        }
+        return task;
+    }
+
+    private synchronized void release(String flightKey, Task<?> task) {
+        if (inFlight.get(flightKey) == task) {
+            inFlight.remove(flightKey);
+        }
+    }
+
+    /**
+     * @return Counters by operation name
+     */
+    public synchronized Map<String, Counts> getCounts() {
+        Map<String, Counts> counts = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            counts.put(entry.getKey(), new Counts(entry.getValue()[0], entry.getValue()[1]));
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @return Requests that joined a read in flight, over all operations
+     */
+    public synchronized long getTotalCoalesced() {
+        long total = 0;
+        for (long[] count : counters.values()) {
+            total += count[1];
+        }
+        return total;
+    }
+}
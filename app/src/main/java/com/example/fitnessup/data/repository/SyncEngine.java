@@ -0,0 +1,377 @@
+package com.example.fitnessup.data.repository;
+
+import android.util.Log;
+
+import com.example.fitnessup.data.local.LocalDataSource;
+import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.data.model.UserMapper;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.util.series.MonthlyRollup;
+import com.example.fitnessup.util.series.ProgressSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the local database in step with Firestore.
+ * Push: local writes are saved as pending rows and written to Firestore under their own
+ * document IDs, so retrying a push is idempotent. Pull: every write stamps the document
+ * with a server time in UPDATED_AT_FIELD, and only documents stamped after the user's
+ * high-water mark are fetched. The first pull has no mark yet and fetches everything.
+ * Weight entries are pushed in a transaction that also folds them into the user's progress
+ * summary and its month's rollup; SUMMARIZED_FIELD on the entry makes a retried push count
+ * it only once. A user has rollups exactly when they have a summary: both are built together.
+ * Before the first pull of a session the user's legacy entries are migrated; if that fails,
+ * the pull reads both layouts.
+ */
+public class SyncEngine {
+    private static final String TAG = "SyncEngine";
+
+    static final String UPDATED_AT_FIELD = "diperbarui"; // Server time of the last write to a document
+    static final String SUMMARIZED_FIELD = "diringkas"; // Set on entries counted in the progress summary
+
+    private final FirebaseFirestore firestore;
+    private final LocalDataSource localDataSource;
+    private final ProgressMigration progressMigration;
+    private final RequestCoalescer requestCoalescer;
+    private final CacheManager cacheManager;
+
+    SyncEngine(FirebaseFirestore firestore, LocalDataSource localDataSource, ProgressMigration progressMigration,
+               RequestCoalescer requestCoalescer, CacheManager cacheManager) {
+        this.firestore = firestore;
+        this.localDataSource = localDataSource;
+        this.progressMigration = progressMigration;
+        this.requestCoalescer = requestCoalescer;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Add the server-time stamp the pull queries filter on to a document map
+     * @param map Firestore document fields
+     * @return The same map
+     */
+    static Map<String, Object> stamped(Map<String, Object> map) {
+        map.put(UPDATED_AT_FIELD, FieldValue.serverTimestamp());
+        return map;
+    }
+
+    /**
+     * Push pending weight entries, then pull the entries changed since the last sync into the local database
+     * @param userId ID of the user to sync
+     * @return Task resolving to the pulled entries, oldest change first
+     */
+    public Task<List<WeightProgress>> syncWeightProgress(String userId) {
+        // Screens opening together share one sync; the pulled list is shared too
+        return requestCoalescer.execute("syncWeightProgress", userId, () -> runWeightProgressSync(userId));
+    }
+
+    private Task<List<WeightProgress>> runWeightProgressSync(String userId) {
+        Task<Integer> migration = progressMigration.isComplete(userId)
+                ? Tasks.forResult(0) : progressMigration.migrate(userId);
+        return migration
+                .continueWithTask(localDataSource.getExecutor(), task -> {
+                    if (!task.isSuccessful()) {
+                        Log.w(TAG, "Pulling both layouts, migration failed: " + task.getException());
+                    }
+                    pushWeightProgress(userId, localDataSource.getPendingWeightProgress(userId));
+                    return Tasks.forResult(fromNanos(localDataSource.getHighWaterMark(userId)));
+                })
+                .continueWithTask(task -> pull(userId, task.getResult()))
+                .continueWith(localDataSource.getExecutor(), task -> {
+                    List<DocumentSnapshot> documents = task.getResult();
+                    List<WeightProgress> pulled = UserRepository.toWeightProgressList(documents);
+                    localDataSource.putWeightProgress(pulled, false);
+
+                    Timestamp highWaterMark = fromNanos(localDataSource.getHighWaterMark(userId));
+                    for (DocumentSnapshot document : documents) {
+                        // Unacknowledged writes have no server time yet; they are pulled again later.
+                        // Unstamped legacy entries do not move the mark: their own timestamp comes from
+                        // the device clock. The migration stamps them when it moves them.
+                        Timestamp changedAt = document.getMetadata().hasPendingWrites()
+                                ? null : document.getTimestamp(UPDATED_AT_FIELD);
+                        if (changedAt != null && (highWaterMark == null || changedAt.compareTo(highWaterMark) > 0)) {
+                            highWaterMark = changedAt;
+                        }
+                    }
+                    if (highWaterMark != null) {
+                        localDataSource.setHighWaterMark(userId, toNanos(highWaterMark));
+                    }
+                    return pulled;
+                });
+    }
+
+    /**
+     * Fetch the entries changed since the high-water mark, from the legacy layout too while the
+     * migration has not finished. The legacy query runs first: an entry moved in between is then
+     * found by the second query rather than by neither.
+     */
+    private Task<List<DocumentSnapshot>> pull(String userId, Timestamp highWaterMark) {
+        Query current = pullQuery(UserRepository.progressCollection(firestore, userId), highWaterMark);
+        if (progressMigration.isComplete(userId)) {
+            return cacheManager.track("pullWeightProgress", current.get())
+                    .continueWith(task -> task.getResult().getDocuments());
+        }
+        return cacheManager.track("pullLegacyWeightProgress",
+                        pullQuery(UserRepository.legacyProgressQuery(firestore, userId), highWaterMark).get())
+                .continueWithTask(legacy -> cacheManager.track("pullWeightProgress", current.get()).continueWith(task -> {
+                    List<DocumentSnapshot> documents = new ArrayList<>(legacy.getResult().getDocuments());
+                    documents.addAll(task.getResult().getDocuments());
+                    return documents;
+                }));
+    }
+
+    /**
+     * Push a pending profile edit, then pull the profile into the local database
+     * @param userId ID of the user to sync
+     * @return Task resolving to the stored profile, or null if there is none
+     */
+    public Task<User> syncUser(String userId) {
+        // The sync is shared, but each caller reads its own copy of the profile, since screens edit it
+        return requestCoalescer.execute("syncUser", userId, () -> runUserSync(userId))
+                .continueWith(localDataSource.getExecutor(), task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    // A pending edit is kept over the pulled version
+                    return localDataSource.getUser(userId);
+                });
+    }
+
+    private Task<Void> runUserSync(String userId) {
+        return Tasks.call(localDataSource.getExecutor(), () -> {
+                    if (localDataSource.isUserPending(userId)) {
+                        pushUser(localDataSource.getUser(userId));
+                    }
+                    return null;
+                })
+                .continueWithTask(task -> cacheManager.track("syncUser",
+                        firestore.collection(UserRepository.USERS_COLLECTION).document(userId).get()))
+                .continueWith(localDataSource.getExecutor(), task -> {
+                    User user = UserMapper.INSTANCE.fromMap(task.getResult().getData());
+                    if (user != null) {
+                        user.setUserId(userId);
+                        localDataSource.putUser(user, false);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Push pending weight entries, each with its summary update. Does not wait for the transactions:
+     * offline they fail, and the entries stay pending for the next sync.
+     */
+    void pushWeightProgress(String userId, List<WeightProgress> pending) {
+        for (WeightProgress entry : pending) {
+            pushWeightProgressWithSummary(entry)
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to push weight progress for " + userId
+                            + ": " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Write a weight entry and fold it into the user's progress summary and monthly rollup in one
+     * transaction, then mark it pushed. An entry already counted is left as it is, so the push can be
+     * retried safely. If the user has no summary yet, only the entry is written; the summary and
+     * rollups are built from the whole history when the summary is first read.
+     * @param entry Entry with its document ID set
+     * @return Task that fails while offline, since transactions need the server
+     */
+    Task<Void> pushWeightProgressWithSummary(WeightProgress entry) {
+        DocumentReference progressDocument = UserRepository.progressCollection(firestore, entry.getUserId())
+                .document(entry.getProgressId());
+        DocumentReference userDocument = firestore.collection(UserRepository.USERS_COLLECTION)
+                .document(entry.getUserId());
+        ZoneId zone = ZoneId.systemDefault();
+        long timestampMillis = entry.getDate().getTime();
+        YearMonth month = MonthlyRollup.monthOf(timestampMillis, zone);
+        DocumentReference rollupDocument = UserRepository.rollupCollection(firestore, entry.getUserId())
+                .document(MonthlyRollup.key(month));
+        return firestore.<Void>runTransaction(transaction -> {
+                    // Transactions need every read before the first write
+                    DocumentSnapshot existing = transaction.get(progressDocument);
+                    DocumentSnapshot user = transaction.get(userDocument);
+                    DocumentSnapshot storedRollup = transaction.get(rollupDocument);
+                    if (Boolean.TRUE.equals(existing.getBoolean(SUMMARIZED_FIELD))) {
+                        return null;
+                    }
+
+                    Map<String, Object> map = stamped(UserRepository.toProgressDocument(entry));
+                    map.put(SUMMARIZED_FIELD, true);
+                    transaction.set(progressDocument, map);
+
+                    ProgressSummary summary = readSummary(user);
+                    if (summary != null) {
+                        summary.add(timestampMillis, entry.getWeight(), entry.getProgressId());
+                        transaction.set(userDocument, Collections.singletonMap(
+                                UserRepository.PROGRESS_SUMMARY_FIELD, summary.toMap()), SetOptions.merge());
+
+                        MonthlyRollup rollup = MonthlyRollup.fromMap(storedRollup.getData());
+                        if (rollup == null) {
+                            rollup = new MonthlyRollup(month);
+                        }
+                        rollup.add(timestampMillis, entry.getWeight(), zone);
+                        transaction.set(rollupDocument, rollup.toMap());
+                    }
+                    return null;
+                })
+                .addOnSuccessListener(localDataSource.getExecutor(),
+                        aVoid -> localDataSource.markWeightProgressSynced(
+                                Collections.singletonList(entry.getProgressId())));
+    }
+
+    /**
+     * Fold a batch of entries already written with SUMMARIZED_FIELD, e.g. an import, into the
+     * user's progress summary and monthly rollups. Leaves a missing summary missing, to be built
+     * from the history together with the rollups.
+     * @param userId ID of the user
+     * @param batch Summary of the written entries
+     * @param batchRollups Rollups of the written entries
+     * @return Task that can be used to track operation completion
+     */
+    Task<Void> mergeIntoProgressSummary(String userId, ProgressSummary batch,
+                                        Map<YearMonth, MonthlyRollup> batchRollups) {
+        DocumentReference userDocument = firestore.collection(UserRepository.USERS_COLLECTION).document(userId);
+        return firestore.<Void>runTransaction(transaction -> {
+            ProgressSummary summary = readSummary(transaction.get(userDocument));
+            if (summary == null || batch.isEmpty()) {
+                return null;
+            }
+            List<MonthlyRollup> merged = new ArrayList<>(batchRollups.size());
+            for (MonthlyRollup batchRollup : batchRollups.values()) {
+                DocumentSnapshot stored = transaction.get(UserRepository.rollupCollection(firestore, userId)
+                        .document(MonthlyRollup.key(batchRollup.getMonth())));
+                MonthlyRollup rollup = MonthlyRollup.fromMap(stored.getData());
+                if (rollup == null) {
+                    rollup = new MonthlyRollup(batchRollup.getMonth());
+                }
+                rollup.merge(batchRollup);
+                merged.add(rollup);
+            }
+
+            summary.merge(batch);
+            transaction.update(userDocument, UserRepository.PROGRESS_SUMMARY_FIELD, summary.toMap());
+            for (MonthlyRollup rollup : merged) {
+                transaction.set(UserRepository.rollupCollection(firestore, userId)
+                        .document(MonthlyRollup.key(rollup.getMonth())), rollup.toMap());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Build a user's progress summary and monthly rollups from the whole history, for users whose
+     * entries were written before summaries existed. Pending entries are left out, since their push
+     * will add them. An existing summary is kept, so a concurrent build or push is not counted twice.
+     * @param userId ID of the user
+     * @return Task resolving to the stored summary
+     */
+    Task<ProgressSummary> buildProgressSummary(String userId) {
+        DocumentReference userDocument = firestore.collection(UserRepository.USERS_COLLECTION).document(userId);
+        ZoneId zone = ZoneId.systemDefault();
+        ProgressSummary built = new ProgressSummary();
+        Map<YearMonth, MonthlyRollup> rollups = new TreeMap<>();
+        return syncWeightProgress(userId)
+                .continueWith(localDataSource.getExecutor(), task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException(); // A partial local history would undercount
+                    }
+                    Set<String> pendingIds = new HashSet<>();
+                    for (WeightProgress entry : localDataSource.getPendingWeightProgress(userId)) {
+                        pendingIds.add(entry.getProgressId());
+                    }
+                    for (WeightProgress entry : localDataSource.getWeightHistory(userId)) {
+                        if (!pendingIds.contains(entry.getProgressId()) && entry.getTimestamp() != null) {
+                            long timestampMillis = entry.getDate().getTime();
+                            built.add(timestampMillis, entry.getWeight(), entry.getProgressId());
+                            MonthlyRollup.addTo(rollups, timestampMillis, entry.getWeight(), zone);
+                        }
+                    }
+                    return null;
+                })
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.<ProgressSummary>forException(task.getException());
+                    }
+                    return firestore.<ProgressSummary>runTransaction(transaction -> {
+                        ProgressSummary stored = readSummary(transaction.get(userDocument));
+                        if (stored != null) {
+                            return stored;
+                        }
+                        transaction.set(userDocument, Collections.singletonMap(
+                                UserRepository.PROGRESS_SUMMARY_FIELD, built.toMap()), SetOptions.merge());
+                        for (MonthlyRollup rollup : rollups.values()) {
+                            transaction.set(UserRepository.rollupCollection(firestore, userId)
+                                    .document(MonthlyRollup.key(rollup.getMonth())), rollup.toMap());
+                        }
+                        return built;
+                    });
+                });
+    }
+
+    /**
+     * Read the progress summary field of a user document
+     * @return The summary, or null if the document has none
+     */
+    @SuppressWarnings("unchecked")
+    static ProgressSummary readSummary(DocumentSnapshot userDocument) {
+        Object state = userDocument.get(UserRepository.PROGRESS_SUMMARY_FIELD);
+        return state instanceof Map ? ProgressSummary.fromMap((Map<String, Object>) state) : null;
+    }
+
+    /**
+     * Write a profile edit and mark it pushed once Firestore acknowledges it
+     */
+    void pushUser(User user) {
+        if (user == null) {
+            return;
+        }
+        firestore.collection(UserRepository.USERS_COLLECTION)
+                .document(user.getUserId())
+                .set(stamped(user.toMap()), SetOptions.merge())
+                .addOnSuccessListener(localDataSource.getExecutor(),
+                        aVoid -> localDataSource.markUserSynced(user.getUserId()))
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to push profile: " + e.getMessage()));
+    }
+
+    private static Query pullQuery(Query query, Timestamp highWaterMark) {
+        if (highWaterMark == null) {
+            return query;
+        }
+        // The mark keeps the server time to the nanosecond, so the newest pulled change is not pulled again
+        return query.whereGreaterThan(UPDATED_AT_FIELD, highWaterMark)
+                .orderBy(UPDATED_AT_FIELD, Query.Direction.ASCENDING);
+    }
+
+    /**
+     * Server time as stored in the local database: epoch nanos, exact for every Firestore timestamp until 2262
+     */
+    private static long toNanos(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1_000_000_000L + timestamp.getNanoseconds();
+    }
+
+    /**
+     * @return The stored high-water mark as a Timestamp, or null before the first pull
+     */
+    private static Timestamp fromNanos(long nanos) {
+        if (nanos <= 0) {
+            return null;
+        }
+        return new Timestamp(nanos / 1_000_000_000L, (int) (nanos % 1_000_000_000L));
+    }
+}
@@ -1,35 +1,97 @@
 package com.example.fitnessup.data.repository;
 
+import android.util.Log;
+
 import androidx.annotation.NonNull;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.fitnessup.data.local.LocalDataSource;
 import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.data.model.UserMapper;
 import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.data.model.WeightProgressMapper;
+import com.example.fitnessup.data.model.WeightStats;
 import com.example.fitnessup.firebase.FirebaseManager;
+import com.example.fitnessup.util.calculator.AdaptiveTdeeEstimator;
+import com.example.fitnessup.util.series.MonthlyRollup;
+import com.example.fitnessup.util.series.ProgressSummary;
+import com.example.fitnessup.util.series.WeightSeries;
 import com.google.android.gms.tasks.OnCompleteListener;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.AggregateField;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Repository class that acts as a mediator between the app and Firebase for user-related operations.
  * Implements the Repository pattern to abstract the data sources from the rest of the application.
  * Uses FirebaseManager to access Firebase services.
+ * Reads are offline-first: they answer from the local database, then refresh it from Firestore
+ * through the SyncEngine. Writes go to the local database first and are pushed from there.
+ * Weight entries live in users/{uid}/progress. Entries still in the global progress collection
+ * are moved by the ProgressMigration; until it has finished, weight reads query both layouts
+ * and merge them by document ID.
+ * Identical reads already in flight are joined rather than repeated (see RequestCoalescer), so
+ * screens opening together cost one Firestore read per query; getRequestCounts() reports the savings.
+ * Window statistics come from Firestore aggregation queries and are cached per window.
+ * Snapshots are counted by whether Firestore served them from its on-device cache (see CacheManager);
+ * getCacheCounts() reports the hit rates, and warmUpCache() fills the cache after login.
+ * Reads taking a ReadPolicy choose between the cache and the server; with CACHE_THEN_SERVER they
+ * answer from the cache at once and emit the server copy only if it differs.
  */
 public class UserRepository {
-    private static final String USERS_COLLECTION = "users";
-    private static final String PROGRESS_COLLECTION = "progress";
+    private static final String TAG = "UserRepository";
+    static final String USERS_COLLECTION = "users";
+    static final String PROGRESS_COLLECTION = "progress"; // Subcollection of a user document
+    static final String LEGACY_PROGRESS_COLLECTION = "progress"; // Global collection used before the per-user layout
+    static final String MONTHLY_ROLLUP_COLLECTION = "rekapBulanan"; // Subcollection of a user document, one MonthlyRollup per month
+    static final String USER_ID_FIELD = "userId"; // Owner of a legacy entry; implied by the path in the new layout
+    private static final String TDEE_ESTIMATE_FIELD = "estimasiTdee"; // AdaptiveTdeeEstimator state in the user document
+    static final String PROGRESS_SUMMARY_FIELD = "ringkasanProgres"; // ProgressSummary in the user document
+    private static final String WEIGHT_FIELD = "beratBadan";
+    private static final long WEIGHT_STATS_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10); // Picks up entries from other devices
     
     private final FirebaseFirestore firestore;
     private final FirebaseManager firebaseManager;
+    private final LocalDataSource localDataSource;
+    private final ProgressMigration progressMigration;
+    private final RequestCoalescer requestCoalescer;
+    private final CacheManager cacheManager;
+    private final SyncEngine syncEngine;
+    private final WeightHistoryImporter weightHistoryImporter;
+    private final WeightHistoryExporter weightHistoryExporter;
+    private final Map<String, CachedWeightStats> weightStatsCache = new ConcurrentHashMap<>(); // "userId/from/to" -> stats
+    private final Map<String, Long> weightStatsGenerations = new ConcurrentHashMap<>(); // User ID -> invalidations so far
     
     private static UserRepository instance;
     
@@ -44,6 +106,13 @@ public class UserRepository {
     private UserRepository() {
         firebaseManager = FirebaseManager.getInstance();
         firestore = firebaseManager.getFirestore();
+        localDataSource = LocalDataSource.getInstance();
+        progressMigration = new ProgressMigration(firestore);
+        requestCoalescer = new RequestCoalescer();
+        cacheManager = new CacheManager();
+        syncEngine = new SyncEngine(firestore, localDataSource, progressMigration, requestCoalescer, cacheManager);
+        weightHistoryImporter = new WeightHistoryImporter(this, firestore, localDataSource, syncEngine);
+        weightHistoryExporter = new WeightHistoryExporter(this);
     }
     
     /**
@@ -60,9 +129,10 @@ public class UserRepository {
      * @return Task that can be used to track operation completion
      */
     public Task<Void> createUserProfile(User user) {
-        return firestore.collection(USERS_COLLECTION)
+        localDataSource.getExecutor().execute(() -> localDataSource.putUser(user, true));
+        return markUserSyncedOnSuccess(user.getUserId(), firestore.collection(USERS_COLLECTION)
                 .document(user.getUserId())
-                .set(user.toMap());
+                .set(SyncEngine.stamped(user.toMap())));
     }
     
     /**
@@ -71,42 +141,347 @@ public class UserRepository {
      * @return Task that can be used to track operation completion
      */
     public Task<Void> updateUserProfile(User user) {
-        return firestore.collection(USERS_COLLECTION)
+        localDataSource.getExecutor().execute(() -> localDataSource.putUser(user, true));
+        return markUserSyncedOnSuccess(user.getUserId(), firestore.collection(USERS_COLLECTION)
                 .document(user.getUserId())
-                .update(user.toMap());
+                .update(SyncEngine.stamped(user.toMap())));
+    }
+    
+    private Task<Void> markUserSyncedOnSuccess(String userId, Task<Void> write) {
+        return write.addOnSuccessListener(localDataSource.getExecutor(),
+                aVoid -> localDataSource.markUserSynced(userId));
     }
     
     /**
-     * Retrieves a user profile from Firestore as LiveData
+     * Retrieves a user profile as LiveData: first from the local database, then again once
+     * it has been synced with Firestore if that changed anything
      * @param userId ID of the user to retrieve
      * @return LiveData containing the User object
      */
     public LiveData<User> getUserProfile(String userId) {
         MutableLiveData<User> userLiveData = new MutableLiveData<>();
         
-        firestore.collection(USERS_COLLECTION)
-                .document(userId)
-                .get()
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        User user = task.getResult().toObject(User.class);
-                        userLiveData.setValue(user);
-                    } else {
-                        userLiveData.setValue(null);
+        Tasks.call(localDataSource.getExecutor(), () -> localDataSource.getUser(userId))
+                .addOnCompleteListener(local -> {
+                    User localUser = local.isSuccessful() ? local.getResult() : null;
+                    if (localUser != null) {
+                        userLiveData.setValue(localUser);
                     }
+                    
+                    syncEngine.syncUser(userId).addOnCompleteListener(task -> {
+                        if (task.isSuccessful() && task.getResult() != null) {
+                            userLiveData.setValue(task.getResult());
+                        } else if (localUser == null) {
+                            userLiveData.setValue(null);
+                        }
+                    });
                 });
         
         return userLiveData;
     }
     
     /**
-     * Adds a new weight progress entry to Firestore
+     * Retrieves a user profile from Firestore under a read policy
+     * @param userId ID of the user to retrieve
+     * @param policy Where to read the profile from
+     * @return LiveData containing the User object, or null if no source had it
+     */
+    public LiveData<User> getUserProfile(String userId, ReadPolicy policy) {
+        return policy.read(source -> getUserDocument(userId, source).continueWith(task -> {
+            User user = UserMapper.INSTANCE.fromMap(task.getResult().getData());
+            if (user != null) {
+                user.setUserId(userId);
+            }
+            return user;
+        }), User::toMap);
+    }
+    
+    /**
+     * Reads a user profile from the local database
+     * @param userId ID of the user
+     * @return Task resolving to the stored profile, or null if there is none
+     */
+    public Task<User> getLocalUserProfile(String userId) {
+        return Tasks.call(localDataSource.getExecutor(), () -> localDataSource.getUser(userId));
+    }
+    
+    /**
+     * Pushes a pending profile edit and pulls the profile from Firestore into the local database
+     * @param userId ID of the user
+     * @return Task resolving to the stored profile, or null if there is none
+     */
+    public Task<User> syncUserProfile(String userId) {
+        return syncEngine.syncUser(userId);
+    }
+    
+    /**
+     * Adds a new weight progress entry to Firestore, updating the user's progress summary
+     * in the same transaction
      * @param weightProgress WeightProgress object to be saved
      * @return Task that can be used to track operation completion
      */
     public Task<DocumentReference> addWeightProgress(WeightProgress weightProgress) {
-        return firestore.collection(PROGRESS_COLLECTION)
-                .add(weightProgress.toMap());
+        // The ID is generated on the device, so the local row and the document share it
+        DocumentReference document = progressCollection(firestore, weightProgress.getUserId()).document();
+        weightProgress.setProgressId(document.getId());
+        List<WeightProgress> entry = Collections.singletonList(weightProgress);
+        localDataSource.getExecutor().execute(() -> localDataSource.putWeightProgress(entry, true));
+        
+        return syncEngine.pushWeightProgressWithSummary(weightProgress)
+                .continueWithTask(transaction -> {
+                    if (transaction.isSuccessful()) {
+                        return Tasks.<Void>forResult(null);
+                    }
+                    // Transactions need the server; queue the entry alone and leave the row pending,
+                    // so the next sync pushes it again with its summary update
+                    Log.w(TAG, "Saving weight progress without summary: " + transaction.getException());
+                    return document.set(SyncEngine.stamped(toProgressDocument(weightProgress)));
+                })
+                .continueWith(task -> {
+                    invalidateWeightStats(weightProgress.getUserId());
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    return document;
+                });
+    }
+    
+    /**
+     * Retrieves a user's progress summary: latest, first, lowest and highest weight, entry count
+     * and trend, in a single document read however long the history is. Users without a summary
+     * yet get one built from their history the first time.
+     * @param userId ID of the user
+     * @return LiveData containing the summary, or null if it could not be loaded
+     */
+    public LiveData<ProgressSummary> getProgressSummary(String userId) {
+        MutableLiveData<ProgressSummary> summaryLiveData = new MutableLiveData<>();
+        
+        loadProgressSummary(userId).addOnCompleteListener(task ->
+                summaryLiveData.setValue(task.isSuccessful() ? task.getResult() : null));
+        
+        return summaryLiveData;
+    }
+    
+    /**
+     * Retrieves a user's progress summary under a read policy
+     * @param userId ID of the user
+     * @param policy Where to read the summary from
+     * @return LiveData containing the summary, or null if no source had it
+     */
+    public LiveData<ProgressSummary> getProgressSummary(String userId, ReadPolicy policy) {
+        return policy.read(source -> loadProgressSummary(userId, source), ProgressSummary::toMap);
+    }
+    
+    /**
+     * Task form of getProgressSummary(), for loading it together with other data
+     * @param userId ID of the user
+     * @return Task resolving to the caller's own copy of the summary
+     */
+    public Task<ProgressSummary> loadProgressSummary(String userId) {
+        return loadProgressSummary(userId, Source.DEFAULT);
+    }
+    
+    /**
+     * Task form of getProgressSummary() reading the user document from a given source.
+     * From the cache, a user without a summary resolves to null instead of having one built.
+     * @param userId ID of the user
+     * @param source Where to read the user document from
+     * @return Task resolving to the caller's own copy of the summary
+     */
+    public Task<ProgressSummary> loadProgressSummary(String userId, Source source) {
+        return requestCoalescer.execute("progressSummary", userId + '/' + source,
+                        () -> readOrBuildProgressSummary(userId, source))
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    if (task.getResult() == null) {
+                        return null;
+                    }
+                    // Callers fold new entries into their summary, so each gets its own copy
+                    ProgressSummary summary = new ProgressSummary();
+                    summary.merge(task.getResult());
+                    return summary;
+                });
+    }
+    
+    private Task<ProgressSummary> readOrBuildProgressSummary(String userId, Source source) {
+        return getUserDocument(userId, source).continueWithTask(task -> {
+            if (!task.isSuccessful() && source == Source.SERVER) {
+                // Unreachable; a summary built from the cached history is not the server's
+                return Tasks.<ProgressSummary>forException(task.getException());
+            }
+            ProgressSummary summary = task.isSuccessful() && task.getResult() != null
+                    ? SyncEngine.readSummary(task.getResult()) : null;
+            if (summary != null || source == Source.CACHE) {
+                // Building reads the whole history from the server
+                return Tasks.<ProgressSummary>forResult(summary);
+            }
+            return syncEngine.buildProgressSummary(userId);
+        });
+    }
+    
+    /**
+     * Reads a user document, joining a read of the same document already in flight
+     * @param userId ID of the user
+     * @param source Where to read the document from
+     * @return Task resolving to the snapshot, shared with the other callers
+     */
+    private Task<DocumentSnapshot> getUserDocument(String userId, Source source) {
+        return requestCoalescer.execute("userDocument", userId + '/' + source, () -> cacheManager.track(
+                "userDocument", firestore.collection(USERS_COLLECTION).document(userId).get(source)));
+    }
+    
+    /**
+     * Counts of Firestore reads started and of identical reads joined instead, by operation
+     * @return Counters since the app started; coalesced counts are the reads saved
+     */
+    public Map<String, RequestCoalescer.Counts> getRequestCounts() {
+        return requestCoalescer.getCounts();
+    }
+    
+    /**
+     * Counts of snapshots served from the Firestore cache and from the server, by query
+     * @return Counters since the app started, with each query's cache hit rate
+     */
+    public Map<String, CacheManager.Counts> getCacheCounts() {
+        return cacheManager.getCounts();
+    }
+    
+    /**
+     * Primes the Firestore cache after login: syncs the profile (syncUserProfile) and reads the
+     * newest page of CacheManager.WARMUP_ENTRIES weigh-ins from Firestore (getWeightProgressPage).
+     * The weigh-ins only land in the Firestore cache, not in the local database.
+     * @param userId ID of the user who logged in
+     * @return Task that completes when the prefetch has, successfully or not
+     */
+    public Task<Void> warmUpCache(String userId) {
+        return cacheManager.warmUp(this, userId);
+    }
+    
+    /**
+     * Imports a weight history file from another app in batched writes, skipping entries
+     * whose timestamp is already in the history
+     * @param userId ID of the user the entries belong to
+     * @param input File contents, UTF-8; closed when the import ends
+     * @param format File format
+     * @return LiveData with the import progress
+     */
+    public LiveData<WeightHistoryImporter.Progress> importWeightHistory(String userId, InputStream input,
+                                                                      WeightHistoryImporter.Format format) {
+        return Transformations.map(weightHistoryImporter.importHistory(userId, input, format), progress -> {
+            if (progress.isDone()) {
+                invalidateWeightStats(userId);
+            }
+            return progress;
+        });
+    }
+    
+    /**
+     * Exports a user's profile and full weight history to a file, streamed a page at a time
+     * @param userId ID of the user
+     * @param output Destination; closed when the export ends
+     * @param format File format
+     * @return LiveData with the export progress
+     */
+    public LiveData<WeightHistoryExporter.Progress> exportWeightHistory(String userId, OutputStream output,
+                                                                      WeightHistoryExporter.Format format) {
+        return weightHistoryExporter.exportHistory(userId, output, format);
+    }
+    
+    /**
+     * Pushes pending weight entries and pulls the entries changed in Firestore since the last sync
+     * into the local database
+     * @param userId ID of the user to sync
+     * @return Task resolving to the pulled entries
+     */
+    public Task<List<WeightProgress>> syncWeightProgress(String userId) {
+        return syncEngine.syncWeightProgress(userId);
+    }
+    
+    /**
+     * Reads a user's weight history from the local database
+     * @param userId ID of the user
+     * @return Task resolving to the entries, oldest first
+     */
+    public Task<List<WeightProgress>> getLocalWeightProgressHistory(String userId) {
+        return Tasks.call(localDataSource.getExecutor(), () -> localDataSource.getWeightHistory(userId));
+    }
+    
+    /**
+     * Reads a user's weight history as primitive columns from the local compressed time series
+     * @param userId ID of the user
+     * @return Task resolving to the timestamps and weights, oldest first
+     */
+    public Task<WeightSeries> getLocalWeightSeries(String userId) {
+        return Tasks.call(localDataSource.getExecutor(), () -> localDataSource.getWeightSeries(userId));
+    }
+    
+    /**
+     * Reads one page of a user's weight history from the local database, oldest first
+     * @param userId ID of the user
+     * @param startAfter Last entry of the previous page, or null for the first page
+     * @param pageSize Maximum number of entries
+     * @return Task resolving to the page; shorter than pageSize at the end of the history
+     */
+    public Task<List<WeightProgress>> getLocalWeightProgressPage(String userId, WeightProgress startAfter,
+                                                                 int pageSize) {
+        return Tasks.call(localDataSource.getExecutor(),
+                () -> localDataSource.getWeightHistoryPage(userId, startAfter, pageSize));
+    }
+    
+    /**
+     * Reads a user's weight history from the local compressed time series and registers a listener
+     * for the writes after it, in one task on the local executor, so every change is either in the
+     * series or reported to the listener, never both
+     * @param userId ID of the user
+     * @param listener Receives every later change to the stored weight histories
+     * @return Task resolving to the timestamps and weights, oldest first
+     */
+    Task<WeightSeries> openLocalWeightSeries(String userId, LocalDataSource.WeightChangeListener listener) {
+        return Tasks.call(localDataSource.getExecutor(), () -> {
+            WeightSeries series = localDataSource.getWeightSeries(userId);
+            localDataSource.addWeightChangeListener(listener);
+            return series;
+        });
+    }
+
+    /**
+     * Stops reporting local weight changes to a listener registered by openLocalWeightSeries
+     * @param listener Listener to remove
+     */
+    void closeLocalWeightSeries(LocalDataSource.WeightChangeListener listener) {
+        localDataSource.removeWeightChangeListener(listener);
+    }
+
+    /**
+     * Stores weight entries received from Firestore, or removes deleted ones, in the local database.
+     * What the writes change is reported to the local weight change listeners.
+     * @param changed Entries added or modified in Firestore
+     * @param removedIds Document IDs of entries deleted in Firestore
+     */
+    void storeWeightProgressChanges(List<WeightProgress> changed, List<String> removedIds) {
+        Set<String> userIds = new HashSet<>();
+        for (WeightProgress progress : changed) {
+            userIds.add(progress.getUserId());
+        }
+        for (String userId : userIds) {
+            invalidateWeightStats(userId);
+        }
+        localDataSource.getExecutor().execute(() -> {
+            localDataSource.putWeightProgress(changed, false);
+            localDataSource.deleteWeightProgress(removedIds);
+        });
+    }
+    
+    /**
+     * Moves the user's weight entries from the global progress collection into their own
+     * subcollection. Resumable and safe to repeat; the sync runs it before its first pull.
+     * @param userId ID of the user to migrate
+     * @return Task resolving to the number of entries moved
+     */
+    public Task<Integer> migrateWeightProgress(String userId) {
+        return progressMigration.migrate(userId);
     }
     
     /**
@@ -117,21 +492,12 @@ public class UserRepository {
     public LiveData<List<WeightProgress>> getWeightProgressHistory(String userId) {
         MutableLiveData<List<WeightProgress>> progressLiveData = new MutableLiveData<>();
         
-        firestore.collection(PROGRESS_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .orderBy("timestamp", Query.Direction.ASCENDING)
-                .get()
+        requestCoalescer.execute("weightHistory", userId, () -> readBothLayouts(userId, "weightHistory",
+                query -> query.orderBy("timestamp", Query.Direction.ASCENDING).get(), OLDEST_FIRST, Integer.MAX_VALUE))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && task.getResult() != null) {
-                        List<WeightProgress> progressList = new ArrayList<>();
-                        for (DocumentSnapshot document : task.getResult().getDocuments()) {
-                            WeightProgress progress = document.toObject(WeightProgress.class);
-                            if (progress != null) {
-                                progress.setProgressId(document.getId());
-                                progressList.add(progress);
-                            }
-                        }
-                        progressLiveData.setValue(progressList);
+                        // The list is shared with other callers; the entries are read-only
+                        progressLiveData.setValue(new ArrayList<>(task.getResult()));
                     } else {
                         progressLiveData.setValue(new ArrayList<>());
                     }
@@ -140,6 +506,329 @@ public class UserRepository {
         return progressLiveData;
     }
     
+    /**
+     * Listens to a user's weight progress, oldest first. The first snapshot holds every matching entry;
+     * later snapshots report only the document changes since the previous one.
+     * Until the migration has finished, legacy entries are reported by a second listener; a legacy
+     * entry being removed means it moved (see isLegacyProgress).
+     * @param userId ID of the user whose progress to listen to
+     * @param afterMillis Only entries strictly after this time in epoch millis; 0 for the whole history
+     * @param listener Receives each snapshot on the main thread
+     * @return Registration to remove the listener with
+     */
+    public ListenerRegistration listenToWeightProgress(String userId, long afterMillis,
+                                                       EventListener<QuerySnapshot> listener) {
+        ListenerRegistration registration = listenAfter(progressCollection(firestore, userId), afterMillis,
+                cacheManager.track("listenWeightProgress", listener));
+        if (progressMigration.isComplete(userId)) {
+            return registration;
+        }
+        ListenerRegistration legacyRegistration = listenAfter(legacyProgressQuery(firestore, userId),
+                afterMillis, cacheManager.track("listenWeightProgressLegacy", listener));
+        return () -> {
+            registration.remove();
+            legacyRegistration.remove();
+        };
+    }
+    
+    private static ListenerRegistration listenAfter(Query query, long afterMillis, EventListener<QuerySnapshot> listener) {
+        if (afterMillis > 0) {
+            query = query.whereGreaterThan("timestamp", new Timestamp(new Date(afterMillis)));
+        }
+        return query.orderBy("timestamp", Query.Direction.ASCENDING)
+                .addSnapshotListener(listener);
+    }
+    
+    /**
+     * Starts keeping a user's weight history in memory, updated from document changes
+     * @param userId ID of the user whose history to keep
+     * @return Started sync; call stop() when it is no longer needed
+     */
+    public WeightHistorySync syncWeightProgressHistory(String userId) {
+        WeightHistorySync sync = new WeightHistorySync(this, userId);
+        sync.start();
+        return sync;
+    }
+    
+    /**
+     * Retrieves one page of a user's weight progress, newest first. Entries with the same timestamp
+     * are ordered by document ID, so the cursor is a pair of values that works in both layouts.
+     * @param userId ID of the user whose progress to retrieve
+     * @param startAfter Last entry of the previous page, or null for the first page
+     * @param pageSize Maximum number of entries in the page
+     * @return Task resolving to the page, shared with identical requests in flight and not to be
+     * modified; pass its last entry as the next cursor
+     */
+    public Task<List<WeightProgress>> getWeightProgressPage(String userId, WeightProgress startAfter, int pageSize) {
+        String key = userId + '/' + (startAfter != null ? startAfter.getProgressId() : "") + '/' + pageSize;
+        return requestCoalescer.execute("weightProgressPage", key, () -> readBothLayouts(userId, "weightProgressPage", query -> {
+            query = query.orderBy("timestamp", Query.Direction.DESCENDING)
+                    .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING);
+            if (startAfter != null) {
+                query = query.startAfter(startAfter.getTimestamp(), startAfter.getProgressId());
+            }
+            return query.limit(pageSize).get();
+        }, NEWEST_FIRST, pageSize));
+    }
+    
+    /**
+     * Creates a pager that loads a user's weight progress newest first, one page at a time
+     * @param userId ID of the user whose progress to page through
+     * @return New pager; call loadNextPage() to fetch the first page
+     */
+    public WeightHistoryPager createWeightHistoryPager(String userId) {
+        return new WeightHistoryPager(this, userId);
+    }
+    
+    /**
+     * Run the same read on the user's progress subcollection and, until the migration has finished,
+     * on their legacy entries, merging the results by document ID. An entry moved while the reads
+     * run may come back from both and is kept once, from the new layout.
+     * @param userId ID of the user
+     * @param query Name of the read, for the cache counters
+     * @param read Applies the ordering and limits to a base query and runs it
+     * @param order Order of the merged result, matching the query order
+     * @param limit Maximum number of merged entries
+     * @return Task resolving to the merged entries
+     */
+    private Task<List<WeightProgress>> readBothLayouts(String userId, String query, ProgressRead read,
+                                                       Comparator<WeightProgress> order, int limit) {
+        Task<QuerySnapshot> current = cacheManager.track(query, read.run(progressCollection(firestore, userId)));
+        if (progressMigration.isComplete(userId)) {
+            return current.continueWith(task -> toWeightProgressList(task.getResult().getDocuments()));
+        }
+        Task<QuerySnapshot> legacy = cacheManager.track(query + "Legacy", read.run(legacyProgressQuery(firestore, userId)));
+        return Tasks.whenAllComplete(current, legacy).continueWith(task -> {
+            List<WeightProgress> merged = toWeightProgressList(current.getResult().getDocuments());
+            if (legacy.isSuccessful()) {
+                Set<String> ids = new HashSet<>();
+                for (WeightProgress progress : merged) {
+                    ids.add(progress.getProgressId());
+                }
+                for (WeightProgress progress : toWeightProgressList(legacy.getResult().getDocuments())) {
+                    if (ids.add(progress.getProgressId())) {
+                        merged.add(progress);
+                    }
+                }
+                Collections.sort(merged, order);
+            } else {
+                Log.w(TAG, "Legacy weight entries unavailable: " + legacy.getException());
+            }
+            return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+        });
+    }
+    
+    /**
+     * A read to run against each progress layout
+     */
+    private interface ProgressRead {
+        Task<QuerySnapshot> run(Query base);
+    }
+    
+    // Query orders: by timestamp, then by document ID like Firestore's implicit tie-break
+    private static final Comparator<WeightProgress> OLDEST_FIRST = (a, b) -> {
+        int byTime = a.getTimestamp().compareTo(b.getTimestamp());
+        return byTime != 0 ? byTime : a.getProgressId().compareTo(b.getProgressId());
+    };
+    private static final Comparator<WeightProgress> NEWEST_FIRST = (a, b) -> OLDEST_FIRST.compare(b, a);
+    
+    /**
+     * A user's weight entries in the per-user layout
+     */
+    static CollectionReference progressCollection(FirebaseFirestore firestore, String userId) {
+        return firestore.collection(USERS_COLLECTION).document(userId).collection(PROGRESS_COLLECTION);
+    }
+    
+    /**
+     * A user's monthly rollups, keyed by MonthlyRollup.key()
+     */
+    static CollectionReference rollupCollection(FirebaseFirestore firestore, String userId) {
+        return firestore.collection(USERS_COLLECTION).document(userId).collection(MONTHLY_ROLLUP_COLLECTION);
+    }
+    
+    /**
+     * A user's weight entries still in the global collection
+     */
+    static Query legacyProgressQuery(FirebaseFirestore firestore, String userId) {
+        return firestore.collection(LEGACY_PROGRESS_COLLECTION).whereEqualTo(USER_ID_FIELD, userId);
+    }
+    
+    /**
+     * @return Whether a progress document is in the global collection rather than under a user
+     */
+    static boolean isLegacyProgress(DocumentSnapshot document) {
+        return document.getReference().getParent().getParent() == null;
+    }
+    
+    /**
+     * Document fields of a weight entry in the per-user layout, without the owner's ID
+     * @param weightProgress Entry to store
+     * @return Mutable map of document fields
+     */
+    static Map<String, Object> toProgressDocument(WeightProgress weightProgress) {
+        Map<String, Object> map = weightProgress.toMap();
+        map.remove(USER_ID_FIELD);
+        return map;
+    }
+    
+    /**
+     * Converts a progress document of either layout into a WeightProgress with the generated mapper,
+     * keeping its document ID
+     * @param document Progress document
+     * @return WeightProgress object, or null if the document does not exist
+     */
+    static WeightProgress toWeightProgress(DocumentSnapshot document) {
+        WeightProgress progress = WeightProgressMapper.INSTANCE.fromMap(document.getData());
+        if (progress != null) {
+            progress.setProgressId(document.getId());
+            DocumentReference owner = document.getReference().getParent().getParent();
+            if (owner != null) {
+                progress.setUserId(owner.getId());
+            }
+        }
+        return progress;
+    }
+    
+    /**
+     * Converts query results into WeightProgress objects, keeping their document IDs
+     * @param documents Progress documents
+     * @return List of WeightProgress objects in query order
+     */
+    static List<WeightProgress> toWeightProgressList(List<DocumentSnapshot> documents) {
+        List<WeightProgress> progressList = new ArrayList<>(documents.size());
+        for (DocumentSnapshot document : documents) {
+            WeightProgress progress = toWeightProgress(document);
+            if (progress != null) {
+                progressList.add(progress);
+            }
+        }
+        return progressList;
+    }
+    
+    /**
+     * Listens to a user's monthly rollups, oldest month first: a long-range chart reads one document
+     * per month instead of every entry. Only users with a progress summary have rollups; until
+     * getProgressSummary() has built them, the listener reports none.
+     * @param userId ID of the user
+     * @param fromMonth First month to include, or null for every month
+     * @param listener Receives each snapshot on the main thread; convert documents with toMonthlyRollup()
+     * @return Registration to remove the listener with
+     */
+    public ListenerRegistration listenToMonthlyRollups(String userId, YearMonth fromMonth,
+                                                       EventListener<QuerySnapshot> listener) {
+        Query query = rollupCollection(firestore, userId).orderBy(FieldPath.documentId());
+        if (fromMonth != null) {
+            query = query.whereGreaterThanOrEqualTo(FieldPath.documentId(), MonthlyRollup.key(fromMonth));
+        }
+        return query.addSnapshotListener(cacheManager.track("listenMonthlyRollups", listener));
+    }
+    
+    /**
+     * Counts a user's entries in a time window and sums and averages their weights with a Firestore
+     * aggregation query, which returns the three numbers without downloading any entry. Results are
+     * cached per window for WEIGHT_STATS_MAX_AGE_MILLIS and dropped when the user's entries change
+     * on this device. Offline, the stats are counted from the entries on the device instead and
+     * not cached. Until the migration has finished, both layouts are aggregated and added up; an
+     * entry moved between the two queries may then be counted twice or not at all.
+     * @param userId ID of the user
+     * @param fromMillis Start of the window in epoch millis, inclusive; 0 for no lower bound
+     * @param toMillis End of the window in epoch millis, exclusive; Long.MAX_VALUE for no upper bound.
+     * Windows ending now should use no upper bound, so the cache can match them.
+     * @return Task resolving to the stats
+     */
+    public Task<WeightStats> getWeightStats(String userId, long fromMillis, long toMillis) {
+        String key = userId + '/' + fromMillis + '/' + toMillis;
+        long generation = weightStatsGenerations.getOrDefault(userId, 0L);
+        CachedWeightStats cached = weightStatsCache.get(key);
+        if (cached != null && cached.generation == generation
+                && System.currentTimeMillis() - cached.fetchedAtMillis < WEIGHT_STATS_MAX_AGE_MILLIS) {
+            return Tasks.forResult(cached.stats);
+        }
+        // A read started before the entries changed is neither joined nor served from the cache later
+        return requestCoalescer.execute("weightStats", key + '#' + generation,
+                () -> aggregateWeightStats(userId, fromMillis, toMillis)
+                .continueWithTask(task -> {
+                    if (task.isSuccessful()) {
+                        // A slower read of an older generation does not replace a newer one
+                        weightStatsCache.merge(key, new CachedWeightStats(task.getResult(), generation),
+                                (old, fresh) -> old.generation > fresh.generation ? old : fresh);
+                        return Tasks.<WeightStats>forResult(task.getResult());
+                    }
+                    // Aggregations only run on the server
+                    Log.w(TAG, "Counting weight stats on the device: " + task.getException());
+                    return Tasks.call(localDataSource.getExecutor(),
+                            () -> localDataSource.getWeightStats(userId, fromMillis, toMillis));
+                }));
+    }
+    
+    private Task<WeightStats> aggregateWeightStats(String userId, long fromMillis, long toMillis) {
+        List<Task<AggregateQuerySnapshot>> queries = new ArrayList<>();
+        queries.add(aggregateWindow(progressCollection(firestore, userId), fromMillis, toMillis));
+        if (!progressMigration.isComplete(userId)) {
+            queries.add(aggregateWindow(legacyProgressQuery(firestore, userId), fromMillis, toMillis));
+        }
+        return Tasks.whenAllComplete(queries).continueWith(task -> {
+            long count = 0;
+            double sum = 0;
+            for (Task<AggregateQuerySnapshot> query : queries) {
+                if (!query.isSuccessful()) {
+                    throw query.getException();
+                }
+                AggregateQuerySnapshot snapshot = query.getResult();
+                count += snapshot.getCount();
+                Double weightSum = snapshot.getDouble(AggregateField.sum(WEIGHT_FIELD));
+                sum += weightSum != null ? weightSum : 0;
+            }
+            return new WeightStats(fromMillis, toMillis, count, sum, true);
+        });
+    }
+    
+    private static Task<AggregateQuerySnapshot> aggregateWindow(Query query, long fromMillis, long toMillis) {
+        if (fromMillis > 0) {
+            query = query.whereGreaterThanOrEqualTo("timestamp", new Timestamp(new Date(fromMillis)));
+        }
+        if (toMillis != Long.MAX_VALUE) {
+            query = query.whereLessThan("timestamp", new Timestamp(new Date(toMillis)));
+        }
+        // The average is sum / count, so both layouts can be added up
+        return query.aggregate(AggregateField.count(), AggregateField.sum(WEIGHT_FIELD))
+                .get(AggregateSource.SERVER);
+    }
+    
+    /**
+     * Drop the cached window stats of a user after their entries changed. Aggregations still in
+     * flight belong to the previous generation, so what they cache is never served.
+     */
+    private void invalidateWeightStats(String userId) {
+        weightStatsGenerations.merge(userId, 1L, Long::sum);
+        String prefix = userId + '/';
+        weightStatsCache.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+    
+    /**
+     * Window stats with the time they were aggregated and the generation of the user's entries
+     * they were read from
+     */
+    private static final class CachedWeightStats {
+        final WeightStats stats;
+        final long generation;
+        final long fetchedAtMillis = System.currentTimeMillis();
+        
+        CachedWeightStats(WeightStats stats, long generation) {
+            this.stats = stats;
+            this.generation = generation;
+        }
+    }
+    
+    /**
+     * Converts a rollup document into a MonthlyRollup
+     * @param document Rollup document
+     * @return The rollup, or null if the document is malformed
+     */
+    public static MonthlyRollup toMonthlyRollup(DocumentSnapshot document) {
+        return MonthlyRollup.fromMap(document.getData());
+    }
+    
     /**
      * Gets the latest weight entry for a user
      * @param userId ID of the user
@@ -148,16 +837,19 @@ public class UserRepository {
     public LiveData<WeightProgress> getLatestWeight(String userId) {
         MutableLiveData<WeightProgress> latestWeightLiveData = new MutableLiveData<>();
         
-        firestore.collection(PROGRESS_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .limit(1)
-                .get()
+        // Answer from the local database first
+        Tasks.call(localDataSource.getExecutor(), () -> localDataSource.getLatestWeight(userId))
+                .addOnSuccessListener(localLatest -> {
+                    if (localLatest != null && latestWeightLiveData.getValue() == null) {
+                        latestWeightLiveData.setValue(localLatest);
+                    }
+                });
+        
+        getWeightProgressPage(userId, null, 1)
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful() && task.getResult() != null && !task.getResult().isEmpty()) {
-                        WeightProgress latestProgress = task.getResult().getDocuments().get(0).toObject(WeightProgress.class);
-                        latestWeightLiveData.setValue(latestProgress);
-                    } else {
+                        latestWeightLiveData.setValue(task.getResult().get(0));
+                    } else if (latestWeightLiveData.getValue() == null) {
                         latestWeightLiveData.setValue(null);
                     }
                 });
@@ -165,6 +857,80 @@ public class UserRepository {
         return latestWeightLiveData;
     }
     
+    /**
+     * Gets the latest weight entry for a user from Firestore under a read policy
+     * @param userId ID of the user
+     * @param policy Where to read the entry from
+     * @return LiveData containing the most recent WeightProgress object, or null if no source had one
+     */
+    public LiveData<WeightProgress> getLatestWeight(String userId, ReadPolicy policy) {
+        return policy.read(source -> readBothLayouts(userId, "latestWeight", query -> query
+                        .orderBy("timestamp", Query.Direction.DESCENDING)
+                        .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                        .limit(1)
+                        .get(source), NEWEST_FIRST, 1)
+                .continueWith(task -> task.getResult().isEmpty() ? null : task.getResult().get(0)),
+                latest -> Arrays.asList(latest.getProgressId(), latest.toMap()));
+    }
+    
+    /**
+     * Retrieves the saved adaptive TDEE estimator state for a user
+     * @param userId ID of the user
+     * @return LiveData containing the restored estimator, or a fresh one if nothing was saved
+     */
+    public LiveData<AdaptiveTdeeEstimator> getTdeeEstimate(String userId) {
+        MutableLiveData<AdaptiveTdeeEstimator> estimateLiveData = new MutableLiveData<>();
+        
+        loadTdeeEstimate(userId).addOnSuccessListener(estimateLiveData::setValue);
+        
+        return estimateLiveData;
+    }
+    
+    /**
+     * Task form of getTdeeEstimate(), for loading it together with other data
+     * @param userId ID of the user
+     * @return Task resolving to the restored estimator, or a fresh one if nothing was saved or
+     * the read failed; never fails
+     */
+    public Task<AdaptiveTdeeEstimator> loadTdeeEstimate(String userId) {
+        return loadTdeeEstimate(userId, Source.DEFAULT);
+    }
+    
+    /**
+     * Task form of getTdeeEstimate() reading the user document from a given source
+     * @param userId ID of the user
+     * @param source Where to read the user document from
+     * @return Task resolving to the restored estimator, or a fresh one if nothing was saved or the read
+     * failed; from the cache, null if the user document is not cached. Never fails
+     */
+    @SuppressWarnings("unchecked")
+    public Task<AdaptiveTdeeEstimator> loadTdeeEstimate(String userId, Source source) {
+        return getUserDocument(userId, source).continueWith(task -> {
+            Object state = null;
+            if (task.isSuccessful() && task.getResult() != null) {
+                state = task.getResult().get(TDEE_ESTIMATE_FIELD);
+            } else if (source == Source.CACHE) {
+                // A fresh estimator would be saved over the stored state once updated
+                return null;
+            }
+            return state instanceof Map
+                    ? AdaptiveTdeeEstimator.fromMap((Map<String, Object>) state)
+                    : new AdaptiveTdeeEstimator();
+        });
+    }
+    
+    /**
+     * Saves the adaptive TDEE estimator state in the user document, leaving the profile fields untouched
+     * @param userId ID of the user
+     * @param estimator Estimator whose state to save
+     * @return Task that can be used to track operation completion
+     */
+    public Task<Void> saveTdeeEstimate(String userId, AdaptiveTdeeEstimator estimator) {
+        return firestore.collection(USERS_COLLECTION)
+                .document(userId)
+                .update(TDEE_ESTIMATE_FIELD, estimator.toMap());
+    }
+    
     /**
      * Signs out the current user
      */
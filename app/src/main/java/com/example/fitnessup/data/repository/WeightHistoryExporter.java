@@ -0,0 +1,169 @@
+package com.example.fitnessup.data.repository;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.util.exporter.WeightHistoryWriter;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports a user's weight history, and the profile in the binary format, to a file.
+ * The history is brought up to date first when Firestore is reachable, then read from the local
+ * database PAGE_SIZE entries at a time with keyset pages and written through a WeightHistoryWriter
+ * as it is read, so the export holds one page and one write buffer however long the history is.
+ * Offline, whatever the local database holds is exported. A failed export leaves a partial file
+ * without its end; callers should delete it.
+ */
+public class WeightHistoryExporter {
+    private static final String TAG = "WeightHistoryExporter";
+
+    static final int PAGE_SIZE = 500;
+
+    /**
+     * Supported file formats
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        BINARY("application/octet-stream", "fuwh"); // Read back with BinaryHistoryReader
+
+        private final String mimeType;
+        private final String extension;
+
+        Format(String mimeType, String extension) {
+            this.mimeType = mimeType;
+            this.extension = extension;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * @return Suggested file name for an export in this format
+         */
+        public String getFileName() {
+            return "riwayat-berat-badan." + extension;
+        }
+    }
+
+    /**
+     * Snapshot of an export's progress
+     */
+    public static final class Progress {
+        private final long written;
+        private final boolean done;
+        private final String error;
+
+        Progress(long written, boolean done, String error) {
+            this.written = written;
+            this.done = done;
+            this.error = error;
+        }
+
+        /**
+         * @return Entries written so far
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * @return Error message if the export failed, null otherwise
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Format the progress as a user-facing message
+         */
+        public String describe() {
+            if (error != null) {
+                return "Ekspor gagal, berkas tidak lengkap: " + error;
+            }
+            if (done) {
+                return String.format(Locale.getDefault(), "Ekspor selesai: %d entri disimpan", written);
+            }
+            return String.format(Locale.getDefault(), "Mengekspor riwayat... %d entri ditulis", written);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final Executor executor = Executors.newSingleThreadExecutor();
+
+    WeightHistoryExporter(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Start exporting to a file; it is closed when the export ends
+     * @param userId ID of the user to export
+     * @param output Destination
+     * @param format File format
+     * @return LiveData with the progress, ending with a done or failed snapshot
+     */
+    public LiveData<Progress> exportHistory(String userId, OutputStream output, Format format) {
+        MutableLiveData<Progress> progress = new MutableLiveData<>(new Progress(0, false, null));
+        executor.execute(() -> run(userId, output, format, progress));
+        return progress;
+    }
+
+    private void run(String userId, OutputStream output, Format format, MutableLiveData<Progress> progress) {
+        long written = 0;
+        try (WritableByteChannel channel = Channels.newChannel(output)) {
+            // Step 1: bring the local database up to date; never fails, so offline exports what is stored
+            Tasks.await(Tasks.whenAllComplete(userRepository.syncWeightProgress(userId),
+                    userRepository.syncUserProfile(userId)));
+            long start = SystemClock.elapsedRealtime();
+            User user = Tasks.await(userRepository.getLocalUserProfile(userId));
+
+            // Step 2: stream the history page by page
+            WeightHistoryWriter writer = format == Format.BINARY
+                    ? WeightHistoryWriter.binary(channel, user)
+                    : WeightHistoryWriter.csv(channel, ZoneId.systemDefault());
+            WeightProgress last = null;
+            List<WeightProgress> page;
+            do {
+                page = Tasks.await(userRepository.getLocalWeightProgressPage(userId, last, PAGE_SIZE));
+                for (WeightProgress entry : page) {
+                    writer.accept(entry.getDate().getTime(), entry.getWeight());
+                }
+                if (!page.isEmpty()) {
+                    last = page.get(page.size() - 1);
+                }
+                written = writer.getEntryCount();
+                progress.postValue(new Progress(written, false, null));
+            } while (page.size() == PAGE_SIZE);
+            writer.finish();
+
+            Log.d(TAG, "Exported " + written + " entries as " + format + " in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            progress.postValue(new Progress(written, true, null));
+        } catch (IOException | ExecutionException e) {
+            progress.postValue(new Progress(written, true, e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.postValue(new Progress(written, true, "dibatalkan"));
+        }
+    }
+}
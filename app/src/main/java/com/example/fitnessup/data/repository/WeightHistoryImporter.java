@@ -0,0 +1,331 @@
+package com.example.fitnessup.data.repository;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fitnessup.data.local.LocalDataSource;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.util.importer.ImportDeduplicator;
+import com.example.fitnessup.util.importer.WeightHistoryParser;
+import com.example.fitnessup.util.series.MonthlyRollup;
+import com.example.fitnessup.util.series.ProgressSummary;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports a weight history exported by another app.
+ * The file is parsed as a stream on a background thread; new entries are collected into
+ * WriteBatch chunks of BATCH_LIMIT writes and committed while parsing continues, with at most
+ * MAX_IN_FLIGHT_COMMITS chunks unacknowledged at once so a large file cannot queue unbounded work.
+ * Entries whose timestamp is already in the history, or earlier in the file, are skipped.
+ * Each chunk is also stored in the local database as pending rows, like addWeightProgress.
+ * Commits only complete once Firestore acknowledges them, so offline the import stalls after
+ * MAX_IN_FLIGHT_COMMITS chunks until the connection returns.
+ * The acknowledged entries are folded into the user's progress summary and monthly rollups in one
+ * transaction at the end, rather than one per entry.
+ */
+public class WeightHistoryImporter {
+    private static final String TAG = "WeightHistoryImporter";
+
+    public static final int BATCH_LIMIT = 500; // Firestore's maximum writes per batch
+    static final int MAX_IN_FLIGHT_COMMITS = 4;
+
+    /**
+     * Supported file formats
+     */
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * Pick the format from a MIME type, falling back to the file name
+         * @param mimeType MIME type reported for the file, may be null
+         * @param fileName File name or path, may be null
+         * @return JSON for JSON files, CSV otherwise
+         */
+        public static Format detect(String mimeType, String fileName) {
+            if (mimeType != null && mimeType.contains("json")) {
+                return JSON;
+            }
+            if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json")) {
+                return JSON;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * Snapshot of an import's progress
+     */
+    public static final class Progress {
+        private final int read;
+        private final int imported;
+        private final int duplicates;
+        private final int rejected;
+        private final boolean done;
+        private final String error;
+
+        Progress(int read, int imported, int duplicates, int rejected, boolean done, String error) {
+            this.read = read;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.rejected = rejected;
+            this.done = done;
+            this.error = error;
+        }
+
+        /**
+         * @return Valid entries parsed so far
+         */
+        public int getRead() {
+            return read;
+        }
+
+        /**
+         * @return Entries whose batch Firestore has acknowledged
+         */
+        public int getImported() {
+            return imported;
+        }
+
+        /**
+         * @return Entries skipped because their timestamp was already in the history
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return Rows skipped because their date or weight could not be read
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * @return Error message if the import failed, null otherwise
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Format the progress as a user-facing message
+         */
+        public String describe() {
+            if (error != null) {
+                return "Impor gagal: " + error;
+            }
+            if (done) {
+                return String.format(Locale.getDefault(),
+                        "Impor selesai: %d entri ditambahkan, %d duplikat dilewati, %d baris tidak valid",
+                        imported, duplicates, rejected);
+            }
+            return String.format(Locale.getDefault(), "Mengimpor riwayat... %d entri dibaca, %d tersimpan",
+                    read, imported);
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final FirebaseFirestore firestore;
+    private final LocalDataSource localDataSource;
+    private final SyncEngine syncEngine;
+    private final Executor executor = Executors.newSingleThreadExecutor();
+
+    WeightHistoryImporter(UserRepository userRepository, FirebaseFirestore firestore, LocalDataSource localDataSource,
+                          SyncEngine syncEngine) {
+        this.userRepository = userRepository;
+        this.firestore = firestore;
+        this.localDataSource = localDataSource;
+        this.syncEngine = syncEngine;
+    }
+
+    /**
+     * Start importing a file; it is closed when the import ends
+     * @param userId ID of the user the entries belong to
+     * @param input File contents, UTF-8
+     * @param format File format
+     * @return LiveData with the progress, ending with a done or failed snapshot
+     */
+    public LiveData<Progress> importHistory(String userId, InputStream input, Format format) {
+        MutableLiveData<Progress> progress = new MutableLiveData<>(new Progress(0, 0, 0, 0, false, null));
+        executor.execute(new ImportRun(userId, input, format, progress));
+        return progress;
+    }
+
+    /**
+     * One import, running on the importer thread
+     */
+    private final class ImportRun implements Runnable, WeightHistoryParser.EntrySink {
+        private final String userId;
+        private final InputStream input;
+        private final Format format;
+        private final MutableLiveData<Progress> progress;
+
+        private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_COMMITS);
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicReference<String> commitError = new AtomicReference<>();
+        private final ZoneId zone = ZoneId.systemDefault();
+        // Acknowledged entries; only touched by commit listeners on the main thread until step 4
+        private final ProgressSummary importedSummary = new ProgressSummary();
+        private final Map<YearMonth, MonthlyRollup> importedRollups = new TreeMap<>();
+        private ImportDeduplicator deduplicator;
+        // Written by the importer thread only; volatile because commit listeners publish them
+        private volatile int read;
+        private volatile int duplicates;
+        private volatile int rejected;
+
+        private WriteBatch batch;
+        private List<WeightProgress> chunk = new ArrayList<>(BATCH_LIMIT);
+
+        ImportRun(String userId, InputStream input, Format format, MutableLiveData<Progress> progress) {
+            this.userId = userId;
+            this.input = input;
+            this.format = format;
+            this.progress = progress;
+        }
+
+        @Override
+        public void run() {
+            try (Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+                // Step 1: collect the timestamps already in the history
+                try {
+                    Tasks.await(userRepository.syncWeightProgress(userId));
+                } catch (ExecutionException e) {
+                    Log.w(TAG, "Importing without a fresh sync: " + e.getMessage());
+                }
+                List<WeightProgress> existing = Tasks.await(userRepository.getLocalWeightProgressHistory(userId));
+                long[] timestamps = new long[existing.size()];
+                for (int i = 0; i < timestamps.length; i++) {
+                    timestamps[i] = existing.get(i).getDate().getTime();
+                }
+                deduplicator = new ImportDeduplicator(timestamps, timestamps.length);
+
+                // Step 2: parse, committing full chunks as they fill
+                rejected = format == Format.JSON
+                        ? WeightHistoryParser.parseJson(reader, zone, this)
+                        : WeightHistoryParser.parseCsv(reader, zone, this);
+                commitChunk();
+
+                // Step 3: wait for the last commits and local writes
+                inFlight.acquire(MAX_IN_FLIGHT_COMMITS);
+                inFlight.release(MAX_IN_FLIGHT_COMMITS);
+                Tasks.await(Tasks.call(localDataSource.getExecutor(), () -> null));
+
+                // Step 4: count the imported entries in the summary and rollups; every commit listener has run
+                try {
+                    Tasks.await(syncEngine.mergeIntoProgressSummary(userId, importedSummary, importedRollups));
+                } catch (ExecutionException e) {
+                    Log.e(TAG, "Imported entries are missing from the progress summary: " + e.getMessage());
+                }
+
+                publish(true, commitError.get());
+            } catch (IOException | ExecutionException e) {
+                publish(true, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                publish(true, "dibatalkan");
+            }
+        }
+
+        @Override
+        public void accept(long timestampMillis, double weight) throws IOException {
+            read++;
+            if (!deduplicator.accept(timestampMillis)) {
+                duplicates++;
+                return;
+            }
+            if (commitError.get() != null) {
+                throw new IOException(commitError.get());
+            }
+
+            if (batch == null) {
+                batch = firestore.batch();
+            }
+            DocumentReference document = UserRepository.progressCollection(firestore, userId).document();
+            WeightProgress entry = new WeightProgress(document.getId(), userId, weight,
+                    new Timestamp(new Date(timestampMillis)));
+            // Marked as summarized, so a retried push does not count them again; step 4 adds them
+            Map<String, Object> map = SyncEngine.stamped(UserRepository.toProgressDocument(entry));
+            map.put(SyncEngine.SUMMARIZED_FIELD, true);
+            batch.set(document, map);
+            chunk.add(entry);
+
+            if (chunk.size() == BATCH_LIMIT) {
+                try {
+                    commitChunk();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("dibatalkan", e);
+                }
+            }
+        }
+
+        private void commitChunk() throws InterruptedException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<WeightProgress> committed = chunk;
+            List<String> progressIds = new ArrayList<>(committed.size());
+            for (WeightProgress entry : committed) {
+                progressIds.add(entry.getProgressId());
+            }
+            WriteBatch committing = batch;
+            batch = null;
+            chunk = new ArrayList<>(BATCH_LIMIT);
+
+            // Blocks the parser while MAX_IN_FLIGHT_COMMITS chunks are unacknowledged
+            inFlight.acquire();
+            localDataSource.getExecutor().execute(() -> localDataSource.putWeightProgress(committed, true));
+            // The listener runs on the main thread, since the importer thread may be waiting for a permit
+            committing.commit().addOnCompleteListener(task -> {
+                if (task.isSuccessful()) {
+                    for (WeightProgress entry : committed) {
+                        importedSummary.add(entry.getDate().getTime(), entry.getWeight(), entry.getProgressId());
+                        MonthlyRollup.addTo(importedRollups, entry.getDate().getTime(), entry.getWeight(), zone);
+                    }
+                    imported.addAndGet(committed.size());
+                    localDataSource.getExecutor().execute(() -> localDataSource.markWeightProgressSynced(progressIds));
+                } else {
+                    commitError.compareAndSet(null, task.getException() != null
+                            ? task.getException().getMessage() : "gagal menyimpan");
+                }
+                // Publish before releasing, so this never lands after the final snapshot
+                publish(false, null);
+                inFlight.release();
+            });
+        }
+
+        private void publish(boolean done, String error) {
+            progress.postValue(new Progress(read, imported.get(), duplicates, rejected, done, error));
+        }
+    }
+}
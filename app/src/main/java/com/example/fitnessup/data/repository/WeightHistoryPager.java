@@ -0,0 +1,111 @@
+package com.example.fitnessup.data.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fitnessup.data.model.WeightProgress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads a user's weight history newest first, one Firestore page at a time.
+ * Each page starts after the last entry of the previous one (startAfter + limit),
+ * so opening the history only reads the first page instead of every entry.
+ * Loaded entries accumulate in one append-only list; call from the main thread.
+ */
+public class WeightHistoryPager {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final UserRepository userRepository;
+    private final String userId;
+    private final int pageSize;
+
+    private final List<WeightProgress> items = new ArrayList<>();
+    private final MutableLiveData<List<WeightProgress>> itemsLiveData = new MutableLiveData<>();
+    private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
+
+    private WeightProgress cursor;
+    private boolean endReached;
+    private boolean loading;
+    // Bumped on refresh so pages requested before it are dropped
+    private int generation;
+
+    WeightHistoryPager(UserRepository userRepository, String userId) {
+        this(userRepository, userId, DEFAULT_PAGE_SIZE);
+    }
+
+    WeightHistoryPager(UserRepository userRepository, String userId, int pageSize) {
+        this.userRepository = userRepository;
+        this.userId = userId;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Fetch the next page unless one is already in flight or the history is exhausted
+     */
+    public void loadNextPage() {
+        if (loading || endReached) {
+            return;
+        }
+        loading = true;
+
+        final int requestGeneration = generation;
+        userRepository.getWeightProgressPage(userId, cursor, pageSize)
+                .addOnCompleteListener(task -> {
+                    if (requestGeneration != generation) {
+                        return;
+                    }
+                    loading = false;
+
+                    if (task.isSuccessful() && task.getResult() != null) {
+                        List<WeightProgress> page = task.getResult();
+                        items.addAll(page);
+                        if (!page.isEmpty()) {
+                            cursor = page.get(page.size() - 1);
+                        }
+                        // A short page means there is nothing after it
+                        endReached = page.size() < pageSize;
+                        itemsLiveData.setValue(Collections.unmodifiableList(new ArrayList<>(items)));
+                    } else {
+                        errorMessage.setValue("Failed to load weight history: "
+                                + (task.getException() != null ? task.getException().getMessage() : ""));
+                    }
+                });
+    }
+
+    /**
+     * Drop the loaded pages and fetch the first page again, e.g. after a new entry was added
+     */
+    public void refresh() {
+        generation++;
+        items.clear();
+        cursor = null;
+        endReached = false;
+        loading = false;
+        loadNextPage();
+    }
+
+    /**
+     * Get the entries loaded so far, newest first. Each emission is a new list
+     * whose prefix is the previous emission unless the pager was refreshed.
+     */
+    public LiveData<List<WeightProgress>> getItems() {
+        return itemsLiveData;
+    }
+
+    /**
+     * Get page load errors
+     */
+    public LiveData<String> getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * @return Whether every entry has been loaded
+     */
+    public boolean isEndReached() {
+        return endReached;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.fitnessup.data.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.fitnessup.data.local.LocalDataSource;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.util.series.WeightSeries;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps a user's weight history in memory as a WeightSeries, in sync with the local database and Firestore.
+ * The series is decoded from the user's compressed time-series store on the device, so it shows on
+ * cold start and offline without creating an object per entry.
+ * A snapshot listener then covers only the entries after the newest stored one, and a delta sync
+ * pulls anything older that changed elsewhere. Both only write to the local database; the series
+ * follows the changes the database reports, matched to rows by document ID there, and applies each
+ * one in place with a binary-search insert or removal. A write that leaves the history as it was
+ * reports nothing. Callbacks run on the main thread.
+ */
+public class WeightHistorySync {
+    private static final String TAG = "WeightHistorySync";
+
+    /**
+     * Told how the series changed, so a view of it can follow without rebuilding. Indices are
+     * positions in the series right after the change.
+     */
+    public interface SeriesListener {
+        /**
+         * The series was read from the device and replaced as a whole
+         */
+        void onLoaded();
+
+        void onInserted(int index);
+
+        /**
+         * @param index Position the entry had before it was removed
+         */
+        void onRemoved(int index);
+    }
+
+    private final UserRepository userRepository;
+    private final String userId;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LocalDataSource.WeightChangeListener changeListener = this::onStoredChanges;
+
+    private final WeightSeries series = new WeightSeries();
+    private final MutableLiveData<WeightSeries> history = new MutableLiveData<>();
+    private SeriesListener seriesListener;
+
+    private boolean started;
+    private ListenerRegistration registration;
+
+    WeightHistorySync(UserRepository userRepository, String userId) {
+        this.userRepository = userRepository;
+        this.userId = userId;
+    }
+
+    /**
+     * Start syncing; the first emission carries the history stored on the device
+     */
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        // Step 1: render from disk, and follow every local write after that read
+        userRepository.openLocalWeightSeries(userId, changeListener).addOnCompleteListener(task -> {
+            if (!started) {
+                userRepository.closeLocalWeightSeries(changeListener); // Stopped while the read was queued
+                return;
+            }
+            if (task.isSuccessful() && task.getResult() != null) {
+                WeightSeries loaded = task.getResult();
+                series.clear();
+                for (int i = 0; i < loaded.size(); i++) {
+                    series.add(loaded.timestampAt(i), loaded.weightAt(i));
+                }
+            } else {
+                Log.e(TAG, "Cannot read the stored weight series: "
+                        + (task.getException() != null ? task.getException().getMessage() : "no result"));
+            }
+            if (seriesListener != null) {
+                seriesListener.onLoaded();
+            }
+            history.setValue(series);
+
+            // Step 2: listen for entries after the newest stored one; one stamped the same millisecond
+            // elsewhere is still pulled by step 3
+            long afterMillis = series.isEmpty() ? 0 : series.timestampAt(series.size() - 1);
+            registration = userRepository.listenToWeightProgress(userId, afterMillis, this::onSnapshot);
+
+            // Step 3: pull older entries changed since the last sync; the pull stores them locally,
+            // and the stored changes reach the series like any other write
+            userRepository.syncWeightProgress(userId);
+        });
+    }
+
+    /**
+     * Stop syncing. The entries loaded so far stay available.
+     */
+    public void stop() {
+        started = false;
+        userRepository.closeLocalWeightSeries(changeListener);
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    private void onSnapshot(QuerySnapshot snapshot, FirebaseFirestoreException error) {
+        if (error != null || snapshot == null) {
+            Log.e(TAG, "Weight history listener failed: " + (error != null ? error.getMessage() : "no snapshot"));
+            return;
+        }
+
+        List<WeightProgress> changedEntries = new ArrayList<>();
+        List<String> removedIds = new ArrayList<>();
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            if (change.getType() == DocumentChange.Type.REMOVED
+                    && UserRepository.isLegacyProgress(change.getDocument())) {
+                continue; // Moved to the user's subcollection by the migration, not deleted
+            }
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                removedIds.add(change.getDocument().getId());
+            } else {
+                changedEntries.add(UserRepository.toWeightProgress(change.getDocument()));
+            }
+        }
+
+        if (!changedEntries.isEmpty() || !removedIds.isEmpty()) {
+            userRepository.storeWeightProgressChanges(changedEntries, removedIds);
+        }
+    }
+
+    /**
+     * Called on the local executor after a write changed a stored history
+     */
+    private void onStoredChanges(LocalDataSource.WeightChanges changes) {
+        mainHandler.post(() -> apply(changes));
+    }
+
+    private void apply(LocalDataSource.WeightChanges changes) {
+        if (!started) {
+            return;
+        }
+        boolean changed = false;
+        // Removals first, so an edited entry leaves its old point before taking the new one
+        for (WeightProgress entry : changes.getRemoved()) {
+            if (!userId.equals(entry.getUserId())) {
+                continue;
+            }
+            int index = series.indexOf(entry.getDate().getTime(), entry.getWeight());
+            if (index >= 0) {
+                series.removeAt(index);
+                changed = true;
+                if (seriesListener != null) {
+                    seriesListener.onRemoved(index);
+                }
+            }
+        }
+        for (WeightProgress entry : changes.getAdded()) {
+            if (!userId.equals(entry.getUserId())) {
+                continue;
+            }
+            int index = series.add(entry.getDate().getTime(), entry.getWeight());
+            changed = true;
+            if (seriesListener != null) {
+                seriesListener.onInserted(index);
+            }
+        }
+        if (changed) {
+            history.setValue(series);
+        }
+    }
+
+    /**
+     * @return ID of the user whose history this is
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Set the listener told about each change to the series, before its emission on getHistory
+     * @param listener Listener, or null to remove it
+     */
+    public void setSeriesListener(SeriesListener listener) {
+        this.seriesListener = listener;
+    }
+
+    /**
+     * Get the history as primitive columns, oldest first. Emits the same series after each batch
+     * of changes, which are applied to it in place on the main thread; do not modify it.
+     */
+    public LiveData<WeightSeries> getHistory() {
+        return history;
+    }
+
+    /**
+     * Get the series, empty until the stored history has been read
+     */
+    public WeightSeries getSeries() {
+        return series;
+    }
+}
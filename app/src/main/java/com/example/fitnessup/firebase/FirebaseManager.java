@@ -11,21 +11,33 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
 
 /**
  * Centralized manager for Firebase services initialization and configuration.
  * Follows the singleton pattern to ensure only one instance exists throughout the app.
+ * Firestore keeps an offline cache within a byte budget: past it, the least recently used
+ * documents not held by a listener or a pending write are collected.
  */
 public class FirebaseManager {
     private static final String TAG = "FirebaseManager";
     
+    /**
+     * Default Firestore cache budget: a profile and a decade of daily weigh-ins take well under 10 MB,
+     * the rest leaves room for rollups and legacy entries
+     */
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 40L * 1024 * 1024;
+    // Smallest budget Firestore accepts
+    private static final long MIN_CACHE_SIZE_BYTES = 1024 * 1024;
+    
     private static FirebaseManager instance;
     
     private final FirebaseAuth firebaseAuth;
     private final FirebaseFirestore firestore;
+    private final long cacheSizeBytes;
     
     // Private constructor to enforce singleton pattern
-    private FirebaseManager(Context context) {
+    private FirebaseManager(Context context, long cacheSizeBytes) {
         // Initialize Firebase
         if (FirebaseApp.getApps(context).isEmpty()) {
             FirebaseApp.initializeApp(context);
@@ -36,26 +48,41 @@ public class FirebaseManager {
         firebaseAuth = FirebaseAuth.getInstance();
         firestore = FirebaseFirestore.getInstance();
         
-        // Configure Firestore settings
+        // Configure Firestore settings: offline persistence within the cache budget
+        this.cacheSizeBytes = Math.max(cacheSizeBytes, MIN_CACHE_SIZE_BYTES);
         FirebaseFirestoreSettings settings = new FirebaseFirestoreSettings.Builder()
-                .setPersistenceEnabled(true) // Enable offline persistence
-                .setCacheSizeBytes(FirebaseFirestoreSettings.CACHE_SIZE_UNLIMITED) // Set cache size
+                .setLocalCacheSettings(PersistentCacheSettings.newBuilder()
+                        .setSizeBytes(this.cacheSizeBytes)
+                        .build())
                 .build();
         firestore.setFirestoreSettings(settings);
+        Log.d(TAG, "Firestore cache budget: " + this.cacheSizeBytes + " bytes");
     }
     
     /**
-     * Initialize the FirebaseManager singleton with application context.
+     * Initialize the FirebaseManager singleton with application context and the default cache budget.
      * Should be called from Application class onCreate().
      *
      * @param application Application instance
      * @return FirebaseManager singleton instance
      */
     public static FirebaseManager initialize(@NonNull Application application) {
+        return initialize(application, DEFAULT_CACHE_SIZE_BYTES);
+    }
+    
+    /**
+     * Initialize the FirebaseManager singleton with application context and a Firestore cache budget.
+     * The budget only applies to the first call, before Firestore is used.
+     *
+     * @param application Application instance
+     * @param cacheSizeBytes Size the Firestore cache is kept under; raised to Firestore's 1 MB minimum
+     * @return FirebaseManager singleton instance
+     */
+    public static FirebaseManager initialize(@NonNull Application application, long cacheSizeBytes) {
         if (instance == null) {
             synchronized (FirebaseManager.class) {
                 if (instance == null) {
-                    instance = new FirebaseManager(application.getApplicationContext());
+                    instance = new FirebaseManager(application.getApplicationContext(), cacheSizeBytes);
                 }
             }
         }
@@ -94,6 +121,15 @@ public class FirebaseManager {
         return firestore;
     }
     
+    /**
+     * Get the Firestore cache budget.
+     *
+     * @return Size in bytes the Firestore cache is kept under
+     */
+    public long getCacheSizeBytes() {
+        return cacheSizeBytes;
+    }
+    
     /**
      * Get the current Firebase user.
      *
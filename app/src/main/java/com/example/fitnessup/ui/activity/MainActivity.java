@@ -20,6 +20,7 @@ import com.example.fitnessup.data.model.NutritionCalculation;
 import com.example.fitnessup.data.model.User;
 import com.example.fitnessup.data.model.WeightProgress;
 import com.example.fitnessup.ui.viewmodel.AuthViewModel;
+import com.example.fitnessup.ui.viewmodel.DashboardState;
 import com.example.fitnessup.ui.viewmodel.DashboardViewModel;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -46,9 +47,12 @@ public class MainActivity extends AppCompatActivity {
     private TextView currentWeightTextView;
     private TextView targetWeightTextView;
     private TextView lastWeightUpdateTextView;
+    private TextView weightProjectionTextView;
     private TextView calorieTargetTextView;
     private TextView bmrTextView;
     private TextView tdeeTextView;
+    private TextView adaptiveTdeeTextView;
+    private View adaptiveTdeeRow;
     private TextView goalTextView;
     private TextView proteinTextView;
     private TextView carbsTextView;
@@ -96,9 +100,12 @@ public class MainActivity extends AppCompatActivity {
         currentWeightTextView = findViewById(R.id.currentWeightTextView);
         targetWeightTextView = findViewById(R.id.targetWeightTextView);
         lastWeightUpdateTextView = findViewById(R.id.lastWeightUpdateTextView);
+        weightProjectionTextView = findViewById(R.id.weightProjectionTextView);
         calorieTargetTextView = findViewById(R.id.calorieTargetTextView);
         bmrTextView = findViewById(R.id.bmrTextView);
         tdeeTextView = findViewById(R.id.tdeeTextView);
+        adaptiveTdeeTextView = findViewById(R.id.adaptiveTdeeTextView);
+        adaptiveTdeeRow = findViewById(R.id.adaptiveTdeeRow);
         goalTextView = findViewById(R.id.goalTextView);
         proteinTextView = findViewById(R.id.proteinTextView);
         carbsTextView = findViewById(R.id.carbsTextView);
@@ -145,29 +152,8 @@ public class MainActivity extends AppCompatActivity {
     }
     
     private void observeViewModel() {
-        // Observe user profile
-        dashboardViewModel.getUserProfile().observe(this, user -> {
-            if (user != null) {
-                updateUserInfo(user);
-            }
-        });
-        
-        // Observe latest weight
-        dashboardViewModel.getLatestWeight().observe(this, weightProgress -> {
-            if (weightProgress != null) {
-                updateWeightInfo(weightProgress);
-            }
-        });
-        
-        // Observe nutrition calculation
-        dashboardViewModel.getNutritionCalculation().observe(this, nutritionCalculation -> {
-            if (nutritionCalculation != null) {
-                updateNutritionInfo(nutritionCalculation);
-                nutritionCard.setVisibility(View.VISIBLE);
-            } else {
-                nutritionCard.setVisibility(View.GONE);
-            }
-        });
+        // Render the whole dashboard from one state, so every card shows the same inputs
+        dashboardViewModel.getDashboardState().observe(this, this::renderDashboard);
         
         // Observe recommendation
         dashboardViewModel.getRecommendation().observe(this, recommendation -> {
@@ -192,6 +178,43 @@ public class MainActivity extends AppCompatActivity {
         });
     }
     
+    private void renderDashboard(DashboardState state) {
+        if (state == null) {
+            return;
+        }
+        if (state.getUser() != null) {
+            updateUserInfo(state.getUser());
+        }
+        if (state.getLatestWeight() != null) {
+            updateWeightInfo(state.getLatestWeight());
+        }
+        if (state.getWeightProjection() != null) {
+            weightProjectionTextView.setText(state.getWeightProjection());
+        }
+        
+        NutritionCalculation nutritionCalculation = state.getNutritionCalculation();
+        if (nutritionCalculation != null) {
+            updateNutritionInfo(nutritionCalculation);
+            nutritionCard.setVisibility(View.VISIBLE);
+        } else {
+            nutritionCard.setVisibility(View.GONE);
+        }
+        
+        // The TDEE learned from weight history
+        NutritionCalculation adaptive = state.getAdaptiveNutritionCalculation();
+        if (adaptive != null) {
+            DecimalFormat df = new DecimalFormat("#");
+            adaptiveTdeeTextView.setText(df.format(adaptive.getTdee()) + " kkal (target "
+                    + df.format(adaptive.getDailyCalorieTarget()) + " kkal)");
+            adaptiveTdeeRow.setVisibility(View.VISIBLE);
+        } else {
+            adaptiveTdeeRow.setVisibility(View.GONE);
+        }
+        
+        // Runs after the next layout pass, i.e. once the state is on screen
+        nutritionCard.post(dashboardViewModel::onDashboardRendered);
+    }
+    
     private void updateUserInfo(User user) {
         userNameTextView.setText(getString(R.string.greeting, user.getName()));
         targetWeightTextView.setText(getString(R.string.target_weight_format, user.getTargetWeight()));
@@ -19,11 +19,15 @@ import androidx.lifecycle.ViewModelProvider;
 import com.example.fitnessup.R;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
 import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+import com.example.fitnessup.util.calculator.ScenarioSweepCalculator;
 import com.example.fitnessup.ui.viewmodel.AuthViewModel;
 import com.example.fitnessup.ui.viewmodel.DashboardViewModel;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.Locale;
+
 /**
  * Activity for displaying and editing user profile information.
  */
@@ -40,6 +44,7 @@ public class ProfileActivity extends AppCompatActivity {
     private EditText heightEditText;
     private Spinner activityLevelSpinner;
     private EditText targetWeightEditText;
+    private TextView scenarioTextView;
     private Button saveButton;
     private Button logoutButton;
     private ProgressBar progressBar;
@@ -89,6 +94,7 @@ public class ProfileActivity extends AppCompatActivity {
         heightEditText = findViewById(R.id.heightEditText);
         activityLevelSpinner = findViewById(R.id.activityLevelSpinner);
         targetWeightEditText = findViewById(R.id.targetWeightEditText);
+        scenarioTextView = findViewById(R.id.scenarioTextView);
         saveButton = findViewById(R.id.saveButton);
         logoutButton = findViewById(R.id.logoutButton);
         progressBar = findViewById(R.id.progressBar);
@@ -142,6 +148,20 @@ public class ProfileActivity extends AppCompatActivity {
             }
         });
         
+        // Re-run the scenario sweep in the background whenever the nutrition inputs change
+        dashboardViewModel.getNutritionCalculation().observe(this, nutrition -> {
+            if (nutrition != null) {
+                dashboardViewModel.runScenarioSweep();
+            }
+        });
+        
+        // Observe scenario sweep results
+        dashboardViewModel.getScenarioGrid().observe(this, grid -> {
+            if (grid != null) {
+                renderScenarios(grid);
+            }
+        });
+        
         // Observe loading state
         dashboardViewModel.isLoading().observe(this, isLoading -> {
             progressBar.setVisibility(isLoading ? View.VISIBLE : View.GONE);
@@ -172,6 +192,57 @@ public class ProfileActivity extends AppCompatActivity {
         // In a full implementation, you would set the spinner selection based on user.getActivityLevel()
     }
     
+    private void renderScenarios(ScenarioSweepCalculator.Grid grid) {
+        String[] activityLabels = getResources().getStringArray(R.array.activity_levels);
+        double[] factors = grid.getCalorieFactors();
+        
+        // Use the macro ratio set of the user's current goal
+        int ratioSet = NutritionCalculator.GOAL_MAINTENANCE;
+        if (dashboardViewModel.getNutritionCalculation().getValue() != null) {
+            String goal = dashboardViewModel.getNutritionCalculation().getValue().getGoal();
+            for (int i = 0; i < grid.getMacroRatios().length; i++) {
+                if (NutritionCalculator.goalName(i).equals(goal)) {
+                    ratioSet = i;
+                }
+            }
+        }
+        
+        StringBuilder text = new StringBuilder("Kalori harian (kkal) per perubahan kalori:\n");
+        for (double factor : factors) {
+            text.append(String.format(Locale.getDefault(), "%5s", formatFactor(factor)));
+        }
+        for (int activity = 0; activity < grid.getActivityMultipliers().length; activity++) {
+            String label = activity < activityLabels.length
+                    ? activityLabels[activity].replace("Aktivitas ", "") : String.valueOf(activity);
+            text.append("\n").append(label).append("\n");
+            for (int factor = 0; factor < factors.length; factor++) {
+                text.append(String.format(Locale.getDefault(), "%5.0f",
+                        grid.get(activity, factor, ratioSet, ScenarioSweepCalculator.Grid.CALORIES)));
+            }
+        }
+        
+        // Macro breakdown for the user's own activity level
+        User user = dashboardViewModel.getUserProfile().getValue();
+        if (user != null) {
+            int activity = NutritionCalculator.activityCode(user.getActivityLevel());
+            text.append("\n\nMakro pada tingkat aktivitas Anda (P/K/L gram):");
+            for (int factor = 0; factor < factors.length; factor++) {
+                text.append(String.format(Locale.getDefault(), "\n%-6s %5.0f kkal  %4.0f / %4.0f / %4.0f",
+                        formatFactor(factors[factor]),
+                        grid.get(activity, factor, ratioSet, ScenarioSweepCalculator.Grid.CALORIES),
+                        grid.get(activity, factor, ratioSet, ScenarioSweepCalculator.Grid.PROTEIN),
+                        grid.get(activity, factor, ratioSet, ScenarioSweepCalculator.Grid.CARB),
+                        grid.get(activity, factor, ratioSet, ScenarioSweepCalculator.Grid.FAT)));
+            }
+        }
+        scenarioTextView.setText(text.toString());
+    }
+    
+    private static String formatFactor(double factor) {
+        long percent = Math.round((factor - 1) * 100);
+        return percent == 0 ? "0%" : String.format(Locale.getDefault(), "%+d%%", percent);
+    }
+    
     private boolean validateInput() {
         boolean isValid = true;
         
@@ -4,6 +4,8 @@ import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
@@ -13,14 +15,19 @@ import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.core.widget.NestedScrollView;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.fitnessup.R;
 import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.data.repository.WeightHistoryExporter;
 import com.example.fitnessup.ui.adapter.WeightHistoryAdapter;
 import com.example.fitnessup.ui.viewmodel.ProgressViewModel;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
@@ -44,14 +51,35 @@ public class ProgressActivity extends AppCompatActivity {
     // UI components
     private Spinner timeRangeSpinner;
     private TextView trendTextView;
+    private TextView windowStatsTextView;
+    private TextView importStatusTextView;
+    private TextView exportStatusTextView;
     private RecyclerView weightHistoryRecyclerView;
     private WeightHistoryAdapter adapter;
+    private NestedScrollView progressScrollView;
     private FloatingActionButton addWeightFab;
     private View chartContainer;
     private View emptyStateView;
     private View loadingView;
     private BottomNavigationView bottomNavigationView;
     
+    // File types offered when importing a history from another app
+    private static final String[] IMPORT_MIME_TYPES = {
+            "text/csv", "text/comma-separated-values", "text/plain", "application/json"};
+    
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), uri -> {
+                if (uri != null) {
+                    viewModel.importWeightHistory(uri);
+                }
+            });
+    
+    // One launcher per export format, since the created document's MIME type is fixed per contract
+    private final ActivityResultLauncher<String> csvExportLauncher =
+            registerExportLauncher(WeightHistoryExporter.Format.CSV);
+    private final ActivityResultLauncher<String> binaryExportLauncher =
+            registerExportLauncher(WeightHistoryExporter.Format.BINARY);
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -84,7 +112,11 @@ public class ProgressActivity extends AppCompatActivity {
     private void initializeViews() {
         timeRangeSpinner = findViewById(R.id.timeRangeSpinner);
         trendTextView = findViewById(R.id.trendTextView);
+        windowStatsTextView = findViewById(R.id.windowStatsTextView);
+        importStatusTextView = findViewById(R.id.importStatusTextView);
+        exportStatusTextView = findViewById(R.id.exportStatusTextView);
         weightHistoryRecyclerView = findViewById(R.id.weightHistoryRecyclerView);
+        progressScrollView = findViewById(R.id.progressScrollView);
         addWeightFab = findViewById(R.id.addWeightFab);
         chartContainer = findViewById(R.id.chartContainer);
         emptyStateView = findViewById(R.id.emptyStateView);
@@ -128,6 +160,16 @@ public class ProgressActivity extends AppCompatActivity {
         adapter = new WeightHistoryAdapter(new ArrayList<>());
         weightHistoryRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         weightHistoryRecyclerView.setAdapter(adapter);
+        
+        // The list sits inside the scroll view, so page on the scroll view nearing its bottom
+        progressScrollView.setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener)
+                (v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
+                    View content = v.getChildAt(0);
+                    int remaining = content.getMeasuredHeight() - (scrollY + v.getMeasuredHeight());
+                    if (scrollY > oldScrollY && remaining < v.getMeasuredHeight() / 2) {
+                        viewModel.loadMoreHistory();
+                    }
+                });
     }
     
     private void setupListeners() {
@@ -176,8 +218,8 @@ public class ProgressActivity extends AppCompatActivity {
     }
     
     private void observeViewModel() {
-        // Observe weight history
-        viewModel.getWeightHistory().observe(this, weightProgressList -> {
+        // Observe the paged history list
+        viewModel.getPagedHistory().observe(this, weightProgressList -> {
             if (weightProgressList != null) {
                 updateWeightHistory(weightProgressList);
             }
@@ -190,6 +232,18 @@ public class ProgressActivity extends AppCompatActivity {
             }
         });
         
+        // Observe the count and average of the selected range, aggregated by Firestore
+        viewModel.getWindowStats().observe(this, stats -> {
+            if (stats == null) {
+                windowStatsTextView.setVisibility(View.GONE);
+                return;
+            }
+            windowStatsTextView.setText(stats.getCount() == 0
+                    ? getString(R.string.window_stats_empty)
+                    : getString(R.string.window_stats_format, (int) stats.getCount(), stats.getAverageWeight()));
+            windowStatsTextView.setVisibility(View.VISIBLE);
+        });
+        
         // Observe weight trend
         viewModel.getWeightTrend().observe(this, trend -> {
             if (trend != null) {
@@ -227,6 +281,33 @@ public class ProgressActivity extends AppCompatActivity {
             timeRangeSpinner.setSelection(position);
         });
         
+        // Observe history import progress
+        viewModel.getImportProgress().observe(this, progress -> {
+            if (progress == null) {
+                return;
+            }
+            importStatusTextView.setVisibility(progress.isDone() ? View.GONE : View.VISIBLE);
+            importStatusTextView.setText(progress.describe());
+            if (progress.isDone()) {
+                // Shown once: the finished progress is cleared, so re-attaching does not show it again
+                Toast.makeText(ProgressActivity.this, progress.describe(), Toast.LENGTH_LONG).show();
+                viewModel.clearFinishedImport();
+            }
+        });
+        
+        // Observe history export progress
+        viewModel.getExportProgress().observe(this, progress -> {
+            if (progress == null) {
+                return;
+            }
+            exportStatusTextView.setVisibility(progress.isDone() ? View.GONE : View.VISIBLE);
+            exportStatusTextView.setText(progress.describe());
+            if (progress.isDone()) {
+                Toast.makeText(ProgressActivity.this, progress.describe(), Toast.LENGTH_LONG).show();
+                viewModel.clearFinishedExport();
+            }
+        });
+        
         // Observe loading state
         viewModel.isLoading().observe(this, isLoading -> {
             loadingView.setVisibility(isLoading ? View.VISIBLE : View.GONE);
@@ -250,7 +331,14 @@ public class ProgressActivity extends AppCompatActivity {
             weightHistoryRecyclerView.setVisibility(View.VISIBLE);
             chartContainer.setVisibility(View.VISIBLE);
             
-            adapter.updateData(weightProgressList);
+            adapter.submitPage(weightProgressList, viewModel.isHistoryEndReached());
+            
+            // Keep paging while the loaded entries do not fill the screen yet
+            progressScrollView.post(() -> {
+                if (!progressScrollView.canScrollVertically(1)) {
+                    viewModel.loadMoreHistory();
+                }
+            });
         }
     }
     
@@ -333,6 +421,51 @@ public class ProgressActivity extends AppCompatActivity {
         });
     }
     
+    private ActivityResultLauncher<String> registerExportLauncher(WeightHistoryExporter.Format format) {
+        return registerForActivityResult(new ActivityResultContracts.CreateDocument(format.getMimeType()), uri -> {
+            if (uri != null) {
+                viewModel.exportWeightHistory(uri, format);
+            }
+        });
+    }
+    
+    private void showExportFormatDialog() {
+        if (viewModel.isExportRunning()) {
+            Toast.makeText(this, "Ekspor sebelumnya masih berjalan", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String[] formats = {"CSV (spreadsheet)", "Biner ringkas"};
+        new AlertDialog.Builder(this)
+                .setTitle("Ekspor Riwayat")
+                .setItems(formats, (dialog, which) -> {
+                    if (which == 0) {
+                        csvExportLauncher.launch(WeightHistoryExporter.Format.CSV.getFileName());
+                    } else {
+                        binaryExportLauncher.launch(WeightHistoryExporter.Format.BINARY.getFileName());
+                    }
+                })
+                .show();
+    }
+    
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.progress_menu, menu);
+        return true;
+    }
+    
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == R.id.action_import_history) {
+            importLauncher.launch(IMPORT_MIME_TYPES);
+            return true;
+        }
+        if (item.getItemId() == R.id.action_export_history) {
+            showExportFormatDialog();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+    
     @Override
     public boolean onSupportNavigateUp() {
         onBackPressed();
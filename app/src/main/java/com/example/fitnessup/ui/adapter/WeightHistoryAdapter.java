@@ -18,9 +18,15 @@ import java.util.Locale;
 
 /**
  * Adapter for displaying weight history entries in a RecyclerView.
+ * Entries are newest first. When fed pages through submitPage(), new pages are inserted
+ * at the end and a loading row is shown below the last entry until the history is exhausted.
  */
-public class WeightHistoryAdapter extends RecyclerView.Adapter<WeightHistoryAdapter.ViewHolder> {
+public class WeightHistoryAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+    private static final int VIEW_TYPE_ENTRY = 0;
+    private static final int VIEW_TYPE_LOADING = 1;
+    
     private List<WeightProgress> weightProgressList;
+    private boolean showLoadingFooter;
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMMM yyyy, HH:mm", Locale.getDefault());
     private final DecimalFormat weightFormat = new DecimalFormat("#.#");
 
@@ -28,16 +34,28 @@ public class WeightHistoryAdapter extends RecyclerView.Adapter<WeightHistoryAdap
         this.weightProgressList = weightProgressList;
     }
 
+    @Override
+    public int getItemViewType(int position) {
+        return position < weightProgressList.size() ? VIEW_TYPE_ENTRY : VIEW_TYPE_LOADING;
+    }
+
     @NonNull
     @Override
-    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_weight_history, parent, false);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == VIEW_TYPE_LOADING) {
+            return new LoadingViewHolder(inflater.inflate(R.layout.item_loading_footer, parent, false));
+        }
+        View view = inflater.inflate(R.layout.item_weight_history, parent, false);
         return new ViewHolder(view);
     }
 
     @Override
-    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder viewHolder, int position) {
+        if (!(viewHolder instanceof ViewHolder)) {
+            return;
+        }
+        ViewHolder holder = (ViewHolder) viewHolder;
         WeightProgress progress = weightProgressList.get(position);
         
         // Format and display weight
@@ -67,14 +85,14 @@ public class WeightHistoryAdapter extends RecyclerView.Adapter<WeightHistoryAdap
             holder.differenceTextView.setText(differenceText);
             holder.differenceTextView.setVisibility(View.VISIBLE);
         } else {
-            // This is the first entry (oldest), no difference to show
+            // This is the first entry (oldest), or the older entry is not loaded yet
             holder.differenceTextView.setVisibility(View.GONE);
         }
     }
 
     @Override
     public int getItemCount() {
-        return weightProgressList.size();
+        return weightProgressList.size() + (showLoadingFooter ? 1 : 0);
     }
     
     /**
@@ -83,8 +101,41 @@ public class WeightHistoryAdapter extends RecyclerView.Adapter<WeightHistoryAdap
      */
     public void updateData(List<WeightProgress> newData) {
         this.weightProgressList = newData;
+        this.showLoadingFooter = false;
         notifyDataSetChanged();
     }
+    
+    /**
+     * Show the entries loaded so far by a pager, animating only what changed
+     * @param loadedData All entries loaded so far, newest first
+     * @param endReached Whether the pager has loaded the whole history
+     */
+    public void submitPage(List<WeightProgress> loadedData, boolean endReached) {
+        int oldSize = weightProgressList.size();
+        boolean oldFooter = showLoadingFooter;
+        boolean appended = loadedData.size() >= oldSize && oldSize > 0
+                && sameEntry(weightProgressList.get(0), loadedData.get(0));
+        
+        this.weightProgressList = loadedData;
+        this.showLoadingFooter = !endReached && !loadedData.isEmpty();
+        
+        if (!appended) {
+            // First page, or the pager was refreshed
+            notifyDataSetChanged();
+            return;
+        }
+        
+        // The previous last entry can now show its difference to the next (older) one
+        notifyItemChanged(oldSize - 1);
+        if (oldFooter) {
+            notifyItemRemoved(oldSize);
+        }
+        notifyItemRangeInserted(oldSize, loadedData.size() - oldSize + (showLoadingFooter ? 1 : 0));
+    }
+    
+    private static boolean sameEntry(WeightProgress a, WeightProgress b) {
+        return a.getProgressId() != null && a.getProgressId().equals(b.getProgressId());
+    }
 
     /**
      * ViewHolder class for weight history items
@@ -101,4 +152,13 @@ public class WeightHistoryAdapter extends RecyclerView.Adapter<WeightHistoryAdap
             differenceTextView = itemView.findViewById(R.id.differenceTextView);
         }
     }
+    
+    /**
+     * ViewHolder for the loading row below the last loaded entry
+     */
+    static class LoadingViewHolder extends RecyclerView.ViewHolder {
+        LoadingViewHolder(@NonNull View itemView) {
+            super(itemView);
+        }
+    }
 }
\ No newline at end of file
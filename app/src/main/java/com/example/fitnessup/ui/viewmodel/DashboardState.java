@@ -0,0 +1,76 @@
+package com.example.fitnessup.ui.viewmodel;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.data.model.User;
+import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.util.series.ProgressSummary;
+
+/**
+ * Everything the dashboard shows, computed together from one profile, one progress summary and
+ * one adaptive TDEE state, so the screen never shows a calculation made from different inputs
+ * than the profile and weight next to it. A new state replaces the whole previous one.
+ * The summary is a copy owned by this state; do not modify it or the other objects.
+ */
+public final class DashboardState {
+    private final User user;
+    private final ProgressSummary progressSummary;
+    private final WeightProgress latestWeight;
+    private final NutritionCalculation nutritionCalculation;
+    private final NutritionCalculation adaptiveNutritionCalculation;
+    private final String weightProjection;
+
+    DashboardState(User user, ProgressSummary progressSummary, WeightProgress latestWeight,
+                   NutritionCalculation nutritionCalculation, NutritionCalculation adaptiveNutritionCalculation,
+                   String weightProjection) {
+        this.user = user;
+        this.progressSummary = progressSummary;
+        this.latestWeight = latestWeight;
+        this.nutritionCalculation = nutritionCalculation;
+        this.adaptiveNutritionCalculation = adaptiveNutritionCalculation;
+        this.weightProjection = weightProjection;
+    }
+
+    /**
+     * @return User profile, or null if it could not be loaded
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * @return Progress summary, or null if it could not be loaded
+     */
+    public ProgressSummary getProgressSummary() {
+        return progressSummary;
+    }
+
+    /**
+     * @return Latest weigh-in, or null if there is none
+     */
+    public WeightProgress getLatestWeight() {
+        return latestWeight;
+    }
+
+    /**
+     * @return Nutrition requirements, or null without both profile and weight
+     */
+    public NutritionCalculation getNutritionCalculation() {
+        return nutritionCalculation;
+    }
+
+    /**
+     * @return Nutrition requirements with the TDEE learned from weight history, or null until
+     * the estimate has learned from at least one interval
+     */
+    public NutritionCalculation getAdaptiveNutritionCalculation() {
+        return adaptiveNutritionCalculation;
+    }
+
+    /**
+     * @return Projected time to reach the target weight, or the message saying there is not yet
+     * enough data for it; null if neither profile nor weight could be loaded
+     */
+    public String getWeightProjection() {
+        return weightProjection;
+    }
+}
@@ -1,12 +1,12 @@
 package com.example.fitnessup.ui.viewmodel;
 
 import android.app.Application;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 
@@ -14,36 +14,89 @@ import com.example.fitnessup.R;
 import com.example.fitnessup.data.model.NutritionCalculation;
 import com.example.fitnessup.data.model.User;
 import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.data.repository.ReadPolicy;
 import com.example.fitnessup.data.repository.RecommendationRepository;
 import com.example.fitnessup.data.repository.UserRepository;
+import com.example.fitnessup.util.calculator.AdaptiveTdeeEstimator;
+import com.example.fitnessup.util.calculator.CompiledProfile;
+import com.example.fitnessup.util.calculator.IncrementalNutritionCalculator;
+import com.example.fitnessup.util.calculator.NutritionCalculationCache;
 import com.example.fitnessup.util.calculator.NutritionCalculator;
-import com.google.firebase.auth.FirebaseAuth;
+import com.example.fitnessup.util.calculator.ScenarioSweepCalculator;
+import com.example.fitnessup.util.calculator.WeightProjection;
+import com.example.fitnessup.util.series.ProgressSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.Source;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * ViewModel for the main dashboard screen.
  * Manages user profile data, nutrition calculations, and recommendations.
+ * Weight data comes from the progress summary in the user document, so loading the
+ * dashboard does not read the weight history.
+ * The profile, progress summary and adaptive TDEE state are read in parallel and joined once;
+ * nutrition, adaptive nutrition and the projection are then computed together on a background
+ * thread and published as one DashboardState.
+ * The summary and TDEE state are read under ReadPolicy.CACHE_THEN_SERVER: the copies cached by
+ * Firestore paint the dashboard without waiting for the network, and the server's replace them
+ * only if they changed.
  */
 public class DashboardViewModel extends AndroidViewModel {
     private static final String TAG = "DashboardViewModel";
 
     private final UserRepository userRepository;
+    private final NutritionCalculationCache nutritionCache;
     private RecommendationRepository recommendationRepository; // Removed final to allow initialization in try-catch
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
-    private final MediatorLiveData<NutritionCalculation> nutritionCalculation = new MediatorLiveData<>();
-    private LiveData<String> recommendation;
+    private final MutableLiveData<DashboardState> dashboardState = new MutableLiveData<>();
+    private final MutableLiveData<ScenarioSweepCalculator.Grid> scenarioGrid = new MutableLiveData<>();
+    private final LiveData<String> recommendation;
 
-    // Cached data
-    private LiveData<User> userProfile;
-    private LiveData<WeightProgress> latestWeight;
-    private LiveData<List<WeightProgress>> weightHistory;
+    // Parts of the dashboard state, for screens that only show some of it
+    private final LiveData<User> userProfile;
+    private final LiveData<ProgressSummary> progressSummary;
+    private final LiveData<WeightProgress> latestWeight;
+    private final LiveData<NutritionCalculation> nutritionCalculation;
+    private final LiveData<NutritionCalculation> adaptiveNutritionCalculation;
+    private final LiveData<String> weightProjectionMessage;
+
+    // Calculators keep state between loads; only touched on the compute thread
+    private final ExecutorService computeThread = Executors.newSingleThreadExecutor();
+    // Drops work once the ViewModel is cleared; nothing observes its results anymore
+    private final Executor computeExecutor = command -> {
+        if (!computeThread.isShutdown()) {
+            computeThread.execute(command);
+        }
+    };
+    private final IncrementalNutritionCalculator nutritionGraph = new IncrementalNutritionCalculator();
+    private final WeightProjection weightProjection = new WeightProjection();
+    private CompiledProfile compiledProfile; // Of the last profile pushed into the graph
+    private double currentWeight = Double.NaN; // Last weight pushed into the graph
+    private WeightProgress lastLatestWeight; // Reused while unchanged, so the latest weight does not emit again
+    private AdaptiveTdeeEstimator tdeeEstimator;
+    private boolean tdeeEstimatorConfirmed; // Read from the server rather than the cache, so it may be saved
+    private boolean tdeeEstimatorUnsaved; // Updated while not confirmed yet; saved if the server confirms it
+
+    // Main thread only
+    private int generation; // Incremented by each load, so results of an older load are dropped
+    private long loadStartedAt; // elapsedRealtime() when the pending load issued its reads, 0 once rendered
+    private long lastLoadMillis = -1;
 
     public DashboardViewModel(@NonNull Application application) {
         super(application);
         userRepository = UserRepository.getInstance();
+        nutritionCache = NutritionCalculationCache.getInstance();
         
         // Initialize with a null value by default
         recommendationRepository = null;
@@ -56,6 +109,30 @@ public class DashboardViewModel extends AndroidViewModel {
             Log.e(TAG, "Error getting API key: " + e.getMessage());
             errorMessage.setValue("Unable to initialize AI recommendations: " + e.getMessage());
         }
+        
+        // A part only emits when a new state actually changed it
+        userProfile = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getUser));
+        progressSummary = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getProgressSummary));
+        latestWeight = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getLatestWeight));
+        nutritionCalculation = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getNutritionCalculation));
+        adaptiveNutritionCalculation = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getAdaptiveNutritionCalculation));
+        weightProjectionMessage = Transformations.distinctUntilChanged(
+                Transformations.map(dashboardState, DashboardState::getWeightProjection));
+        
+        // Get recommendation when nutrition calculation is available
+        if (recommendationRepository != null) {
+            RecommendationRepository repository = recommendationRepository;
+            recommendation = Transformations.switchMap(nutritionCalculation,
+                    nutrition -> nutrition != null ? repository.getNutritionRecommendation(nutrition) : null);
+        } else {
+            // Fallback if recommendation repository initialization failed
+            recommendation = new MutableLiveData<>("API key configuration issue. Recommendations unavailable.");
+        }
 
         // Initialize data when current user changes
         FirebaseUser currentUser = userRepository.getCurrentUser();
@@ -69,50 +146,299 @@ public class DashboardViewModel extends AndroidViewModel {
      * @param userId User ID to load data for
      */
     public void loadUserData(String userId) {
+        int loadGeneration = ++generation;
+        loadStartedAt = SystemClock.elapsedRealtime();
         isLoading.setValue(true);
         
-        // Clear any previous data
-        nutritionCalculation.setValue(null);
+        // Issue every read at once; the profile answers from the local database when it has one,
+        // so a pending edit shows, and stays out of the read policy
+        Task<User> syncedProfile = userRepository.syncUserProfile(userId);
+        Task<User> profile = userRepository.getLocalUserProfile(userId).continueWithTask(local ->
+                local.isSuccessful() && local.getResult() != null
+                        ? Tasks.forResult(local.getResult()) : syncedProfile);
         
-        // Load user profile
-        userProfile = userRepository.getUserProfile(userId);
+        // One document read for the weight data, however long the history is; the cached copy
+        // paints without the network, and the server copy replaces it only if it differs
+        ReadPolicy.CACHE_THEN_SERVER.read(source -> readInputs(userId, source), Inputs::content,
+                new ReadPolicy.Receiver<Inputs>() {
+                    @Override
+                    public void onValue(Inputs inputs, boolean fromServer) {
+                        if (loadGeneration != generation) {
+                            return;
+                        }
+                        if (inputs == null) {
+                            Log.w(TAG, "Progress summary unavailable");
+                        }
+                        profile.continueWith(computeExecutor, task -> {
+                            tdeeEstimator = inputs != null ? inputs.estimator : null;
+                            tdeeEstimatorConfirmed = fromServer;
+                            tdeeEstimatorUnsaved = false;
+                            return buildState(userId, latestProfile(profile, syncedProfile),
+                                    inputs != null ? inputs.summary : null);
+                        }).addOnCompleteListener(task -> {
+                            if (loadGeneration != generation) {
+                                return;
+                            }
+                            isLoading.setValue(false);
+                            if (!task.isSuccessful()) {
+                                errorMessage.setValue("Failed to load dashboard: " + task.getException().getMessage());
+                                return;
+                            }
+                            dashboardState.setValue(task.getResult());
+                            refreshProfile(loadGeneration, userId, syncedProfile);
+                        });
+                    }
+                    
+                    @Override
+                    public void onConfirmed() {
+                        if (loadGeneration != generation) {
+                            return;
+                        }
+                        // Queued behind the cached pass, whose estimator is the stored one
+                        profile.continueWith(computeExecutor, task -> {
+                            tdeeEstimatorConfirmed = true;
+                            if (tdeeEstimatorUnsaved) {
+                                tdeeEstimatorUnsaved = false;
+                                saveTdeeEstimate(userId);
+                            }
+                            return null;
+                        });
+                    }
+                });
+    }
+    
+    /**
+     * Read the summary and TDEE state from one source; from the cache, null if no summary is cached
+     */
+    private Task<Inputs> readInputs(String userId, Source source) {
+        Task<ProgressSummary> summary = userRepository.loadProgressSummary(userId, source);
+        Task<AdaptiveTdeeEstimator> estimate = userRepository.loadTdeeEstimate(userId, source);
+        return Tasks.whenAllComplete(summary, estimate).continueWith(task -> {
+            if (!summary.isSuccessful()) {
+                throw summary.getException();
+            }
+            if (summary.getResult() == null && source == Source.CACHE) {
+                return null;
+            }
+            return new Inputs(summary.getResult(), estimate.getResult());
+        });
+    }
+    
+    /**
+     * @return The synced profile once it has arrived, otherwise the one the load started with
+     */
+    private static User latestProfile(Task<User> profile, Task<User> syncedProfile) {
+        if (syncedProfile.isSuccessful() && syncedProfile.getResult() != null) {
+            return syncedProfile.getResult();
+        }
+        return profile.isSuccessful() ? profile.getResult() : null;
+    }
+    
+    /**
+     * A profile answered locally is refreshed once the sync has pulled the stored one
+     */
+    private void refreshProfile(int loadGeneration, String userId, Task<User> syncedProfile) {
+        syncedProfile.addOnSuccessListener(synced -> {
+            DashboardState current = dashboardState.getValue();
+            if (loadGeneration == generation && synced != null && current != null
+                    && !sameProfile(synced, current.getUser())) {
+                publish(loadGeneration, userId, synced, current.getProgressSummary());
+            }
+        });
+    }
+    
+    /**
+     * What the dashboard reads besides the profile: the progress summary and TDEE state, both
+     * from the user document
+     */
+    private static final class Inputs {
+        final ProgressSummary summary;
+        final AdaptiveTdeeEstimator estimator;
         
-        // Load latest weight
-        latestWeight = userRepository.getLatestWeight(userId);
+        Inputs(ProgressSummary summary, AdaptiveTdeeEstimator estimator) {
+            this.summary = summary;
+            this.estimator = estimator;
+        }
         
-        // Load weight history
-        weightHistory = userRepository.getWeightProgressHistory(userId);
+        /**
+         * What a cached and a revalidated read are compared by
+         */
+        Object content() {
+            return Arrays.asList(summary != null ? summary.toMap() : null,
+                    estimator != null ? estimator.toMap() : null);
+        }
+    }
+    
+    /**
+     * @return Whether two profiles have the same stored fields; a profile read again is a new object
+     */
+    private static boolean sameProfile(User a, User b) {
+        return a == b || (a != null && b != null && a.toMap().equals(b.toMap()));
+    }
+    
+    /**
+     * Compute a new state from a profile and summary on the compute thread and publish it,
+     * unless another load has started since
+     */
+    private void publish(int loadGeneration, String userId, User user, ProgressSummary summary) {
+        Tasks.call(computeExecutor, () -> buildState(userId, user, summary))
+                .addOnCompleteListener(task -> {
+                    if (loadGeneration != generation) {
+                        return;
+                    }
+                    if (task.isSuccessful()) {
+                        dashboardState.setValue(task.getResult());
+                    } else {
+                        errorMessage.setValue("Failed to update dashboard: " + task.getException().getMessage());
+                    }
+                });
+    }
+    
+    /**
+     * Push the inputs into the calculators and compute every derived value once. Runs on the
+     * compute thread; errors are reported and leave the affected value empty.
+     * @param userId User ID the data belongs to
+     * @param user Profile, or null if it could not be loaded
+     * @param summary Progress summary, or null if it could not be loaded
+     * @return The new state
+     */
+    private DashboardState buildState(String userId, User user, ProgressSummary summary) {
+        WeightProgress latest = null;
+        if (summary != null && !summary.isEmpty()) {
+            WeightProgress last = lastLatestWeight;
+            latest = last != null && Objects.equals(last.getProgressId(), summary.getLatestEntryId())
+                    && last.getWeight() == summary.getLatestWeight()
+                    && last.getDate().getTime() == summary.getLatestTimestampMillis()
+                    ? last
+                    : new WeightProgress(summary.getLatestEntryId(), userId, summary.getLatestWeight(),
+                            new Timestamp(new Date(summary.getLatestTimestampMillis())));
+        }
+        lastLatestWeight = latest;
         
-        // Calculate nutrition when both user profile and latest weight are available
-        nutritionCalculation.addSource(userProfile, user -> calculateNutrition(user, latestWeight.getValue()));
-        nutritionCalculation.addSource(latestWeight, weight -> calculateNutrition(userProfile.getValue(), weight));
+        // The shared cache answers a profile and weight seen before, also by another ViewModel, with
+        // the same instance, so observers see no change. On a miss the field-level deltas go into the
+        // nutrition graph, which recalculates only the stages they affect.
+        NutritionCalculation nutrition = null;
+        if (user != null) {
+            compiledProfile = CompiledProfile.compile(user);
+            nutritionGraph.applyProfile(user);
+        }
+        if (latest != null) {
+            currentWeight = latest.getWeight();
+        }
+        if (compiledProfile != null && !Double.isNaN(currentWeight)) {
+            try {
+                nutrition = nutritionCache.get(compiledProfile, currentWeight, (profile, weight, result) -> {
+                    nutritionGraph.setWeight(weight);
+                    return nutritionGraph.calculate(result);
+                });
+            } catch (Exception e) {
+                errorMessage.postValue("Error calculating nutrition: " + e.getMessage());
+            }
+        }
         
-        // Get recommendation when nutrition calculation is available
-        if (recommendationRepository != null) {
-            recommendation = Transformations.switchMap(nutritionCalculation, 
-                    nutrition -> nutrition != null ? recommendationRepository.getNutritionRecommendation(nutrition) : null);
-        } else {
-            // Fallback if recommendation repository initialization failed
-            recommendation = new MutableLiveData<>("API key configuration issue. Recommendations unavailable.");
+        // Re-anchor the time-to-goal projection on profile changes and new weigh-ins
+        String projection = null;
+        if (user != null || latest != null) {
+            if (user != null) {
+                weightProjection.setProfile(compiledProfile);
+            }
+            if (latest != null) {
+                weightProjection.reanchor(latest.getDate().getTime(), latest.getWeight());
+            }
+            projection = weightProjection.describe();
         }
         
-        isLoading.setValue(false);
+        return new DashboardState(user, summary, latest, nutrition,
+                calculateAdaptiveNutrition(userId, user, latest), projection);
     }
     
     /**
-     * Calculate nutrition requirements based on user profile and current weight
+     * Update the adaptive TDEE estimator with the latest weigh-in if it has not seen it yet and
+     * recalculate nutrition with the learned TDEE. Each new entry is an O(1) update; the state is
+     * saved back so the next launch resumes instead of replaying the whole history. Weigh-ins
+     * made between two dashboard loads only reach it through the latest one, which the filter's
+     * drift term allows for. Runs on the compute thread.
+     * @param userId User ID the state belongs to
+     * @return Adaptive nutrition, or null until the estimate has learned from at least one interval
      */
-    private void calculateNutrition(User user, WeightProgress latestWeight) {
-        if (user == null || latestWeight == null) {
-            return; // Can't calculate without both pieces of data
+    private NutritionCalculation calculateAdaptiveNutrition(String userId, User user, WeightProgress latest) {
+        AdaptiveTdeeEstimator estimator = tdeeEstimator;
+        if (user == null || latest == null || estimator == null) {
+            return null;
+        }
+        
+        CompiledProfile profile = CompiledProfile.compile(user);
+        // A cached state may be older than the stored one; it is saved once the server confirms it
+        if (estimator.update(profile, latest.getDate().getTime(), latest.getWeight())) {
+            if (tdeeEstimatorConfirmed) {
+                saveTdeeEstimate(userId);
+            } else {
+                tdeeEstimatorUnsaved = true;
+            }
         }
         
+        // Only publish once the estimate has learned from at least one interval
+        if (estimator.getObservationCount() < 2) {
+            return null;
+        }
         try {
-            NutritionCalculation calculation = NutritionCalculator.calculateNutrition(user, latestWeight.getWeight());
-            nutritionCalculation.setValue(calculation);
+            return NutritionCalculator.calculateAdaptiveNutrition(profile,
+                    latest.getWeight(), estimator.getTdeeAdjustment(), new NutritionCalculation());
         } catch (Exception e) {
-            errorMessage.setValue("Error calculating nutrition: " + e.getMessage());
+            errorMessage.postValue("Error calculating adaptive nutrition: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private void saveTdeeEstimate(String userId) {
+        userRepository.saveTdeeEstimate(userId, tdeeEstimator)
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to save TDEE estimate: " + e.getMessage()));
+    }
+    
+    /**
+     * Record that the screen has rendered the latest state. The first call after a load logs the
+     * time from issuing its reads to the first rendered state.
+     */
+    public void onDashboardRendered() {
+        if (loadStartedAt == 0 || dashboardState.getValue() == null) {
+            return;
+        }
+        lastLoadMillis = SystemClock.elapsedRealtime() - loadStartedAt;
+        loadStartedAt = 0;
+        Log.d(TAG, "Dashboard rendered " + lastLoadMillis + " ms after its reads were issued");
+    }
+    
+    /**
+     * @return Milliseconds from issuing the reads of the last load to its first rendered state,
+     * or -1 if no load has been rendered yet
+     */
+    public long getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+    
+    /**
+     * Sweep what-if scenarios (activity level × calorie factor × macro ratios) for the current
+     * profile and weight on the shared fork-join pool, and post the grid when done
+     */
+    public void runScenarioSweep() {
+        DashboardState state = dashboardState.getValue();
+        User user = state != null ? state.getUser() : null;
+        WeightProgress weight = state != null ? state.getLatestWeight() : null;
+        if (user == null || weight == null) {
+            return; // Can't sweep without both profile and weight
         }
+        
+        // Snapshot the inputs on the main thread; the sweep itself never touches LiveData values
+        CompiledProfile profile = CompiledProfile.compile(user);
+        double currentWeight = weight.getWeight();
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                scenarioGrid.postValue(ScenarioSweepCalculator.sweep(profile, currentWeight));
+            } catch (Exception e) {
+                errorMessage.postValue("Error calculating scenarios: " + e.getMessage());
+            }
+        });
     }
     
     /**
@@ -131,8 +457,14 @@ public class DashboardViewModel extends AndroidViewModel {
         userRepository.addWeightProgress(newProgress)
                 .addOnSuccessListener(documentReference -> {
                     isLoading.setValue(false);
-                    // Reload the latest weight
-                    loadUserData(user.getUid());
+                    // Fold the entry into a copy of the loaded summary instead of reading it again
+                    DashboardState state = dashboardState.getValue();
+                    if (state != null && state.getProgressSummary() != null) {
+                        ProgressSummary summary = new ProgressSummary();
+                        summary.merge(state.getProgressSummary());
+                        summary.add(newProgress.getDate().getTime(), weight, documentReference.getId());
+                        publish(generation, user.getUid(), state.getUser(), summary);
+                    }
                 })
                 .addOnFailureListener(e -> {
                     isLoading.setValue(false);
@@ -149,6 +481,8 @@ public class DashboardViewModel extends AndroidViewModel {
         userRepository.updateUserProfile(user)
                 .addOnSuccessListener(aVoid -> {
                     isLoading.setValue(false);
+                    // Drop calculations based on the old profile
+                    nutritionCache.invalidateAll();
                     // Reload user data to refresh calculations
                     loadUserData(user.getUserId());
                 })
@@ -172,6 +506,13 @@ public class DashboardViewModel extends AndroidViewModel {
         return errorMessage;
     }
     
+    /**
+     * Get the whole dashboard, one consistent state at a time
+     */
+    public LiveData<DashboardState> getDashboardState() {
+        return dashboardState;
+    }
+    
     /**
      * Get user profile data
      */
@@ -187,10 +528,10 @@ public class DashboardViewModel extends AndroidViewModel {
     }
     
     /**
-     * Get weight history
+     * Get the progress summary: entry count, first, lowest and highest weight, and trend
      */
-    public LiveData<List<WeightProgress>> getWeightHistory() {
-        return weightHistory;
+    public LiveData<ProgressSummary> getProgressSummary() {
+        return progressSummary;
     }
     
     /**
@@ -200,10 +541,37 @@ public class DashboardViewModel extends AndroidViewModel {
         return nutritionCalculation;
     }
     
+    /**
+     * Get the projected time to reach the target weight
+     */
+    public LiveData<String> getWeightProjection() {
+        return weightProjectionMessage;
+    }
+    
+    /**
+     * Get the nutrition calculation based on the TDEE learned from weight history
+     */
+    public LiveData<NutritionCalculation> getAdaptiveNutritionCalculation() {
+        return adaptiveNutritionCalculation;
+    }
+    
+    /**
+     * Get the latest what-if scenario grid
+     */
+    public LiveData<ScenarioSweepCalculator.Grid> getScenarioGrid() {
+        return scenarioGrid;
+    }
+    
     /**
      * Get nutrition recommendations
      */
     public LiveData<String> getRecommendation() {
         return recommendation;
     }
-}
\ No newline at end of file
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        computeThread.shutdown();
+    }
+}
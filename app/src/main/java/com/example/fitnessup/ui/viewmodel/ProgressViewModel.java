@@ -1,21 +1,44 @@
 package com.example.fitnessup.ui.viewmodel;
 
 import android.app.Application;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
 import com.example.fitnessup.data.model.WeightProgress;
+import com.example.fitnessup.data.model.WeightStats;
 import com.example.fitnessup.data.repository.UserRepository;
+import com.example.fitnessup.data.repository.WeightHistoryExporter;
+import com.example.fitnessup.data.repository.WeightHistoryImporter;
+import com.example.fitnessup.data.repository.WeightHistoryPager;
+import com.example.fitnessup.data.repository.WeightHistorySync;
+import com.example.fitnessup.util.calculator.WeightTrendCalculator;
+import com.example.fitnessup.util.series.MonthlyRollup;
+import com.example.fitnessup.util.series.WeightSeries;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.QuerySnapshot;
 
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * ViewModel for tracking and visualizing weight progress over time.
@@ -26,9 +49,11 @@ public class ProgressViewModel extends AndroidViewModel {
     
     private final UserRepository userRepository;
     private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
-    private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
+    private final MediatorLiveData<String> errorMessage = new MediatorLiveData<>();
     private final MutableLiveData<List<ChartEntry>> chartData = new MutableLiveData<>();
     private final MutableLiveData<String> weightTrend = new MutableLiveData<>();
+    private final MutableLiveData<WeightStats> windowStats = new MutableLiveData<>();
+    private int windowStatsRequest; // Only the latest request may publish
     
     // Time range options for chart
     public enum TimeRange {
@@ -37,8 +62,93 @@ public class ProgressViewModel extends AndroidViewModel {
     
     private final MutableLiveData<TimeRange> selectedTimeRange = new MutableLiveData<>(TimeRange.MONTH);
     
-    // Cache for weight history
-    private LiveData<List<WeightProgress>> allWeightHistory;
+    private String chartUserId; // User whose chart is shown
+    
+    // Weight history kept in sync with Firestore, as primitive columns (oldest first); only
+    // started once a range shorter than a year is shown
+    private WeightHistorySync historySync;
+    private WeightSeries weightSeries = new WeightSeries();
+    
+    // Chart points of the raw series from chartFrom on, edited in place as the series changes
+    private final ArrayList<ChartEntry> chartEntries = new ArrayList<>();
+    private int chartFrom; // Series index of the first point
+    private long chartCutoff; // Points are the entries strictly after this time
+    private boolean chartFollowsSeries; // False while the chart is empty, replaced or shows rollups
+    
+    // Apply each change to the series to the chart points, one point at a time
+    private final WeightHistorySync.SeriesListener seriesListener = new WeightHistorySync.SeriesListener() {
+        @Override
+        public void onLoaded() {
+            chartFollowsSeries = false;
+        }
+        
+        @Override
+        public void onInserted(int index) {
+            if (!chartFollowsSeries) {
+                return;
+            }
+            long timestampMillis = weightSeries.timestampAt(index);
+            if (timestampMillis > chartCutoff) {
+                chartEntries.add(index - chartFrom,
+                        new ChartEntry(new Date(timestampMillis), weightSeries.weightAt(index)));
+            } else {
+                chartFrom++;
+            }
+        }
+        
+        @Override
+        public void onRemoved(int index) {
+            if (!chartFollowsSeries) {
+                return;
+            }
+            if (index >= chartFrom) {
+                chartEntries.remove(index - chartFrom);
+            } else {
+                chartFrom--;
+            }
+        }
+    };
+    
+    // Publish the chart window and trend after each batch of changes to the series
+    private final Observer<WeightSeries> historyObserver = series -> {
+        if (series != null) {
+            weightSeries = series;
+            if (isRollupRange(selectedTimeRange.getValue())) {
+                return; // The rollups drive the chart; the series is kept for the shorter ranges
+            }
+            
+            if (chartFollowsSeries) {
+                chartData.setValue(chartEntries);
+            } else {
+                updateChartData(selectedTimeRange.getValue());
+            }
+            
+            // Calculate weight trend
+            calculateWeightTrend();
+            
+            isLoading.setValue(false);
+        }
+    };
+    
+    // Monthly rollups for the YEAR and ALL charts, so they plot daily statistics from a few dozen
+    // documents without reading the raw entries; shorter ranges use the raw series
+    private final TreeMap<YearMonth, MonthlyRollup> rollups = new TreeMap<>();
+    private ListenerRegistration rollupRegistration;
+    private YearMonth rollupFromMonth; // First month listened to, null for every month
+    private boolean rollupsLoaded; // The listener has delivered its first snapshot
+    
+    // History list, loaded a page at a time (newest first)
+    private final MediatorLiveData<List<WeightProgress>> pagedHistory = new MediatorLiveData<>();
+    private WeightHistoryPager historyPager;
+    private String historyUserId;
+    
+    // Progress of the running history import, if any
+    private final MediatorLiveData<WeightHistoryImporter.Progress> importProgress = new MediatorLiveData<>();
+    private LiveData<WeightHistoryImporter.Progress> importSource;
+    
+    // Progress of the running history export, if any
+    private final MediatorLiveData<WeightHistoryExporter.Progress> exportProgress = new MediatorLiveData<>();
+    private LiveData<WeightHistoryExporter.Progress> exportSource;
     
     public ProgressViewModel(@NonNull Application application) {
         super(application);
@@ -56,23 +166,111 @@ public class ProgressViewModel extends AndroidViewModel {
      * @param userId User ID to load history for
      */
     public void loadWeightHistory(String userId) {
-        isLoading.setValue(true);
+        // Show the first page of the list without waiting for the full history
+        startHistoryPager(userId);
         
-        // Load full weight history
-        allWeightHistory = userRepository.getWeightProgressHistory(userId);
-        
-        // Observe changes to weight history and update chart data
-        allWeightHistory.observeForever(weightProgressList -> {
-            if (weightProgressList != null) {
-                // Update chart data based on selected time range
-                updateChartData(weightProgressList, selectedTimeRange.getValue());
-                
-                // Calculate weight trend
-                calculateWeightTrend(weightProgressList);
-                
-                isLoading.setValue(false);
+        // Already showing this user: the listeners keep the chart current
+        if (userId.equals(chartUserId)) {
+            return;
+        }
+        isLoading.setValue(true);
+        stopHistorySync();
+        stopRollupListener();
+        chartUserId = userId;
+        loadWindowStats(userId, selectedTimeRange.getValue());
+        showChart(selectedTimeRange.getValue());
+    }
+    
+    /**
+     * Show the chart and trend of a time range: from the monthly rollups for YEAR and ALL, from
+     * the raw series otherwise, starting whichever listener the range needs
+     */
+    private void showChart(TimeRange timeRange) {
+        if (isRollupRange(timeRange)) {
+            listenToRollups(timeRange);
+            if (rollupsLoaded) {
+                showRollups(timeRange);
             }
-        });
+        } else if (historySync == null) {
+            startHistorySync(chartUserId);
+        } else if (historySync.getHistory().getValue() != null) {
+            updateChartData(timeRange);
+            calculateWeightTrend();
+        }
+    }
+    
+    private static boolean isRollupRange(TimeRange timeRange) {
+        return timeRange == TimeRange.YEAR || timeRange == TimeRange.ALL;
+    }
+    
+    /**
+     * Start listening to the weight history; later changes arrive as document deltas
+     */
+    private void startHistorySync(String userId) {
+        isLoading.setValue(true);
+        historySync = userRepository.syncWeightProgressHistory(userId);
+        weightSeries = historySync.getSeries();
+        chartFollowsSeries = false;
+        historySync.setSeriesListener(seriesListener);
+        historySync.getHistory().observeForever(historyObserver);
+    }
+    
+    /**
+     * Stop listening to the weight history
+     */
+    private void stopHistorySync() {
+        if (historySync != null) {
+            historySync.getHistory().removeObserver(historyObserver);
+            historySync.setSeriesListener(null);
+            historySync.stop();
+            historySync = null;
+        }
+    }
+    
+    /**
+     * Stop listening to the monthly rollups and forget them
+     */
+    private void stopRollupListener() {
+        if (rollupRegistration != null) {
+            rollupRegistration.remove();
+            rollupRegistration = null;
+        }
+        rollups.clear();
+        rollupsLoaded = false;
+    }
+    
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        stopHistorySync();
+        stopRollupListener();
+    }
+    
+    /**
+     * Start paging the history list for a user, keeping the loaded pages if already paging for them
+     */
+    private void startHistoryPager(String userId) {
+        if (historyPager != null && userId.equals(historyUserId)) {
+            return;
+        }
+        if (historyPager != null) {
+            pagedHistory.removeSource(historyPager.getItems());
+            errorMessage.removeSource(historyPager.getErrorMessage());
+        }
+        historyUserId = userId;
+        historyPager = userRepository.createWeightHistoryPager(userId);
+        pagedHistory.addSource(historyPager.getItems(), pagedHistory::setValue);
+        errorMessage.addSource(historyPager.getErrorMessage(), errorMessage::setValue);
+        historyPager.loadNextPage();
+    }
+    
+    /**
+     * Load the next page of the history list, if there is one and no page is loading
+     */
+    public void loadMoreHistory() {
+        if (historyPager != null) {
+            historyPager.loadNextPage();
+        }
     }
     
     /**
@@ -81,11 +279,9 @@ public class ProgressViewModel extends AndroidViewModel {
      */
     public void setTimeRange(TimeRange timeRange) {
         selectedTimeRange.setValue(timeRange);
-        
-        // Update chart data with new time range
-        List<WeightProgress> weightProgressList = allWeightHistory.getValue();
-        if (weightProgressList != null) {
-            updateChartData(weightProgressList, timeRange);
+        if (chartUserId != null) {
+            loadWindowStats(chartUserId, timeRange);
+            showChart(timeRange);
         }
     }
     
@@ -105,7 +301,12 @@ public class ProgressViewModel extends AndroidViewModel {
         userRepository.addWeightProgress(newProgress)
                 .addOnSuccessListener(documentReference -> {
                     isLoading.setValue(false);
-                    // The observer on allWeightHistory will automatically update chart data
+                    loadWindowStats(user.getUid(), selectedTimeRange.getValue());
+                    // The history listener picks up the new entry; reload the list from
+                    // the first page so it shows at the top
+                    if (historyPager != null) {
+                        historyPager.refresh();
+                    }
                 })
                 .addOnFailureListener(e -> {
                     isLoading.setValue(false);
@@ -114,44 +315,251 @@ public class ProgressViewModel extends AndroidViewModel {
     }
     
     /**
-     * Update chart data based on weight history and selected time range
+     * Import a weight history file (CSV or JSON) exported by another app
+     * @param uri Document picked by the user
      */
-    private void updateChartData(List<WeightProgress> weightProgressList, TimeRange timeRange) {
-        if (weightProgressList == null || weightProgressList.isEmpty()) {
-            chartData.setValue(new ArrayList<>());
+    public void importWeightHistory(Uri uri) {
+        FirebaseUser user = userRepository.getCurrentUser();
+        if (user == null) {
+            errorMessage.setValue("User not logged in");
             return;
         }
         
-        // Filter data based on time range
-        List<WeightProgress> filteredList = filterByTimeRange(weightProgressList, timeRange);
-        
-        // Convert to chart entries
-        List<ChartEntry> entries = new ArrayList<>();
-        for (WeightProgress progress : filteredList) {
-            entries.add(new ChartEntry(progress.getDate(), progress.getWeight()));
+        InputStream input;
+        try {
+            input = getApplication().getContentResolver().openInputStream(uri);
+        } catch (FileNotFoundException e) {
+            input = null;
+        }
+        if (input == null) {
+            errorMessage.setValue("Cannot open the import file");
+            return;
         }
         
-        chartData.setValue(entries);
+        WeightHistoryImporter.Format format = WeightHistoryImporter.Format.detect(
+                getApplication().getContentResolver().getType(uri), uri.getLastPathSegment());
+        if (importSource != null) {
+            importProgress.removeSource(importSource);
+        }
+        importSource = userRepository.importWeightHistory(user.getUid(), input, format);
+        importProgress.addSource(importSource, progress -> {
+            importProgress.setValue(progress);
+            if (progress.isDone() && progress.getImported() > 0) {
+                // The chart follows the imported entries through the local store and the rollups;
+                // the list is paged, so reload it from the first page
+                loadWindowStats(user.getUid(), selectedTimeRange.getValue());
+                if (historyPager != null) {
+                    historyPager.refresh();
+                }
+            }
+        });
     }
     
     /**
-     * Filter weight progress list by time range
+     * Export the weight history, and the profile in the binary format, to a file
+     * @param uri Document created by the user
+     * @param format File format the document was created for
      */
-    private List<WeightProgress> filterByTimeRange(List<WeightProgress> weightProgressList, TimeRange timeRange) {
-        if (timeRange == TimeRange.ALL) {
-            return new ArrayList<>(weightProgressList);
+    public void exportWeightHistory(Uri uri, WeightHistoryExporter.Format format) {
+        FirebaseUser user = userRepository.getCurrentUser();
+        if (user == null) {
+            errorMessage.setValue("User not logged in");
+            return;
+        }
+        if (isExportRunning()) {
+            errorMessage.setValue("An export is already running");
+            return;
         }
         
-        Date cutoffDate = getCutoffDate(timeRange);
-        List<WeightProgress> filteredList = new ArrayList<>();
+        OutputStream output;
+        try {
+            output = getApplication().getContentResolver().openOutputStream(uri);
+        } catch (FileNotFoundException e) {
+            output = null;
+        }
+        if (output == null) {
+            errorMessage.setValue("Cannot create the export file");
+            return;
+        }
         
-        for (WeightProgress progress : weightProgressList) {
-            if (progress.getDate().after(cutoffDate)) {
-                filteredList.add(progress);
+        if (exportSource != null) {
+            exportProgress.removeSource(exportSource);
+        }
+        exportSource = userRepository.exportWeightHistory(user.getUid(), output, format);
+        exportProgress.addSource(exportSource, progress -> {
+            exportProgress.setValue(progress);
+            if (progress.isDone() && progress.getError() != null) {
+                deletePartialExport(uri);
+            }
+        });
+    }
+    
+    /**
+     * Delete the file of a failed export, so a partial history is not mistaken for a complete one
+     */
+    private void deletePartialExport(Uri uri) {
+        ForkJoinPool.commonPool().execute(() -> {
+            try {
+                DocumentsContract.deleteDocument(getApplication().getContentResolver(), uri);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to delete partial export " + uri + ": " + e.getMessage());
             }
+        });
+    }
+    
+    /**
+     * @return Whether a history export has started and not finished yet
+     */
+    public boolean isExportRunning() {
+        WeightHistoryExporter.Progress progress = exportProgress.getValue();
+        return progress != null && !progress.isDone();
+    }
+    
+    /**
+     * Forget a finished import once its result has been shown, so it is not shown again
+     */
+    public void clearFinishedImport() {
+        WeightHistoryImporter.Progress progress = importProgress.getValue();
+        if (progress != null && progress.isDone()) {
+            importProgress.removeSource(importSource);
+            importSource = null;
+            importProgress.setValue(null);
         }
+    }
+    
+    /**
+     * Forget a finished export once its result has been shown, so it is not shown again
+     */
+    public void clearFinishedExport() {
+        WeightHistoryExporter.Progress progress = exportProgress.getValue();
+        if (progress != null && progress.isDone()) {
+            exportProgress.removeSource(exportSource);
+            exportSource = null;
+            exportProgress.setValue(null);
+        }
+    }
+    
+    /**
+     * Rebuild chart data from the weight history for a range shorter than a year. Afterwards the
+     * points follow the series through the series listener, so this only runs when the range or
+     * the whole series changes.
+     */
+    private void updateChartData(TimeRange timeRange) {
+        // Filter data based on time range
+        chartCutoff = getCutoffDate(timeRange).getTime();
+        chartFrom = weightSeries.firstIndexAfter(chartCutoff);
         
-        return filteredList;
+        // Convert to chart entries
+        chartEntries.clear();
+        chartEntries.ensureCapacity(weightSeries.size() - chartFrom);
+        for (int i = chartFrom; i < weightSeries.size(); i++) {
+            chartEntries.add(new ChartEntry(new Date(weightSeries.timestampAt(i)), weightSeries.weightAt(i)));
+        }
+        chartFollowsSeries = true;
+        
+        chartData.setValue(chartEntries);
+    }
+    
+    /**
+     * Load the entry count and average weight of a time range for the header. Firestore aggregates
+     * them, so they are right even for ranges whose entries are not loaded.
+     */
+    private void loadWindowStats(String userId, TimeRange timeRange) {
+        // The window starts at midnight, so it stays the same cached window all day
+        long fromMillis = 0;
+        if (timeRange != TimeRange.ALL) {
+            Calendar start = Calendar.getInstance();
+            start.setTime(getCutoffDate(timeRange));
+            start.set(Calendar.HOUR_OF_DAY, 0);
+            start.set(Calendar.MINUTE, 0);
+            start.set(Calendar.SECOND, 0);
+            start.set(Calendar.MILLISECOND, 0);
+            fromMillis = start.getTimeInMillis();
+        }
+        int request = ++windowStatsRequest;
+        userRepository.getWeightStats(userId, fromMillis, Long.MAX_VALUE)
+                .addOnCompleteListener(task -> {
+                    if (request != windowStatsRequest) {
+                        return;
+                    }
+                    if (task.isSuccessful()) {
+                        windowStats.setValue(task.getResult());
+                    } else {
+                        Log.w(TAG, "Weight stats unavailable: " + task.getException());
+                        windowStats.setValue(null);
+                    }
+                });
+    }
+    
+    /**
+     * Make sure the rollups covering a long time range are being listened to
+     */
+    private void listenToRollups(TimeRange timeRange) {
+        YearMonth fromMonth = timeRange == TimeRange.ALL ? null : YearMonth.now().minusYears(1);
+        boolean covered = rollupRegistration != null && (rollupFromMonth == null
+                || (fromMonth != null && !fromMonth.isBefore(rollupFromMonth)));
+        if (covered) {
+            return;
+        }
+        stopRollupListener();
+        isLoading.setValue(true);
+        rollupFromMonth = fromMonth;
+        rollupRegistration = userRepository.listenToMonthlyRollups(chartUserId, fromMonth,
+                this::onRollupSnapshot);
+        // Rollups are built with the progress summary; reading it builds both for a user without
+        // them, and the listener then receives the new rollups
+        userRepository.loadProgressSummary(chartUserId).addOnFailureListener(e ->
+                Log.w(TAG, "Progress summary unavailable: " + e.getMessage()));
+    }
+    
+    private void onRollupSnapshot(QuerySnapshot snapshot, FirebaseFirestoreException error) {
+        if (error != null || snapshot == null) {
+            errorMessage.setValue("Failed to load weight chart: " + (error != null ? error.getMessage() : ""));
+            return;
+        }
+        rollupsLoaded = true;
+        for (DocumentChange change : snapshot.getDocumentChanges()) {
+            MonthlyRollup rollup = UserRepository.toMonthlyRollup(change.getDocument());
+            if (rollup == null) {
+                continue;
+            }
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                rollups.remove(rollup.getMonth());
+            } else {
+                rollups.put(rollup.getMonth(), rollup);
+            }
+        }
+        TimeRange timeRange = selectedTimeRange.getValue();
+        if (isRollupRange(timeRange)) {
+            showRollups(timeRange);
+        }
+    }
+    
+    /**
+     * Show the chart and trend of a long time range from the rollups alone
+     */
+    private void showRollups(TimeRange timeRange) {
+        chartFollowsSeries = false;
+        chartData.setValue(rollupChartEntries(timeRange));
+        calculateRollupTrend(timeRange);
+        isLoading.setValue(false);
+    }
+    
+    /**
+     * One chart point per day with entries: the day's mean weight at the start of the day
+     */
+    private List<ChartEntry> rollupChartEntries(TimeRange timeRange) {
+        long cutoff = timeRange == TimeRange.ALL ? Long.MIN_VALUE : getCutoffDate(timeRange).getTime();
+        ZoneId zone = ZoneId.systemDefault();
+        List<ChartEntry> entries = new ArrayList<>();
+        for (MonthlyRollup rollup : rollups.values()) {
+            for (MonthlyRollup.Day day : rollup.getDays()) {
+                if (day.getLastTimestampMillis() >= cutoff) {
+                    entries.add(new ChartEntry(new Date(rollup.dayStartMillis(day, zone)), day.getMeanWeight()));
+                }
+            }
+        }
+        return entries;
     }
     
     /**
@@ -187,47 +595,31 @@ public class ProgressViewModel extends AndroidViewModel {
     /**
      * Calculate weight trend over time
      */
-    private void calculateWeightTrend(List<WeightProgress> weightProgressList) {
-        if (weightProgressList == null || weightProgressList.size() < 2) {
-            weightTrend.setValue("Belum cukup data untuk menunjukkan tren.");
-            return;
-        }
-        
-        // Sort by timestamp (oldest first)
-        List<WeightProgress> sortedList = new ArrayList<>(weightProgressList);
-        sortedList.sort((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
-        
-        // Get first and last entry
-        WeightProgress first = sortedList.get(0);
-        WeightProgress last = sortedList.get(sortedList.size() - 1);
-        
-        // Calculate change
-        double weightChange = last.getWeight() - first.getWeight();
-        
-        // Calculate time difference in days
-        long diffInMillis = last.getDate().getTime() - first.getDate().getTime();
-        long diffInDays = TimeUnit.MILLISECONDS.toDays(diffInMillis);
-        
-        // Prevent division by zero
-        if (diffInDays == 0) {
-            weightTrend.setValue("Belum cukup data untuk menunjukkan tren.");
-            return;
-        }
-        
-        // Calculate rate of change per week
-        double changePerWeek = (weightChange / diffInDays) * 7;
-        
-        // Format message based on change
-        String trend;
-        if (Math.abs(changePerWeek) < 0.1) {
-            trend = "Berat badan Anda stabil.";
-        } else if (changePerWeek > 0) {
-            trend = String.format("Tren: +%.1f kg per minggu", changePerWeek);
-        } else {
-            trend = String.format("Tren: %.1f kg per minggu", changePerWeek);
+    private void calculateWeightTrend() {
+        weightTrend.setValue(WeightTrendCalculator.describeTrend(weightSeries.changePerWeek()));
+    }
+    
+    /**
+     * Calculate the weight trend of a long time range from the rollups: between the last entries
+     * of its first and last days with entries
+     */
+    private void calculateRollupTrend(TimeRange timeRange) {
+        long cutoff = timeRange == TimeRange.ALL ? Long.MIN_VALUE : getCutoffDate(timeRange).getTime();
+        MonthlyRollup.Day first = null;
+        MonthlyRollup.Day last = null;
+        for (MonthlyRollup rollup : rollups.values()) {
+            for (MonthlyRollup.Day day : rollup.getDays()) {
+                if (day.getLastTimestampMillis() >= cutoff) {
+                    if (first == null) {
+                        first = day;
+                    }
+                    last = day;
+                }
+            }
         }
-        
-        weightTrend.setValue(trend);
+        double changePerWeek = first == null ? Double.NaN : WeightTrendCalculator.changePerWeek(
+                first.getLastTimestampMillis(), first.getLastWeight(), last.getLastTimestampMillis(), last.getLastWeight());
+        weightTrend.setValue(WeightTrendCalculator.describeTrend(changePerWeek));
     }
     
     /**
@@ -245,17 +637,46 @@ public class ProgressViewModel extends AndroidViewModel {
     }
     
     /**
-     * Get chart data
+     * Get chart data. Raw points are emitted as the same list after each change, edited in place.
      */
     public LiveData<List<ChartEntry>> getChartData() {
         return chartData;
     }
     
     /**
-     * Get weight history
+     * Get the weight history as primitive columns, oldest first; null until a range shorter than
+     * a year has been shown
+     */
+    public LiveData<WeightSeries> getWeightHistory() {
+        return historySync != null ? historySync.getHistory() : null;
+    }
+    
+    /**
+     * Get the history entries loaded so far, newest first
+     */
+    public LiveData<List<WeightProgress>> getPagedHistory() {
+        return pagedHistory;
+    }
+    
+    /**
+     * @return Whether the history list has loaded every entry
+     */
+    public boolean isHistoryEndReached() {
+        return historyPager == null || historyPager.isEndReached();
+    }
+    
+    /**
+     * Get the progress of the running history import
      */
-    public LiveData<List<WeightProgress>> getWeightHistory() {
-        return allWeightHistory;
+    public LiveData<WeightHistoryImporter.Progress> getImportProgress() {
+        return importProgress;
+    }
+    
+    /**
+     * Get the progress of the running history export
+     */
+    public LiveData<WeightHistoryExporter.Progress> getExportProgress() {
+        return exportProgress;
     }
     
     /**
@@ -265,6 +686,13 @@ public class ProgressViewModel extends AndroidViewModel {
         return selectedTimeRange;
     }
     
+    /**
+     * Get the entry count and average weight of the selected time range
+     */
+    public LiveData<WeightStats> getWindowStats() {
+        return windowStats;
+    }
+    
     /**
      * Get weight trend information
      */
@@ -0,0 +1,120 @@
+package com.example.fitnessup.data.repository;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Checks what a read emits under each ReadPolicy for each order in which its reads complete.
+ * Values are compared by their text, so "a" and a new String "a" have the same content.
+ */
+public class ReadEmissionsTest {
+
+    private static final Function<String, Object> CONTENT = String::toString;
+
+    private final List<String> emitted = new ArrayList<>();
+
+    private ReadEmissions<String> emissions(ReadPolicy policy) {
+        return new ReadEmissions<>(policy, CONTENT, new ReadPolicy.Receiver<String>() {
+            @Override
+            public void onValue(String value, boolean fromServer) {
+                emitted.add((fromServer ? "server:" : "cache:") + value);
+            }
+
+            @Override
+            public void onConfirmed() {
+                emitted.add("confirmed");
+            }
+        });
+    }
+
+    @Test
+    public void cacheOnlyMissEmitsNull() {
+        emissions(ReadPolicy.CACHE_ONLY).onCached(true, null);
+
+        assertEquals(Collections.singletonList("cache:null"), emitted);
+    }
+
+    @Test
+    public void cacheOnlyHitEmitsCachedCopy() {
+        emissions(ReadPolicy.CACHE_ONLY).onCached(true, "a");
+
+        assertEquals(Collections.singletonList("cache:a"), emitted);
+    }
+
+    @Test
+    public void serverOnlyEmitsServerCopy() {
+        emissions(ReadPolicy.SERVER_ONLY).onServer(true, "a");
+
+        assertEquals(Collections.singletonList("server:a"), emitted);
+    }
+
+    @Test
+    public void serverOnlyFailureEmitsNull() {
+        emissions(ReadPolicy.SERVER_ONLY).onServer(false, null);
+
+        assertEquals(Collections.singletonList("cache:null"), emitted);
+    }
+
+    @Test
+    public void cacheMissWaitsForServer() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onCached(true, null);
+        assertEquals(Collections.emptyList(), emitted);
+
+        read.onServer(true, "a");
+        assertEquals(Collections.singletonList("server:a"), emitted);
+    }
+
+    @Test
+    public void cacheHitWithSameContentEmitsOnceAndConfirms() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onCached(true, "a");
+        read.onServer(true, new String("a"));
+
+        assertEquals(Arrays.asList("cache:a", "confirmed"), emitted);
+    }
+
+    @Test
+    public void cacheHitWithDifferentContentEmitsServerCopy() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onCached(true, "a");
+        read.onServer(true, "b");
+
+        assertEquals(Arrays.asList("cache:a", "server:b"), emitted);
+    }
+
+    @Test
+    public void serverFailureAfterCacheHitKeepsCachedCopy() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onCached(true, "a");
+        read.onServer(false, null);
+
+        assertEquals(Collections.singletonList("cache:a"), emitted);
+    }
+
+    @Test
+    public void cachedCopyAfterServerIsDropped() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onServer(true, "b");
+        read.onCached(true, "a");
+
+        assertEquals(Collections.singletonList("server:b"), emitted);
+    }
+
+    @Test
+    public void bothFailingEmitsNullOnce() {
+        ReadEmissions<String> read = emissions(ReadPolicy.CACHE_THEN_SERVER);
+        read.onServer(false, null);
+        assertEquals(Collections.emptyList(), emitted);
+
+        read.onCached(false, null);
+        assertEquals(Collections.singletonList("cache:null"), emitted);
+    }
+}
@@ -0,0 +1,31 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":nutrition-core"))
+    jmhAnnotationProcessor(project(":mapper-processor"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// Copy the latest JMH results over the committed baseline: ./gradlew :benchmark:jmh :benchmark:updateBaseline
+tasks.register<Copy>("updateBaseline") {
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("baseline"))
+    rename { "jmh-baseline.json" }
+}
@@ -0,0 +1,69 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.util.calculator.BmrFormula;
+import com.example.fitnessup.util.calculator.CompiledProfile;
+import com.example.fitnessup.util.calculator.NutritionBatchCalculator;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled and batch paths per BMR formula; all formulas should score the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BmrFormulaBenchmark {
+    private static final int COHORT_SIZE = 1000;
+
+    @Param({"MIFFLIN_ST_JEOR", "HARRIS_BENEDICT", "KATCH_MCARDLE", "CUNNINGHAM"})
+    public String formula;
+
+    private SyntheticData.Profile[] profiles;
+    private CompiledProfile[] compiledProfiles;
+    private NutritionCalculation result;
+    private NutritionBatchCalculator.Cohort cohort;
+    private NutritionBatchCalculator.Result batchResult;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        BmrFormula bmrFormula = BmrFormula.valueOf(formula);
+        profiles = SyntheticData.profiles(COHORT_SIZE);
+        compiledProfiles = new CompiledProfile[COHORT_SIZE];
+        for (int i = 0; i < COHORT_SIZE; i++) {
+            SyntheticData.Profile profile = profiles[i];
+            compiledProfiles[i] = CompiledProfile.of(NutritionCalculator.genderCode(profile.gender),
+                    NutritionCalculator.activityCode(profile.activityLevel), profile.age, profile.height,
+                    profile.targetWeight, bmrFormula, 0);
+        }
+        result = new NutritionCalculation();
+
+        NutritionBatchCalculator.Cohort columns = SyntheticData.cohort(profiles);
+        cohort = new NutritionBatchCalculator.Cohort(columns.getWeight(), columns.getHeight(), columns.getAge(),
+                columns.getGender(), columns.getActivity(), columns.getTargetWeight(), bmrFormula, null);
+        batchResult = new NutritionBatchCalculator.Result(COHORT_SIZE);
+    }
+
+    @Benchmark
+    public NutritionCalculation compiledPath() {
+        int i = next++ % COHORT_SIZE;
+        return NutritionCalculator.calculateNutrition(compiledProfiles[i], profiles[i].currentWeight, result);
+    }
+
+    @Benchmark
+    public NutritionBatchCalculator.Result batchSequential() {
+        NutritionBatchCalculator.calculateRange(cohort, batchResult, 0, COHORT_SIZE);
+        return batchResult;
+    }
+}
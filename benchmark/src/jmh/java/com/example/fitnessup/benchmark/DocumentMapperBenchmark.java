@@ -0,0 +1,303 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.mapper.DocumentMapper;
+import com.example.fitnessup.util.mapper.FirestoreDocument;
+import com.example.fitnessup.util.mapper.FirestoreField;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializing a query snapshot of weight entries or profiles: the generated mappers against
+ * reflective bean mapping in the style of DocumentSnapshot.toObject(). The reflective mapper caches
+ * its setters per class, like Firestore's, so the difference is the per-field Method.invoke and
+ * boxing; Firestore's own mapper does more checks per field, so this understates its cost.
+ * The models mirror WeightProgress and User with plain JVM types in place of Timestamp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DocumentMapperBenchmark {
+
+    @Param({"10000"})
+    public int documentCount;
+
+    private List<Map<String, Object>> entryDocuments;
+    private List<Map<String, Object>> profileDocuments;
+    private ReflectiveMapper<WeightEntry> reflectiveEntryMapper;
+    private ReflectiveMapper<Profile> reflectiveProfileMapper;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        SyntheticData.History history = SyntheticData.history(documentCount);
+        entryDocuments = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            WeightEntry entry = new WeightEntry();
+            entry.setUserId("pengguna-" + (i % 8));
+            entry.setWeight(history.weights[i]);
+            entry.setTimestamp(new Date(history.timestamps[i]));
+            entryDocuments.add(WeightEntryMapper.INSTANCE.toMap(entry));
+        }
+
+        SyntheticData.Profile[] profiles = SyntheticData.profiles(documentCount);
+        profileDocuments = new ArrayList<>(documentCount);
+        for (int i = 0; i < documentCount; i++) {
+            Profile profile = new Profile();
+            profile.setName("Pengguna " + i);
+            profile.setEmail("pengguna" + i + "@contoh.id");
+            profile.setAge(profiles[i].getAge());
+            profile.setGender(profiles[i].getGender());
+            profile.setHeight(profiles[i].getHeight());
+            profile.setActivityLevel(profiles[i].getActivityLevel());
+            profile.setTargetWeight(profiles[i].getTargetWeight());
+            profile.setInitialWeight(profiles[i].currentWeight);
+            Map<String, Object> document = ProfileMapper.INSTANCE.toMap(profile);
+            // Firestore returns whole numbers as Long
+            document.put("usia", (long) profile.getAge());
+            profileDocuments.add(document);
+        }
+
+        reflectiveEntryMapper = new ReflectiveMapper<>(WeightEntry.class,
+                "userId", "userId", "beratBadan", "weight", "timestamp", "timestamp");
+        reflectiveProfileMapper = new ReflectiveMapper<>(Profile.class,
+                "nama", "name", "email", "email", "usia", "age", "jenisKelamin", "gender",
+                "tinggiBadan", "height", "tingkatAktivitas", "activityLevel", "beratBadanTujuan", "targetWeight",
+                "beratBadanAwal", "initialWeight", "persentaseLemakTubuh", "bodyFatPercentage", "rumusBmr", "bmrFormula");
+    }
+
+    private static <T> List<T> mapAll(DocumentMapper<T> mapper, List<Map<String, Object>> documents) {
+        List<T> objects = new ArrayList<>(documents.size());
+        for (Map<String, Object> document : documents) {
+            objects.add(mapper.fromMap(document));
+        }
+        return objects;
+    }
+
+    private static <T> List<T> mapAll(ReflectiveMapper<T> mapper, List<Map<String, Object>> documents)
+            throws ReflectiveOperationException {
+        List<T> objects = new ArrayList<>(documents.size());
+        for (Map<String, Object> document : documents) {
+            objects.add(mapper.fromMap(document));
+        }
+        return objects;
+    }
+
+    @Benchmark
+    public List<WeightEntry> entriesGenerated() {
+        return mapAll(WeightEntryMapper.INSTANCE, entryDocuments);
+    }
+
+    @Benchmark
+    public List<WeightEntry> entriesReflective() throws ReflectiveOperationException {
+        return mapAll(reflectiveEntryMapper, entryDocuments);
+    }
+
+    @Benchmark
+    public List<Profile> profilesGenerated() {
+        return mapAll(ProfileMapper.INSTANCE, profileDocuments);
+    }
+
+    @Benchmark
+    public List<Profile> profilesReflective() throws ReflectiveOperationException {
+        return mapAll(reflectiveProfileMapper, profileDocuments);
+    }
+
+    /**
+     * Bean mapping through cached setters, one Method.invoke per stored field
+     */
+    static final class ReflectiveMapper<T> {
+        private final Constructor<T> constructor;
+        private final Map<String, Method> setters = new HashMap<>(); // Document key -> setter
+
+        ReflectiveMapper(Class<T> type, String... keysAndProperties) throws NoSuchMethodException {
+            constructor = type.getDeclaredConstructor();
+            for (int i = 0; i < keysAndProperties.length; i += 2) {
+                String property = keysAndProperties[i + 1];
+                String setterName = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+                for (Method method : type.getMethods()) {
+                    if (method.getName().equals(setterName) && method.getParameterCount() == 1) {
+                        setters.put(keysAndProperties[i], method);
+                    }
+                }
+            }
+        }
+
+        T fromMap(Map<String, Object> data) throws ReflectiveOperationException {
+            T object = constructor.newInstance();
+            for (Map.Entry<String, Object> field : data.entrySet()) {
+                Method setter = setters.get(field.getKey());
+                Object value = field.getValue();
+                if (setter == null || value == null) {
+                    continue;
+                }
+                Class<?> type = setter.getParameterTypes()[0];
+                if (type == double.class) {
+                    value = ((Number) value).doubleValue();
+                } else if (type == int.class) {
+                    value = ((Number) value).intValue();
+                }
+                setter.invoke(object, value);
+            }
+            return object;
+        }
+    }
+
+    /**
+     * Stand-in for WeightProgress
+     */
+    @FirestoreDocument
+    public static class WeightEntry {
+        @FirestoreField("userId")
+        private String userId;
+        @FirestoreField("beratBadan")
+        private double weight;
+        @FirestoreField("timestamp")
+        private Date timestamp;
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public void setWeight(double weight) {
+            this.weight = weight;
+        }
+
+        public Date getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(Date timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Stand-in for User
+     */
+    @FirestoreDocument
+    public static class Profile {
+        @FirestoreField("nama")
+        private String name;
+        @FirestoreField("email")
+        private String email;
+        @FirestoreField("usia")
+        private int age;
+        @FirestoreField("jenisKelamin")
+        private String gender;
+        @FirestoreField("tinggiBadan")
+        private double height;
+        @FirestoreField("tingkatAktivitas")
+        private String activityLevel;
+        @FirestoreField("beratBadanTujuan")
+        private double targetWeight;
+        @FirestoreField("beratBadanAwal")
+        private double initialWeight;
+        @FirestoreField("persentaseLemakTubuh")
+        private double bodyFatPercentage;
+        @FirestoreField("rumusBmr")
+        private String bmrFormula;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public String getGender() {
+            return gender;
+        }
+
+        public void setGender(String gender) {
+            this.gender = gender;
+        }
+
+        public double getHeight() {
+            return height;
+        }
+
+        public void setHeight(double height) {
+            this.height = height;
+        }
+
+        public String getActivityLevel() {
+            return activityLevel;
+        }
+
+        public void setActivityLevel(String activityLevel) {
+            this.activityLevel = activityLevel;
+        }
+
+        public double getTargetWeight() {
+            return targetWeight;
+        }
+
+        public void setTargetWeight(double targetWeight) {
+            this.targetWeight = targetWeight;
+        }
+
+        public double getInitialWeight() {
+            return initialWeight;
+        }
+
+        public void setInitialWeight(double initialWeight) {
+            this.initialWeight = initialWeight;
+        }
+
+        public double getBodyFatPercentage() {
+            return bodyFatPercentage;
+        }
+
+        public void setBodyFatPercentage(double bodyFatPercentage) {
+            this.bodyFatPercentage = bodyFatPercentage;
+        }
+
+        public String getBmrFormula() {
+            return bmrFormula;
+        }
+
+        public void setBmrFormula(String bmrFormula) {
+            this.bmrFormula = bmrFormula;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.calculator.NutritionBatchCalculator;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-cohort recompute: fork-join batch, single-threaded batch, and a loop over the single-user path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NutritionBatchBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int cohortSize;
+
+    private SyntheticData.Profile[] profiles;
+    private NutritionBatchCalculator.Cohort cohort;
+    private NutritionBatchCalculator.Result result;
+
+    @Setup
+    public void setUp() {
+        profiles = SyntheticData.profiles(cohortSize);
+        cohort = SyntheticData.cohort(profiles);
+        result = new NutritionBatchCalculator.Result(cohortSize);
+    }
+
+    @Benchmark
+    public NutritionBatchCalculator.Result batchParallel() {
+        NutritionBatchCalculator.calculate(cohort, result);
+        return result;
+    }
+
+    @Benchmark
+    public NutritionBatchCalculator.Result batchSequential() {
+        NutritionBatchCalculator.calculateRange(cohort, result, 0, cohortSize);
+        return result;
+    }
+
+    @Benchmark
+    public void singleUserLoop(Blackhole blackhole) {
+        for (SyntheticData.Profile profile : profiles) {
+            blackhole.consume(NutritionCalculator.calculateNutrition(profile, profile.currentWeight));
+        }
+    }
+}
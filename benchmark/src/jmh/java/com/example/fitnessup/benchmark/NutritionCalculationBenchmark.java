@@ -0,0 +1,40 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derived values on the NutritionCalculation model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NutritionCalculationBenchmark {
+    private NutritionCalculation calculation;
+
+    @Setup
+    public void setUp() {
+        SyntheticData.Profile profile = SyntheticData.profiles(1)[0];
+        calculation = NutritionCalculator.calculateNutrition(profile, profile.currentWeight);
+    }
+
+    @Benchmark
+    public double[] macroPercentages() {
+        return calculation.getMacroPercentages();
+    }
+
+    @Benchmark
+    public double totalCaloriesFromMacros() {
+        return calculation.getTotalCaloriesFromMacros();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.util.calculator.CompiledProfile;
+import com.example.fitnessup.util.calculator.NutritionCalculationCache;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-user nutrition paths: the profile path used by the dashboard,
+ * the compiled allocation-free path, and a memo cache hit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NutritionCalculatorBenchmark {
+    // Power of two so the profile index can wrap with a mask
+    private static final int PROFILE_COUNT = 1024;
+
+    private SyntheticData.Profile[] profiles;
+    private CompiledProfile[] compiledProfiles;
+    private NutritionCalculation result;
+    private NutritionCalculationCache cache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        profiles = SyntheticData.profiles(PROFILE_COUNT);
+        compiledProfiles = new CompiledProfile[PROFILE_COUNT];
+        cache = new NutritionCalculationCache(PROFILE_COUNT);
+        for (int i = 0; i < PROFILE_COUNT; i++) {
+            compiledProfiles[i] = CompiledProfile.compile(profiles[i]);
+            cache.get(compiledProfiles[i], profiles[i].currentWeight);
+        }
+        result = new NutritionCalculation();
+    }
+
+    @Benchmark
+    public NutritionCalculation profilePath() {
+        SyntheticData.Profile profile = profiles[next++ & (PROFILE_COUNT - 1)];
+        return NutritionCalculator.calculateNutrition(profile, profile.currentWeight);
+    }
+
+    @Benchmark
+    public NutritionCalculation compiledPath() {
+        int i = next++ & (PROFILE_COUNT - 1);
+        return NutritionCalculator.calculateNutrition(compiledProfiles[i], profiles[i].currentWeight, result);
+    }
+
+    @Benchmark
+    public NutritionCalculation cacheHit() {
+        int i = next++ & (PROFILE_COUNT - 1);
+        return cache.get(compiledProfiles[i], profiles[i].currentWeight);
+    }
+}
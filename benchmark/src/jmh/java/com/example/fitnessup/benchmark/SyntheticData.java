@@ -0,0 +1,162 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+import com.example.fitnessup.util.calculator.NutritionBatchCalculator;
+import com.example.fitnessup.util.calculator.NutritionCalculator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates realistic synthetic profiles and weight histories for the benchmarks.
+ * A fixed seed keeps every run working on the same data.
+ */
+final class SyntheticData {
+    static final long SEED = 20240611L;
+
+    private static final String[] GENDERS = {"PRIA", "WANITA"};
+    private static final String[] ACTIVITY_LEVELS = {
+            "Sangat Rendah", "Aktivitas Rendah", "Aktivitas Sedang", "Aktivitas Tinggi", "Aktivitas Sangat Tinggi"
+    };
+
+    // 1 Jan 2020, so 100k daily entries still end in the past
+    private static final long HISTORY_START_MILLIS = 1577836800000L;
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Create adult profiles with plausible height, age and a target within 20 kg of the initial weight
+     */
+    static Profile[] profiles(int count) {
+        Random random = new Random(SEED);
+        Profile[] profiles = new Profile[count];
+        for (int i = 0; i < count; i++) {
+            boolean male = random.nextBoolean();
+            double height = male ? 160 + random.nextGaussian() * 7 + 15 : 150 + random.nextGaussian() * 6 + 12;
+            double weight = 22 * (height / 100) * (height / 100) + random.nextGaussian() * 12;
+            profiles[i] = new Profile(
+                    male ? GENDERS[0] : GENDERS[1],
+                    18 + random.nextInt(60),
+                    round1(height),
+                    ACTIVITY_LEVELS[random.nextInt(ACTIVITY_LEVELS.length)],
+                    round1(weight + (random.nextInt(400) - 200) / 10.0),
+                    round1(weight));
+        }
+        return profiles;
+    }
+
+    /**
+     * Convert profiles to batch cohort columns, using each profile's initial weight as current weight
+     */
+    static NutritionBatchCalculator.Cohort cohort(Profile[] profiles) {
+        int size = profiles.length;
+        double[] weight = new double[size];
+        double[] height = new double[size];
+        int[] age = new int[size];
+        int[] gender = new int[size];
+        int[] activity = new int[size];
+        double[] targetWeight = new double[size];
+        for (int i = 0; i < size; i++) {
+            Profile profile = profiles[i];
+            weight[i] = profile.currentWeight;
+            height[i] = profile.height;
+            age[i] = profile.age;
+            gender[i] = NutritionCalculator.genderCode(profile.gender);
+            activity[i] = NutritionCalculator.activityCode(profile.activityLevel);
+            targetWeight[i] = profile.targetWeight;
+        }
+        return new NutritionBatchCalculator.Cohort(weight, height, age, gender, activity, targetWeight);
+    }
+
+    /**
+     * Daily morning weigh-ins that drift down to a plateau, with day-to-day noise, oldest first
+     */
+    static History history(int count) {
+        Random random = new Random(SEED);
+        long[] timestamps = new long[count];
+        double[] weights = new double[count];
+        double trend = 92;
+        for (int i = 0; i < count; i++) {
+            trend = Math.max(72, trend - 0.02 + random.nextGaussian() * 0.01);
+            timestamps[i] = HISTORY_START_MILLIS + TimeUnit.DAYS.toMillis(i)
+                    + TimeUnit.MINUTES.toMillis(random.nextInt(120));
+            weights[i] = round1(trend + random.nextGaussian() * 0.6);
+        }
+        return new History(timestamps, weights);
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    /**
+     * Plain NutritionProfile implementation, standing in for the Firestore User model
+     */
+    static final class Profile implements NutritionProfile {
+        final String gender;
+        final int age;
+        final double height;
+        final String activityLevel;
+        final double targetWeight;
+        final double currentWeight;
+
+        Profile(String gender, int age, double height, String activityLevel, double targetWeight,
+                double currentWeight) {
+            this.gender = gender;
+            this.age = age;
+            this.height = height;
+            this.activityLevel = activityLevel;
+            this.targetWeight = targetWeight;
+            this.currentWeight = currentWeight;
+        }
+
+        @Override
+        public String getGender() {
+            return gender;
+        }
+
+        @Override
+        public int getAge() {
+            return age;
+        }
+
+        @Override
+        public double getHeight() {
+            return height;
+        }
+
+        @Override
+        public String getActivityLevel() {
+            return activityLevel;
+        }
+
+        @Override
+        public double getTargetWeight() {
+            return targetWeight;
+        }
+
+        @Override
+        public double getBodyFatPercentage() {
+            return 0;
+        }
+
+        @Override
+        public String getBmrFormula() {
+            return null;
+        }
+    }
+
+    /**
+     * Weight history as parallel timestamp and weight columns
+     */
+    static final class History {
+        final long[] timestamps;
+        final double[] weights;
+
+        History(long[] timestamps, double[] weights) {
+            this.timestamps = timestamps;
+            this.weights = weights;
+        }
+    }
+}
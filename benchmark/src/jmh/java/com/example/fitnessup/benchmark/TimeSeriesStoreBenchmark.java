@@ -0,0 +1,72 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.series.TimeSeriesStore;
+import com.example.fitnessup.util.series.WeightSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a weight history back from the compressed, memory-mapped store, as WeightHistorySync
+ * does on every change: the whole series, and the last 30 days that the MONTH chart shows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeSeriesStoreBenchmark {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    @Param({"3653"})
+    public int entryCount;
+
+    private File directory;
+    private TimeSeriesStore store;
+    private long monthStartMillis;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticData.History history = SyntheticData.history(entryCount);
+        WeightSeries series = new WeightSeries(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            series.add(history.timestamps[i], history.weights[i]);
+        }
+        directory = Files.createTempDirectory("series").toFile();
+        store = TimeSeriesStore.open(directory);
+        store.replaceAll(series);
+        monthStartMillis = store.lastTimestamp() - 30 * DAY_MILLIS;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.clear();
+        store.close();
+        directory.delete();
+    }
+
+    @Benchmark
+    public WeightSeries readAll() {
+        WeightSeries series = new WeightSeries((int) store.size());
+        store.readInto(series);
+        return series;
+    }
+
+    @Benchmark
+    public double scanLastMonth() {
+        double[] sum = new double[1];
+        store.scan(monthStartMillis, Long.MAX_VALUE, (timestampMillis, weight) -> sum[0] += weight);
+        return sum[0];
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.exporter.WeightHistoryWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a history for export, the CPU side of WeightHistoryExporter, into a channel that
+ * discards the bytes. 3653 entries is a decade of daily weigh-ins.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeightExportBenchmark {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(7);
+
+    @Param({"3653"})
+    public int entryCount;
+
+    private SyntheticData.History history;
+    private SyntheticData.Profile profile;
+
+    /**
+     * Counts and drops what is written
+     */
+    private static final class CountingChannel implements WritableByteChannel {
+        long bytes;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int remaining = source.remaining();
+            source.position(source.limit());
+            bytes += remaining;
+            return remaining;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        history = SyntheticData.history(entryCount);
+        profile = SyntheticData.profiles(1)[0];
+    }
+
+    private long export(WeightHistoryWriter writer, CountingChannel channel) throws IOException {
+        for (int i = 0; i < entryCount; i++) {
+            writer.accept(history.timestamps[i], history.weights[i]);
+        }
+        writer.finish();
+        return channel.bytes;
+    }
+
+    @Benchmark
+    public long exportCsv() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        return export(WeightHistoryWriter.csv(channel, ZONE), channel);
+    }
+
+    @Benchmark
+    public long exportBinary() throws IOException {
+        CountingChannel channel = new CountingChannel();
+        return export(WeightHistoryWriter.binary(channel, profile), channel);
+    }
+}
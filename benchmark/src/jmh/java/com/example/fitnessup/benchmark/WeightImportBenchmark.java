@@ -0,0 +1,84 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.importer.ImportDeduplicator;
+import com.example.fitnessup.util.importer.WeightHistoryParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and de-duplicating an imported history file, the CPU side of WeightHistoryImporter.
+ * Half of the file's entries are already in the existing history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WeightImportBenchmark {
+
+    private static final ZoneId ZONE = ZoneOffset.UTC;
+
+    @Param({"10000"})
+    public int entryCount;
+
+    private String csv;
+    private String json;
+    private long[] existing;
+
+    @Setup
+    public void setUp() {
+        SyntheticData.History history = SyntheticData.history(entryCount);
+        StringBuilder csvText = new StringBuilder("tanggal,beratBadan\n");
+        StringBuilder jsonText = new StringBuilder("[");
+        for (int i = 0; i < entryCount; i++) {
+            String date = Instant.ofEpochMilli(history.timestamps[i]).toString();
+            csvText.append(date).append(',').append(history.weights[i]).append('\n');
+            jsonText.append(i == 0 ? "" : ",")
+                    .append("{\"tanggal\":\"").append(date).append("\",\"beratBadan\":")
+                    .append(history.weights[i]).append('}');
+        }
+        csv = csvText.toString();
+        json = jsonText.append(']').toString();
+
+        existing = new long[entryCount / 2];
+        for (int i = 0; i < existing.length; i++) {
+            existing[i] = history.timestamps[i * 2];
+        }
+    }
+
+    @Benchmark
+    public int parseCsv() throws IOException {
+        int[] accepted = new int[1];
+        ImportDeduplicator deduplicator = new ImportDeduplicator(existing, existing.length);
+        WeightHistoryParser.parseCsv(new StringReader(csv), ZONE, (timestampMillis, weight) -> {
+            if (deduplicator.accept(timestampMillis)) {
+                accepted[0]++;
+            }
+        });
+        return accepted[0];
+    }
+
+    @Benchmark
+    public int parseJson() throws IOException {
+        int[] accepted = new int[1];
+        ImportDeduplicator deduplicator = new ImportDeduplicator(existing, existing.length);
+        WeightHistoryParser.parseJson(new StringReader(json), ZONE, (timestampMillis, weight) -> {
+            if (deduplicator.accept(timestampMillis)) {
+                accepted[0]++;
+            }
+        });
+        return accepted[0];
+    }
+}
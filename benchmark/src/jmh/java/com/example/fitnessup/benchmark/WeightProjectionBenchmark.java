@@ -0,0 +1,77 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.calculator.CompiledProfile;
+import com.example.fitnessup.util.calculator.NutritionBatchCalculator;
+import com.example.fitnessup.util.calculator.WeightProjection;
+import com.example.fitnessup.util.calculator.WeightProjectionCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 104-week projections: whole cohorts (fork-join and single-threaded), one profile, and a weigh-in re-anchor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WeightProjectionBenchmark {
+
+    private static final int WEEKS = WeightProjectionCalculator.DEFAULT_HORIZON_WEEKS;
+
+    @Param({"1000", "10000"})
+    public int cohortSize;
+
+    private NutritionBatchCalculator.Cohort cohort;
+    private WeightProjectionCalculator.Projection projection;
+    private CompiledProfile profile;
+    private double startWeight;
+    private double[] trajectory;
+    private WeightProjection incremental;
+    private int weighIn;
+
+    @Setup
+    public void setUp() {
+        SyntheticData.Profile[] profiles = SyntheticData.profiles(cohortSize);
+        cohort = SyntheticData.cohort(profiles);
+        projection = new WeightProjectionCalculator.Projection(cohortSize, WEEKS);
+
+        profile = CompiledProfile.compile(profiles[0]);
+        startWeight = profiles[0].currentWeight;
+        trajectory = new double[WEEKS + 1];
+        incremental = new WeightProjection(WEEKS);
+        incremental.setProfile(profile);
+    }
+
+    @Benchmark
+    public WeightProjectionCalculator.Projection batchParallel() {
+        WeightProjectionCalculator.project(cohort, projection);
+        return projection;
+    }
+
+    @Benchmark
+    public WeightProjectionCalculator.Projection batchSequential() {
+        WeightProjectionCalculator.projectRange(cohort, projection, 0, cohortSize);
+        return projection;
+    }
+
+    @Benchmark
+    public int singleProfile() {
+        return WeightProjectionCalculator.project(profile, startWeight, WEEKS, trajectory);
+    }
+
+    @Benchmark
+    public int reanchor() {
+        // Alternate between two weights so every call re-simulates
+        weighIn++;
+        incremental.reanchor(weighIn, startWeight + (weighIn & 1) * 0.1);
+        return incremental.getEtaWeeks();
+    }
+}
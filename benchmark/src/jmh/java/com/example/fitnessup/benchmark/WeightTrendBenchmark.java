@@ -0,0 +1,52 @@
+package com.example.fitnessup.benchmark;
+
+import com.example.fitnessup.util.calculator.WeightTrendCalculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trend and time-range filter logic behind ProgressViewModel, over histories of increasing length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WeightTrendBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int historySize;
+
+    private SyntheticData.History history;
+    private long monthCutoff;
+
+    @Setup
+    public void setUp() {
+        history = SyntheticData.history(historySize);
+        // Same cutoff as TimeRange.MONTH relative to the newest entry
+        monthCutoff = history.timestamps[historySize - 1] - TimeUnit.DAYS.toMillis(30);
+    }
+
+    @Benchmark
+    public double changePerWeek() {
+        return WeightTrendCalculator.changePerWeek(history.timestamps, history.weights, historySize);
+    }
+
+    @Benchmark
+    public String trendMessage() {
+        return WeightTrendCalculator.describeTrend(
+                WeightTrendCalculator.changePerWeek(history.timestamps, history.weights, historySize));
+    }
+
+    @Benchmark
+    public int filterLastMonth() {
+        return WeightTrendCalculator.firstIndexAfter(history.timestamps, historySize, monthCutoff);
+    }
+}
@@ -0,0 +1,14 @@
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    // The generated mappers implement DocumentMapper; the tests compile models against it
+    testImplementation(project(":nutrition-core"))
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,335 @@
+package com.example.fitnessup.util.mapper.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a DocumentMapper for every class annotated with FirestoreDocument. The mapper reads and
+ * writes each FirestoreField under its stored key with plain getter and setter calls, so converting
+ * a document costs a few map lookups and casts instead of the reflective bean mapping of
+ * DocumentSnapshot.toObject(), and the keys cannot drift from the field names.
+ * Annotations are matched by name, so the processor has no dependencies.
+ */
+@SupportedAnnotationTypes(FirestoreMapperProcessor.DOCUMENT_ANNOTATION)
+public class FirestoreMapperProcessor extends AbstractProcessor {
+
+    static final String DOCUMENT_ANNOTATION = "com.example.fitnessup.util.mapper.FirestoreDocument";
+    static final String FIELD_ANNOTATION = "com.example.fitnessup.util.mapper.FirestoreField";
+    static final String MAPPER_INTERFACE = "com.example.fitnessup.util.mapper.DocumentMapper";
+    static final String MAPPER_SUFFIX = "Mapper";
+
+    /**
+     * A field that cannot be mapped, reported as a compile error on the field
+     */
+    private static final class MappingException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final transient Element element; // Only read within the processing round that threw it
+
+        MappingException(Element element, String message) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+    /**
+     * A stored field with the code that reads it from and writes it to a model named "object"
+     */
+    private static final class StoredField {
+        final String key;
+        final String read; // Expression
+        final String write; // Statement format, %s is the converted value
+        final String check; // Condition on "value" for the conversion to apply
+        final String convert; // Expression converting "value"
+
+        StoredField(String key, String read, String write, String check, String convert) {
+            this.key = key;
+            this.read = read;
+            this.write = write;
+            this.check = check;
+            this.convert = convert;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS) {
+                    error(element, "@FirestoreDocument only applies to classes");
+                    continue;
+                }
+                try {
+                    generate((TypeElement) element);
+                } catch (MappingException e) {
+                    error(e.element, e.getMessage());
+                } catch (IOException e) {
+                    error(element, "Cannot write the mapper: " + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws MappingException, IOException {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new MappingException(type, "A @FirestoreDocument class cannot be abstract");
+        }
+        if (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new MappingException(type, "A nested @FirestoreDocument class must be static");
+        }
+        if (!hasNoArgConstructor(type)) {
+            throw new MappingException(type, "A @FirestoreDocument class needs a non-private no-argument constructor");
+        }
+
+        List<StoredField> fields = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            String key = storedKey(field);
+            if (key == null) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                throw new MappingException(field, "@FirestoreField cannot be static");
+            }
+            if (!keys.add(key)) {
+                throw new MappingException(field, "Document key \"" + key + "\" is used by another field");
+            }
+            fields.add(storedField(type, field, key));
+        }
+
+        PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = packageElement.getQualifiedName().toString();
+        String modelName = type.getQualifiedName().toString();
+        String mapperName = type.getSimpleName() + MAPPER_SUFFIX;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? mapperName : packageName + "." + mapperName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source(packageName, modelName, type.getSimpleName().toString(), mapperName, fields));
+        }
+    }
+
+    private static boolean hasNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The key of a FirestoreField, or null if the field is not annotated
+     */
+    private static String storedKey(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(FIELD_ANNOTATION)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : annotation.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return (String) entry.getValue().getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private StoredField storedField(TypeElement type, VariableElement field, String key) throws MappingException {
+        TypeMirror fieldType = field.asType();
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+
+        // Prefer the accessors, like the bean mapping did; fall back to the field itself
+        ExecutableElement getter = findGetter(type, fieldType, "get" + capitalized);
+        if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) {
+            getter = findGetter(type, fieldType, "is" + capitalized);
+        }
+        ExecutableElement setter = findSetter(type, fieldType, "set" + capitalized);
+        boolean fieldAccessible = !field.getModifiers().contains(Modifier.PRIVATE);
+        if ((getter == null || setter == null) && !fieldAccessible) {
+            throw new MappingException(field, "@FirestoreField " + name
+                    + " needs a getter and a setter, or must not be private");
+        }
+        if (field.getModifiers().contains(Modifier.FINAL) && setter == null) {
+            throw new MappingException(field, "@FirestoreField " + name + " is final and has no setter");
+        }
+        String read = getter != null ? "object." + getter.getSimpleName() + "()" : "object." + name;
+        String write = setter != null ? "object." + setter.getSimpleName() + "(%s);" : "object." + name + " = %s;";
+
+        String[] conversion = conversion(field, fieldType);
+        return new StoredField(key, read, write, conversion[0], conversion[1]);
+    }
+
+    private ExecutableElement findGetter(TypeElement type, TypeMirror fieldType, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().isEmpty()
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getReturnType(), fieldType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private ExecutableElement findSetter(TypeElement type, TypeMirror fieldType, String name) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == 1
+                    && !method.getModifiers().contains(Modifier.PRIVATE)
+                    && !method.getModifiers().contains(Modifier.STATIC)
+                    && processingEnv.getTypeUtils().isSameType(method.getParameters().get(0).asType(), fieldType)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The check on "value" and the expression converting it to the field type
+     */
+    private String[] conversion(VariableElement field, TypeMirror fieldType) throws MappingException {
+        switch (fieldType.getKind()) {
+            case BOOLEAN:
+                return new String[]{"value instanceof Boolean", "(Boolean) value"};
+            case BYTE:
+                return number("byteValue");
+            case SHORT:
+                return number("shortValue");
+            case INT:
+                return number("intValue");
+            case LONG:
+                return number("longValue");
+            case FLOAT:
+                return number("floatValue");
+            case DOUBLE:
+                return number("doubleValue");
+            case DECLARED:
+                break;
+            default:
+                throw new MappingException(field, "Unsupported @FirestoreField type " + fieldType);
+        }
+        String erasure = processingEnv.getTypeUtils().erasure(fieldType).toString();
+        switch (erasure) {
+            case "java.lang.Byte":
+                return number("byteValue");
+            case "java.lang.Short":
+                return number("shortValue");
+            case "java.lang.Integer":
+                return number("intValue");
+            case "java.lang.Long":
+                return number("longValue");
+            case "java.lang.Float":
+                return number("floatValue");
+            case "java.lang.Double":
+                return number("doubleValue");
+            case "java.lang.Character":
+                throw new MappingException(field, "Unsupported @FirestoreField type " + fieldType);
+            default:
+                // Stored as is: String, Boolean, Timestamp, GeoPoint, Map, List...
+                return new String[]{"value instanceof " + erasure, "(" + fieldType + ") value"};
+        }
+    }
+
+    private static String[] number(String method) {
+        return new String[]{"value instanceof Number", "((Number) value)." + method + "()"};
+    }
+
+    private static String source(String packageName, String modelName, String simpleName, String mapperName,
+                                 List<StoredField> fields) {
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("import java.util.HashMap;\n")
+                .append("import java.util.Map;\n\n")
+                .append("/**\n")
+                .append(" * Maps ").append(simpleName).append(" to and from its Firestore document without reflection.\n")
+                .append(" * Generated by FirestoreMapperProcessor; do not edit.\n")
+                .append(" */\n")
+                .append("public final class ").append(mapperName)
+                .append(" implements ").append(MAPPER_INTERFACE).append('<').append(modelName).append("> {\n\n")
+                .append("    public static final ").append(mapperName).append(" INSTANCE = new ").append(mapperName).append("();\n\n")
+                .append("    private ").append(mapperName).append("() {\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public ").append(modelName).append(" fromMap(Map<String, Object> data) {\n")
+                .append("        if (data == null) {\n")
+                .append("            return null;\n")
+                .append("        }\n")
+                .append("        ").append(modelName).append(" object = new ").append(modelName).append("();\n");
+        if (!fields.isEmpty()) {
+            out.append("        Object value;\n");
+        }
+        for (StoredField field : fields) {
+            out.append("        value = data.get(").append(literal(field.key)).append(");\n")
+                    .append("        if (").append(field.check).append(") {\n")
+                    .append("            ").append(String.format(field.write, field.convert)).append('\n')
+                    .append("        }\n");
+        }
+        out.append("        return object;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Map<String, Object> toMap(").append(modelName).append(" object) {\n")
+                .append("        Map<String, Object> map = new HashMap<>(")
+                .append((int) (fields.size() / 0.75f) + 1).append(");\n");
+        for (StoredField field : fields) {
+            out.append("        map.put(").append(literal(field.key)).append(", ").append(field.read).append(");\n");
+        }
+        out.append("        return map;\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private static String literal(String text) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
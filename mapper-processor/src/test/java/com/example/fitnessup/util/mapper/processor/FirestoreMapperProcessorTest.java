@@ -0,0 +1,161 @@
+package com.example.fitnessup.util.mapper.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitnessup.util.mapper.DocumentMapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles model classes with the processor and exercises the generated mappers.
+ */
+public class FirestoreMapperProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String PROFILE = "package sample;\n"
+            + "import com.example.fitnessup.util.mapper.FirestoreDocument;\n"
+            + "import com.example.fitnessup.util.mapper.FirestoreField;\n"
+            + "import java.util.List;\n"
+            + "@FirestoreDocument\n"
+            + "public class Profile {\n"
+            + "    private String id; // Not stored\n"
+            + "    @FirestoreField(\"nama\") private String name;\n"
+            + "    @FirestoreField(\"usia\") private int age;\n"
+            + "    @FirestoreField(\"tinggiBadan\") private double height;\n"
+            + "    @FirestoreField(\"aktif\") private boolean active;\n"
+            + "    @FirestoreField(\"catatan\") List<String> notes; // Package-private, no accessors\n"
+            + "    public String getId() { return id; }\n"
+            + "    public String getName() { return name; }\n"
+            + "    public void setName(String name) { this.name = name; }\n"
+            + "    public int getAge() { return age; }\n"
+            + "    public void setAge(int age) { this.age = age; }\n"
+            + "    public double getHeight() { return height; }\n"
+            + "    public void setHeight(double height) { this.height = height; }\n"
+            + "    public boolean isActive() { return active; }\n"
+            + "    public void setActive(boolean active) { this.active = active; }\n"
+            + "}\n";
+
+    private File compile(String className, String source, DiagnosticCollector<JavaFileObject> diagnostics)
+            throws IOException {
+        File sourceDir = folder.newFolder();
+        File outputDir = folder.newFolder();
+        File file = new File(sourceDir, className + ".java");
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String classpath = DocumentMapper.class.getProtectionDomain().getCodeSource().getLocation().getPath();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = Arrays.asList("-classpath", classpath,
+                    "-d", outputDir.getPath(), "-s", outputDir.getPath());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, options, null,
+                    files.getJavaFileObjects(file));
+            task.setProcessors(Collections.singletonList(new FirestoreMapperProcessor()));
+            return task.call() ? outputDir : null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DocumentMapper<Object> loadMapper(File outputDir, String mapperName) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[]{outputDir.toURI().toURL()},
+                FirestoreMapperProcessorTest.class.getClassLoader());
+        return (DocumentMapper<Object>) loader.loadClass(mapperName).getField("INSTANCE").get(null);
+    }
+
+    private static Object call(Object object, String method) throws Exception {
+        Method getter = object.getClass().getMethod(method);
+        return getter.invoke(object);
+    }
+
+    @Test
+    public void generatedMapperUsesStoredKeysBothWays() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        File output = compile("Profile", PROFILE, diagnostics);
+        assertTrue(diagnostics.getDiagnostics().toString(), output != null);
+        DocumentMapper<Object> mapper = loadMapper(output, "sample.ProfileMapper");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("nama", "Sari");
+        data.put("usia", 29L); // Firestore returns whole numbers as Long
+        data.put("tinggiBadan", 160L); // A double field written as a whole number
+        data.put("aktif", true);
+        data.put("catatan", Arrays.asList("a", "b"));
+        data.put("name", "ignored"); // Java field names are not stored keys
+        Object profile = mapper.fromMap(data);
+
+        assertEquals("Sari", call(profile, "getName"));
+        assertEquals(29, call(profile, "getAge"));
+        assertEquals(160.0, call(profile, "getHeight"));
+        assertEquals(true, call(profile, "isActive"));
+        assertNull(call(profile, "getId"));
+
+        Map<String, Object> written = mapper.toMap(profile);
+        data.remove("name");
+        data.put("usia", 29);
+        data.put("tinggiBadan", 160.0);
+        assertEquals(data, written);
+    }
+
+    @Test
+    public void missingAndMistypedValuesKeepDefaults() throws Exception {
+        File output = compile("Profile", PROFILE, new DiagnosticCollector<>());
+        DocumentMapper<Object> mapper = loadMapper(output, "sample.ProfileMapper");
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("usia", "dua puluh");
+        data.put("nama", null);
+        Object profile = mapper.fromMap(data);
+
+        assertEquals(0, call(profile, "getAge"));
+        assertNull(call(profile, "getName"));
+        assertFalse((Boolean) call(profile, "isActive"));
+        assertNull(mapper.fromMap(null));
+    }
+
+    @Test
+    public void privateFieldWithoutSetterIsAnError() throws Exception {
+        String source = "package sample;\n"
+                + "import com.example.fitnessup.util.mapper.FirestoreDocument;\n"
+                + "import com.example.fitnessup.util.mapper.FirestoreField;\n"
+                + "@FirestoreDocument\n"
+                + "public class Entry {\n"
+                + "    @FirestoreField(\"beratBadan\") private double weight;\n"
+                + "    public double getWeight() { return weight; }\n"
+                + "}\n";
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertNull(compile("Entry", source, diagnostics));
+        boolean reported = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            reported |= diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    && diagnostic.getMessage(null).contains("needs a getter and a setter");
+        }
+        assertTrue(diagnostics.getDiagnostics().toString(), reported);
+    }
+}
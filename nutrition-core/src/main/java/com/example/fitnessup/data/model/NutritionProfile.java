@@ -0,0 +1,43 @@
+package com.example.fitnessup.data.model;
+
+/**
+ * The profile fields that nutrition calculations depend on.
+ * Implemented by User; kept free of Firebase types so the calculators can run on a plain JVM.
+ */
+public interface NutritionProfile {
+
+    /**
+     * @return "PRIA" (male) or "WANITA" (female)
+     */
+    String getGender();
+
+    /**
+     * @return Age in years
+     */
+    int getAge();
+
+    /**
+     * @return Height in cm
+     */
+    double getHeight();
+
+    /**
+     * @return Activity level, e.g. "Aktivitas Sedang"
+     */
+    String getActivityLevel();
+
+    /**
+     * @return Target weight in kg
+     */
+    double getTargetWeight();
+
+    /**
+     * @return Body fat in percent, 0 if unknown
+     */
+    double getBodyFatPercentage();
+
+    /**
+     * @return Name of the BMR formula to use, null for the default (Mifflin-St Jeor)
+     */
+    String getBmrFormula();
+}
@@ -0,0 +1,203 @@
+package com.example.fitnessup.util.calculator;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming estimate of a user's real TDEE, learned from their weight history.
+ * Assumes the user eats the calorie target the app showed them, so their true weight changes by
+ *   (calorie target - actual TDEE) / 7700 kg per day
+ * A two-state Kalman filter tracks the true weight and the offset of the actual TDEE from the formula TDEE.
+ * Each weigh-in is a noisy measurement of the true weight; a steady gap between the weight the formula
+ * predicts and the weight the scale shows is explained by the offset.
+ *
+ * Every update is O(1) and the whole state is a handful of numbers, so it can be persisted with toMap()
+ * (or Java serialization) and resumed instead of replaying the history on every launch.
+ * Not thread-safe.
+ */
+public class AdaptiveTdeeEstimator implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Prior uncertainty of the formula TDEE
+    private static final double PRIOR_STD_KCAL = 300;
+
+    // How fast the real offset may drift (metabolic adaptation, lifestyle changes)
+    private static final double DRIFT_STD_KCAL_PER_DAY = 10;
+
+    // Day-to-day scale noise (water, food, clothing)
+    private static final double WEIGHT_NOISE_STD_KG = 0.5;
+
+    // How far a day's intake may stray from the calorie target
+    private static final double ADHERENCE_STD_KCAL_PER_DAY = 250;
+
+    private static final double MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    // Firestore keys for toMap() / fromMap()
+    private static final String KEY_WEIGHT_ESTIMATE = "estimasiBeratBadan";
+    private static final String KEY_ADJUSTMENT = "penyesuaianTdee";
+    private static final String KEY_VARIANCE_WEIGHT = "variansBeratBadan";
+    private static final String KEY_COVARIANCE = "kovarians";
+    private static final String KEY_VARIANCE_ADJUSTMENT = "variansTdee";
+    private static final String KEY_TIMESTAMP = "timestampTerakhir";
+    private static final String KEY_WEIGHT = "beratBadanTerakhir";
+    private static final String KEY_OBSERVATIONS = "jumlahObservasi";
+
+    // Filter state: true weight in kg, TDEE offset in kcal, and their covariance matrix
+    private double weightEstimate;
+    private double tdeeAdjustment; // Estimated actual TDEE minus formula TDEE
+    private double weightVariance;
+    private double covariance;
+    private double adjustmentVariance = PRIOR_STD_KCAL * PRIOR_STD_KCAL;
+
+    private long lastTimestampMillis = -1; // Last consumed weigh-in, -1 if none yet
+    private double lastWeight; // Scale weight of the last consumed weigh-in
+    private long observationCount;
+
+    /**
+     * Feed the next weigh-in. Entries at or before the last consumed one are ignored, so replaying
+     * an already consumed history is harmless.
+     * @param profile The user's compiled profile, used for the formula TDEE and calorie target
+     * @param timestampMillis Time of the weigh-in in epoch millis
+     * @param weight Weight in kg
+     * @return true if the entry was consumed
+     */
+    public boolean update(CompiledProfile profile, long timestampMillis, double weight) {
+        double measurementVariance = WEIGHT_NOISE_STD_KG * WEIGHT_NOISE_STD_KG;
+        if (lastTimestampMillis < 0) {
+            weightEstimate = weight;
+            weightVariance = measurementVariance;
+            accept(timestampMillis, weight);
+            return true;
+        }
+        if (timestampMillis <= lastTimestampMillis) {
+            return false; // Already consumed
+        }
+
+        double days = (timestampMillis - lastTimestampMillis) / MILLIS_PER_DAY;
+        double kcalPerKg = WeightProjectionCalculator.KCAL_PER_KG;
+
+        // Step A: Calorie target the app showed since the last weigh-in, and formula TDEE at the true weight
+        int goal = NutritionCalculator.determineGoal(lastWeight, profile.getTargetWeight());
+        double intake = NutritionCalculator.calculateDailyCalories(formulaTdee(profile, lastWeight), goal);
+        double balance = intake - formulaTdee(profile, weightEstimate);
+
+        // Step B: Predict the true weight; the offset is unchanged apart from drift
+        double step = days / kcalPerKg; // kg per kcal/day over the interval
+        weightEstimate += step * (balance - tdeeAdjustment);
+        weightVariance += -2 * step * covariance + step * step * adjustmentVariance;
+        covariance -= step * adjustmentVariance;
+
+        double adherence = ADHERENCE_STD_KCAL_PER_DAY / kcalPerKg;
+        weightVariance += adherence * adherence * days;
+        adjustmentVariance += DRIFT_STD_KCAL_PER_DAY * DRIFT_STD_KCAL_PER_DAY * days;
+
+        // Step C: Update both states with the measured weight
+        double innovation = weight - weightEstimate;
+        double innovationVariance = weightVariance + measurementVariance;
+        double weightGain = weightVariance / innovationVariance;
+        double adjustmentGain = covariance / innovationVariance;
+        weightEstimate += weightGain * innovation;
+        tdeeAdjustment += adjustmentGain * innovation;
+        adjustmentVariance -= adjustmentGain * covariance;
+        covariance *= 1 - weightGain;
+        weightVariance *= 1 - weightGain;
+
+        accept(timestampMillis, weight);
+        return true;
+    }
+
+    private void accept(long timestampMillis, double weight) {
+        lastTimestampMillis = timestampMillis;
+        lastWeight = weight;
+        observationCount++;
+    }
+
+    private static double formulaTdee(CompiledProfile profile, double weight) {
+        double bmr = NutritionCalculator.calculateBMR(profile.getBmrWeight(), profile.getBmrHeight(),
+                profile.getBmrAge(), profile.getBmrConstant(), weight, profile.getHeight(), profile.getAge());
+        return NutritionCalculator.calculateTDEE(bmr, profile.getActivityMultiplier());
+    }
+
+    /**
+     * Get the estimated difference between the actual and the formula TDEE
+     * @return Offset in kcal, to add to the formula TDEE
+     */
+    public double getTdeeAdjustment() {
+        return tdeeAdjustment;
+    }
+
+    /**
+     * Get the uncertainty of the TDEE adjustment
+     * @return Standard deviation in kcal
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(adjustmentVariance);
+    }
+
+    /**
+     * Get the filtered (noise-free) weight estimate
+     * @return Weight in kg
+     */
+    public double getWeightEstimate() {
+        return weightEstimate;
+    }
+
+    /**
+     * Get the time of the last consumed weigh-in
+     * @return Epoch millis, or -1 if nothing has been consumed yet
+     */
+    public long getLastTimestampMillis() {
+        return lastTimestampMillis;
+    }
+
+    /**
+     * Get the number of consumed weigh-ins
+     */
+    public long getObservationCount() {
+        return observationCount;
+    }
+
+    // Convert the estimator state to a Firestore map
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(KEY_WEIGHT_ESTIMATE, weightEstimate);
+        map.put(KEY_ADJUSTMENT, tdeeAdjustment);
+        map.put(KEY_VARIANCE_WEIGHT, weightVariance);
+        map.put(KEY_COVARIANCE, covariance);
+        map.put(KEY_VARIANCE_ADJUSTMENT, adjustmentVariance);
+        map.put(KEY_TIMESTAMP, lastTimestampMillis);
+        map.put(KEY_WEIGHT, lastWeight);
+        map.put(KEY_OBSERVATIONS, observationCount);
+        return map;
+    }
+
+    /**
+     * Restore an estimator from a map written by toMap()
+     * @param map Stored state, may be null or incomplete
+     * @return Restored estimator, or a fresh one if the state is missing or incomplete
+     */
+    public static AdaptiveTdeeEstimator fromMap(Map<String, Object> map) {
+        AdaptiveTdeeEstimator estimator = new AdaptiveTdeeEstimator();
+        String[] keys = {KEY_WEIGHT_ESTIMATE, KEY_ADJUSTMENT, KEY_VARIANCE_WEIGHT, KEY_COVARIANCE,
+                KEY_VARIANCE_ADJUSTMENT, KEY_TIMESTAMP, KEY_WEIGHT, KEY_OBSERVATIONS};
+        if (map == null) {
+            return estimator;
+        }
+        for (String key : keys) {
+            if (!(map.get(key) instanceof Number)) {
+                return estimator;
+            }
+        }
+        estimator.weightEstimate = ((Number) map.get(KEY_WEIGHT_ESTIMATE)).doubleValue();
+        estimator.tdeeAdjustment = ((Number) map.get(KEY_ADJUSTMENT)).doubleValue();
+        estimator.weightVariance = ((Number) map.get(KEY_VARIANCE_WEIGHT)).doubleValue();
+        estimator.covariance = ((Number) map.get(KEY_COVARIANCE)).doubleValue();
+        estimator.adjustmentVariance = ((Number) map.get(KEY_VARIANCE_ADJUSTMENT)).doubleValue();
+        estimator.lastTimestampMillis = ((Number) map.get(KEY_TIMESTAMP)).longValue();
+        estimator.lastWeight = ((Number) map.get(KEY_WEIGHT)).doubleValue();
+        estimator.observationCount = ((Number) map.get(KEY_OBSERVATIONS)).longValue();
+        return estimator;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.fitnessup.util.calculator;
+
+/**
+ * Supported Basal Metabolic Rate (BMR) formulas, each stored as a coefficient table.
+ * Every formula is linear in weight, height, age and lean body mass:
+ *   BMR = w × weight + h × height + a × age + c + l × leanBodyMass
+ * A profile's lean body mass is itself linear in weight (known body fat) or in weight and height
+ * (Boer estimate), so compile() folds it in and every formula reduces to the same four coefficients.
+ * The calculators then evaluate one branch-free expression regardless of the selected formula.
+ */
+public enum BmrFormula {
+    // Mifflin-St Jeor (1990)
+    MIFFLIN_ST_JEOR(
+            new double[]{10, 6.25, -5, 5, 0},
+            new double[]{10, 6.25, -5, -161, 0}),
+
+    // Harris-Benedict, revised by Roza and Shizgal (1984)
+    HARRIS_BENEDICT(
+            new double[]{13.397, 4.799, -5.677, 88.362, 0},
+            new double[]{9.247, 3.098, -4.330, 447.593, 0}),
+
+    // Katch-McArdle: 370 + 21.6 × lean body mass
+    KATCH_MCARDLE(
+            new double[]{0, 0, 0, 370, 21.6},
+            new double[]{0, 0, 0, 370, 21.6}),
+
+    // Cunningham (1980): 500 + 22 × lean body mass
+    CUNNINGHAM(
+            new double[]{0, 0, 0, 500, 22},
+            new double[]{0, 0, 0, 500, 22});
+
+    // Column positions in the coefficient tables
+    private static final int WEIGHT = 0;
+    private static final int HEIGHT = 1;
+    private static final int AGE = 2;
+    private static final int CONSTANT = 3;
+    private static final int LEAN_MASS = 4;
+
+    // Boer (1984) lean body mass estimate used when body fat is unknown: weight, height, constant
+    private static final double[][] BOER_LEAN_MASS = {
+            {0.407, 0.267, -19.2},  // GENDER_MALE
+            {0.252, 0.473, -48.3}   // GENDER_FEMALE
+    };
+
+    private final double[][] coefficients; // Indexed by NutritionCalculator.GENDER_* code
+
+    BmrFormula(double[] male, double[] female) {
+        this.coefficients = new double[][]{male, female};
+    }
+
+    /**
+     * Resolve a stored formula name to a formula
+     * @param name Enum name as stored in the user profile, may be null
+     * @return Matching formula, MIFFLIN_ST_JEOR if null or unknown
+     */
+    public static BmrFormula fromName(String name) {
+        if (name != null) {
+            for (BmrFormula formula : values()) {
+                if (formula.name().equalsIgnoreCase(name)) {
+                    return formula;
+                }
+            }
+        }
+        return MIFFLIN_ST_JEOR;
+    }
+
+    /**
+     * Whether this formula is based on lean body mass rather than total weight
+     */
+    public boolean usesLeanBodyMass() {
+        return coefficients[0][LEAN_MASS] != 0;
+    }
+
+    /**
+     * Fold this formula and the profile's body composition into four BMR coefficients
+     * @param gender NutritionCalculator.GENDER_* code
+     * @param bodyFatPercentage Body fat in percent, 0 or less if unknown
+     * @param out Receives weight, height, age and constant coefficients, in that order
+     */
+    public void compile(int gender, double bodyFatPercentage, double[] out) {
+        double[] row = coefficients[gender];
+        double leanMass = row[LEAN_MASS];
+
+        out[WEIGHT] = row[WEIGHT];
+        out[HEIGHT] = row[HEIGHT];
+        out[AGE] = row[AGE];
+        out[CONSTANT] = row[CONSTANT];
+
+        if (leanMass == 0) {
+            return;
+        }
+        if (bodyFatPercentage > 0) {
+            // Lean body mass = weight × (1 - body fat)
+            out[WEIGHT] += leanMass * (1 - bodyFatPercentage / 100);
+        } else {
+            double[] boer = BOER_LEAN_MASS[gender];
+            out[WEIGHT] += leanMass * boer[0];
+            out[HEIGHT] += leanMass * boer[1];
+            out[CONSTANT] += leanMass * boer[2];
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fitnessup.util.calculator;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+
+/**
+ * Immutable, pre-resolved form of a User profile for repeated nutrition calculations.
+ * Gender, activity level and BMR formula are resolved once at compile time into primitive codes,
+ * an activity multiplier and four BMR coefficients, so recomputing targets for a new weight does
+ * no string work, no formula branching and no allocation.
+ */
+public final class CompiledProfile {
+    private final int gender; // NutritionCalculator.GENDER_* code
+    private final int activity; // NutritionCalculator.ACTIVITY_* code
+    private final double activityMultiplier; // TDEE multiplier for the activity code
+    private final int age; // in years
+    private final double height; // in cm
+    private final double targetWeight; // in kg
+    private final BmrFormula bmrFormula;
+    private final double bodyFatPercentage; // in percent, 0 if unknown
+
+    // BMR = bmrWeight × weight + bmrHeight × height + bmrAge × age + bmrConstant
+    private final double bmrWeight;
+    private final double bmrHeight;
+    private final double bmrAge;
+    private final double bmrConstant;
+
+    private CompiledProfile(int gender, int activity, int age, double height, double targetWeight,
+                            BmrFormula bmrFormula, double bodyFatPercentage) {
+        this.gender = gender;
+        this.activity = activity;
+        this.activityMultiplier = NutritionCalculator.activityMultiplier(activity);
+        this.age = age;
+        this.height = height;
+        this.targetWeight = targetWeight;
+        this.bmrFormula = bmrFormula;
+        this.bodyFatPercentage = bodyFatPercentage;
+
+        double[] coefficients = new double[4];
+        bmrFormula.compile(gender, bodyFatPercentage, coefficients);
+        this.bmrWeight = coefficients[0];
+        this.bmrHeight = coefficients[1];
+        this.bmrAge = coefficients[2];
+        this.bmrConstant = coefficients[3];
+    }
+
+    /**
+     * Compile a user profile, resolving its string fields to primitive codes
+     * @param user The user's profile data
+     * @return CompiledProfile for the user
+     */
+    public static CompiledProfile compile(NutritionProfile user) {
+        return new CompiledProfile(
+                NutritionCalculator.genderCode(user.getGender()),
+                NutritionCalculator.activityCode(user.getActivityLevel()),
+                user.getAge(),
+                user.getHeight(),
+                user.getTargetWeight(),
+                BmrFormula.fromName(user.getBmrFormula()),
+                user.getBodyFatPercentage());
+    }
+
+    /**
+     * Create a compiled profile directly from primitive codes, using the Mifflin-St Jeor formula
+     * @param gender NutritionCalculator.GENDER_* code
+     * @param activity NutritionCalculator.ACTIVITY_* code
+     * @param age Age in years
+     * @param height Height in cm
+     * @param targetWeight Target weight in kg
+     * @return CompiledProfile with the given values
+     */
+    public static CompiledProfile of(int gender, int activity, int age, double height, double targetWeight) {
+        return of(gender, activity, age, height, targetWeight, BmrFormula.MIFFLIN_ST_JEOR, 0);
+    }
+
+    /**
+     * Create a compiled profile directly from primitive codes
+     * @param gender NutritionCalculator.GENDER_* code
+     * @param activity NutritionCalculator.ACTIVITY_* code
+     * @param age Age in years
+     * @param height Height in cm
+     * @param targetWeight Target weight in kg
+     * @param bmrFormula Formula used for BMR
+     * @param bodyFatPercentage Body fat in percent, 0 if unknown
+     * @return CompiledProfile with the given values
+     */
+    public static CompiledProfile of(int gender, int activity, int age, double height, double targetWeight,
+                                     BmrFormula bmrFormula, double bodyFatPercentage) {
+        return new CompiledProfile(gender, activity, age, height, targetWeight, bmrFormula, bodyFatPercentage);
+    }
+
+    public int getGender() {
+        return gender;
+    }
+
+    public int getActivity() {
+        return activity;
+    }
+
+    public double getActivityMultiplier() {
+        return activityMultiplier;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getTargetWeight() {
+        return targetWeight;
+    }
+
+    public BmrFormula getBmrFormula() {
+        return bmrFormula;
+    }
+
+    public double getBodyFatPercentage() {
+        return bodyFatPercentage;
+    }
+
+    public double getBmrWeight() {
+        return bmrWeight;
+    }
+
+    public double getBmrHeight() {
+        return bmrHeight;
+    }
+
+    public double getBmrAge() {
+        return bmrAge;
+    }
+
+    public double getBmrConstant() {
+        return bmrConstant;
+    }
+}
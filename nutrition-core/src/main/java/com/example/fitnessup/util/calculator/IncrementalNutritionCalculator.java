@@ -0,0 +1,291 @@
+package com.example.fitnessup.util.calculator;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.data.model.NutritionProfile;
+
+/**
+ * Incremental version of NutritionCalculator for a single long-lived profile.
+ * The calculation is modelled as a small dependency graph of stages:
+ *   coefficients <- gender, BMR formula, body fat
+ *   goal         <- weight, target weight
+ *   BMR          <- coefficients, weight, height, age
+ *   TDEE         <- BMR, activity level
+ *   calories     <- TDEE, goal
+ *   macros       <- calories, goal
+ *
+ * Each stage caches its output. Setters only mark the stages that read the changed field as dirty,
+ * and calculate() re-evaluates dirty stages in order. A stage whose output did not change does not
+ * dirty its dependents, so e.g. a 0.01 kg weight change that keeps the goal and the rounded BMR
+ * only re-evaluates the goal and BMR stages.
+ * Results are identical to NutritionCalculator.calculateNutrition.
+ *
+ * Not thread-safe; use one instance per screen or profile.
+ */
+public class IncrementalNutritionCalculator {
+
+    // Stages, in evaluation order
+    public static final int STAGE_COEFFICIENTS = 0;
+    public static final int STAGE_GOAL = 1;
+    public static final int STAGE_BMR = 2;
+    public static final int STAGE_TDEE = 3;
+    public static final int STAGE_CALORIES = 4;
+    public static final int STAGE_MACROS = 5;
+    private static final int STAGE_COUNT = 6;
+
+    // Bit set of stages that must be re-evaluated
+    private int dirty = (1 << STAGE_COUNT) - 1;
+    private final long[] evaluationCounts = new long[STAGE_COUNT];
+
+    // Inputs
+    private boolean hasWeight;
+    private boolean hasProfile;
+    private double weight = Double.NaN;
+    private double targetWeight = Double.NaN;
+    private String genderName;
+    private int gender = -1;
+    private int age = -1;
+    private double height = Double.NaN;
+    private String activityLevel;
+    private double activityMultiplier = Double.NaN;
+    private BmrFormula bmrFormula;
+    private double bodyFatPercentage = Double.NaN;
+
+    // Cached stage outputs
+    private final double[] coefficients = new double[4];
+    private int goal;
+    private double bmr;
+    private double tdee;
+    private double dailyCalorieTarget;
+    private double proteinGrams;
+    private double carbGrams;
+    private double fatGrams;
+
+    /**
+     * Push every profile field as an individual delta; unchanged fields dirty nothing
+     * @param profile The user's profile data
+     */
+    public void applyProfile(NutritionProfile profile) {
+        setGender(profile.getGender());
+        setAge(profile.getAge());
+        setHeight(profile.getHeight());
+        setActivityLevel(profile.getActivityLevel());
+        setTargetWeight(profile.getTargetWeight());
+        setBmrFormula(profile.getBmrFormula());
+        setBodyFatPercentage(profile.getBodyFatPercentage());
+        hasProfile = true;
+    }
+
+    /**
+     * Set the current weight; affects goal and BMR
+     * @param weight Current weight in kg
+     */
+    public void setWeight(double weight) {
+        hasWeight = true;
+        if (Double.compare(this.weight, weight) != 0) {
+            this.weight = weight;
+            markDirty(STAGE_GOAL);
+            markDirty(STAGE_BMR);
+        }
+    }
+
+    /**
+     * Set the target weight; affects goal only
+     * @param targetWeight Target weight in kg
+     */
+    public void setTargetWeight(double targetWeight) {
+        if (Double.compare(this.targetWeight, targetWeight) != 0) {
+            this.targetWeight = targetWeight;
+            markDirty(STAGE_GOAL);
+        }
+    }
+
+    /**
+     * Set the gender; affects the BMR coefficients
+     * @param gender "PRIA" (male) or "WANITA" (female)
+     */
+    public void setGender(String gender) {
+        if (genderName == null || !genderName.equals(gender)) {
+            genderName = gender;
+            int code = NutritionCalculator.genderCode(gender);
+            if (code != this.gender) {
+                this.gender = code;
+                markDirty(STAGE_COEFFICIENTS);
+            }
+        }
+    }
+
+    /**
+     * Set the age; affects BMR
+     * @param age Age in years
+     */
+    public void setAge(int age) {
+        if (this.age != age) {
+            this.age = age;
+            markDirty(STAGE_BMR);
+        }
+    }
+
+    /**
+     * Set the height; affects BMR
+     * @param height Height in cm
+     */
+    public void setHeight(double height) {
+        if (Double.compare(this.height, height) != 0) {
+            this.height = height;
+            markDirty(STAGE_BMR);
+        }
+    }
+
+    /**
+     * Set the activity level; affects TDEE onward
+     * @param activityLevel Activity level as string
+     */
+    public void setActivityLevel(String activityLevel) {
+        if (this.activityLevel == null || !this.activityLevel.equals(activityLevel)) {
+            this.activityLevel = activityLevel;
+            double multiplier = NutritionCalculator.activityMultiplier(NutritionCalculator.activityCode(activityLevel));
+            if (Double.compare(multiplier, activityMultiplier) != 0) {
+                activityMultiplier = multiplier;
+                markDirty(STAGE_TDEE);
+            }
+        }
+    }
+
+    /**
+     * Set the BMR formula; affects the BMR coefficients
+     * @param bmrFormula BmrFormula name, null for Mifflin-St Jeor
+     */
+    public void setBmrFormula(String bmrFormula) {
+        BmrFormula formula = BmrFormula.fromName(bmrFormula);
+        if (formula != this.bmrFormula) {
+            this.bmrFormula = formula;
+            markDirty(STAGE_COEFFICIENTS);
+        }
+    }
+
+    /**
+     * Set the body fat percentage; affects the BMR coefficients
+     * @param bodyFatPercentage Body fat in percent, 0 if unknown
+     */
+    public void setBodyFatPercentage(double bodyFatPercentage) {
+        if (Double.compare(this.bodyFatPercentage, bodyFatPercentage) != 0) {
+            this.bodyFatPercentage = bodyFatPercentage;
+            markDirty(STAGE_COEFFICIENTS);
+        }
+    }
+
+    /**
+     * Whether both a profile and a weight have been pushed
+     */
+    public boolean isReady() {
+        return hasProfile && hasWeight;
+    }
+
+    /**
+     * Whether any stage needs re-evaluation since the last calculate()
+     */
+    public boolean isDirty() {
+        return dirty != 0;
+    }
+
+    /**
+     * Re-evaluate the dirty stages and write the result into a holder
+     * @param result Holder that receives all calculated values
+     * @return The same result holder, for chaining
+     * @throws IllegalStateException if no profile or no weight has been pushed yet
+     */
+    public NutritionCalculation calculate(NutritionCalculation result) {
+        if (!isReady()) {
+            throw new IllegalStateException("Profile and weight must be set before calculating");
+        }
+
+        if (isStageDirty(STAGE_COEFFICIENTS)) {
+            double weightCoefficient = coefficients[0];
+            double heightCoefficient = coefficients[1];
+            double ageCoefficient = coefficients[2];
+            double constant = coefficients[3];
+            bmrFormula.compile(gender, bodyFatPercentage, coefficients);
+            evaluated(STAGE_COEFFICIENTS);
+            if (coefficients[0] != weightCoefficient || coefficients[1] != heightCoefficient
+                    || coefficients[2] != ageCoefficient || coefficients[3] != constant) {
+                markDirty(STAGE_BMR);
+            }
+        }
+
+        if (isStageDirty(STAGE_GOAL)) {
+            int newGoal = NutritionCalculator.determineGoal(weight, targetWeight);
+            evaluated(STAGE_GOAL);
+            if (newGoal != goal) {
+                goal = newGoal;
+                markDirty(STAGE_CALORIES);
+                markDirty(STAGE_MACROS);
+            }
+        }
+
+        if (isStageDirty(STAGE_BMR)) {
+            double newBmr = NutritionCalculator.calculateBMR(coefficients[0], coefficients[1], coefficients[2],
+                    coefficients[3], weight, height, age);
+            evaluated(STAGE_BMR);
+            if (Double.compare(newBmr, bmr) != 0) {
+                bmr = newBmr;
+                markDirty(STAGE_TDEE);
+            }
+        }
+
+        if (isStageDirty(STAGE_TDEE)) {
+            double newTdee = NutritionCalculator.calculateTDEE(bmr, activityMultiplier);
+            evaluated(STAGE_TDEE);
+            if (Double.compare(newTdee, tdee) != 0) {
+                tdee = newTdee;
+                markDirty(STAGE_CALORIES);
+            }
+        }
+
+        if (isStageDirty(STAGE_CALORIES)) {
+            double newCalories = NutritionCalculator.calculateDailyCalories(tdee, goal);
+            evaluated(STAGE_CALORIES);
+            if (Double.compare(newCalories, dailyCalorieTarget) != 0) {
+                dailyCalorieTarget = newCalories;
+                markDirty(STAGE_MACROS);
+            }
+        }
+
+        if (isStageDirty(STAGE_MACROS)) {
+            proteinGrams = NutritionCalculator.calculateProteinGrams(dailyCalorieTarget, goal);
+            carbGrams = NutritionCalculator.calculateCarbGrams(dailyCalorieTarget, goal);
+            fatGrams = NutritionCalculator.calculateFatGrams(dailyCalorieTarget, goal);
+            evaluated(STAGE_MACROS);
+        }
+
+        result.setBmr(bmr);
+        result.setTdee(tdee);
+        result.setDailyCalorieTarget(dailyCalorieTarget);
+        result.setProteinGrams(proteinGrams);
+        result.setCarbGrams(carbGrams);
+        result.setFatGrams(fatGrams);
+        result.setGoal(NutritionCalculator.goalName(goal));
+        return result;
+    }
+
+    /**
+     * Get how many times a stage has been evaluated, for instrumentation and tests
+     * @param stage One of the STAGE_* constants
+     * @return Number of evaluations
+     */
+    public long getEvaluationCount(int stage) {
+        return evaluationCounts[stage];
+    }
+
+    private void markDirty(int stage) {
+        dirty |= 1 << stage;
+    }
+
+    private boolean isStageDirty(int stage) {
+        return (dirty & (1 << stage)) != 0;
+    }
+
+    private void evaluated(int stage) {
+        dirty &= ~(1 << stage);
+        evaluationCounts[stage]++;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.fitnessup.util.calculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Batch version of NutritionCalculator for recomputing targets of whole user cohorts.
+ * Profiles are passed as primitive columns (struct-of-arrays) and results are written
+ * into caller-supplied output columns, so no per-user objects are created.
+ * Every row produces exactly the same numbers as NutritionCalculator.calculateNutrition.
+ */
+public class NutritionBatchCalculator {
+
+    // Rows per fork-join leaf task; small enough to balance, large enough to amortize task overhead
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private NutritionBatchCalculator() {
+    }
+
+    /**
+     * Calculate nutrition for every row of the cohort using the common fork-join pool
+     * @param cohort Input columns
+     * @param result Output columns, must have at least cohort.size() rows
+     */
+    public static void calculate(Cohort cohort, Result result) {
+        calculate(cohort, result, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calculate nutrition for every row of the cohort using the given fork-join pool
+     * @param cohort Input columns
+     * @param result Output columns, must have at least cohort.size() rows
+     * @param pool Pool that runs the calculation
+     */
+    public static void calculate(Cohort cohort, Result result, ForkJoinPool pool) {
+        if (result.size() < cohort.size()) {
+            throw new IllegalArgumentException("Result has " + result.size()
+                    + " rows but cohort has " + cohort.size());
+        }
+        pool.invoke(new CalculateTask(cohort, result, 0, cohort.size()));
+    }
+
+    /**
+     * Calculate nutrition for the rows [from, to) on the calling thread
+     * @param cohort Input columns
+     * @param result Output columns
+     * @param from First row (inclusive)
+     * @param to Last row (exclusive)
+     */
+    public static void calculateRange(Cohort cohort, Result result, int from, int to) {
+        final double[] weight = cohort.weight;
+        final double[] height = cohort.height;
+        final int[] age = cohort.age;
+        final double[] targetWeight = cohort.targetWeight;
+        final double[] bmrWeight = cohort.bmrWeight;
+        final double[] bmrHeight = cohort.bmrHeight;
+        final double[] bmrAge = cohort.bmrAge;
+        final double[] bmrConstant = cohort.bmrConstant;
+        final double[] activityMultiplier = cohort.activityMultiplier;
+
+        for (int i = from; i < to; i++) {
+            int goal = NutritionCalculator.determineGoal(weight[i], targetWeight[i]);
+            double bmr = NutritionCalculator.calculateBMR(bmrWeight[i], bmrHeight[i], bmrAge[i], bmrConstant[i],
+                    weight[i], height[i], age[i]);
+            double tdee = NutritionCalculator.calculateTDEE(bmr, activityMultiplier[i]);
+            double calories = NutritionCalculator.calculateDailyCalories(tdee, goal);
+
+            result.goal[i] = goal;
+            result.bmr[i] = bmr;
+            result.tdee[i] = tdee;
+            result.dailyCalorieTarget[i] = calories;
+            result.proteinGrams[i] = NutritionCalculator.calculateProteinGrams(calories, goal);
+            result.carbGrams[i] = NutritionCalculator.calculateCarbGrams(calories, goal);
+            result.fatGrams[i] = NutritionCalculator.calculateFatGrams(calories, goal);
+        }
+    }
+
+    /**
+     * Fork-join task that splits the row range in halves until it is small enough
+     */
+    private static class CalculateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // RecursiveAction is Serializable; never serialized
+
+        private final Cohort cohort;
+        private final Result result;
+        private final int from;
+        private final int to;
+
+        CalculateTask(Cohort cohort, Result result, int from, int to) {
+            this.cohort = cohort;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                calculateRange(cohort, result, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CalculateTask(cohort, result, from, mid),
+                    new CalculateTask(cohort, result, mid, to));
+        }
+    }
+
+    /**
+     * Input columns for a cohort of user profiles. Row i of every column belongs to the same user.
+     * Gender and activity columns hold NutritionCalculator.GENDER_* and ACTIVITY_* codes.
+     * The BMR formula and activity codes are compiled into per-row coefficient columns once,
+     * when the cohort is created, so every formula costs the same during calculation.
+     */
+    public static class Cohort {
+        private final double[] weight; // Current weight in kg
+        private final double[] height; // Height in cm
+        private final int[] age; // Age in years
+        private final int[] gender; // GENDER_* code
+        private final int[] activity; // ACTIVITY_* code
+        private final double[] targetWeight; // Target weight in kg
+
+        // Compiled columns: BMR coefficients (see BmrFormula) and TDEE multiplier
+        private final double[] bmrWeight;
+        private final double[] bmrHeight;
+        private final double[] bmrAge;
+        private final double[] bmrConstant;
+        private final double[] activityMultiplier;
+
+        /**
+         * Create a cohort that uses the Mifflin-St Jeor formula for every row
+         */
+        public Cohort(double[] weight, double[] height, int[] age, int[] gender,
+                      int[] activity, double[] targetWeight) {
+            this(weight, height, age, gender, activity, targetWeight, BmrFormula.MIFFLIN_ST_JEOR, null);
+        }
+
+        /**
+         * Create a cohort that uses the given formula for every row
+         * @param bmrFormula Formula used for BMR
+         * @param bodyFatPercentage Body fat in percent per row (0 if unknown), or null if unknown for all rows
+         */
+        public Cohort(double[] weight, double[] height, int[] age, int[] gender,
+                      int[] activity, double[] targetWeight, BmrFormula bmrFormula, double[] bodyFatPercentage) {
+            int size = weight.length;
+            if (height.length != size || age.length != size || gender.length != size
+                    || activity.length != size || targetWeight.length != size
+                    || (bodyFatPercentage != null && bodyFatPercentage.length != size)) {
+                throw new IllegalArgumentException("All cohort columns must have the same length");
+            }
+            this.weight = weight;
+            this.height = height;
+            this.age = age;
+            this.gender = gender;
+            this.activity = activity;
+            this.targetWeight = targetWeight;
+
+            bmrWeight = new double[size];
+            bmrHeight = new double[size];
+            bmrAge = new double[size];
+            bmrConstant = new double[size];
+            activityMultiplier = new double[size];
+
+            double[] coefficients = new double[4];
+            for (int i = 0; i < size; i++) {
+                bmrFormula.compile(gender[i], bodyFatPercentage != null ? bodyFatPercentage[i] : 0, coefficients);
+                bmrWeight[i] = coefficients[0];
+                bmrHeight[i] = coefficients[1];
+                bmrAge[i] = coefficients[2];
+                bmrConstant[i] = coefficients[3];
+                activityMultiplier[i] = NutritionCalculator.activityMultiplier(activity[i]);
+            }
+        }
+
+        public int size() {
+            return weight.length;
+        }
+
+        public double[] getWeight() {
+            return weight;
+        }
+
+        public double[] getHeight() {
+            return height;
+        }
+
+        public int[] getAge() {
+            return age;
+        }
+
+        public int[] getGender() {
+            return gender;
+        }
+
+        public int[] getActivity() {
+            return activity;
+        }
+
+        public double[] getTargetWeight() {
+            return targetWeight;
+        }
+
+        // Compiled columns, shared with the other cohort calculators in this package
+
+        double[] getBmrWeight() {
+            return bmrWeight;
+        }
+
+        double[] getBmrHeight() {
+            return bmrHeight;
+        }
+
+        double[] getBmrAge() {
+            return bmrAge;
+        }
+
+        double[] getBmrConstant() {
+            return bmrConstant;
+        }
+
+        double[] getActivityMultiplier() {
+            return activityMultiplier;
+        }
+    }
+
+    /**
+     * Output columns for a cohort. Goal column holds NutritionCalculator.GOAL_* codes.
+     * A Result can be reused across runs for cohorts of the same or smaller size.
+     */
+    public static class Result {
+        private final double[] bmr;
+        private final double[] tdee;
+        private final double[] dailyCalorieTarget;
+        private final double[] proteinGrams;
+        private final double[] carbGrams;
+        private final double[] fatGrams;
+        private final int[] goal;
+
+        public Result(int size) {
+            bmr = new double[size];
+            tdee = new double[size];
+            dailyCalorieTarget = new double[size];
+            proteinGrams = new double[size];
+            carbGrams = new double[size];
+            fatGrams = new double[size];
+            goal = new int[size];
+        }
+
+        public int size() {
+            return bmr.length;
+        }
+
+        public double[] getBmr() {
+            return bmr;
+        }
+
+        public double[] getTdee() {
+            return tdee;
+        }
+
+        public double[] getDailyCalorieTarget() {
+            return dailyCalorieTarget;
+        }
+
+        public double[] getProteinGrams() {
+            return proteinGrams;
+        }
+
+        public double[] getCarbGrams() {
+            return carbGrams;
+        }
+
+        public double[] getFatGrams() {
+            return fatGrams;
+        }
+
+        public int[] getGoal() {
+            return goal;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.fitnessup.util.calculator;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.data.model.NutritionProfile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe memo cache for nutrition calculations.
+ * Entries are keyed by the normalized profile fields plus the current weight quantized to 0.1 kg,
+ * and the least recently used entry is evicted once the cache is full.
+ * Returned NutritionCalculation instances are shared between callers and cannot be modified.
+ */
+public class NutritionCalculationCache {
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+
+    private static NutritionCalculationCache instance;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, NutritionCalculation> entries;
+
+    // Counters for sizing the cache
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    // Singleton pattern so every screen shares the same cache
+    public static synchronized NutritionCalculationCache getInstance() {
+        if (instance == null) {
+            instance = new NutritionCalculationCache(DEFAULT_MAX_ENTRIES);
+        }
+        return instance;
+    }
+
+    /**
+     * Create a cache holding at most maxEntries calculations
+     * @param maxEntries Maximum number of cached calculations
+     */
+    public NutritionCalculationCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        // Access-ordered map so iteration order is least recently used first
+        this.entries = new LinkedHashMap<Key, NutritionCalculation>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, NutritionCalculation> eldest) {
+                if (size() > NutritionCalculationCache.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the nutrition calculation for a user at the given weight, computing it on a miss
+     * @param user The user's profile data
+     * @param currentWeight The user's current weight, quantized to 0.1 kg
+     * @return Shared, unmodifiable NutritionCalculation
+     */
+    public NutritionCalculation get(NutritionProfile user, double currentWeight) {
+        return get(CompiledProfile.compile(user), currentWeight);
+    }
+
+    /**
+     * Get the nutrition calculation for a compiled profile at the given weight, computing it on a miss
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight, quantized to 0.1 kg
+     * @return Shared, unmodifiable NutritionCalculation
+     */
+    public NutritionCalculation get(CompiledProfile profile, double currentWeight) {
+        return get(profile, currentWeight, NutritionCalculator::calculateNutrition);
+    }
+
+    /**
+     * Get the nutrition calculation for a compiled profile at the given weight, computing it with
+     * a caller's calculator on a miss, e.g. an IncrementalNutritionCalculator already holding the profile
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight, quantized to 0.1 kg
+     * @param loader Computes the calculation on a miss; must give what NutritionCalculator would
+     * @return Shared, unmodifiable NutritionCalculation
+     */
+    public NutritionCalculation get(CompiledProfile profile, double currentWeight, Loader loader) {
+        Key key = new Key(profile, Math.round(currentWeight * 10));
+
+        synchronized (entries) {
+            NutritionCalculation cached = entries.get(key);
+            if (cached != null) {
+                hitCount.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Compute outside the lock; calculate with the quantized weight so every hit matches its key
+        missCount.incrementAndGet();
+        NutritionCalculation calculation = new UnmodifiableNutritionCalculation(
+                loader.calculate(profile, key.weightTenths / 10.0, new NutritionCalculation()));
+
+        synchronized (entries) {
+            NutritionCalculation raced = entries.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            entries.put(key, calculation);
+        }
+        return calculation;
+    }
+
+    /**
+     * Remove all cached calculations, e.g. after the user profile has been updated
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached calculations
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the maximum number of cached calculations
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Get the number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Get the number of lookups that had to compute a new calculation
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Get the number of calculations evicted to stay within the size bound
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Computes a calculation on a cache miss
+     */
+    public interface Loader {
+        /**
+         * @param profile The user's compiled profile
+         * @param weight Weight quantized to 0.1 kg, which every hit on the entry stands for
+         * @param result Holder that receives the calculated values
+         * @return The filled holder
+         */
+        NutritionCalculation calculate(CompiledProfile profile, double weight, NutritionCalculation result);
+    }
+
+    /**
+     * Cache key built from the fields that affect the calculation
+     */
+    private static final class Key {
+        private final double bmrWeight;
+        private final double bmrHeight;
+        private final double bmrAge;
+        private final double bmrConstant;
+        private final int activity;
+        private final int age;
+        private final double height;
+        private final double targetWeight;
+        private final long weightTenths;
+
+        Key(CompiledProfile profile, long weightTenths) {
+            // Gender, formula and body fat only matter through the compiled BMR coefficients
+            this.bmrWeight = profile.getBmrWeight();
+            this.bmrHeight = profile.getBmrHeight();
+            this.bmrAge = profile.getBmrAge();
+            this.bmrConstant = profile.getBmrConstant();
+            this.activity = profile.getActivity();
+            this.age = profile.getAge();
+            this.height = profile.getHeight();
+            this.targetWeight = profile.getTargetWeight();
+            this.weightTenths = weightTenths;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Double.compare(bmrWeight, other.bmrWeight) == 0
+                    && Double.compare(bmrHeight, other.bmrHeight) == 0
+                    && Double.compare(bmrAge, other.bmrAge) == 0
+                    && Double.compare(bmrConstant, other.bmrConstant) == 0
+                    && activity == other.activity
+                    && age == other.age
+                    && Double.compare(height, other.height) == 0
+                    && Double.compare(targetWeight, other.targetWeight) == 0
+                    && weightTenths == other.weightTenths;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Double.hashCode(bmrWeight);
+            result = 31 * result + Double.hashCode(bmrHeight);
+            result = 31 * result + Double.hashCode(bmrAge);
+            result = 31 * result + Double.hashCode(bmrConstant);
+            result = 31 * result + activity;
+            result = 31 * result + age;
+            result = 31 * result + Double.hashCode(height);
+            result = 31 * result + Double.hashCode(targetWeight);
+            result = 31 * result + Long.hashCode(weightTenths);
+            return result;
+        }
+    }
+
+    /**
+     * NutritionCalculation that rejects modification, so cached instances can be shared safely
+     */
+    private static final class UnmodifiableNutritionCalculation extends NutritionCalculation {
+        UnmodifiableNutritionCalculation(NutritionCalculation source) {
+            super(source.getBmr(), source.getTdee(), source.getDailyCalorieTarget(),
+                    source.getProteinGrams(), source.getCarbGrams(), source.getFatGrams(),
+                    source.getGoal());
+        }
+
+        @Override
+        public void setBmr(double bmr) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setTdee(double tdee) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setDailyCalorieTarget(double dailyCalorieTarget) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setProteinGrams(double proteinGrams) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setCarbGrams(double carbGrams) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setFatGrams(double fatGrams) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+
+        @Override
+        public void setGoal(String goal) {
+            throw new UnsupportedOperationException("Cached NutritionCalculation is read-only");
+        }
+    }
+}
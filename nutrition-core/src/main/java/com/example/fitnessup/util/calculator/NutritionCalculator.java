@@ -0,0 +1,310 @@
+package com.example.fitnessup.util.calculator;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+import com.example.fitnessup.data.model.NutritionProfile;
+
+/**
+ * Utility class for calculating nutrition requirements including BMR, TDEE,
+ * and macronutrient distributions based on user data.
+ */
+public class NutritionCalculator {
+
+    // Gender codes used by the primitive (batch) calculation path
+    public static final int GENDER_MALE = 0;
+    public static final int GENDER_FEMALE = 1;
+
+    // Activity level codes used by the primitive (batch) calculation path
+    public static final int ACTIVITY_SEDENTARY = 0;
+    public static final int ACTIVITY_LIGHT = 1;
+    public static final int ACTIVITY_MODERATE = 2;
+    public static final int ACTIVITY_ACTIVE = 3;
+    public static final int ACTIVITY_VERY_ACTIVE = 4;
+
+    // Goal codes used by the primitive (batch) calculation path
+    public static final int GOAL_MAINTENANCE = 0;
+    public static final int GOAL_WEIGHT_LOSS = 1;
+    public static final int GOAL_WEIGHT_GAIN = 2;
+
+    // Goal names indexed by goal code
+    private static final String[] GOAL_NAMES = {"MAINTENANCE", "WEIGHT_LOSS", "WEIGHT_GAIN"};
+
+    // Activity level multipliers
+    private static final double SEDENTARY_MULTIPLIER = 1.2;      // Little or no exercise
+    private static final double LIGHT_MULTIPLIER = 1.375;        // Light exercise 1-3 days/week
+    private static final double MODERATE_MULTIPLIER = 1.55;      // Moderate exercise 3-5 days/week
+    private static final double ACTIVE_MULTIPLIER = 1.725;       // Heavy exercise 6-7 days/week
+    private static final double VERY_ACTIVE_MULTIPLIER = 1.9;    // Very heavy exercise, physical job or 2x training
+
+    // Calorie adjustment for weight goals
+    private static final double WEIGHT_LOSS_MULTIPLIER = 0.85;   // 15% calorie deficit
+    private static final double WEIGHT_GAIN_MULTIPLIER = 1.15;   // 15% calorie surplus
+
+    // Macronutrient ratios based on goals (protein/carbs/fats)
+    private static final double[] WEIGHT_LOSS_RATIO = {0.35, 0.40, 0.25};    // Higher protein for muscle preservation
+    private static final double[] MAINTENANCE_RATIO = {0.30, 0.45, 0.25};    // Balanced macros
+    private static final double[] WEIGHT_GAIN_RATIO = {0.25, 0.50, 0.25};    // Higher carbs for energy
+
+    // Lookup tables indexed by activity code and goal code
+    private static final double[] ACTIVITY_MULTIPLIERS = {
+            SEDENTARY_MULTIPLIER, LIGHT_MULTIPLIER, MODERATE_MULTIPLIER, ACTIVE_MULTIPLIER, VERY_ACTIVE_MULTIPLIER
+    };
+    private static final double[][] MACRO_RATIOS = {MAINTENANCE_RATIO, WEIGHT_LOSS_RATIO, WEIGHT_GAIN_RATIO};
+
+    // Calorie content per gram of macronutrients
+    static final int PROTEIN_CALORIES_PER_GRAM = 4;
+    static final int CARB_CALORIES_PER_GRAM = 4;
+    static final int FAT_CALORIES_PER_GRAM = 9;
+
+
+    /**
+     * Calculate full nutrition requirements based on user data and current weight
+     * @param user The user's profile data
+     * @param currentWeight The user's current weight (from latest progress entry)
+     * @return NutritionCalculation object with all calculated values
+     */
+    public static NutritionCalculation calculateNutrition(NutritionProfile user, double currentWeight) {
+        return calculateNutrition(CompiledProfile.compile(user), currentWeight, new NutritionCalculation());
+    }
+
+    /**
+     * Calculate full nutrition requirements for a compiled profile into a reusable result holder.
+     * Does no string work and allocates nothing, so it is safe to call on every weight update.
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight (from latest progress entry)
+     * @param result Holder that receives all calculated values
+     * @return The same result holder, for chaining
+     */
+    public static NutritionCalculation calculateNutrition(CompiledProfile profile, double currentWeight,
+                                                          NutritionCalculation result) {
+        return calculateAdaptiveNutrition(profile, currentWeight, 0, result);
+    }
+
+    /**
+     * Calculate nutrition requirements with a learned correction to the formula TDEE
+     * (see AdaptiveTdeeEstimator). With an adjustment of 0 this is exactly calculateNutrition.
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight (from latest progress entry)
+     * @param tdeeAdjustment Estimated actual TDEE minus formula TDEE, in kcal
+     * @param result Holder that receives all calculated values
+     * @return The same result holder, for chaining
+     */
+    public static NutritionCalculation calculateAdaptiveNutrition(CompiledProfile profile, double currentWeight,
+                                                                  double tdeeAdjustment, NutritionCalculation result) {
+        // Step A: Determine goal based on target weight vs current weight
+        int goal = determineGoal(currentWeight, profile.getTargetWeight());
+        
+        // Step B: Calculate BMR using the profile's precompiled formula coefficients
+        double bmr = calculateBMR(profile.getBmrWeight(), profile.getBmrHeight(), profile.getBmrAge(),
+                profile.getBmrConstant(), currentWeight, profile.getHeight(), profile.getAge());
+        
+        // Step C: Calculate TDEE based on activity level, corrected by the learned adjustment
+        double tdee = calculateTDEE(bmr, profile.getActivityMultiplier()) + Math.round(tdeeAdjustment);
+        
+        // Step D: Determine daily calorie target based on goal
+        double dailyCalorieTarget = calculateDailyCalories(tdee, goal);
+        
+        // Step E: Calculate macronutrient distribution
+        result.setBmr(bmr);
+        result.setTdee(tdee);
+        result.setDailyCalorieTarget(dailyCalorieTarget);
+        result.setProteinGrams(calculateProteinGrams(dailyCalorieTarget, goal));
+        result.setCarbGrams(calculateCarbGrams(dailyCalorieTarget, goal));
+        result.setFatGrams(calculateFatGrams(dailyCalorieTarget, goal));
+        result.setGoal(goalName(goal));
+        return result;
+    }
+
+    /**
+     * Resolve a gender string to its primitive code
+     * @param gender "PRIA" (male) or "WANITA" (female)
+     * @return GENDER_MALE for "PRIA", GENDER_FEMALE otherwise
+     */
+    public static int genderCode(String gender) {
+        return "PRIA".equalsIgnoreCase(gender) ? GENDER_MALE : GENDER_FEMALE;
+    }
+
+    /**
+     * Resolve an activity level string (English or Indonesian) to its primitive code
+     * @param activityLevel Activity level as string
+     * @return One of the ACTIVITY_* codes, ACTIVITY_MODERATE if unknown
+     */
+    public static int activityCode(String activityLevel) {
+        if (activityLevel == null) {
+            return ACTIVITY_MODERATE;
+        }
+
+        switch (activityLevel.toUpperCase()) {
+            case "SEDENTARY":
+            case "SANGAT RENDAH":
+                return ACTIVITY_SEDENTARY;
+            case "LIGHT":
+            case "AKTIVITAS RENDAH":
+                return ACTIVITY_LIGHT;
+            case "MODERATE":
+            case "AKTIVITAS SEDANG":
+                return ACTIVITY_MODERATE;
+            case "ACTIVE":
+            case "AKTIVITAS TINGGI":
+                return ACTIVITY_ACTIVE;
+            case "VERY ACTIVE":
+            case "AKTIVITAS SANGAT TINGGI":
+                return ACTIVITY_VERY_ACTIVE;
+            default:
+                return ACTIVITY_MODERATE; // Default to moderate if unknown
+        }
+    }
+
+    /**
+     * Get the TDEE multiplier for an activity code
+     * @param activity One of the ACTIVITY_* codes
+     * @return Multiplier applied to BMR
+     */
+    public static double activityMultiplier(int activity) {
+        return ACTIVITY_MULTIPLIERS[activity];
+    }
+
+    /**
+     * Get the goal name stored in NutritionCalculation for a goal code
+     * @param goal One of the GOAL_* codes
+     * @return "MAINTENANCE", "WEIGHT_LOSS", or "WEIGHT_GAIN"
+     */
+    public static String goalName(int goal) {
+        return GOAL_NAMES[goal];
+    }
+
+    /**
+     * Get the default macronutrient ratio set for a goal code
+     * @param goal One of the GOAL_* codes
+     * @return New array of protein, carb and fat shares of daily calories
+     */
+    public static double[] macroRatios(int goal) {
+        return MACRO_RATIOS[goal].clone();
+    }
+
+    /**
+     * Get the default daily calorie adjustment for a goal code
+     * @param goal One of the GOAL_* codes
+     * @return Factor applied to TDEE: 1 for maintenance, the deficit or surplus multiplier otherwise
+     */
+    public static double calorieFactor(int goal) {
+        switch (goal) {
+            case GOAL_WEIGHT_LOSS:
+                return WEIGHT_LOSS_MULTIPLIER;
+            case GOAL_WEIGHT_GAIN:
+                return WEIGHT_GAIN_MULTIPLIER;
+            case GOAL_MAINTENANCE:
+            default:
+                return 1;
+        }
+    }
+    
+    /**
+     * Determine the user's goal based on current and target weights
+     * @param currentWeight Current weight in kg
+     * @param targetWeight Target weight in kg
+     * @return Goal code: GOAL_MAINTENANCE, GOAL_WEIGHT_LOSS, or GOAL_WEIGHT_GAIN
+     */
+    static int determineGoal(double currentWeight, double targetWeight) {
+        double difference = Math.abs(currentWeight - targetWeight);
+        
+        // If the difference is less than 1kg, consider it maintenance
+        if (difference < 1.0) {
+            return GOAL_MAINTENANCE;
+        } else if (currentWeight > targetWeight) {
+            return GOAL_WEIGHT_LOSS;
+        } else {
+            return GOAL_WEIGHT_GAIN;
+        }
+    }
+    
+    /**
+     * Calculate Basal Metabolic Rate (BMR) from compiled formula coefficients (see BmrFormula)
+     * @param weightCoefficient Coefficient applied to weight
+     * @param heightCoefficient Coefficient applied to height
+     * @param ageCoefficient Coefficient applied to age
+     * @param constant Constant term
+     * @param weight Weight in kg
+     * @param height Height in cm
+     * @param age Age in years
+     * @return BMR in calories
+     */
+    static double calculateBMR(double weightCoefficient, double heightCoefficient, double ageCoefficient,
+                               double constant, double weight, double height, int age) {
+        // For Mifflin-St Jeor this evaluates exactly as
+        // Men: BMR = (10 × weight in kg) + (6.25 × height in cm) - (5 × age in years) + 5
+        // Women: BMR = (10 × weight in kg) + (6.25 × height in cm) - (5 × age in years) - 161
+        double bmr = (weightCoefficient * weight) + (heightCoefficient * height) + (ageCoefficient * age);
+        bmr += constant;
+        
+        return Math.round(bmr);
+    }
+    
+    /**
+     * Calculate Total Daily Energy Expenditure (TDEE) based on BMR and activity multiplier
+     * @param bmr Basal Metabolic Rate
+     * @param activityMultiplier Multiplier for the activity level (see activityMultiplier)
+     * @return TDEE in calories
+     */
+    static double calculateTDEE(double bmr, double activityMultiplier) {
+        return Math.round(bmr * activityMultiplier);
+    }
+    
+    /**
+     * Calculate daily calorie target based on TDEE and goal
+     * @param tdee Total Daily Energy Expenditure
+     * @param goal One of the GOAL_* codes
+     * @return Daily calorie target
+     */
+    static double calculateDailyCalories(double tdee, int goal) {
+        switch (goal) {
+            case GOAL_WEIGHT_LOSS:
+                return Math.round(tdee * WEIGHT_LOSS_MULTIPLIER);
+            case GOAL_WEIGHT_GAIN:
+                return Math.round(tdee * WEIGHT_GAIN_MULTIPLIER);
+            case GOAL_MAINTENANCE:
+            default:
+                return tdee;
+        }
+    }
+    
+    /**
+     * Calculate daily protein target in grams based on daily calorie target and goal
+     * @param dailyCalories Daily calorie target
+     * @param goal One of the GOAL_* codes
+     * @return Protein in grams
+     */
+    static double calculateProteinGrams(double dailyCalories, int goal) {
+        return calculateMacroGrams(dailyCalories, MACRO_RATIOS[goal][0], PROTEIN_CALORIES_PER_GRAM);
+    }
+
+    /**
+     * Calculate daily carbohydrate target in grams based on daily calorie target and goal
+     * @param dailyCalories Daily calorie target
+     * @param goal One of the GOAL_* codes
+     * @return Carbohydrates in grams
+     */
+    static double calculateCarbGrams(double dailyCalories, int goal) {
+        return calculateMacroGrams(dailyCalories, MACRO_RATIOS[goal][1], CARB_CALORIES_PER_GRAM);
+    }
+
+    /**
+     * Calculate daily fat target in grams based on daily calorie target and goal
+     * @param dailyCalories Daily calorie target
+     * @param goal One of the GOAL_* codes
+     * @return Fat in grams
+     */
+    static double calculateFatGrams(double dailyCalories, int goal) {
+        return calculateMacroGrams(dailyCalories, MACRO_RATIOS[goal][2], FAT_CALORIES_PER_GRAM);
+    }
+
+    /**
+     * Calculate a macronutrient target in grams from its share of the daily calories
+     * @param dailyCalories Daily calorie target
+     * @param ratio Share of the daily calories, e.g. 0.30
+     * @param caloriesPerGram Calorie content per gram of the macronutrient
+     * @return Macronutrient in grams
+     */
+    static double calculateMacroGrams(double dailyCalories, double ratio, int caloriesPerGram) {
+        return Math.round(dailyCalories * ratio / caloriesPerGram);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.fitnessup.util.calculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * What-if sweep of nutrition targets over a grid of
+ *   activity multipliers × calorie adjustment factors × macronutrient ratio sets
+ * for one profile and weight. BMR does not depend on any scenario, so it is calculated once; each
+ * (activity, factor) row then needs one TDEE and one calorie target, and each ratio set three macros.
+ * Rows are split across a fork-join pool and written into one flat primitive Grid.
+ * A cell with the profile's own activity multiplier, calorieFactor(goal) and macroRatios(goal) holds
+ * exactly the numbers NutritionCalculator.calculateNutrition returns.
+ */
+public class ScenarioSweepCalculator {
+
+    // Default calorie adjustment factors: 25% deficit to 20% surplus, including the built-in 0.85 and 1.15
+    private static final double[] DEFAULT_CALORIE_FACTORS = {0.75, 0.80, 0.85, 0.90, 1.0, 1.10, 1.15, 1.20};
+
+    // (activity, factor) rows per fork-join leaf task; the default grid fits in one leaf
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+
+    private ScenarioSweepCalculator() {
+    }
+
+    /**
+     * Default activity axis: the multipliers of every ACTIVITY_* code, in code order
+     * @return New array of activity multipliers
+     */
+    public static double[] defaultActivityMultipliers() {
+        double[] multipliers = new double[NutritionCalculator.ACTIVITY_VERY_ACTIVE + 1];
+        for (int activity = 0; activity < multipliers.length; activity++) {
+            multipliers[activity] = NutritionCalculator.activityMultiplier(activity);
+        }
+        return multipliers;
+    }
+
+    /**
+     * Default calorie factor axis, from a 25% deficit to a 20% surplus
+     * @return New array of calorie adjustment factors
+     */
+    public static double[] defaultCalorieFactors() {
+        return DEFAULT_CALORIE_FACTORS.clone();
+    }
+
+    /**
+     * Default macro ratio axis: the ratio sets of every GOAL_* code, in code order
+     * @return New array of {protein, carb, fat} ratio sets
+     */
+    public static double[][] defaultMacroRatios() {
+        double[][] ratios = new double[NutritionCalculator.GOAL_WEIGHT_GAIN + 1][];
+        for (int goal = 0; goal < ratios.length; goal++) {
+            ratios[goal] = NutritionCalculator.macroRatios(goal);
+        }
+        return ratios;
+    }
+
+    /**
+     * Sweep the default grid using the common fork-join pool
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight in kg
+     * @return Grid of results
+     */
+    public static Grid sweep(CompiledProfile profile, double currentWeight) {
+        return sweep(profile, currentWeight, defaultActivityMultipliers(), defaultCalorieFactors(),
+                defaultMacroRatios(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Sweep a custom grid using the given fork-join pool
+     * @param profile The user's compiled profile
+     * @param currentWeight The user's current weight in kg
+     * @param activityMultipliers TDEE multipliers to try
+     * @param calorieFactors Factors applied to TDEE to try
+     * @param macroRatios {protein, carb, fat} shares of daily calories to try
+     * @param pool Pool that runs the sweep
+     * @return Grid of results
+     */
+    public static Grid sweep(CompiledProfile profile, double currentWeight, double[] activityMultipliers,
+                             double[] calorieFactors, double[][] macroRatios, ForkJoinPool pool) {
+        for (double[] ratio : macroRatios) {
+            if (ratio.length != 3) {
+                throw new IllegalArgumentException("Macro ratio sets must hold protein, carb and fat shares");
+            }
+        }
+
+        double bmr = NutritionCalculator.calculateBMR(profile.getBmrWeight(), profile.getBmrHeight(),
+                profile.getBmrAge(), profile.getBmrConstant(), currentWeight, profile.getHeight(), profile.getAge());
+        Grid grid = new Grid(bmr, activityMultipliers, calorieFactors, macroRatios);
+        int rows = activityMultipliers.length * calorieFactors.length;
+        pool.invoke(new SweepTask(grid, 0, rows));
+        return grid;
+    }
+
+    /**
+     * Fill the (activity, factor) rows [from, to) of a grid on the calling thread
+     */
+    static void sweepRange(Grid grid, int from, int to) {
+        final double[] activityMultipliers = grid.activityMultipliers;
+        final double[] calorieFactors = grid.calorieFactors;
+        final double[][] macroRatios = grid.macroRatios;
+        final double[] values = grid.values;
+        final int factorCount = calorieFactors.length;
+        final int ratioCount = macroRatios.length;
+
+        for (int row = from; row < to; row++) {
+            double tdee = NutritionCalculator.calculateTDEE(grid.bmr, activityMultipliers[row / factorCount]);
+            // Same rounding as calculateDailyCalories; a factor of 1 leaves the (already rounded) TDEE unchanged
+            double calories = Math.round(tdee * calorieFactors[row % factorCount]);
+
+            int cell = row * ratioCount * Grid.COLUMNS;
+            for (int r = 0; r < ratioCount; r++, cell += Grid.COLUMNS) {
+                double[] ratio = macroRatios[r];
+                values[cell + Grid.TDEE] = tdee;
+                values[cell + Grid.CALORIES] = calories;
+                values[cell + Grid.PROTEIN] = NutritionCalculator.calculateMacroGrams(calories, ratio[0],
+                        NutritionCalculator.PROTEIN_CALORIES_PER_GRAM);
+                values[cell + Grid.CARB] = NutritionCalculator.calculateMacroGrams(calories, ratio[1],
+                        NutritionCalculator.CARB_CALORIES_PER_GRAM);
+                values[cell + Grid.FAT] = NutritionCalculator.calculateMacroGrams(calories, ratio[2],
+                        NutritionCalculator.FAT_CALORIES_PER_GRAM);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that splits the row range in halves until it is small enough
+     */
+    private static class SweepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // RecursiveAction is Serializable; never serialized
+
+        private final Grid grid;
+        private final int from;
+        private final int to;
+
+        SweepTask(Grid grid, int from, int to) {
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                sweepRange(grid, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SweepTask(grid, from, mid), new SweepTask(grid, mid, to));
+        }
+    }
+
+    /**
+     * Result of a sweep: one flat matrix indexed by (activity, factor, ratio set, column),
+     * with the columns TDEE, CALORIES, PROTEIN, CARB and FAT per cell.
+     */
+    public static class Grid {
+        public static final int TDEE = 0;
+        public static final int CALORIES = 1;
+        public static final int PROTEIN = 2;
+        public static final int CARB = 3;
+        public static final int FAT = 4;
+        static final int COLUMNS = 5;
+
+        private final double bmr;
+        private final double[] activityMultipliers;
+        private final double[] calorieFactors;
+        private final double[][] macroRatios;
+        private final double[] values;
+
+        Grid(double bmr, double[] activityMultipliers, double[] calorieFactors, double[][] macroRatios) {
+            this.bmr = bmr;
+            this.activityMultipliers = activityMultipliers;
+            this.calorieFactors = calorieFactors;
+            this.macroRatios = macroRatios;
+            this.values = new double[activityMultipliers.length * calorieFactors.length
+                    * macroRatios.length * COLUMNS];
+        }
+
+        /**
+         * Get one value of one scenario
+         * @param activity Index into the activity multipliers
+         * @param factor Index into the calorie factors
+         * @param ratioSet Index into the macro ratio sets
+         * @param column TDEE, CALORIES, PROTEIN, CARB or FAT
+         * @return The value: kcal for TDEE and CALORIES, grams for the macros
+         */
+        public double get(int activity, int factor, int ratioSet, int column) {
+            int row = activity * calorieFactors.length + factor;
+            return values[(row * macroRatios.length + ratioSet) * COLUMNS + column];
+        }
+
+        public double getBmr() {
+            return bmr;
+        }
+
+        public double[] getActivityMultipliers() {
+            return activityMultipliers;
+        }
+
+        public double[] getCalorieFactors() {
+            return calorieFactors;
+        }
+
+        public double[][] getMacroRatios() {
+            return macroRatios;
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+    }
+}
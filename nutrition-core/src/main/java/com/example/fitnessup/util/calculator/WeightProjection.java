@@ -0,0 +1,151 @@
+package com.example.fitnessup.util.calculator;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived weight projection for a single user, updated as profile changes and weigh-ins arrive.
+ * The projected trajectory depends only on the profile and the anchor weight, not on the anchor date:
+ * - A weigh-in with the same weight only moves the anchor date, which shifts the ETA date in O(1).
+ * - A profile update whose compiled inputs are unchanged does nothing.
+ * - Anything else re-simulates into the same trajectory buffer, stopping at the ETA week.
+ *
+ * Not thread-safe; use one instance per screen or profile.
+ */
+public class WeightProjection {
+
+    private final int weeks;
+    private final double[] trajectory;
+
+    private CompiledProfile profile;
+    private boolean hasAnchor;
+    private long anchorMillis;
+    private double anchorWeight;
+    private int etaWeeks = WeightProjectionCalculator.NOT_REACHED;
+    private long simulationCount;
+
+    public WeightProjection() {
+        this(WeightProjectionCalculator.DEFAULT_HORIZON_WEEKS);
+    }
+
+    /**
+     * @param weeks Number of weeks to project
+     */
+    public WeightProjection(int weeks) {
+        this.weeks = weeks;
+        this.trajectory = new double[weeks + 1];
+    }
+
+    /**
+     * Set the profile to project with; re-simulates only if a projection input changed
+     * @param profile The user's compiled profile
+     */
+    public void setProfile(CompiledProfile profile) {
+        if (this.profile != null && sameProjectionInputs(this.profile, profile)) {
+            return;
+        }
+        this.profile = profile;
+        simulate();
+    }
+
+    /**
+     * Re-anchor the projection on a new weigh-in
+     * @param timestampMillis Time of the weigh-in in epoch millis
+     * @param weight Weight in kg
+     */
+    public void reanchor(long timestampMillis, double weight) {
+        anchorMillis = timestampMillis;
+        if (hasAnchor && Double.compare(anchorWeight, weight) == 0) {
+            return; // Same trajectory, only the dates move
+        }
+        hasAnchor = true;
+        anchorWeight = weight;
+        simulate();
+    }
+
+    /**
+     * Whether both a profile and a weigh-in have been set
+     */
+    public boolean isReady() {
+        return profile != null && hasAnchor;
+    }
+
+    /**
+     * Get the week in which the target is reached, counted from the anchor weigh-in
+     * @return Week number (0 if already at target), or WeightProjectionCalculator.NOT_REACHED
+     */
+    public int getEtaWeeks() {
+        return etaWeeks;
+    }
+
+    /**
+     * Get the date on which the target is reached
+     * @return ETA in epoch millis, or -1 if not ready or not reached within the horizon
+     */
+    public long getEtaMillis() {
+        if (!isReady() || etaWeeks == WeightProjectionCalculator.NOT_REACHED) {
+            return -1;
+        }
+        return anchorMillis + TimeUnit.DAYS.toMillis(7L * etaWeeks);
+    }
+
+    /**
+     * Get the projected weight in a given week after the anchor weigh-in
+     * @param week Week index, 0..getWeeks()
+     * @return Projected weight in kg
+     */
+    public double getWeightAt(int week) {
+        return trajectory[week];
+    }
+
+    public int getWeeks() {
+        return weeks;
+    }
+
+    /**
+     * Get how many times the trajectory has been re-simulated, for instrumentation and tests
+     * @return Number of simulations
+     */
+    public long getSimulationCount() {
+        return simulationCount;
+    }
+
+    /**
+     * Format the ETA as the message shown on the dashboard
+     * @return ETA message
+     */
+    public String describe() {
+        if (!isReady()) {
+            return "Belum cukup data untuk memperkirakan waktu mencapai target.";
+        } else if (etaWeeks == 0) {
+            return "Anda sudah berada di berat badan target.";
+        } else if (etaWeeks == WeightProjectionCalculator.NOT_REACHED) {
+            return String.format("Target belum tercapai dalam %d minggu dengan target kalori saat ini.", weeks);
+        } else {
+            SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMMM yyyy", Locale.getDefault());
+            return String.format("Perkiraan mencapai target: %s (%d minggu)",
+                    dateFormat.format(new Date(getEtaMillis())), etaWeeks);
+        }
+    }
+
+    private void simulate() {
+        if (!isReady()) {
+            return;
+        }
+        etaWeeks = WeightProjectionCalculator.project(profile, anchorWeight, weeks, trajectory);
+        simulationCount++;
+    }
+
+    private static boolean sameProjectionInputs(CompiledProfile a, CompiledProfile b) {
+        return a.getAge() == b.getAge()
+                && Double.compare(a.getHeight(), b.getHeight()) == 0
+                && Double.compare(a.getTargetWeight(), b.getTargetWeight()) == 0
+                && Double.compare(a.getActivityMultiplier(), b.getActivityMultiplier()) == 0
+                && Double.compare(a.getBmrWeight(), b.getBmrWeight()) == 0
+                && Double.compare(a.getBmrHeight(), b.getBmrHeight()) == 0
+                && Double.compare(a.getBmrAge(), b.getBmrAge()) == 0
+                && Double.compare(a.getBmrConstant(), b.getBmrConstant()) == 0;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.fitnessup.util.calculator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Projects weight week by week toward the target weight, for one user or for whole cohorts.
+ * Every simulated week re-derives goal, BMR, TDEE and the daily calorie target for the projected weight
+ * with the NutritionCalculator kernels, and turns the daily deficit or surplus into a weight change at
+ * 7700 kcal per kg. Once the projected weight is within 1 kg of the target the goal becomes maintenance,
+ * the calorie target equals TDEE and the trajectory stays flat; that week is the ETA.
+ * Trajectories are written into caller-supplied primitive arrays, so projecting allocates nothing.
+ */
+public class WeightProjectionCalculator {
+
+    // Energy content of 1 kg of body weight
+    public static final double KCAL_PER_KG = 7700;
+
+    // Default projection length: two years
+    public static final int DEFAULT_HORIZON_WEEKS = 104;
+
+    // ETA value when the target is not reached within the horizon
+    public static final int NOT_REACHED = -1;
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    // Rows per fork-join leaf task; each row costs up to one step per week, so this is lower than the batch calculator's
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private WeightProjectionCalculator() {
+    }
+
+    /**
+     * Project a single profile from a starting weight
+     * @param profile The user's compiled profile
+     * @param startWeight Weight in kg at week 0
+     * @param weeks Number of weeks to project
+     * @param trajectory Receives the projected weight for weeks 0..weeks, must hold at least weeks + 1 values
+     * @return Week in which the target is reached (0 if already there), or NOT_REACHED
+     */
+    public static int project(CompiledProfile profile, double startWeight, int weeks, double[] trajectory) {
+        if (trajectory.length < weeks + 1) {
+            throw new IllegalArgumentException("Trajectory holds " + trajectory.length
+                    + " values but " + (weeks + 1) + " are needed");
+        }
+        return simulate(profile.getBmrWeight(), profile.getBmrHeight(), profile.getBmrAge(), profile.getBmrConstant(),
+                profile.getActivityMultiplier(), profile.getHeight(), profile.getAge(), profile.getTargetWeight(),
+                startWeight, weeks, trajectory, 0);
+    }
+
+    /**
+     * Project every row of the cohort from its current weight using the common fork-join pool
+     * @param cohort Input columns; the weight column is the starting weight
+     * @param result Output trajectories, must have at least cohort.size() rows
+     */
+    public static void project(NutritionBatchCalculator.Cohort cohort, Projection result) {
+        project(cohort, result, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Project every row of the cohort from its current weight using the given fork-join pool
+     * @param cohort Input columns; the weight column is the starting weight
+     * @param result Output trajectories, must have at least cohort.size() rows
+     * @param pool Pool that runs the projection
+     */
+    public static void project(NutritionBatchCalculator.Cohort cohort, Projection result, ForkJoinPool pool) {
+        if (result.size() < cohort.size()) {
+            throw new IllegalArgumentException("Projection has " + result.size()
+                    + " rows but cohort has " + cohort.size());
+        }
+        pool.invoke(new ProjectTask(cohort, result, 0, cohort.size()));
+    }
+
+    /**
+     * Project the rows [from, to) on the calling thread
+     * @param cohort Input columns; the weight column is the starting weight
+     * @param result Output trajectories
+     * @param from First row (inclusive)
+     * @param to Last row (exclusive)
+     */
+    public static void projectRange(NutritionBatchCalculator.Cohort cohort, Projection result, int from, int to) {
+        final double[] weight = cohort.getWeight();
+        final double[] height = cohort.getHeight();
+        final int[] age = cohort.getAge();
+        final double[] targetWeight = cohort.getTargetWeight();
+        final double[] bmrWeight = cohort.getBmrWeight();
+        final double[] bmrHeight = cohort.getBmrHeight();
+        final double[] bmrAge = cohort.getBmrAge();
+        final double[] bmrConstant = cohort.getBmrConstant();
+        final double[] activityMultiplier = cohort.getActivityMultiplier();
+        final int weeks = result.weeks;
+        final int stride = weeks + 1;
+
+        for (int i = from; i < to; i++) {
+            result.etaWeeks[i] = simulate(bmrWeight[i], bmrHeight[i], bmrAge[i], bmrConstant[i],
+                    activityMultiplier[i], height[i], age[i], targetWeight[i],
+                    weight[i], weeks, result.trajectories, i * stride);
+        }
+    }
+
+    /**
+     * Simulate one trajectory into trajectory[offset .. offset + weeks]
+     * @return Week in which the target is reached (0 if already there), or NOT_REACHED
+     */
+    static int simulate(double bmrWeight, double bmrHeight, double bmrAge, double bmrConstant,
+                        double activityMultiplier, double height, int age, double targetWeight,
+                        double startWeight, int weeks, double[] trajectory, int offset) {
+        double weight = startWeight;
+        trajectory[offset] = weight;
+
+        for (int week = 0; week < weeks; week++) {
+            int goal = NutritionCalculator.determineGoal(weight, targetWeight);
+            if (goal == NutritionCalculator.GOAL_MAINTENANCE) {
+                // Target reached: calories equal TDEE from here on, so the weight no longer changes
+                Arrays.fill(trajectory, offset + week + 1, offset + weeks + 1, weight);
+                return week;
+            }
+
+            double bmr = NutritionCalculator.calculateBMR(bmrWeight, bmrHeight, bmrAge, bmrConstant,
+                    weight, height, age);
+            double tdee = NutritionCalculator.calculateTDEE(bmr, activityMultiplier);
+            double calories = NutritionCalculator.calculateDailyCalories(tdee, goal);
+
+            weight += (calories - tdee) * DAYS_PER_WEEK / KCAL_PER_KG;
+            trajectory[offset + week + 1] = weight;
+        }
+
+        return NutritionCalculator.determineGoal(weight, targetWeight) == NutritionCalculator.GOAL_MAINTENANCE
+                ? weeks : NOT_REACHED;
+    }
+
+    /**
+     * Fork-join task that splits the row range in halves until it is small enough
+     */
+    private static class ProjectTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // RecursiveAction is Serializable; never serialized
+
+        private final NutritionBatchCalculator.Cohort cohort;
+        private final Projection result;
+        private final int from;
+        private final int to;
+
+        ProjectTask(NutritionBatchCalculator.Cohort cohort, Projection result, int from, int to) {
+            this.cohort = cohort;
+            this.result = result;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                projectRange(cohort, result, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ProjectTask(cohort, result, from, mid),
+                    new ProjectTask(cohort, result, mid, to));
+        }
+    }
+
+    /**
+     * Output of a cohort projection: one flat, row-major trajectory matrix and one ETA column.
+     * Row i holds weeks + 1 weights starting at index i × (weeks + 1).
+     * A Projection can be reused across runs for cohorts of the same or smaller size.
+     */
+    public static class Projection {
+        private final int weeks;
+        private final double[] trajectories;
+        private final int[] etaWeeks;
+
+        /**
+         * @param size Number of rows
+         * @param weeks Number of weeks to project per row
+         */
+        public Projection(int size, int weeks) {
+            this.weeks = weeks;
+            trajectories = new double[size * (weeks + 1)];
+            etaWeeks = new int[size];
+        }
+
+        public int size() {
+            return etaWeeks.length;
+        }
+
+        public int getWeeks() {
+            return weeks;
+        }
+
+        public double[] getTrajectories() {
+            return trajectories;
+        }
+
+        public int[] getEtaWeeks() {
+            return etaWeeks;
+        }
+
+        /**
+         * Get the projected weight of one row in one week
+         * @param row Row index
+         * @param week Week index, 0..weeks
+         * @return Projected weight in kg
+         */
+        public double weightAt(int row, int week) {
+            return trajectories[row * (weeks + 1) + week];
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.fitnessup.util.calculator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Utility class for weight trend and time-range calculations over a weight history.
+ * Histories are passed as parallel primitive columns (timestamps in epoch millis, weights in kg)
+ * so the same code serves the progress screen and JVM batch jobs.
+ */
+public class WeightTrendCalculator {
+
+    // Weekly change below this is reported as stable
+    private static final double STABLE_THRESHOLD_KG_PER_WEEK = 0.1;
+
+    private WeightTrendCalculator() {
+    }
+
+    /**
+     * Calculate the rate of weight change between the oldest and newest entries
+     * @param timestamps Entry timestamps in epoch millis, in any order
+     * @param weights Entry weights in kg, parallel to timestamps
+     * @param count Number of entries to consider
+     * @return Change in kg per week, or NaN if there is not enough data to show a trend
+     */
+    public static double changePerWeek(long[] timestamps, double[] weights, int count) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+
+        // Oldest entry: first occurrence of the minimum timestamp; newest: last occurrence of the maximum.
+        // This matches sorting the history by timestamp and taking the first and last entries.
+        int first = 0;
+        int last = 0;
+        for (int i = 1; i < count; i++) {
+            if (timestamps[i] < timestamps[first]) {
+                first = i;
+            }
+            if (timestamps[i] >= timestamps[last]) {
+                last = i;
+            }
+        }
+
+        return changePerWeek(timestamps[first], weights[first], timestamps[last], weights[last]);
+    }
+
+    /**
+     * Calculate the rate of weight change between two entries
+     * @param firstMillis Timestamp of the older entry in epoch millis
+     * @param firstWeight Weight of the older entry in kg
+     * @param lastMillis Timestamp of the newer entry in epoch millis
+     * @param lastWeight Weight of the newer entry in kg
+     * @return Change in kg per week, or NaN if the entries are less than a day apart
+     */
+    public static double changePerWeek(long firstMillis, double firstWeight, long lastMillis, double lastWeight) {
+        // Calculate change
+        double weightChange = lastWeight - firstWeight;
+
+        // Calculate time difference in days
+        long diffInDays = TimeUnit.MILLISECONDS.toDays(lastMillis - firstMillis);
+
+        // Prevent division by zero
+        if (diffInDays == 0) {
+            return Double.NaN;
+        }
+
+        // Calculate rate of change per week
+        return (weightChange / diffInDays) * 7;
+    }
+
+    /**
+     * Format a weekly rate of change as the trend message shown on the progress screen
+     * @param changePerWeek Change in kg per week, NaN if unknown
+     * @return Trend message
+     */
+    public static String describeTrend(double changePerWeek) {
+        if (Double.isNaN(changePerWeek)) {
+            return "Belum cukup data untuk menunjukkan tren.";
+        } else if (Math.abs(changePerWeek) < STABLE_THRESHOLD_KG_PER_WEEK) {
+            return "Berat badan Anda stabil.";
+        } else if (changePerWeek > 0) {
+            return String.format("Tren: +%.1f kg per minggu", changePerWeek);
+        } else {
+            return String.format("Tren: %.1f kg per minggu", changePerWeek);
+        }
+    }
+
+    /**
+     * Find the first entry strictly after a cutoff in a history sorted by timestamp (oldest first)
+     * @param sortedTimestamps Entry timestamps in epoch millis, ascending
+     * @param count Number of entries to consider
+     * @param cutoffMillis Cutoff in epoch millis
+     * @return Index of the first entry after the cutoff, or count if there is none
+     */
+    public static int firstIndexAfter(long[] sortedTimestamps, int count, long cutoffMillis) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedTimestamps[mid] > cutoffMillis) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.fitnessup.util.exporter;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+import com.example.fitnessup.util.importer.WeightHistoryParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming reader for the binary export written by WeightHistoryWriter.binary().
+ * Reads through one fixed-size buffer and hands entries to an EntrySink in file order,
+ * so a file of any size is read in constant memory.
+ */
+public final class BinaryHistoryReader {
+
+    /**
+     * Profile stored in the file header
+     */
+    public static final class Profile implements NutritionProfile {
+        private final String gender;
+        private final int age;
+        private final double height;
+        private final String activityLevel;
+        private final double targetWeight;
+        private final double bodyFatPercentage;
+        private final String bmrFormula;
+
+        Profile(String gender, int age, double height, String activityLevel, double targetWeight,
+                double bodyFatPercentage, String bmrFormula) {
+            this.gender = gender;
+            this.age = age;
+            this.height = height;
+            this.activityLevel = activityLevel;
+            this.targetWeight = targetWeight;
+            this.bodyFatPercentage = bodyFatPercentage;
+            this.bmrFormula = bmrFormula;
+        }
+
+        @Override
+        public String getGender() {
+            return gender;
+        }
+
+        @Override
+        public int getAge() {
+            return age;
+        }
+
+        @Override
+        public double getHeight() {
+            return height;
+        }
+
+        @Override
+        public String getActivityLevel() {
+            return activityLevel;
+        }
+
+        @Override
+        public double getTargetWeight() {
+            return targetWeight;
+        }
+
+        @Override
+        public double getBodyFatPercentage() {
+            return bodyFatPercentage;
+        }
+
+        @Override
+        public String getBmrFormula() {
+            return bmrFormula;
+        }
+    }
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(WeightHistoryWriter.BUFFER_SIZE);
+
+    private BinaryHistoryReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip(); // Start empty
+    }
+
+    /**
+     * Read a binary export
+     * @param channel Source, read to the end of the export; not closed
+     * @param sink Receives each entry, oldest first
+     * @return Profile from the header, or null if the export has none
+     * @throws IOException if reading fails, the file is not a binary export or is truncated, or the sink throws
+     */
+    public static Profile read(ReadableByteChannel channel, WeightHistoryParser.EntrySink sink) throws IOException {
+        return new BinaryHistoryReader(channel).readAll(sink);
+    }
+
+    private Profile readAll(WeightHistoryParser.EntrySink sink) throws IOException {
+        require(5);
+        if (buffer.getInt() != BinaryHistoryWriter.MAGIC) {
+            throw new IOException("Not a weight history export");
+        }
+        byte version = buffer.get();
+        if (version != BinaryHistoryWriter.VERSION) {
+            throw new IOException("Unsupported export version " + version);
+        }
+
+        Profile profile = null;
+        if (readByte() == 1) {
+            String gender = readString();
+            int age = (int) readSigned();
+            double height = readSigned() / 100.0;
+            String activityLevel = readString();
+            double targetWeight = readSigned() / 100.0;
+            double bodyFatPercentage = readSigned() / 100.0;
+            profile = new Profile(gender, age, height, activityLevel, targetWeight, bodyFatPercentage, readString());
+        }
+
+        long timestamp = 0;
+        long weight = 0;
+        long count = 0;
+        long timestampDelta;
+        while ((timestampDelta = readVarLong()) != 0) {
+            timestamp += BinaryHistoryWriter.unzigzag(timestampDelta - 1);
+            weight += readSigned();
+            sink.accept(timestamp, weight / 100.0);
+            count++;
+        }
+        long expected = readVarLong();
+        if (expected != count) {
+            throw new IOException("Export has " + count + " entries, expected " + expected);
+        }
+        return profile;
+    }
+
+    private long readSigned() throws IOException {
+        return BinaryHistoryWriter.unzigzag(readVarLong());
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private String readString() throws IOException {
+        long length = readVarLong();
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > BinaryHistoryWriter.MAX_STRING_BYTES) {
+            throw new IOException("Malformed profile text");
+        }
+        byte[] bytes = new byte[(int) length - 1];
+        require(bytes.length);
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    /**
+     * Make sure the buffer holds at least the given number of bytes, reading more if needed
+     */
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Export is truncated");
+            }
+        }
+        buffer.flip();
+    }
+}
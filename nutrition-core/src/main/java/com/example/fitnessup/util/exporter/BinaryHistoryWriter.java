@@ -0,0 +1,104 @@
+package com.example.fitnessup.util.exporter;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary export. Layout, all numbers as little-endian base-128 varints unless noted:
+ * <pre>
+ * "FUWH" (4 bytes), version (1 byte)
+ * profile flag (1 byte); if 1: gender, age, height, activity level, target weight, body fat, BMR formula
+ * per entry: zigzag(timestamp - previous timestamp) + 1, zigzag(weight - previous weight)
+ * 0 (end of entries), entry count
+ * </pre>
+ * Weights, height and body fat are fixed-point hundredths; numbers are zigzag-encoded so negative
+ * deltas stay short. Strings are their UTF-8 length + 1 followed by the bytes, 0 for null.
+ * The first entry's deltas are from 0; a daily entry then takes 4 bytes of timestamp and usually
+ * 1 of weight.
+ */
+final class BinaryHistoryWriter extends WeightHistoryWriter {
+    static final int MAGIC = 0x46555748; // "FUWH"
+    static final byte VERSION = 1;
+    static final int MAX_STRING_BYTES = 1024;
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private long previousTimestamp;
+    private long previousWeight;
+
+    BinaryHistoryWriter(WritableByteChannel channel, NutritionProfile profile) {
+        super(channel);
+        buffer.putInt(MAGIC).put(VERSION);
+        if (profile == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        putString(profile.getGender());
+        putVarLong(zigzag(profile.getAge()));
+        putVarLong(zigzag(Math.round(profile.getHeight() * 100)));
+        putString(profile.getActivityLevel());
+        putVarLong(zigzag(Math.round(profile.getTargetWeight() * 100)));
+        putVarLong(zigzag(Math.round(profile.getBodyFatPercentage() * 100)));
+        putString(profile.getBmrFormula());
+    }
+
+    @Override
+    int maxEntryBytes() {
+        return 2 * MAX_VARINT_BYTES;
+    }
+
+    @Override
+    void encodeEntry(long timestampMillis, long weightHundredths) {
+        putVarLong(zigzag(timestampMillis - previousTimestamp) + 1);
+        putVarLong(zigzag(weightHundredths - previousWeight));
+        previousTimestamp = timestampMillis;
+        previousWeight = weightHundredths;
+    }
+
+    @Override
+    void encodeEnd() throws IOException {
+        reserve(1 + MAX_VARINT_BYTES);
+        buffer.put((byte) 0);
+        putVarLong(getEntryCount());
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Profile text longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        putVarLong(bytes.length + 1);
+        buffer.put(bytes);
+    }
+
+    private void putVarLong(long value) {
+        putVarLong(buffer, value);
+    }
+
+    /**
+     * Write an unsigned base-128 varint, low groups first
+     */
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
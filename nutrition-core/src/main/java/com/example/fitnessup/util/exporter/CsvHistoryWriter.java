@@ -0,0 +1,46 @@
+package com.example.fitnessup.util.exporter;
+
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * CSV export in the layout WeightHistoryParser reads: "2024-01-01T07:30:00+07:00,80.50".
+ * Each line is formatted into a reused StringBuilder and copied into the buffer as ASCII.
+ */
+final class CsvHistoryWriter extends WeightHistoryWriter {
+    private static final byte[] HEADER = "timestamp,beratBadan\n".getBytes(StandardCharsets.US_ASCII);
+    // Longest date-time with offset, a comma, a 19-digit weight with two decimals and a newline
+    private static final int MAX_LINE_LENGTH = 96;
+
+    private final ZoneId zone;
+    private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH);
+
+    CsvHistoryWriter(WritableByteChannel channel, ZoneId zone) {
+        super(channel);
+        this.zone = zone;
+        buffer.put(HEADER);
+    }
+
+    @Override
+    int maxEntryBytes() {
+        return MAX_LINE_LENGTH;
+    }
+
+    @Override
+    void encodeEntry(long timestampMillis, long weightHundredths) {
+        line.setLength(0);
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME.formatTo(Instant.ofEpochMilli(timestampMillis).atZone(zone), line);
+        int cents = (int) (weightHundredths % 100);
+        line.append(',').append(weightHundredths / 100).append(cents < 10 ? ".0" : ".").append(cents).append('\n');
+        for (int i = 0; i < line.length(); i++) {
+            buffer.put((byte) line.charAt(i));
+        }
+    }
+
+    @Override
+    void encodeEnd() {
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.fitnessup.util.exporter;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+import com.example.fitnessup.util.importer.WeightHistoryParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.ZoneId;
+
+/**
+ * Streaming writer for a weight history export.
+ * Entries are encoded into one fixed-size buffer that is drained to the channel whenever it fills,
+ * so memory stays the same however long the history is and nothing is kept once it is written.
+ * Feed entries oldest first, then call finish(); the channel is left open for the caller to close.
+ * Weights are stored to 0.01 kg in both formats. Not thread-safe.
+ */
+public abstract class WeightHistoryWriter implements WeightHistoryParser.EntrySink {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long entryCount;
+    private boolean finished;
+
+    WeightHistoryWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Create a CSV writer. The file has a "timestamp,beratBadan" header and ISO-8601 dates with
+     * the zone offset, so WeightHistoryParser.parseCsv reads it back unchanged.
+     * @param channel Destination
+     * @param zone Zone the dates are written in
+     * @return Writer with the header already buffered
+     */
+    public static WeightHistoryWriter csv(WritableByteChannel channel, ZoneId zone) {
+        return new CsvHistoryWriter(channel, zone);
+    }
+
+    /**
+     * Create a writer for the compact binary format read by BinaryHistoryReader: the profile, then
+     * each entry as varint deltas of its timestamp and fixed-point weight from the previous entry.
+     * A decade of daily entries takes about 5 bytes per entry, against about 32 in CSV.
+     * @param channel Destination
+     * @param profile Profile stored in the header, may be null
+     * @return Writer with the header already buffered
+     */
+    public static WeightHistoryWriter binary(WritableByteChannel channel, NutritionProfile profile) {
+        return new BinaryHistoryWriter(channel, profile);
+    }
+
+    /**
+     * Write one entry
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @throws IOException if the channel fails while the buffer is drained
+     */
+    @Override
+    public final void accept(long timestampMillis, double weight) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Writer already finished");
+        }
+        if (!(weight >= 0 && weight < Long.MAX_VALUE / 100.0)) {
+            throw new IllegalArgumentException("Weight out of range: " + weight);
+        }
+        reserve(maxEntryBytes());
+        encodeEntry(timestampMillis, Math.round(weight * 100));
+        entryCount++;
+    }
+
+    /**
+     * Write the end of the file and drain the buffer; the writer cannot be used afterwards
+     * @throws IOException if the channel fails
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        encodeEnd();
+        drain();
+    }
+
+    /**
+     * @return Entries written so far
+     */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return Upper bound of the bytes encodeEntry writes
+     */
+    abstract int maxEntryBytes();
+
+    /**
+     * Encode one entry into the buffer, which has maxEntryBytes() remaining
+     * @param weightHundredths Weight in units of 0.01 kg
+     */
+    abstract void encodeEntry(long timestampMillis, long weightHundredths);
+
+    /**
+     * Encode whatever ends the file, using reserve() for space
+     */
+    abstract void encodeEnd() throws IOException;
+
+    /**
+     * Make room for the given number of bytes, draining the buffer if needed
+     */
+    final void reserve(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
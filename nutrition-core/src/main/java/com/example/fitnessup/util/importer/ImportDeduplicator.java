@@ -0,0 +1,41 @@
+package com.example.fitnessup.util.importer;
+
+import com.example.fitnessup.util.calculator.WeightTrendCalculator;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Decides which imported entries are new. An entry is a duplicate when an existing entry or an
+ * earlier entry of the same import has exactly its timestamp, so importing the same file twice
+ * adds nothing. Existing timestamps are binary-searched; imported ones go into a hash set.
+ */
+public final class ImportDeduplicator {
+    private final long[] existing;
+    private final int existingCount;
+    private final Set<Long> imported = new HashSet<>();
+
+    /**
+     * @param existingTimestamps Timestamps already in the history, in epoch millis, in any order; not modified
+     * @param count Number of valid timestamps in the array
+     */
+    public ImportDeduplicator(long[] existingTimestamps, int count) {
+        existing = Arrays.copyOf(existingTimestamps, count);
+        Arrays.sort(existing);
+        existingCount = count;
+    }
+
+    /**
+     * Record an entry if it is new
+     * @param timestampMillis Entry time in epoch millis
+     * @return True if the entry should be imported, false if it is a duplicate
+     */
+    public boolean accept(long timestampMillis) {
+        int index = WeightTrendCalculator.firstIndexAfter(existing, existingCount, timestampMillis);
+        if (index > 0 && existing[index - 1] == timestampMillis) {
+            return false;
+        }
+        return imported.add(timestampMillis);
+    }
+}
@@ -0,0 +1,502 @@
+package com.example.fitnessup.util.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming parsers for weight histories exported by other apps.
+ * Both formats are read one entry at a time and handed to an EntrySink, so a file of any size
+ * is parsed in constant memory and the caller can write entries out while parsing continues.
+ * Rows whose date or weight cannot be read are skipped and counted rather than failing the import.
+ *
+ * Accepted dates: epoch seconds or millis, ISO-8601 dates, local date-times and instants,
+ * and dd/MM/yyyy or dd-MM-yyyy (optionally followed by HH:mm). Dates without a zone use the given zone.
+ */
+public final class WeightHistoryParser {
+
+    /**
+     * Receives parsed entries in file order
+     */
+    public interface EntrySink {
+        /**
+         * @param timestampMillis Entry time in epoch millis
+         * @param weight Entry weight in kg
+         */
+        void accept(long timestampMillis, double weight) throws IOException;
+    }
+
+    // Header names recognized for each column, compared lowercase without spaces or underscores
+    private static final String[] TIMESTAMP_NAMES = {"timestamp", "tanggal", "date", "waktu", "time", "datetime"};
+    private static final String[] WEIGHT_NAMES = {"beratbadan", "berat", "weight", "weightkg", "beratkg"};
+
+    // Values below this are epoch seconds rather than millis (about 1973 in millis)
+    private static final long EPOCH_SECONDS_LIMIT = 100_000_000_000L;
+
+    private static final DateTimeFormatter DAY_FIRST_DATE = DateTimeFormatter.ofPattern("d[/][-]M[/][-]yyyy", Locale.ROOT);
+    private static final DateTimeFormatter DAY_FIRST_DATE_TIME =
+            DateTimeFormatter.ofPattern("d[/][-]M[/][-]yyyy[ ]H:mm[:ss]", Locale.ROOT);
+
+    private WeightHistoryParser() {
+    }
+
+    /**
+     * Parse CSV with one entry per line. The delimiter is ',' or ';' (with ';' a decimal comma
+     * is accepted). A header row is optional; without one the first column is the date and the
+     * second the weight.
+     * @param reader Source, read line by line
+     * @param zone Zone for dates without one
+     * @param sink Receives each valid entry
+     * @return Number of rows skipped because their date or weight could not be read
+     * @throws IOException if reading fails or the sink throws
+     */
+    public static int parseCsv(Reader reader, ZoneId zone, EntrySink sink) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        char delimiter = 0;
+        int timestampColumn = 0;
+        int weightColumn = 1;
+        boolean firstRow = true;
+        int rejected = 0;
+
+        String line;
+        List<String> fields = new ArrayList<>();
+        while ((line = lines.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            if (delimiter == 0) {
+                // Whichever appears first on the first row, so "12,5" in a ';' file is not a split
+                delimiter = line.indexOf(';') >= 0 && (line.indexOf(',') < 0 || line.indexOf(';') < line.indexOf(','))
+                        ? ';' : ',';
+            }
+            splitCsvLine(line, delimiter, fields);
+
+            if (firstRow) {
+                firstRow = false;
+                int headerTimestamp = findColumn(fields, TIMESTAMP_NAMES);
+                int headerWeight = findColumn(fields, WEIGHT_NAMES);
+                if (headerTimestamp >= 0 || headerWeight >= 0) {
+                    timestampColumn = headerTimestamp >= 0 ? headerTimestamp : 0;
+                    weightColumn = headerWeight >= 0 ? headerWeight : (timestampColumn == 0 ? 1 : 0);
+                    continue;
+                }
+            }
+
+            if (!acceptEntry(fields, timestampColumn, weightColumn, delimiter == ';', zone, sink)) {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Parse JSON: an array of objects, or an object whose first array field holds them
+     * (e.g. {"entries": [...]}). Each object needs a date and a weight field under one of
+     * the recognized names; other fields, including nested ones, are skipped.
+     * @param reader Source, read incrementally
+     * @param zone Zone for dates without one
+     * @param sink Receives each valid entry
+     * @return Number of objects skipped because their date or weight could not be read
+     * @throws IOException if reading fails, the JSON is malformed, or the sink throws
+     */
+    public static int parseJson(Reader reader, ZoneId zone, EntrySink sink) throws IOException {
+        JsonTokenizer json = new JsonTokenizer(reader);
+        int c = json.peek();
+        if (c == '{') {
+            // Descend into the first array-valued field
+            json.expect('{');
+            while (true) {
+                if (json.peek() == '}') {
+                    return 0;
+                }
+                json.readString();
+                json.expect(':');
+                if (json.peek() == '[') {
+                    break;
+                }
+                json.skipValue();
+                if (!json.nextInObject()) {
+                    return 0;
+                }
+            }
+        }
+
+        int rejected = 0;
+        json.expect('[');
+        if (json.peek() == ']') {
+            return 0;
+        }
+        List<String> fields = new ArrayList<>(2);
+        do {
+            if (json.peek() != '{') {
+                json.skipValue();
+                rejected++;
+                continue;
+            }
+            String timestamp = null;
+            String weight = null;
+            json.expect('{');
+            if (json.peek() != '}') {
+                do {
+                    String name = normalizeName(json.readString());
+                    json.expect(':');
+                    if (timestamp == null && matches(name, TIMESTAMP_NAMES)) {
+                        timestamp = json.readScalar();
+                    } else if (weight == null && matches(name, WEIGHT_NAMES)) {
+                        weight = json.readScalar();
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.nextInObject());
+            } else {
+                json.expect('}');
+            }
+
+            fields.clear();
+            fields.add(timestamp);
+            fields.add(weight);
+            if (!acceptEntry(fields, 0, 1, false, zone, sink)) {
+                rejected++;
+            }
+        } while (json.nextInArray());
+        return rejected;
+    }
+
+    /**
+     * Parse a date in any of the accepted forms
+     * @param value Date text
+     * @param zone Zone for dates without one
+     * @return Epoch millis
+     * @throws IllegalArgumentException if the value is not a recognized date
+     */
+    public static long parseTimestamp(String value, ZoneId zone) {
+        String text = value.trim();
+        if (!text.isEmpty() && isDigits(text)) {
+            long epoch = Long.parseLong(text);
+            return epoch < EPOCH_SECONDS_LIMIT ? epoch * 1000 : epoch;
+        }
+        try {
+            if (text.endsWith("Z")) {
+                return Instant.parse(text).toEpochMilli();
+            }
+            if (text.length() > 10 && text.charAt(4) == '-' && (text.charAt(10) == 'T' || text.charAt(10) == ' ')) {
+                text = text.substring(0, 10) + 'T' + text.substring(11);
+                try {
+                    return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    return LocalDateTime.parse(text).atZone(zone).toInstant().toEpochMilli();
+                }
+            }
+            if (text.length() == 10 && text.charAt(4) == '-') {
+                return LocalDate.parse(text).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            if (text.indexOf(':') > 0) {
+                return LocalDateTime.parse(text, DAY_FIRST_DATE_TIME).atZone(zone).toInstant().toEpochMilli();
+            }
+            return LocalDate.parse(text, DAY_FIRST_DATE).atStartOfDay(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Unrecognized date: " + value, e);
+        }
+    }
+
+    private static boolean acceptEntry(List<String> fields, int timestampColumn, int weightColumn,
+                                       boolean decimalComma, ZoneId zone, EntrySink sink) throws IOException {
+        if (fields.size() <= Math.max(timestampColumn, weightColumn)) {
+            return false;
+        }
+        String timestampText = fields.get(timestampColumn);
+        String weightText = fields.get(weightColumn);
+        if (timestampText == null || weightText == null) {
+            return false;
+        }
+
+        long timestamp;
+        double weight;
+        try {
+            timestamp = parseTimestamp(timestampText, zone);
+            weight = Double.parseDouble(decimalComma ? weightText.trim().replace(',', '.') : weightText.trim());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            return false;
+        }
+        sink.accept(timestamp, weight);
+        return true;
+    }
+
+    /**
+     * Split one CSV line into fields, honoring double quotes and "" escapes
+     */
+    static void splitCsvLine(String line, char delimiter, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+    }
+
+    private static int findColumn(List<String> header, String[] names) {
+        for (int i = 0; i < header.size(); i++) {
+            if (matches(normalizeName(header.get(i)), names)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != ' ' && c != '_' && c != '-' && c != '(' && c != ')') {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static boolean matches(String name, String[] names) {
+        for (String candidate : names) {
+            if (candidate.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDigits(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Minimal pull tokenizer over a Reader: just enough JSON to walk arrays of flat objects
+     * and skip anything else
+     */
+    private static final class JsonTokenizer {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+
+        JsonTokenizer(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Next non-whitespace character without consuming it, or -1 at the end of input
+         */
+        int peek() throws IOException {
+            while (true) {
+                if (position == limit) {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return -1;
+                    }
+                }
+                char c = buffer[position];
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != '\uFEFF') {
+                    return c;
+                }
+                position++;
+            }
+        }
+
+        private char read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    throw new IOException("Unexpected end of JSON");
+                }
+            }
+            return buffer[position++];
+        }
+
+        void expect(char expected) throws IOException {
+            int c = peek();
+            if (c != expected) {
+                throw new IOException("Expected '" + expected + "' but found "
+                        + (c < 0 ? "end of input" : "'" + (char) c + "'"));
+            }
+            position++;
+        }
+
+        /**
+         * Consume ',' and return true, or consume the closing '}' and return false
+         */
+        boolean nextInObject() throws IOException {
+            return nextOrClose('}');
+        }
+
+        /**
+         * Consume ',' and return true, or consume the closing ']' and return false
+         */
+        boolean nextInArray() throws IOException {
+            return nextOrClose(']');
+        }
+
+        private boolean nextOrClose(char close) throws IOException {
+            int c = peek();
+            if (c == ',') {
+                position++;
+                return true;
+            }
+            expect(close);
+            return false;
+        }
+
+        String readString() throws IOException {
+            expect('"');
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                char c = read();
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c != '\\') {
+                    text.append(c);
+                    continue;
+                }
+                char escaped = read();
+                switch (escaped) {
+                    case 'b':
+                        text.append('\b');
+                        break;
+                    case 'f':
+                        text.append('\f');
+                        break;
+                    case 'n':
+                        text.append('\n');
+                        break;
+                    case 'r':
+                        text.append('\r');
+                        break;
+                    case 't':
+                        text.append('\t');
+                        break;
+                    case 'u':
+                        char[] hex = {read(), read(), read(), read()};
+                        try {
+                            text.append((char) Integer.parseInt(new String(hex), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IOException("Invalid unicode escape in JSON string", e);
+                        }
+                        break;
+                    default:
+                        text.append(escaped);
+                }
+            }
+        }
+
+        /**
+         * Read a string, number or literal as text; null for JSON null, objects and arrays
+         */
+        String readScalar() throws IOException {
+            int c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                skipValue();
+                return null;
+            }
+            String literal = readLiteral();
+            return "null".equals(literal) ? null : literal;
+        }
+
+        private String readLiteral() throws IOException {
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                int c = peekRaw();
+                if (c < 0 || c == ',' || c == '}' || c == ']' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                    break;
+                }
+                text.append((char) c);
+                position++;
+            }
+            if (text.length() == 0) {
+                throw new IOException("Expected a JSON value");
+            }
+            return text.toString();
+        }
+
+        private int peekRaw() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+
+        void skipValue() throws IOException {
+            int c = peek();
+            if (c == '"') {
+                readString();
+            } else if (c == '{') {
+                position++;
+                if (peek() == '}') {
+                    position++;
+                    return;
+                }
+                do {
+                    readString();
+                    expect(':');
+                    skipValue();
+                } while (nextInObject());
+            } else if (c == '[') {
+                position++;
+                if (peek() == ']') {
+                    position++;
+                    return;
+                }
+                do {
+                    skipValue();
+                } while (nextInArray());
+            } else {
+                readLiteral();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.fitnessup.util.mapper;
+
+import java.util.Map;
+
+/**
+ * Converts a model to and from the field map of its Firestore document, using the stored keys.
+ * Implementations are generated at compile time for FirestoreDocument classes, so no reflection
+ * is involved. Numbers are read through Number, since Firestore returns whole numbers as Long
+ * and others as Double whatever the field type was when written.
+ * @param <T> Model class
+ */
+public interface DocumentMapper<T> {
+
+    /**
+     * Build a model from document data. Keys that are missing or null leave the field at its
+     * default; values of the wrong type are skipped.
+     * @param data Document fields, e.g. DocumentSnapshot.getData(); may be null
+     * @return New model, or null if data is null
+     */
+    T fromMap(Map<String, Object> data);
+
+    /**
+     * Convert a model to document data
+     * @param object Model to convert
+     * @return Mutable map of every stored field, null values included
+     */
+    Map<String, Object> toMap(T object);
+}
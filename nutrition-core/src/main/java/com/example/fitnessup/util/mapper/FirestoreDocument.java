@@ -0,0 +1,16 @@
+package com.example.fitnessup.util.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model class for which the mapper processor generates a DocumentMapper named
+ * {@code <ClassName>Mapper} in the same package. The class needs a no-argument constructor;
+ * its stored fields are the ones annotated with FirestoreField.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface FirestoreDocument {
+}
@@ -0,0 +1,21 @@
+package com.example.fitnessup.util.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Stores a field of a FirestoreDocument class under the given document key, e.g. "beratBadan".
+ * The field is read and written through its getter and setter, or directly if it is not private.
+ * Supported types: primitives, their boxes, String, and any other type stored as is (e.g. Timestamp).
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface FirestoreField {
+
+    /**
+     * @return Document key of the field
+     */
+    String value();
+}
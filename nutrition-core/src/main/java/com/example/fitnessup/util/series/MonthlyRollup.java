@@ -0,0 +1,324 @@
+package com.example.fitnessup.util.series;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One month of a weight history reduced to daily statistics: lowest, highest, mean and last
+ * weight and the entry count of each calendar day. A year of history is twelve of these instead
+ * of hundreds of raw entries, which is enough for long-range charts.
+ * Days are calendar days in the zone passed to add(), normally the device's zone when the
+ * entry was written. Entries cannot be removed; rebuild the month from the history instead.
+ * Not thread-safe.
+ */
+public final class MonthlyRollup {
+
+    // Firestore keys for toMap() / fromMap()
+    private static final String KEY_MONTH = "bulan";
+    private static final String KEY_COUNT = "jumlahEntri";
+    private static final String KEY_DAYS = "hari";
+    private static final String KEY_DAY_MIN = "beratMinimum";
+    private static final String KEY_DAY_MAX = "beratMaksimum";
+    private static final String KEY_DAY_SUM = "jumlahBerat";
+    private static final String KEY_DAY_COUNT = "jumlahEntri";
+    private static final String KEY_DAY_LAST_TIMESTAMP = "timestampTerakhir";
+    private static final String KEY_DAY_LAST_WEIGHT = "beratBadanTerakhir";
+
+    /**
+     * Statistics of one calendar day
+     */
+    public static final class Day {
+        private final int dayOfMonth;
+        private double minWeight;
+        private double maxWeight;
+        private double sumWeight;
+        private int count;
+        private long lastTimestampMillis;
+        private double lastWeight;
+
+        Day(int dayOfMonth) {
+            this.dayOfMonth = dayOfMonth;
+        }
+
+        void add(long timestampMillis, double weight) {
+            if (count == 0) {
+                minWeight = weight;
+                maxWeight = weight;
+            } else {
+                minWeight = Math.min(minWeight, weight);
+                maxWeight = Math.max(maxWeight, weight);
+            }
+            if (count == 0 || timestampMillis >= lastTimestampMillis) {
+                lastTimestampMillis = timestampMillis;
+                lastWeight = weight;
+            }
+            sumWeight += weight;
+            count++;
+        }
+
+        void merge(Day other) {
+            if (count == 0) {
+                minWeight = other.minWeight;
+                maxWeight = other.maxWeight;
+            } else {
+                minWeight = Math.min(minWeight, other.minWeight);
+                maxWeight = Math.max(maxWeight, other.maxWeight);
+            }
+            if (count == 0 || other.lastTimestampMillis >= lastTimestampMillis) {
+                lastTimestampMillis = other.lastTimestampMillis;
+                lastWeight = other.lastWeight;
+            }
+            sumWeight += other.sumWeight;
+            count += other.count;
+        }
+
+        public int getDayOfMonth() {
+            return dayOfMonth;
+        }
+
+        public double getMinWeight() {
+            return minWeight;
+        }
+
+        public double getMaxWeight() {
+            return maxWeight;
+        }
+
+        public double getMeanWeight() {
+            return sumWeight / count;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getLastTimestampMillis() {
+            return lastTimestampMillis;
+        }
+
+        public double getLastWeight() {
+            return lastWeight;
+        }
+    }
+
+    private final YearMonth month;
+    private final TreeMap<Integer, Day> days = new TreeMap<>();
+    private int count;
+
+    /**
+     * @param month Calendar month this rollup covers
+     */
+    public MonthlyRollup(YearMonth month) {
+        this.month = month;
+    }
+
+    /**
+     * Calendar month of a timestamp
+     * @param timestampMillis Time in epoch millis
+     * @param zone Zone that decides the calendar day
+     * @return The month containing the timestamp
+     */
+    public static YearMonth monthOf(long timestampMillis, ZoneId zone) {
+        return YearMonth.from(Instant.ofEpochMilli(timestampMillis).atZone(zone));
+    }
+
+    /**
+     * Document key of a month, sortable as text, e.g. "2024-01"
+     */
+    public static String key(YearMonth month) {
+        return month.toString();
+    }
+
+    /**
+     * Fold in a weigh-in from this month
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @param zone Zone that decides the calendar day
+     * @throws IllegalArgumentException if the entry is in another month
+     */
+    public void add(long timestampMillis, double weight, ZoneId zone) {
+        LocalDate date = Instant.ofEpochMilli(timestampMillis).atZone(zone).toLocalDate();
+        if (!YearMonth.from(date).equals(month)) {
+            throw new IllegalArgumentException("Entry on " + date + " is not in " + month);
+        }
+        day(date.getDayOfMonth()).add(timestampMillis, weight);
+        count++;
+    }
+
+    /**
+     * Fold in another rollup of the same month, e.g. one built over imported entries
+     * @param other Rollup to add; not modified
+     * @throws IllegalArgumentException if the rollup is for another month
+     */
+    public void merge(MonthlyRollup other) {
+        if (!other.month.equals(month)) {
+            throw new IllegalArgumentException("Cannot merge " + other.month + " into " + month);
+        }
+        for (Day otherDay : other.days.values()) {
+            day(otherDay.dayOfMonth).merge(otherDay);
+        }
+        count += other.count;
+    }
+
+    private Day day(int dayOfMonth) {
+        Day day = days.get(dayOfMonth);
+        if (day == null) {
+            day = new Day(dayOfMonth);
+            days.put(dayOfMonth, day);
+        }
+        return day;
+    }
+
+    /**
+     * Roll a history up into months
+     * @param timestamps Entry times in epoch millis, in any order
+     * @param weights Entry weights in kg, parallel to timestamps
+     * @param count Number of valid entries
+     * @param zone Zone that decides the calendar days
+     * @return Rollups by month, oldest first
+     */
+    public static TreeMap<YearMonth, MonthlyRollup> rollUp(long[] timestamps, double[] weights, int count, ZoneId zone) {
+        TreeMap<YearMonth, MonthlyRollup> rollups = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            addTo(rollups, timestamps[i], weights[i], zone);
+        }
+        return rollups;
+    }
+
+    /**
+     * Fold a weigh-in into the rollup of its month, creating the rollup if needed
+     * @param rollups Rollups by month
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @param zone Zone that decides the calendar day
+     */
+    public static void addTo(Map<YearMonth, MonthlyRollup> rollups, long timestampMillis, double weight, ZoneId zone) {
+        YearMonth month = monthOf(timestampMillis, zone);
+        MonthlyRollup rollup = rollups.get(month);
+        if (rollup == null) {
+            rollup = new MonthlyRollup(month);
+            rollups.put(month, rollup);
+        }
+        rollup.add(timestampMillis, weight, zone);
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * @return Number of entries in the month
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return Days with at least one entry, in calendar order
+     */
+    public Collection<Day> getDays() {
+        return Collections.unmodifiableCollection(days.values());
+    }
+
+    /**
+     * @return Mean weight over every entry of the month, or NaN if empty
+     */
+    public double getMeanWeight() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (Day day : days.values()) {
+            sum += day.sumWeight;
+        }
+        return sum / count;
+    }
+
+    /**
+     * Start of a day of this month in epoch millis, the x value for a daily chart point
+     * @param day Day of this rollup
+     * @param zone Zone the rollup was built in
+     */
+    public long dayStartMillis(Day day, ZoneId zone) {
+        return month.atDay(day.dayOfMonth).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Convert the rollup to a map for Firestore
+     * @return Map of rollup fields; days are keyed by day of month
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> dayMaps = new HashMap<>();
+        for (Day day : days.values()) {
+            Map<String, Object> map = new HashMap<>();
+            map.put(KEY_DAY_MIN, day.minWeight);
+            map.put(KEY_DAY_MAX, day.maxWeight);
+            map.put(KEY_DAY_SUM, day.sumWeight);
+            map.put(KEY_DAY_COUNT, day.count);
+            map.put(KEY_DAY_LAST_TIMESTAMP, day.lastTimestampMillis);
+            map.put(KEY_DAY_LAST_WEIGHT, day.lastWeight);
+            dayMaps.put(String.valueOf(day.dayOfMonth), map);
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put(KEY_MONTH, key(month));
+        map.put(KEY_COUNT, count);
+        map.put(KEY_DAYS, dayMaps);
+        return map;
+    }
+
+    /**
+     * Restore a rollup from a map written by toMap()
+     * @param map Stored rollup, may be null
+     * @return Restored rollup, or null if the map is missing or malformed
+     */
+    @SuppressWarnings("unchecked")
+    public static MonthlyRollup fromMap(Map<String, Object> map) {
+        if (map == null || !(map.get(KEY_MONTH) instanceof String) || !(map.get(KEY_DAYS) instanceof Map)) {
+            return null;
+        }
+        MonthlyRollup rollup;
+        try {
+            rollup = new MonthlyRollup(YearMonth.parse((String) map.get(KEY_MONTH)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+        String[] keys = {KEY_DAY_MIN, KEY_DAY_MAX, KEY_DAY_SUM, KEY_DAY_COUNT, KEY_DAY_LAST_TIMESTAMP, KEY_DAY_LAST_WEIGHT};
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) map.get(KEY_DAYS)).entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                return null;
+            }
+            Map<String, Object> dayMap = (Map<String, Object>) entry.getValue();
+            for (String key : keys) {
+                if (!(dayMap.get(key) instanceof Number)) {
+                    return null;
+                }
+            }
+            int dayOfMonth;
+            try {
+                dayOfMonth = Integer.parseInt(entry.getKey());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            Day day = rollup.day(dayOfMonth);
+            day.minWeight = ((Number) dayMap.get(KEY_DAY_MIN)).doubleValue();
+            day.maxWeight = ((Number) dayMap.get(KEY_DAY_MAX)).doubleValue();
+            day.sumWeight = ((Number) dayMap.get(KEY_DAY_SUM)).doubleValue();
+            day.count = ((Number) dayMap.get(KEY_DAY_COUNT)).intValue();
+            day.lastTimestampMillis = ((Number) dayMap.get(KEY_DAY_LAST_TIMESTAMP)).longValue();
+            day.lastWeight = ((Number) dayMap.get(KEY_DAY_LAST_WEIGHT)).doubleValue();
+            rollup.count += day.count;
+        }
+        return rollup;
+    }
+}
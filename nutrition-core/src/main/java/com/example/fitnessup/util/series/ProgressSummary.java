@@ -0,0 +1,268 @@
+package com.example.fitnessup.util.series;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Denormalized summary of a weight history: entry count, first and latest entry, lowest and
+ * highest weight, and the running sums of a least-squares fit of weight against time.
+ * Each weigh-in is folded in with add() in O(1), so the summary can be kept next to the history
+ * and read in place of it. Entries cannot be removed; rebuild the summary from the history instead.
+ * Time in the sums is measured in days from a fixed origin (the first entry ever added), which
+ * keeps the squared terms small enough for double precision. Not thread-safe.
+ */
+public final class ProgressSummary {
+    private static final double MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    // Firestore keys for toMap() / fromMap()
+    private static final String KEY_COUNT = "jumlahEntri";
+    private static final String KEY_ORIGIN = "waktuAcuan";
+    private static final String KEY_FIRST_TIMESTAMP = "timestampPertama";
+    private static final String KEY_FIRST_WEIGHT = "beratBadanPertama";
+    private static final String KEY_LATEST_TIMESTAMP = "timestampTerakhir";
+    private static final String KEY_LATEST_WEIGHT = "beratBadanTerakhir";
+    private static final String KEY_LATEST_ID = "idTerakhir";
+    private static final String KEY_MIN_WEIGHT = "beratBadanMinimum";
+    private static final String KEY_MAX_WEIGHT = "beratBadanMaksimum";
+    private static final String KEY_SUM_DAYS = "jumlahHari";
+    private static final String KEY_SUM_WEIGHT = "jumlahBerat";
+    private static final String KEY_SUM_DAYS_SQUARED = "jumlahHariKuadrat";
+    private static final String KEY_SUM_DAYS_WEIGHT = "jumlahHariKaliBerat";
+
+    private long count;
+    private long originMillis; // Time origin of the regression sums
+    private long firstTimestampMillis;
+    private double firstWeight;
+    private long latestTimestampMillis;
+    private double latestWeight;
+    private String latestEntryId; // Document ID of the latest entry, null if unknown
+    private double minWeight;
+    private double maxWeight;
+
+    // Running sums over entries, with t in days since originMillis and w in kg
+    private double sumDays;
+    private double sumWeight;
+    private double sumDaysSquared;
+    private double sumDaysWeight;
+
+    /**
+     * Fold in a weigh-in
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     */
+    public void add(long timestampMillis, double weight) {
+        add(timestampMillis, weight, null);
+    }
+
+    /**
+     * Fold in a weigh-in. An entry at the same time as the latest one becomes the latest,
+     * matching the order of WeightSeries.
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @param entryId Document ID of the entry, may be null
+     */
+    public void add(long timestampMillis, double weight, String entryId) {
+        if (count == 0) {
+            originMillis = timestampMillis;
+            firstTimestampMillis = timestampMillis;
+            firstWeight = weight;
+            latestTimestampMillis = timestampMillis;
+            latestWeight = weight;
+            latestEntryId = entryId;
+            minWeight = weight;
+            maxWeight = weight;
+        } else {
+            if (timestampMillis < firstTimestampMillis) {
+                firstTimestampMillis = timestampMillis;
+                firstWeight = weight;
+            }
+            if (timestampMillis >= latestTimestampMillis) {
+                latestTimestampMillis = timestampMillis;
+                latestWeight = weight;
+                latestEntryId = entryId;
+            }
+            minWeight = Math.min(minWeight, weight);
+            maxWeight = Math.max(maxWeight, weight);
+        }
+        count++;
+
+        double days = (timestampMillis - originMillis) / MILLIS_PER_DAY;
+        sumDays += days;
+        sumWeight += weight;
+        sumDaysSquared += days * days;
+        sumDaysWeight += days * weight;
+    }
+
+    /**
+     * Fold in another summary, e.g. one built over a batch of imported entries.
+     * The result is the summary of both histories together.
+     * @param other Summary to add; not modified
+     */
+    public void merge(ProgressSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            copyFrom(other);
+            return;
+        }
+        if (other.firstTimestampMillis < firstTimestampMillis) {
+            firstTimestampMillis = other.firstTimestampMillis;
+            firstWeight = other.firstWeight;
+        }
+        if (other.latestTimestampMillis >= latestTimestampMillis) {
+            latestTimestampMillis = other.latestTimestampMillis;
+            latestWeight = other.latestWeight;
+            latestEntryId = other.latestEntryId;
+        }
+        minWeight = Math.min(minWeight, other.minWeight);
+        maxWeight = Math.max(maxWeight, other.maxWeight);
+
+        // Move the other sums to this origin: t' = t + shift
+        double shift = (other.originMillis - originMillis) / MILLIS_PER_DAY;
+        sumDays += other.sumDays + other.count * shift;
+        sumWeight += other.sumWeight;
+        sumDaysSquared += other.sumDaysSquared + 2 * shift * other.sumDays + other.count * shift * shift;
+        sumDaysWeight += other.sumDaysWeight + shift * other.sumWeight;
+        count += other.count;
+    }
+
+    private void copyFrom(ProgressSummary other) {
+        count = other.count;
+        originMillis = other.originMillis;
+        firstTimestampMillis = other.firstTimestampMillis;
+        firstWeight = other.firstWeight;
+        latestTimestampMillis = other.latestTimestampMillis;
+        latestWeight = other.latestWeight;
+        latestEntryId = other.latestEntryId;
+        minWeight = other.minWeight;
+        maxWeight = other.maxWeight;
+        sumDays = other.sumDays;
+        sumWeight = other.sumWeight;
+        sumDaysSquared = other.sumDaysSquared;
+        sumDaysWeight = other.sumDaysWeight;
+    }
+
+    /**
+     * Slope of the least-squares line through every entry, the trend over the whole history
+     * that is least sensitive to a single unusual weigh-in
+     * @return Weight change in kg per week, or NaN with fewer than two distinct entry times
+     */
+    public double slopePerWeek() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        double denominator = count * sumDaysSquared - sumDays * sumDays;
+        // All entries at (nearly) the same time: no slope
+        if (denominator <= 1e-9 * count * count) {
+            return Double.NaN;
+        }
+        return (count * sumDaysWeight - sumDays * sumWeight) / denominator * 7;
+    }
+
+    /**
+     * @return Number of entries folded in
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long getFirstTimestampMillis() {
+        return firstTimestampMillis;
+    }
+
+    public double getFirstWeight() {
+        return firstWeight;
+    }
+
+    public long getLatestTimestampMillis() {
+        return latestTimestampMillis;
+    }
+
+    public double getLatestWeight() {
+        return latestWeight;
+    }
+
+    /**
+     * @return Document ID of the latest entry, or null if it was added without one
+     */
+    public String getLatestEntryId() {
+        return latestEntryId;
+    }
+
+    public double getMinWeight() {
+        return minWeight;
+    }
+
+    public double getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * @return Mean weight in kg over all entries, or NaN if empty
+     */
+    public double getMeanWeight() {
+        return count > 0 ? sumWeight / count : Double.NaN;
+    }
+
+    /**
+     * Convert the summary to a map for Firestore
+     * @return Map of summary fields
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put(KEY_COUNT, count);
+        map.put(KEY_ORIGIN, originMillis);
+        map.put(KEY_FIRST_TIMESTAMP, firstTimestampMillis);
+        map.put(KEY_FIRST_WEIGHT, firstWeight);
+        map.put(KEY_LATEST_TIMESTAMP, latestTimestampMillis);
+        map.put(KEY_LATEST_WEIGHT, latestWeight);
+        map.put(KEY_LATEST_ID, latestEntryId);
+        map.put(KEY_MIN_WEIGHT, minWeight);
+        map.put(KEY_MAX_WEIGHT, maxWeight);
+        map.put(KEY_SUM_DAYS, sumDays);
+        map.put(KEY_SUM_WEIGHT, sumWeight);
+        map.put(KEY_SUM_DAYS_SQUARED, sumDaysSquared);
+        map.put(KEY_SUM_DAYS_WEIGHT, sumDaysWeight);
+        return map;
+    }
+
+    /**
+     * Restore a summary from a map written by toMap()
+     * @param map Stored summary, may be null or incomplete
+     * @return Restored summary, or null if the summary is missing or incomplete
+     */
+    public static ProgressSummary fromMap(Map<String, Object> map) {
+        String[] keys = {KEY_COUNT, KEY_ORIGIN, KEY_FIRST_TIMESTAMP, KEY_FIRST_WEIGHT, KEY_LATEST_TIMESTAMP,
+                KEY_LATEST_WEIGHT, KEY_MIN_WEIGHT, KEY_MAX_WEIGHT, KEY_SUM_DAYS, KEY_SUM_WEIGHT,
+                KEY_SUM_DAYS_SQUARED, KEY_SUM_DAYS_WEIGHT};
+        if (map == null) {
+            return null;
+        }
+        for (String key : keys) {
+            if (!(map.get(key) instanceof Number)) {
+                return null;
+            }
+        }
+        ProgressSummary summary = new ProgressSummary();
+        summary.count = ((Number) map.get(KEY_COUNT)).longValue();
+        summary.originMillis = ((Number) map.get(KEY_ORIGIN)).longValue();
+        summary.firstTimestampMillis = ((Number) map.get(KEY_FIRST_TIMESTAMP)).longValue();
+        summary.firstWeight = ((Number) map.get(KEY_FIRST_WEIGHT)).doubleValue();
+        summary.latestTimestampMillis = ((Number) map.get(KEY_LATEST_TIMESTAMP)).longValue();
+        summary.latestWeight = ((Number) map.get(KEY_LATEST_WEIGHT)).doubleValue();
+        summary.latestEntryId = map.get(KEY_LATEST_ID) instanceof String ? (String) map.get(KEY_LATEST_ID) : null;
+        summary.minWeight = ((Number) map.get(KEY_MIN_WEIGHT)).doubleValue();
+        summary.maxWeight = ((Number) map.get(KEY_MAX_WEIGHT)).doubleValue();
+        summary.sumDays = ((Number) map.get(KEY_SUM_DAYS)).doubleValue();
+        summary.sumWeight = ((Number) map.get(KEY_SUM_WEIGHT)).doubleValue();
+        summary.sumDaysSquared = ((Number) map.get(KEY_SUM_DAYS_SQUARED)).doubleValue();
+        summary.sumDaysWeight = ((Number) map.get(KEY_SUM_DAYS_WEIGHT)).doubleValue();
+        return summary;
+    }
+}
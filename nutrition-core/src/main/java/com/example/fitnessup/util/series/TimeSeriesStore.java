@@ -0,0 +1,515 @@
+package com.example.fitnessup.util.series;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only on-disk time series of (timestamp, value) points, compressed the way Facebook's
+ * Gorilla does it: timestamps as delta-of-delta with variable-width buckets, values as the XOR
+ * with the previous value, storing only its meaningful bits.
+ * Points live in memory-mapped segment files of up to SEGMENT_POINTS points in one directory.
+ * Each segment header keeps its count and first and last points, so range scans skip whole
+ * segments and the ends of the series are read without decoding. Scans decode straight into a
+ * PointSink without creating an object per point.
+ * Weigh-ins at the same time of each day cost one bit of timestamp, and a repeated weight one bit;
+ * other decimal weights such as 80.1 still cost about 50 bits, since most of their mantissa differs,
+ * so a daily history takes under half the 16 bytes per point of the raw columns.
+ * A segment's header is updated after its points, so a crash mid-append loses at most that point.
+ * Not thread-safe: use each store from one thread.
+ *
+ * Segment layout: 48-byte header (magic "FUTS", version, count, bits used, first and last
+ * timestamp, first and last value), then the bit stream, most significant bit first.
+ */
+public final class TimeSeriesStore implements Closeable {
+
+    /**
+     * Receives points in timestamp order
+     */
+    public interface PointSink {
+        /**
+         * @param timestampMillis Point time in epoch millis
+         * @param value Point value
+         */
+        void accept(long timestampMillis, double value);
+    }
+
+    static final int SEGMENT_POINTS = 4096;
+    private static final int MAGIC = 0x46555453; // "FUTS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    // Worst case of one point: the widest timestamp and value encodings
+    private static final int MAX_POINT_BITS = (4 + 64) + (2 + 6 + 6 + 64);
+    private static final int ACTIVE_SEGMENT_SIZE = HEADER_SIZE + (SEGMENT_POINTS * MAX_POINT_BITS + 7) / 8;
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".ts";
+
+    private final File directory;
+    private final List<Segment> segments = new ArrayList<>();
+    // Encoder state after the last point of the active (last) segment
+    private final Codec appendState = new Codec();
+    private long size;
+
+    private TimeSeriesStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Open the store in a directory, creating it if needed
+     * @param directory Directory holding only this store's segment files
+     * @return Open store
+     * @throws IOException if the files cannot be mapped or are not valid segments
+     */
+    public static TimeSeriesStore open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        TimeSeriesStore store = new TimeSeriesStore(directory);
+        String[] names = directory.list((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        Arrays.sort(names); // Zero-padded sequence numbers
+        try {
+            for (int i = 0; i < names.length; i++) {
+                Segment segment = Segment.open(new File(directory, names[i]), i == names.length - 1);
+                store.segments.add(segment);
+                store.size += segment.count;
+            }
+            if (!store.segments.isEmpty()) {
+                // Decode the active segment once to resume appending where it ended
+                Segment active = store.segments.get(store.segments.size() - 1);
+                Codec codec = store.appendState;
+                for (int i = 0; i < active.count; i++) {
+                    codec.decode(active.buffer);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt time series in " + directory, e);
+        }
+        return store;
+    }
+
+    /**
+     * Append a point
+     * @param timestampMillis Point time in epoch millis, not before the last point
+     * @param value Point value
+     * @throws IllegalArgumentException if the point is older than the last one
+     * @throws IOException if a new segment cannot be created
+     */
+    public void append(long timestampMillis, double value) throws IOException {
+        if (size > 0 && timestampMillis < lastTimestamp()) {
+            throw new IllegalArgumentException("Timestamp " + timestampMillis + " is before the last point");
+        }
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active == null || active.count == SEGMENT_POINTS) {
+            if (active != null) {
+                active.seal();
+            }
+            active = Segment.create(new File(directory, segmentName(nextSequence())));
+            segments.add(active);
+            appendState.reset();
+        }
+        appendState.encode(active.buffer, timestampMillis, value);
+        active.appended(timestampMillis, value, appendState.bitPosition);
+        size++;
+    }
+
+    /**
+     * Replace every point with the contents of a series
+     * @param series Points, oldest first
+     * @throws IOException if the segments cannot be rewritten
+     */
+    public void replaceAll(WeightSeries series) throws IOException {
+        clear();
+        for (int i = 0; i < series.size(); i++) {
+            append(series.timestampAt(i), series.weightAt(i));
+        }
+    }
+
+    /**
+     * Remove every point and delete the segment files
+     * @throws IOException if a segment file cannot be deleted
+     */
+    public void clear() throws IOException {
+        List<Segment> removed = new ArrayList<>(segments);
+        segments.clear();
+        size = 0;
+        appendState.reset();
+        for (Segment segment : removed) {
+            segment.close();
+            if (!segment.file.delete()) {
+                throw new IOException("Cannot delete " + segment.file);
+            }
+        }
+    }
+
+    /**
+     * Decode the points in a time range
+     * @param fromMillis Start of the range in epoch millis, inclusive
+     * @param toMillis End of the range in epoch millis, inclusive
+     * @param sink Receives each point in the range, oldest first
+     */
+    public void scan(long fromMillis, long toMillis, PointSink sink) {
+        Codec codec = new Codec();
+        for (Segment segment : segments) {
+            if (segment.count == 0 || segment.lastTimestamp < fromMillis) {
+                continue;
+            }
+            if (segment.firstTimestamp > toMillis) {
+                return;
+            }
+            codec.reset();
+            for (int i = 0; i < segment.count; i++) {
+                codec.decode(segment.buffer);
+                if (codec.timestamp > toMillis) {
+                    return;
+                }
+                if (codec.timestamp >= fromMillis) {
+                    sink.accept(codec.timestamp, Double.longBitsToDouble(codec.valueBits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Decode every point into a series
+     * @param series Destination; points are appended in order, so pass an empty series
+     */
+    public void readInto(WeightSeries series) {
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, series::add);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Timestamp of the oldest point; only valid if the store is not empty
+     */
+    public long firstTimestamp() {
+        return segments.get(0).firstTimestamp;
+    }
+
+    /**
+     * @return Value of the oldest point; only valid if the store is not empty
+     */
+    public double firstValue() {
+        return segments.get(0).firstValue;
+    }
+
+    /**
+     * @return Timestamp of the newest point; only valid if the store is not empty
+     */
+    public long lastTimestamp() {
+        return segments.get(segments.size() - 1).lastTimestamp;
+    }
+
+    /**
+     * @return Value of the newest point; only valid if the store is not empty
+     */
+    public double lastValue() {
+        return segments.get(segments.size() - 1).lastValue;
+    }
+
+    /**
+     * @return Bytes the points take on disk, headers included, not counting unused room in the active segment
+     */
+    public long storedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += HEADER_SIZE + (segment.bitLength + 7) / 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * Release the mapped segments; the store cannot be used afterwards
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Segment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        segments.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private int nextSequence() {
+        if (segments.isEmpty()) {
+            return 0;
+        }
+        String name = segments.get(segments.size() - 1).file.getName();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())) + 1;
+    }
+
+    private static String segmentName(int sequence) {
+        return String.format(Locale.ROOT, "%s%06d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * One mapped segment file
+     */
+    private static final class Segment {
+        final File file;
+        private RandomAccessFile access;
+        MappedByteBuffer buffer;
+        int count;
+        long bitLength;
+        long firstTimestamp;
+        long lastTimestamp;
+        double firstValue;
+        double lastValue;
+
+        private Segment(File file) {
+            this.file = file;
+        }
+
+        static Segment create(File file) throws IOException {
+            Segment segment = new Segment(file);
+            segment.access = new RandomAccessFile(file, "rw");
+            segment.buffer = segment.access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, ACTIVE_SEGMENT_SIZE);
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(4, VERSION);
+            segment.writeHeader();
+            return segment;
+        }
+
+        static Segment open(File file, boolean writable) throws IOException {
+            Segment segment = new Segment(file);
+            segment.access = new RandomAccessFile(file, writable ? "rw" : "r");
+            FileChannel channel = segment.access.getChannel();
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Truncated segment " + file);
+            }
+            segment.buffer = writable
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), ACTIVE_SEGMENT_SIZE))
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            MappedByteBuffer header = segment.buffer;
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a time series segment: " + file);
+            }
+            segment.count = header.getInt(8);
+            segment.bitLength = header.getInt(12) & 0xFFFFFFFFL;
+            segment.firstTimestamp = header.getLong(16);
+            segment.lastTimestamp = header.getLong(24);
+            segment.firstValue = header.getDouble(32);
+            segment.lastValue = header.getDouble(40);
+            if (segment.count < 0 || segment.count > SEGMENT_POINTS
+                    || HEADER_SIZE + (segment.bitLength + 7) / 8 > segment.buffer.capacity()) {
+                throw new IOException("Corrupt segment header in " + file);
+            }
+            return segment;
+        }
+
+        void appended(long timestampMillis, double value, long bitPosition) {
+            if (count == 0) {
+                firstTimestamp = timestampMillis;
+                firstValue = value;
+            }
+            lastTimestamp = timestampMillis;
+            lastValue = value;
+            bitLength = bitPosition;
+            count++;
+            writeHeader();
+        }
+
+        private void writeHeader() {
+            buffer.putLong(16, firstTimestamp);
+            buffer.putLong(24, lastTimestamp);
+            buffer.putDouble(32, firstValue);
+            buffer.putDouble(40, lastValue);
+            buffer.putInt(12, (int) bitLength);
+            buffer.putInt(8, count); // Last, so the new point only counts once it is complete
+        }
+
+        /**
+         * Shrink a full segment to the bytes it uses and map it read-only
+         */
+        void seal() throws IOException {
+            buffer.force();
+            long used = HEADER_SIZE + (bitLength + 7) / 8;
+            buffer = null; // The old mapping must not be touched beyond the new end
+            FileChannel channel = access.getChannel();
+            channel.truncate(used);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, used);
+        }
+
+        void close() throws IOException {
+            buffer = null;
+            access.close();
+        }
+    }
+
+    /**
+     * Gorilla encoder and decoder state. Timestamp delta-of-delta buckets are sized for millis:
+     * '0' for none, then '10' +12 bits, '110' +20 bits, '1110' +32 bits, '1111' +64 bits.
+     * Values: '0' for the same value, '10' + the meaningful bits when they fit the previous
+     * window, else '11' + 6 bits of leading zeros + 6 bits of length - 1 + the meaningful bits.
+     */
+    private static final class Codec {
+        long bitPosition;
+        int count;
+        long timestamp;
+        long delta;
+        long valueBits;
+        int leading;
+        int trailing;
+        boolean hasWindow; // Whether leading and trailing describe a window written before
+
+        void reset() {
+            bitPosition = 0;
+            count = 0;
+            timestamp = 0;
+            delta = 0;
+            valueBits = 0;
+            leading = 0;
+            trailing = 0;
+            hasWindow = false;
+        }
+
+        void encode(MappedByteBuffer buffer, long timestampMillis, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                write(buffer, timestampMillis, 64);
+                write(buffer, bits, 64);
+            } else {
+                long newDelta = timestampMillis - timestamp;
+                long deltaOfDelta = newDelta - delta;
+                if (deltaOfDelta == 0) {
+                    write(buffer, 0, 1);
+                } else if (fits(deltaOfDelta, 12)) {
+                    write(buffer, 0b10, 2);
+                    write(buffer, deltaOfDelta, 12);
+                } else if (fits(deltaOfDelta, 20)) {
+                    write(buffer, 0b110, 3);
+                    write(buffer, deltaOfDelta, 20);
+                } else if (fits(deltaOfDelta, 32)) {
+                    write(buffer, 0b1110, 4);
+                    write(buffer, deltaOfDelta, 32);
+                } else {
+                    write(buffer, 0b1111, 4);
+                    write(buffer, deltaOfDelta, 64);
+                }
+                delta = newDelta;
+
+                long xor = bits ^ valueBits;
+                if (xor == 0) {
+                    write(buffer, 0, 1);
+                } else {
+                    int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 63);
+                    int newTrailing = Long.numberOfTrailingZeros(xor);
+                    if (hasWindow && newLeading >= leading && newTrailing >= trailing) {
+                        write(buffer, 0b10, 2);
+                        write(buffer, xor >>> trailing, 64 - leading - trailing);
+                    } else {
+                        int length = 64 - newLeading - newTrailing;
+                        write(buffer, 0b11, 2);
+                        write(buffer, newLeading, 6);
+                        write(buffer, length - 1, 6);
+                        write(buffer, xor >>> newTrailing, length);
+                        leading = newLeading;
+                        trailing = newTrailing;
+                        hasWindow = true;
+                    }
+                }
+            }
+            timestamp = timestampMillis;
+            valueBits = bits;
+            count++;
+        }
+
+        void decode(MappedByteBuffer buffer) {
+            if (count == 0) {
+                timestamp = read(buffer, 64);
+                valueBits = read(buffer, 64);
+                count++;
+                return;
+            }
+            long deltaOfDelta;
+            if (read(buffer, 1) == 0) {
+                deltaOfDelta = 0;
+            } else if (read(buffer, 1) == 0) {
+                deltaOfDelta = signed(read(buffer, 12), 12);
+            } else if (read(buffer, 1) == 0) {
+                deltaOfDelta = signed(read(buffer, 20), 20);
+            } else if (read(buffer, 1) == 0) {
+                deltaOfDelta = signed(read(buffer, 32), 32);
+            } else {
+                deltaOfDelta = read(buffer, 64);
+            }
+            delta += deltaOfDelta;
+            timestamp += delta;
+
+            if (read(buffer, 1) == 1) {
+                if (read(buffer, 1) == 1) {
+                    leading = (int) read(buffer, 6);
+                    trailing = 64 - leading - ((int) read(buffer, 6) + 1);
+                }
+                valueBits ^= read(buffer, 64 - leading - trailing) << trailing;
+            }
+            count++;
+        }
+
+        private static boolean fits(long value, int bits) {
+            return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+        }
+
+        private static long signed(long value, int bits) {
+            return (value << (64 - bits)) >> (64 - bits);
+        }
+
+        /**
+         * Write the low bits of a value, most significant first
+         */
+        private void write(MappedByteBuffer buffer, long value, int bits) {
+            while (bits > 0) {
+                int index = HEADER_SIZE + (int) (bitPosition >>> 3);
+                int offset = (int) (bitPosition & 7);
+                int n = Math.min(8 - offset, bits);
+                int chunk = (int) (value >>> (bits - n)) & ((1 << n) - 1);
+                int current = offset == 0 ? 0 : buffer.get(index);
+                buffer.put(index, (byte) (current | (chunk << (8 - offset - n))));
+                bits -= n;
+                bitPosition += n;
+            }
+        }
+
+        private long read(MappedByteBuffer buffer, int bits) {
+            int start = HEADER_SIZE + (int) (bitPosition >>> 3);
+            if (bits <= 56 && start + Long.BYTES <= buffer.limit()) {
+                // One 8-byte read covers the offset within the first byte plus up to 56 bits
+                long word = buffer.getLong(start) << (bitPosition & 7);
+                bitPosition += bits;
+                return word >>> (64 - bits);
+            }
+            long value = 0;
+            while (bits > 0) {
+                int index = HEADER_SIZE + (int) (bitPosition >>> 3);
+                int offset = (int) (bitPosition & 7);
+                int n = Math.min(8 - offset, bits);
+                int chunk = ((buffer.get(index) & 0xFF) >>> (8 - offset - n)) & ((1 << n) - 1);
+                value = (value << n) | chunk;
+                bits -= n;
+                bitPosition += n;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.fitnessup.util.series;
+
+import com.example.fitnessup.util.calculator.WeightTrendCalculator;
+
+import java.util.Arrays;
+
+/**
+ * Weight history as two growable primitive columns (timestamps in epoch millis, weights in kg),
+ * kept sorted by timestamp, oldest first. Entries with equal timestamps keep their insertion order.
+ * Appending in time order is amortized O(1); out-of-order inserts shift the newer entries.
+ * This is the Android-free form of a List of WeightProgress for the calculators and batch jobs.
+ */
+public final class WeightSeries {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] timestamps;
+    private double[] weights;
+    private int size;
+
+    public WeightSeries() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity Initial number of entries to allocate room for
+     */
+    public WeightSeries(int capacity) {
+        timestamps = new long[Math.max(capacity, 1)];
+        weights = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Insert an entry at its sorted position
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @return Index the entry was inserted at
+     */
+    public int add(long timestampMillis, double weight) {
+        int index = size > 0 && timestampMillis < timestamps[size - 1]
+                ? WeightTrendCalculator.firstIndexAfter(timestamps, size, timestampMillis)
+                : size;
+        insert(index, timestampMillis, weight);
+        return index;
+    }
+
+    /**
+     * Insert an entry at a given position, e.g. the index a sorted query reports for it.
+     * Lets the series mirror a list whose order among equal timestamps is decided elsewhere.
+     * @param index Position to insert at, 0..size()
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @throws IllegalArgumentException if the entry would break the timestamp order
+     */
+    public void insertAt(int index, long timestampMillis, double weight) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        if ((index > 0 && timestamps[index - 1] > timestampMillis)
+                || (index < size && timestamps[index] < timestampMillis)) {
+            throw new IllegalArgumentException("Timestamp " + timestampMillis + " out of order at index " + index);
+        }
+        insert(index, timestampMillis, weight);
+    }
+
+    private void insert(int index, long timestampMillis, double weight) {
+        if (size == timestamps.length) {
+            int capacity = size * 2;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        if (index < size) {
+            System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+        }
+        timestamps[index] = timestampMillis;
+        weights[index] = weight;
+        size++;
+    }
+
+    /**
+     * Remove the entry at an index
+     * @param index Index of the entry, 0..size() - 1
+     */
+    public void removeAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        System.arraycopy(timestamps, index + 1, timestamps, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Remove all entries, keeping the allocated capacity
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    public double weightAt(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Get the timestamp column. Only the first size() values are valid, and the array is
+     * replaced when the series grows, so do not keep it across add() calls.
+     */
+    public long[] timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Get the weight column. Only the first size() values are valid, and the array is
+     * replaced when the series grows, so do not keep it across add() calls.
+     */
+    public double[] weights() {
+        return weights;
+    }
+
+    /**
+     * Find the first entry strictly after a cutoff
+     * @param cutoffMillis Cutoff in epoch millis
+     * @return Index of the first entry after the cutoff, or size() if there is none
+     */
+    public int firstIndexAfter(long cutoffMillis) {
+        return WeightTrendCalculator.firstIndexAfter(timestamps, size, cutoffMillis);
+    }
+
+    /**
+     * Find an entry by its time and weight with a binary search on the timestamps. Entries with
+     * the same time and weight cannot be told apart, so any one of them is found.
+     * @param timestampMillis Entry time in epoch millis
+     * @param weight Entry weight in kg
+     * @return Index of the entry, or -1 if there is none
+     */
+    public int indexOf(long timestampMillis, double weight) {
+        int index = timestampMillis == Long.MIN_VALUE ? 0 : firstIndexAfter(timestampMillis - 1);
+        for (; index < size && timestamps[index] == timestampMillis; index++) {
+            if (Double.compare(weights[index], weight) == 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Calculate the rate of weight change between the oldest and newest entries
+     * @return Change in kg per week, or NaN if there is not enough data to show a trend
+     */
+    public double changePerWeek() {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        // Sorted, so the oldest and newest entries are simply the ends
+        return WeightTrendCalculator.changePerWeek(timestamps[0], weights[0], timestamps[size - 1], weights[size - 1]);
+    }
+}
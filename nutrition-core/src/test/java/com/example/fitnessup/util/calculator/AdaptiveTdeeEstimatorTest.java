@@ -0,0 +1,118 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the estimator learns a hidden TDEE offset from simulated weigh-ins and resumes from saved state.
+ */
+public class AdaptiveTdeeEstimatorTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final CompiledProfile profile = CompiledProfile.of(NutritionCalculator.GENDER_FEMALE,
+            NutritionCalculator.ACTIVITY_MODERATE, 35, 165, 60);
+
+    @Test
+    public void learnsHiddenOffsetFromNoisyWeighIns() {
+        AdaptiveTdeeEstimator estimator = new AdaptiveTdeeEstimator();
+        feed(estimator, 0, 120, -250);
+
+        assertEquals(-250, estimator.getTdeeAdjustment(), 60);
+        assertTrue(estimator.getStandardDeviation() < 100);
+        assertEquals(120, estimator.getObservationCount());
+    }
+
+    @Test
+    public void ignoresReplayedEntries() {
+        AdaptiveTdeeEstimator estimator = new AdaptiveTdeeEstimator();
+        assertTrue(estimator.update(profile, 0, 80));
+        assertTrue(estimator.update(profile, 7 * DAY, 79.5));
+        double adjustment = estimator.getTdeeAdjustment();
+
+        assertFalse(estimator.update(profile, 7 * DAY, 79.5));
+        assertFalse(estimator.update(profile, 3 * DAY, 81));
+        assertEquals(adjustment, estimator.getTdeeAdjustment(), 0.0);
+        assertEquals(2, estimator.getObservationCount());
+    }
+
+    @Test
+    public void resumesFromMapAndJavaSerialization() throws Exception {
+        AdaptiveTdeeEstimator continuous = new AdaptiveTdeeEstimator();
+        feed(continuous, 0, 120, 150);
+
+        AdaptiveTdeeEstimator first = new AdaptiveTdeeEstimator();
+        feed(first, 0, 60, 150);
+        Map<String, Object> state = first.toMap();
+        AdaptiveTdeeEstimator resumed = roundTrip(AdaptiveTdeeEstimator.fromMap(state));
+        feed(resumed, 0, 120, 150); // Replays the first 60 days, which must be skipped
+
+        assertEquals(continuous.getTdeeAdjustment(), resumed.getTdeeAdjustment(), 0.0);
+        assertEquals(continuous.getStandardDeviation(), resumed.getStandardDeviation(), 0.0);
+        assertEquals(continuous.getObservationCount(), resumed.getObservationCount());
+    }
+
+    @Test
+    public void missingStateStartsFresh() {
+        AdaptiveTdeeEstimator estimator = AdaptiveTdeeEstimator.fromMap(null);
+        assertEquals(-1, estimator.getLastTimestampMillis());
+        assertEquals(0, estimator.getTdeeAdjustment(), 0.0);
+    }
+
+    @Test
+    public void adaptiveCalculationWithZeroAdjustmentMatchesFormula() {
+        NutritionCalculation formula = NutritionCalculator.calculateNutrition(profile, 72, new NutritionCalculation());
+        NutritionCalculation adaptive = NutritionCalculator.calculateAdaptiveNutrition(profile, 72, 0,
+                new NutritionCalculation());
+        assertEquals(formula.getTdee(), adaptive.getTdee(), 0.0);
+        assertEquals(formula.getDailyCalorieTarget(), adaptive.getDailyCalorieTarget(), 0.0);
+
+        NutritionCalculation lower = NutritionCalculator.calculateAdaptiveNutrition(profile, 72, -200.4,
+                new NutritionCalculation());
+        assertEquals(formula.getTdee() - 200, lower.getTdee(), 0.0);
+        assertTrue(lower.getDailyCalorieTarget() < formula.getDailyCalorieTarget());
+    }
+
+    /**
+     * Simulate daily weigh-ins of a user who eats their calorie target while their real TDEE is off by hiddenOffset
+     */
+    private void feed(AdaptiveTdeeEstimator estimator, int fromDay, int toDay, double hiddenOffset) {
+        Random random = new Random(11);
+        double trueWeight = 72;
+        for (int day = 0; day < toDay; day++) {
+            double scaleWeight = trueWeight + random.nextGaussian() * 0.4;
+            if (day >= fromDay) {
+                estimator.update(profile, day * DAY, scaleWeight);
+            }
+            // The app shows targets for the scale weight; the body burns for the true weight
+            double intake = NutritionCalculator.calculateNutrition(profile, scaleWeight,
+                    new NutritionCalculation()).getDailyCalorieTarget();
+            double actualTdee = NutritionCalculator.calculateNutrition(profile, trueWeight,
+                    new NutritionCalculation()).getTdee() + hiddenOffset;
+            trueWeight += (intake - actualTdee) / WeightProjectionCalculator.KCAL_PER_KG;
+        }
+    }
+
+    private static AdaptiveTdeeEstimator roundTrip(AdaptiveTdeeEstimator estimator) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(estimator);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (AdaptiveTdeeEstimator) in.readObject();
+        }
+    }
+}
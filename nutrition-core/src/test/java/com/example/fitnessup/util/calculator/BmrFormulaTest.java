@@ -0,0 +1,86 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+/**
+ * Checks each BMR formula against hand-computed reference values and the batch path.
+ */
+public class BmrFormulaTest {
+
+    // 80 kg, 180 cm, 30 year old man
+    private static double bmr(BmrFormula formula, double bodyFatPercentage) {
+        CompiledProfile profile = CompiledProfile.of(NutritionCalculator.GENDER_MALE,
+                NutritionCalculator.ACTIVITY_SEDENTARY, 30, 180, 80, formula, bodyFatPercentage);
+        return NutritionCalculator.calculateNutrition(profile, 80, new NutritionCalculation()).getBmr();
+    }
+
+    @Test
+    public void formulasMatchReferenceValues() {
+        // 800 + 1125 - 150 + 5
+        assertEquals(1780, bmr(BmrFormula.MIFFLIN_ST_JEOR, 0), 0.0);
+        // 88.362 + 13.397 × 80 + 4.799 × 180 - 5.677 × 30 = 1853.632
+        assertEquals(1854, bmr(BmrFormula.HARRIS_BENEDICT, 0), 0.0);
+        // Lean body mass 64 kg: 370 + 21.6 × 64 = 1752.4
+        assertEquals(1752, bmr(BmrFormula.KATCH_MCARDLE, 20), 0.0);
+        // Lean body mass 64 kg: 500 + 22 × 64
+        assertEquals(1908, bmr(BmrFormula.CUNNINGHAM, 20), 0.0);
+        // Boer lean body mass 0.407 × 80 + 0.267 × 180 - 19.2 = 61.42: 370 + 21.6 × 61.42 = 1696.672
+        assertEquals(1697, bmr(BmrFormula.KATCH_MCARDLE, 0), 0.0);
+    }
+
+    @Test
+    public void bodyFatOnlyAffectsLeanMassFormulas() {
+        assertEquals(bmr(BmrFormula.MIFFLIN_ST_JEOR, 0), bmr(BmrFormula.MIFFLIN_ST_JEOR, 25), 0.0);
+        assertFalse(BmrFormula.HARRIS_BENEDICT.usesLeanBodyMass());
+        assertTrue(BmrFormula.CUNNINGHAM.usesLeanBodyMass());
+    }
+
+    @Test
+    public void fromNameDefaultsToMifflin() {
+        assertEquals(BmrFormula.MIFFLIN_ST_JEOR, BmrFormula.fromName(null));
+        assertEquals(BmrFormula.MIFFLIN_ST_JEOR, BmrFormula.fromName("unknown"));
+        assertEquals(BmrFormula.KATCH_MCARDLE, BmrFormula.fromName("katch_mcardle"));
+    }
+
+    @Test
+    public void batchMatchesProfilePathForEveryFormula() {
+        double[] weight = {80, 62.5, 95};
+        double[] height = {180, 160, 175};
+        int[] age = {30, 45, 22};
+        int[] gender = {NutritionCalculator.GENDER_MALE, NutritionCalculator.GENDER_FEMALE,
+                NutritionCalculator.GENDER_MALE};
+        int[] activity = {NutritionCalculator.ACTIVITY_LIGHT, NutritionCalculator.ACTIVITY_ACTIVE,
+                NutritionCalculator.ACTIVITY_VERY_ACTIVE};
+        double[] targetWeight = {75, 60, 100};
+        double[] bodyFat = {18, 0, 25};
+
+        for (BmrFormula formula : BmrFormula.values()) {
+            NutritionBatchCalculator.Cohort cohort = new NutritionBatchCalculator.Cohort(
+                    weight, height, age, gender, activity, targetWeight, formula, bodyFat);
+            NutritionBatchCalculator.Result result = new NutritionBatchCalculator.Result(weight.length);
+            NutritionBatchCalculator.calculate(cohort, result);
+
+            for (int i = 0; i < weight.length; i++) {
+                TestProfile user = new TestProfile(age[i],
+                        gender[i] == NutritionCalculator.GENDER_MALE ? "PRIA" : "WANITA", height[i],
+                        activity[i] == NutritionCalculator.ACTIVITY_LIGHT ? "Aktivitas Rendah"
+                                : activity[i] == NutritionCalculator.ACTIVITY_ACTIVE ? "Aktivitas Tinggi"
+                                : "Aktivitas Sangat Tinggi",
+                        targetWeight[i]);
+                user.setBmrFormula(formula.name());
+                user.setBodyFatPercentage(bodyFat[i]);
+
+                NutritionCalculation expected = NutritionCalculator.calculateNutrition(user, weight[i]);
+                assertEquals(expected.getBmr(), result.getBmr()[i], 0.0);
+                assertEquals(expected.getTdee(), result.getTdee()[i], 0.0);
+                assertEquals(expected.getDailyCalorieTarget(), result.getDailyCalorieTarget()[i], 0.0);
+            }
+        }
+    }
+}
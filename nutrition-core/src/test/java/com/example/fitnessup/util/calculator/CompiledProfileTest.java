@@ -0,0 +1,101 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks the compiled profile path against values from the original formula, and that it does not
+ * allocate once warm.
+ */
+public class CompiledProfileTest {
+
+    private static final TestProfile USER = new TestProfile(30, "PRIA", 175, "Aktivitas Sedang", 70);
+    private static final int ITERATIONS = 200_000;
+    // One 16-byte object per call would be 3.2 MB
+    private static final long ALLOCATION_SLACK_BYTES = 4096;
+
+    @Test
+    public void compileResolvesCodes() {
+        CompiledProfile profile = CompiledProfile.compile(USER);
+
+        assertEquals(NutritionCalculator.GENDER_MALE, profile.getGender());
+        assertEquals(NutritionCalculator.ACTIVITY_MODERATE, profile.getActivity());
+        assertEquals(1.55, profile.getActivityMultiplier(), 0.0);
+        assertEquals(30, profile.getAge());
+        assertEquals(175, profile.getHeight(), 0.0);
+        assertEquals(70, profile.getTargetWeight(), 0.0);
+    }
+
+    @Test
+    public void compiledPathMatchesBaselineFormula() {
+        // Expected values worked out by hand from Mifflin-St Jeor, the activity multiplier, the goal
+        // adjustment and the macro ratios, each rounded as the original calculator did
+        CompiledProfile profile = CompiledProfile.compile(USER);
+        NutritionCalculation result = new NutritionCalculation();
+
+        assertSame(result, NutritionCalculator.calculateNutrition(profile, 80, result));
+        assertNutrition(result, 1749, 2711, 2304, 202, 230, 64, "WEIGHT_LOSS");
+
+        NutritionCalculator.calculateNutrition(profile, 70.5, result);
+        assertNutrition(result, 1654, 2564, 2564, 192, 288, 71, "MAINTENANCE");
+
+        NutritionCalculator.calculateNutrition(profile, 60, result);
+        assertNutrition(result, 1549, 2401, 2761, 173, 345, 77, "WEIGHT_GAIN");
+    }
+
+    @Test
+    public void compiledPathDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        CompiledProfile profile = CompiledProfile.compile(USER);
+        NutritionCalculation result = new NutritionCalculation();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up so class loading and JIT compilation are not counted
+        double checksum = recompute(profile, result, ITERATIONS);
+
+        // The JVM itself sometimes allocates a few hundred bytes on the test thread, so the bound
+        // is far below one object per call rather than exactly 0; the best of a few runs is taken
+        long fewest = Long.MAX_VALUE;
+        for (int run = 0; run < 5 && fewest >= ALLOCATION_SLACK_BYTES; run++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            checksum += recompute(profile, result, ITERATIONS);
+            fewest = Math.min(fewest, threadBean.getThreadAllocatedBytes(threadId) - before);
+        }
+
+        assertTrue("Bytes allocated by " + ITERATIONS + " steady-state calls: " + fewest
+                + " (checksum " + checksum + ")", fewest < ALLOCATION_SLACK_BYTES);
+    }
+
+    private static double recompute(CompiledProfile profile, NutritionCalculation result, int iterations) {
+        double checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            double weight = 50 + (i % 1000) * 0.1;
+            checksum += NutritionCalculator.calculateNutrition(profile, weight, result).getDailyCalorieTarget();
+        }
+        return checksum;
+    }
+
+    private static void assertNutrition(NutritionCalculation result, double bmr, double tdee, double calories,
+                                        double protein, double carbs, double fat, String goal) {
+        assertEquals(bmr, result.getBmr(), 0.0);
+        assertEquals(tdee, result.getTdee(), 0.0);
+        assertEquals(calories, result.getDailyCalorieTarget(), 0.0);
+        assertEquals(protein, result.getProteinGrams(), 0.0);
+        assertEquals(carbs, result.getCarbGrams(), 0.0);
+        assertEquals(fat, result.getFatGrams(), 0.0);
+        assertEquals(goal, result.getGoal());
+    }
+}
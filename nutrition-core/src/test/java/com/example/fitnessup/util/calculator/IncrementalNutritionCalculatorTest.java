@@ -0,0 +1,115 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the incremental graph re-evaluates only dirty stages and matches the full calculation.
+ */
+public class IncrementalNutritionCalculatorTest {
+
+    private TestProfile user;
+    private IncrementalNutritionCalculator calculator;
+    private NutritionCalculation result;
+
+    @Before
+    public void setUp() {
+        user = new TestProfile(30, "PRIA", 175, "Aktivitas Sedang", 70);
+        calculator = new IncrementalNutritionCalculator();
+        result = new NutritionCalculation();
+        calculator.applyProfile(user);
+        calculator.setWeight(85);
+        calculator.calculate(result);
+    }
+
+    @Test
+    public void firstCalculationEvaluatesEveryStage() {
+        for (int stage = IncrementalNutritionCalculator.STAGE_COEFFICIENTS;
+             stage <= IncrementalNutritionCalculator.STAGE_MACROS; stage++) {
+            assertEquals(1, calculator.getEvaluationCount(stage));
+        }
+        assertMatchesFullCalculation(85);
+    }
+
+    @Test
+    public void activityChangeOnlyRecomputesFromTdee() {
+        user.setActivityLevel("Aktivitas Tinggi");
+        calculator.applyProfile(user);
+        calculator.calculate(result);
+
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_COEFFICIENTS));
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_GOAL));
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_BMR));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_TDEE));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_CALORIES));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_MACROS));
+        assertMatchesFullCalculation(85);
+    }
+
+    @Test
+    public void targetWeightChangeOnlyRecomputesFromGoal() {
+        user.setTargetWeight(90); // Loss becomes gain
+        calculator.applyProfile(user);
+        calculator.calculate(result);
+
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_BMR));
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_TDEE));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_GOAL));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_CALORIES));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_MACROS));
+        assertMatchesFullCalculation(85);
+    }
+
+    @Test
+    public void unchangedOutputsStopPropagation() {
+        // Rounded BMR stays the same and the goal stays WEIGHT_LOSS
+        calculator.setWeight(85.01);
+        calculator.calculate(result);
+
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_GOAL));
+        assertEquals(2, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_BMR));
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_TDEE));
+        assertEquals(1, calculator.getEvaluationCount(IncrementalNutritionCalculator.STAGE_CALORIES));
+        assertMatchesFullCalculation(85.01);
+    }
+
+    @Test
+    public void reapplyingSameProfileLeavesGraphClean() {
+        calculator.applyProfile(user);
+        calculator.setWeight(85);
+
+        assertFalse(calculator.isDirty());
+    }
+
+    @Test
+    public void weightSweepMatchesFullCalculation() {
+        for (double weight = 50; weight <= 120; weight += 0.3) {
+            calculator.setWeight(weight);
+            calculator.calculate(result);
+            assertMatchesFullCalculation(weight);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void calculateRequiresWeight() {
+        IncrementalNutritionCalculator empty = new IncrementalNutritionCalculator();
+        empty.applyProfile(user);
+        empty.calculate(new NutritionCalculation());
+    }
+
+    private void assertMatchesFullCalculation(double weight) {
+        NutritionCalculation expected = NutritionCalculator.calculateNutrition(user, weight);
+        assertEquals(expected.getBmr(), result.getBmr(), 0.0);
+        assertEquals(expected.getTdee(), result.getTdee(), 0.0);
+        assertEquals(expected.getDailyCalorieTarget(), result.getDailyCalorieTarget(), 0.0);
+        assertEquals(expected.getProteinGrams(), result.getProteinGrams(), 0.0);
+        assertEquals(expected.getCarbGrams(), result.getCarbGrams(), 0.0);
+        assertEquals(expected.getFatGrams(), result.getFatGrams(), 0.0);
+        assertEquals(expected.getGoal(), result.getGoal());
+    }
+}
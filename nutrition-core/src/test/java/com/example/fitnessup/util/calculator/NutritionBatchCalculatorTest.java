@@ -0,0 +1,69 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Checks that the batch path produces exactly the same numbers as the single-user path.
+ */
+public class NutritionBatchCalculatorTest {
+
+    private static final String[] GENDERS = {"PRIA", "WANITA"};
+    private static final String[] ACTIVITY_LEVELS = {
+            "Sangat Rendah", "Aktivitas Rendah", "Aktivitas Sedang", "Aktivitas Tinggi", "Aktivitas Sangat Tinggi"
+    };
+
+    @Test
+    public void batchMatchesSingleUserPath() {
+        int size = 20_000; // Large enough to be split across several fork-join tasks
+        Random random = new Random(42);
+
+        TestProfile[] users = new TestProfile[size];
+        double[] weight = new double[size];
+        double[] height = new double[size];
+        int[] age = new int[size];
+        int[] gender = new int[size];
+        int[] activity = new int[size];
+        double[] targetWeight = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            String genderName = GENDERS[random.nextInt(GENDERS.length)];
+            String activityLevel = ACTIVITY_LEVELS[random.nextInt(ACTIVITY_LEVELS.length)];
+            weight[i] = 40 + random.nextInt(1200) / 10.0;
+            height[i] = 145 + random.nextInt(600) / 10.0;
+            age[i] = 15 + random.nextInt(70);
+            targetWeight[i] = weight[i] + (random.nextInt(400) - 200) / 10.0;
+            gender[i] = NutritionCalculator.genderCode(genderName);
+            activity[i] = NutritionCalculator.activityCode(activityLevel);
+            users[i] = new TestProfile(age[i], genderName, height[i], activityLevel, targetWeight[i]);
+        }
+
+        NutritionBatchCalculator.Cohort cohort =
+                new NutritionBatchCalculator.Cohort(weight, height, age, gender, activity, targetWeight);
+        NutritionBatchCalculator.Result result = new NutritionBatchCalculator.Result(size);
+        NutritionBatchCalculator.calculate(cohort, result);
+
+        for (int i = 0; i < size; i++) {
+            NutritionCalculation expected = NutritionCalculator.calculateNutrition(users[i], weight[i]);
+            assertEquals(expected.getBmr(), result.getBmr()[i], 0.0);
+            assertEquals(expected.getTdee(), result.getTdee()[i], 0.0);
+            assertEquals(expected.getDailyCalorieTarget(), result.getDailyCalorieTarget()[i], 0.0);
+            assertEquals(expected.getProteinGrams(), result.getProteinGrams()[i], 0.0);
+            assertEquals(expected.getCarbGrams(), result.getCarbGrams()[i], 0.0);
+            assertEquals(expected.getFatGrams(), result.getFatGrams()[i], 0.0);
+            assertEquals(expected.getGoal(), NutritionCalculator.goalName(result.getGoal()[i]));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsResultSmallerThanCohort() {
+        NutritionBatchCalculator.Cohort cohort = new NutritionBatchCalculator.Cohort(
+                new double[2], new double[2], new int[2], new int[2], new int[2], new double[2]);
+        NutritionBatchCalculator.calculate(cohort, new NutritionBatchCalculator.Result(1));
+    }
+}
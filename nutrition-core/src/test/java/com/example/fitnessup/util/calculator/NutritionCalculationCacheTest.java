@@ -0,0 +1,90 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+/**
+ * Checks hit/miss/eviction accounting and sharing semantics of the nutrition memo cache.
+ */
+public class NutritionCalculationCacheTest {
+
+    private static final TestProfile USER = new TestProfile(28, "WANITA", 160, "Aktivitas Rendah", 55);
+
+    @Test
+    public void weightsWithinSameTenthShareOneEntry() {
+        NutritionCalculationCache cache = new NutritionCalculationCache(4);
+
+        NutritionCalculation first = cache.get(USER, 62.0);
+        NutritionCalculation second = cache.get(USER, 62.04);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(NutritionCalculator.calculateNutrition(USER, 62.0).getDailyCalorieTarget(),
+                first.getDailyCalorieTarget(), 0.0);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        NutritionCalculationCache cache = new NutritionCalculationCache(2);
+
+        NutritionCalculation a = cache.get(USER, 60.0);
+        cache.get(USER, 61.0);
+        cache.get(USER, 60.0); // Touch a so 61.0 becomes the eldest
+        cache.get(USER, 62.0); // Evicts 61.0
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.get(USER, 60.0));
+        long missesBefore = cache.getMissCount();
+        cache.get(USER, 61.0);
+        assertEquals(missesBefore + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void invalidateAllForcesRecompute() {
+        NutritionCalculationCache cache = new NutritionCalculationCache(4);
+
+        NutritionCalculation before = cache.get(USER, 62.0);
+        cache.invalidateAll();
+        NutritionCalculation after = cache.get(USER, 62.0);
+
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertNotSame(before, after);
+    }
+
+    @Test
+    public void loaderRunsOnMissWithQuantizedWeight() {
+        NutritionCalculationCache cache = new NutritionCalculationCache(4);
+        CompiledProfile profile = CompiledProfile.compile(USER);
+        IncrementalNutritionCalculator graph = new IncrementalNutritionCalculator();
+        graph.applyProfile(USER);
+        double[] loadedWeight = new double[1];
+        NutritionCalculationCache.Loader loader = (compiled, weight, result) -> {
+            loadedWeight[0] = weight;
+            graph.setWeight(weight);
+            return graph.calculate(result);
+        };
+
+        NutritionCalculation first = cache.get(profile, 62.04, loader);
+        assertEquals(62.0, loadedWeight[0], 0.0);
+        loadedWeight[0] = 0;
+        NutritionCalculation second = cache.get(profile, 61.96, loader);
+
+        assertSame(first, second);
+        assertEquals(0, loadedWeight[0], 0.0);
+        assertEquals(NutritionCalculator.calculateNutrition(USER, 62.0).getDailyCalorieTarget(),
+                first.getDailyCalorieTarget(), 0.0);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedInstancesAreReadOnly() {
+        new NutritionCalculationCache(4).get(USER, 62.0).setDailyCalorieTarget(0);
+    }
+}
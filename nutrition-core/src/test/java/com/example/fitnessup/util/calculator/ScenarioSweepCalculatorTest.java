@@ -0,0 +1,86 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks that sweep cells match the single-user calculation and that parallel sweeps are deterministic.
+ */
+public class ScenarioSweepCalculatorTest {
+
+    @Test
+    public void defaultCellsMatchSingleUserPath() {
+        double[] factors = ScenarioSweepCalculator.defaultCalorieFactors();
+        for (int gender = NutritionCalculator.GENDER_MALE; gender <= NutritionCalculator.GENDER_FEMALE; gender++) {
+            for (int activity = 0; activity <= NutritionCalculator.ACTIVITY_VERY_ACTIVE; activity++) {
+                for (double weight : new double[]{60, 75.5, 92.3}) {
+                    CompiledProfile profile = CompiledProfile.of(gender, activity, 34, 168, 75);
+                    NutritionCalculation expected =
+                            NutritionCalculator.calculateNutrition(profile, weight, new NutritionCalculation());
+                    int goal = NutritionCalculator.determineGoal(weight, 75);
+                    int factor = indexOf(factors, NutritionCalculator.calorieFactor(goal));
+
+                    ScenarioSweepCalculator.Grid grid = ScenarioSweepCalculator.sweep(profile, weight);
+
+                    assertEquals(expected.getBmr(), grid.getBmr(), 0.0);
+                    assertEquals(expected.getTdee(), grid.get(activity, factor, goal, ScenarioSweepCalculator.Grid.TDEE), 0.0);
+                    assertEquals(expected.getDailyCalorieTarget(),
+                            grid.get(activity, factor, goal, ScenarioSweepCalculator.Grid.CALORIES), 0.0);
+                    assertEquals(expected.getProteinGrams(),
+                            grid.get(activity, factor, goal, ScenarioSweepCalculator.Grid.PROTEIN), 0.0);
+                    assertEquals(expected.getCarbGrams(),
+                            grid.get(activity, factor, goal, ScenarioSweepCalculator.Grid.CARB), 0.0);
+                    assertEquals(expected.getFatGrams(),
+                            grid.get(activity, factor, goal, ScenarioSweepCalculator.Grid.FAT), 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void parallelSweepMatchesSequentialFill() {
+        // 40 × 50 = 2000 rows, split across several fork-join tasks
+        double[] multipliers = new double[40];
+        double[] factors = new double[50];
+        for (int i = 0; i < multipliers.length; i++) {
+            multipliers[i] = 1.2 + i * 0.02;
+        }
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = 0.7 + i * 0.012;
+        }
+        double[][] ratios = ScenarioSweepCalculator.defaultMacroRatios();
+        CompiledProfile profile = CompiledProfile.of(NutritionCalculator.GENDER_FEMALE,
+                NutritionCalculator.ACTIVITY_LIGHT, 28, 162, 58);
+
+        ScenarioSweepCalculator.Grid parallel = ScenarioSweepCalculator.sweep(profile, 66, multipliers, factors,
+                ratios, new ForkJoinPool(4));
+        ScenarioSweepCalculator.Grid sequential = new ScenarioSweepCalculator.Grid(parallel.getBmr(),
+                multipliers, factors, ratios);
+        ScenarioSweepCalculator.sweepRange(sequential, 0, multipliers.length * factors.length);
+
+        assertEquals(sequential.getValues().length, parallel.getValues().length);
+        for (int i = 0; i < sequential.getValues().length; i++) {
+            assertEquals(sequential.getValues()[i], parallel.getValues()[i], 0.0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsIncompleteMacroRatioSet() {
+        ScenarioSweepCalculator.sweep(CompiledProfile.of(0, 0, 30, 170, 70), 70,
+                new double[]{1.2}, new double[]{1.0}, new double[][]{{0.3, 0.7}}, ForkJoinPool.commonPool());
+    }
+
+    private static int indexOf(double[] values, double value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        throw new AssertionError("Missing " + value);
+    }
+}
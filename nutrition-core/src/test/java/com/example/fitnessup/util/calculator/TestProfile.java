@@ -0,0 +1,75 @@
+package com.example.fitnessup.util.calculator;
+
+import com.example.fitnessup.data.model.NutritionProfile;
+
+/**
+ * Mutable NutritionProfile for tests, standing in for the app's User model.
+ */
+class TestProfile implements NutritionProfile {
+    private final int age;
+    private final String gender;
+    private final double height;
+    private String activityLevel;
+    private double targetWeight;
+    private double bodyFatPercentage;
+    private String bmrFormula;
+
+    TestProfile(int age, String gender, double height, String activityLevel, double targetWeight) {
+        this.age = age;
+        this.gender = gender;
+        this.height = height;
+        this.activityLevel = activityLevel;
+        this.targetWeight = targetWeight;
+    }
+
+    @Override
+    public String getGender() {
+        return gender;
+    }
+
+    @Override
+    public int getAge() {
+        return age;
+    }
+
+    @Override
+    public double getHeight() {
+        return height;
+    }
+
+    @Override
+    public String getActivityLevel() {
+        return activityLevel;
+    }
+
+    void setActivityLevel(String activityLevel) {
+        this.activityLevel = activityLevel;
+    }
+
+    @Override
+    public double getTargetWeight() {
+        return targetWeight;
+    }
+
+    void setTargetWeight(double targetWeight) {
+        this.targetWeight = targetWeight;
+    }
+
+    @Override
+    public double getBodyFatPercentage() {
+        return bodyFatPercentage;
+    }
+
+    void setBodyFatPercentage(double bodyFatPercentage) {
+        this.bodyFatPercentage = bodyFatPercentage;
+    }
+
+    @Override
+    public String getBmrFormula() {
+        return bmrFormula;
+    }
+
+    void setBmrFormula(String bmrFormula) {
+        this.bmrFormula = bmrFormula;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.fitnessup.data.model.NutritionCalculation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Checks the weekly simulation against NutritionCalculator, the batch path against the single path,
+ * and the incremental re-anchoring of WeightProjection.
+ */
+public class WeightProjectionCalculatorTest {
+
+    private static final int WEEKS = WeightProjectionCalculator.DEFAULT_HORIZON_WEEKS;
+
+    private final CompiledProfile profile = CompiledProfile.of(NutritionCalculator.GENDER_MALE,
+            NutritionCalculator.ACTIVITY_MODERATE, 30, 175, 75);
+
+    @Test
+    public void firstWeekFollowsCalorieTarget() {
+        double[] trajectory = new double[WEEKS + 1];
+        WeightProjectionCalculator.project(profile, 85, WEEKS, trajectory);
+
+        NutritionCalculation nutrition = NutritionCalculator.calculateNutrition(profile, 85, new NutritionCalculation());
+        double expected = 85 + (nutrition.getDailyCalorieTarget() - nutrition.getTdee()) * 7
+                / WeightProjectionCalculator.KCAL_PER_KG;
+        assertEquals(85, trajectory[0], 0.0);
+        assertEquals(expected, trajectory[1], 1e-9);
+    }
+
+    @Test
+    public void lossTrajectoryDescendsToTargetAndStaysFlat() {
+        double[] trajectory = new double[WEEKS + 1];
+        int eta = WeightProjectionCalculator.project(profile, 85, WEEKS, trajectory);
+
+        assertTrue(eta > 0 && eta < WEEKS);
+        for (int week = 1; week <= eta; week++) {
+            assertTrue(trajectory[week] < trajectory[week - 1]);
+        }
+        assertTrue(Math.abs(trajectory[eta] - 75) < 1.0);
+        assertTrue(Math.abs(trajectory[eta - 1] - 75) >= 1.0);
+        for (int week = eta + 1; week <= WEEKS; week++) {
+            assertEquals(trajectory[eta], trajectory[week], 0.0);
+        }
+    }
+
+    @Test
+    public void alreadyAtTargetIsWeekZero() {
+        double[] trajectory = new double[WEEKS + 1];
+        assertEquals(0, WeightProjectionCalculator.project(profile, 75.5, WEEKS, trajectory));
+        assertEquals(75.5, trajectory[WEEKS], 0.0);
+    }
+
+    @Test
+    public void shortHorizonIsNotReached() {
+        double[] trajectory = new double[5];
+        assertEquals(WeightProjectionCalculator.NOT_REACHED,
+                WeightProjectionCalculator.project(profile, 85, 4, trajectory));
+    }
+
+    @Test
+    public void batchMatchesSingleProfilePath() {
+        int size = 3_000; // Large enough to be split across several fork-join tasks
+        Random random = new Random(7);
+
+        double[] weight = new double[size];
+        double[] height = new double[size];
+        int[] age = new int[size];
+        int[] gender = new int[size];
+        int[] activity = new int[size];
+        double[] targetWeight = new double[size];
+        for (int i = 0; i < size; i++) {
+            weight[i] = 45 + random.nextInt(1000) / 10.0;
+            height[i] = 145 + random.nextInt(600) / 10.0;
+            age[i] = 15 + random.nextInt(70);
+            gender[i] = random.nextInt(2);
+            activity[i] = random.nextInt(5);
+            targetWeight[i] = weight[i] + (random.nextInt(400) - 200) / 10.0;
+        }
+
+        NutritionBatchCalculator.Cohort cohort =
+                new NutritionBatchCalculator.Cohort(weight, height, age, gender, activity, targetWeight);
+        WeightProjectionCalculator.Projection result = new WeightProjectionCalculator.Projection(size, WEEKS);
+        WeightProjectionCalculator.project(cohort, result);
+
+        double[] expected = new double[WEEKS + 1];
+        for (int i = 0; i < size; i++) {
+            CompiledProfile single = CompiledProfile.of(gender[i], activity[i], age[i], height[i], targetWeight[i]);
+            int eta = WeightProjectionCalculator.project(single, weight[i], WEEKS, expected);
+            assertEquals(eta, result.getEtaWeeks()[i]);
+            for (int week = 0; week <= WEEKS; week++) {
+                assertEquals(expected[week], result.weightAt(i, week), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void sameWeightReanchorOnlyShiftsEta() {
+        WeightProjection projection = new WeightProjection();
+        projection.setProfile(profile);
+        projection.reanchor(0, 85);
+        long eta = projection.getEtaMillis();
+        int etaWeeks = projection.getEtaWeeks();
+        assertEquals(1, projection.getSimulationCount());
+
+        long oneDay = 24L * 60 * 60 * 1000;
+        projection.reanchor(oneDay, 85);
+        projection.setProfile(CompiledProfile.of(NutritionCalculator.GENDER_MALE,
+                NutritionCalculator.ACTIVITY_MODERATE, 30, 175, 75));
+        assertEquals(1, projection.getSimulationCount());
+        assertEquals(eta + oneDay, projection.getEtaMillis());
+
+        projection.reanchor(2 * oneDay, 84);
+        assertEquals(2, projection.getSimulationCount());
+        assertTrue(projection.getEtaWeeks() <= etaWeeks); // 1 kg closer to target
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.fitnessup.util.calculator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the trend and time-range helpers used by the progress screen.
+ */
+public class WeightTrendCalculatorTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void changePerWeekUsesOldestAndNewestEntries() {
+        // Out of order on purpose: the oldest entry is in the middle
+        long[] timestamps = {10 * DAY, 0, 14 * DAY};
+        double[] weights = {79.0, 80.0, 78.0};
+
+        assertEquals(-1.0, WeightTrendCalculator.changePerWeek(timestamps, weights, 3), 1e-9);
+    }
+
+    @Test
+    public void changePerWeekNeedsAtLeastOneDay() {
+        assertTrue(Double.isNaN(WeightTrendCalculator.changePerWeek(new long[]{0}, new double[]{80}, 1)));
+        assertTrue(Double.isNaN(WeightTrendCalculator.changePerWeek(
+                new long[]{0, DAY - 1}, new double[]{80, 79}, 2)));
+    }
+
+    @Test
+    public void describeTrendFormatsMessages() {
+        assertEquals("Belum cukup data untuk menunjukkan tren.", WeightTrendCalculator.describeTrend(Double.NaN));
+        assertEquals("Berat badan Anda stabil.", WeightTrendCalculator.describeTrend(0.05));
+        assertEquals(String.format("Tren: +%.1f kg per minggu", 0.5), WeightTrendCalculator.describeTrend(0.5));
+        assertEquals(String.format("Tren: %.1f kg per minggu", -0.7), WeightTrendCalculator.describeTrend(-0.7));
+    }
+
+    @Test
+    public void firstIndexAfterIsStrict() {
+        long[] timestamps = {0, DAY, DAY, 3 * DAY};
+
+        assertEquals(0, WeightTrendCalculator.firstIndexAfter(timestamps, 4, -1));
+        assertEquals(3, WeightTrendCalculator.firstIndexAfter(timestamps, 4, DAY));
+        assertEquals(4, WeightTrendCalculator.firstIndexAfter(timestamps, 4, 3 * DAY));
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.fitnessup.util.exporter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.fitnessup.util.importer.WeightHistoryParser;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that both export formats read back to the entries written, and the binary format's size.
+ */
+public class WeightHistoryWriterTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(7);
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long START_MILLIS = 1577836800000L; // 2020-01-01T00:00Z
+
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<Double> weights = new ArrayList<>();
+    private final WeightHistoryParser.EntrySink sink = (timestampMillis, weight) -> {
+        timestamps.add(timestampMillis);
+        weights.add(weight);
+    };
+
+    @Test
+    public void csvReadsBackThroughTheImportParser() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WeightHistoryWriter writer = WeightHistoryWriter.csv(Channels.newChannel(output), ZONE);
+        writer.accept(START_MILLIS, 80.5);
+        writer.accept(START_MILLIS + DAY_MILLIS + 1234, 80.05);
+        writer.accept(START_MILLIS + 2 * DAY_MILLIS, 79.999);
+        writer.finish();
+
+        String csv = new String(output.toByteArray(), StandardCharsets.US_ASCII);
+        assertTrue(csv, csv.startsWith("timestamp,beratBadan\n2020-01-01T07:00:00+07:00,80.50\n"));
+        assertEquals(0, WeightHistoryParser.parseCsv(new StringReader(csv), ZONE, sink));
+        assertEquals(Arrays.asList(START_MILLIS, START_MILLIS + DAY_MILLIS + 1234, START_MILLIS + 2 * DAY_MILLIS),
+                timestamps);
+        assertEquals(Arrays.asList(80.5, 80.05, 80.0), weights);
+        assertEquals(3, writer.getEntryCount());
+    }
+
+    @Test
+    public void binaryRoundTripsProfileAndEntriesAcrossBufferDrains() throws IOException {
+        BinaryHistoryReader.Profile profile = new BinaryHistoryReader.Profile("WANITA", 31, 162.5,
+                "Aktivitas Sedang", 58.0, 24.3, null);
+        int count = 3650 * 10; // Larger than one buffer
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WeightHistoryWriter writer = WeightHistoryWriter.binary(Channels.newChannel(output), profile);
+        for (int i = 0; i < count; i++) {
+            // Out-of-order and equal timestamps and falling weights give negative and zero deltas
+            long timestamp = START_MILLIS + (i / 2) * DAY_MILLIS / 10 - (i % 3 == 0 ? 5000 : 0);
+            writer.accept(timestamp, 80 + Math.sin(i / 30.0) * 5);
+        }
+        writer.finish();
+
+        BinaryHistoryReader.Profile read = BinaryHistoryReader.read(
+                Channels.newChannel(new ByteArrayInputStream(output.toByteArray())), sink);
+
+        assertEquals("WANITA", read.getGender());
+        assertEquals(31, read.getAge());
+        assertEquals(162.5, read.getHeight(), 1e-9);
+        assertEquals("Aktivitas Sedang", read.getActivityLevel());
+        assertEquals(58.0, read.getTargetWeight(), 1e-9);
+        assertEquals(24.3, read.getBodyFatPercentage(), 1e-9);
+        assertNull(read.getBmrFormula());
+        assertEquals(count, timestamps.size());
+        for (int i = 0; i < count; i++) {
+            long timestamp = START_MILLIS + (i / 2) * DAY_MILLIS / 10 - (i % 3 == 0 ? 5000 : 0);
+            assertEquals(timestamp, (long) timestamps.get(i));
+            assertEquals(Math.round((80 + Math.sin(i / 30.0) * 5) * 100) / 100.0, weights.get(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void decadeOfDailyEntriesTakesAboutFiveBytesEach() throws IOException {
+        int count = 3653;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WeightHistoryWriter writer = WeightHistoryWriter.binary(Channels.newChannel(output), null);
+        for (int i = 0; i < count; i++) {
+            writer.accept(START_MILLIS + i * DAY_MILLIS, 90 - i * 0.005);
+        }
+        writer.finish();
+
+        assertTrue(output.size() + " bytes", output.size() < count * 6);
+        assertNull(BinaryHistoryReader.read(Channels.newChannel(new ByteArrayInputStream(output.toByteArray())), sink));
+        assertEquals(count, timestamps.size());
+        assertEquals(90 - (count - 1) * 0.005, weights.get(count - 1), 0.006);
+    }
+
+    @Test
+    public void truncatedBinaryExportFails() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        WeightHistoryWriter writer = WeightHistoryWriter.binary(Channels.newChannel(output), null);
+        writer.accept(START_MILLIS, 80);
+        writer.accept(START_MILLIS + DAY_MILLIS, 79.9);
+        writer.finish();
+        byte[] truncated = Arrays.copyOf(output.toByteArray(), output.size() - 2);
+
+        try {
+            BinaryHistoryReader.read(Channels.newChannel(new ByteArrayInputStream(truncated)), sink);
+            fail("Truncated export was read");
+        } catch (IOException expected) {
+            assertEquals(2, timestamps.size());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.fitnessup.util.importer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the CSV and JSON import parsers, date handling and duplicate detection.
+ */
+public class WeightHistoryParserTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(7);
+
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<Double> weights = new ArrayList<>();
+    private final WeightHistoryParser.EntrySink sink = (timestampMillis, weight) -> {
+        timestamps.add(timestampMillis);
+        weights.add(weight);
+    };
+
+    private static long day(int year, int month, int dayOfMonth) {
+        return LocalDate.of(year, month, dayOfMonth).atStartOfDay(ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void csvWithHeaderFindsColumnsByName() throws IOException {
+        String csv = "catatan,Berat (kg),Tanggal\n"
+                + "pagi,80.5,2024-01-01\n"
+                + "\n"
+                + "\"malam, setelah makan\",80.1,2024-01-02\n";
+
+        int rejected = WeightHistoryParser.parseCsv(new StringReader(csv), ZONE, sink);
+
+        assertEquals(0, rejected);
+        assertEquals(2, timestamps.size());
+        assertEquals(day(2024, 1, 1), (long) timestamps.get(0));
+        assertEquals(80.1, weights.get(1), 1e-9);
+    }
+
+    @Test
+    public void csvWithSemicolonsAcceptsDecimalCommaAndSkipsBadRows() throws IOException {
+        String csv = "05/01/2024;80,5\n"
+                + "06/01/2024 07:30;80,2\n"
+                + "bukan tanggal;80\n"
+                + "07/01/2024;-1\n";
+
+        int rejected = WeightHistoryParser.parseCsv(new StringReader(csv), ZONE, sink);
+
+        assertEquals(2, rejected);
+        assertEquals(2, timestamps.size());
+        assertEquals(day(2024, 1, 5), (long) timestamps.get(0));
+        assertEquals(80.5, weights.get(0), 1e-9);
+        assertEquals(day(2024, 1, 6) + (7 * 60 + 30) * 60_000L, (long) timestamps.get(1));
+    }
+
+    @Test
+    public void jsonArrayAndWrappedArray() throws IOException {
+        String json = "[{\"timestamp\": 1704067200, \"beratBadan\": 80.5, \"sumber\": {\"app\": [1, 2]}},"
+                + " {\"date\": \"2024-01-02T08:00:00Z\", \"weight\": \"80.1\"},"
+                + " {\"date\": null, \"weight\": 79}, 5]";
+
+        int rejected = WeightHistoryParser.parseJson(new StringReader(json), ZONE, sink);
+
+        assertEquals(2, rejected);
+        assertEquals(1704067200_000L, (long) timestamps.get(0));
+        assertEquals(1704182400_000L, (long) timestamps.get(1));
+        assertEquals(80.1, weights.get(1), 1e-9);
+
+        timestamps.clear();
+        String wrapped = "{\"versi\": 2, \"entries\": [{\"tanggal\": \"2024-01-03\", \"berat\": 79.8}]}";
+        assertEquals(0, WeightHistoryParser.parseJson(new StringReader(wrapped), ZONE, sink));
+        assertEquals(day(2024, 1, 3), (long) timestamps.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedJsonFails() throws IOException {
+        WeightHistoryParser.parseJson(new StringReader("[{\"date\": \"2024-01-01\", \"weight\": 80"), ZONE, sink);
+    }
+
+    @Test
+    public void parseTimestampAcceptsEpochAndIsoForms() {
+        assertEquals(1704067200_000L, WeightHistoryParser.parseTimestamp("1704067200", ZONE));
+        assertEquals(1704067200_000L, WeightHistoryParser.parseTimestamp("1704067200000", ZONE));
+        assertEquals(1704067200_000L, WeightHistoryParser.parseTimestamp("2024-01-01T07:00:00+07:00", ZONE));
+        assertEquals(day(2024, 1, 1) + 3_600_000L, WeightHistoryParser.parseTimestamp("2024-01-01 01:00", ZONE));
+    }
+
+    @Test
+    public void deduplicatorRejectsExistingAndRepeatedTimestamps() {
+        ImportDeduplicator deduplicator = new ImportDeduplicator(new long[]{30, 10, 20, 99}, 3);
+
+        assertFalse(deduplicator.accept(20));
+        assertTrue(deduplicator.accept(15));
+        assertFalse(deduplicator.accept(15));
+        // Past the valid count, so not an existing timestamp
+        assertTrue(deduplicator.accept(99));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.fitnessup.util.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Checks the daily statistics of the monthly rollups and their Firestore form.
+ */
+public class MonthlyRollupTest {
+
+    private static final ZoneId ZONE = ZoneOffset.ofHours(7);
+
+    private static long at(int month, int day, int hour) {
+        return LocalDateTime.of(2024, month, day, hour, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void rollUpGroupsByLocalCalendarDay() {
+        long[] timestamps = {at(1, 31, 6), at(1, 31, 23), at(2, 1, 0), at(2, 1, 7), at(2, 3, 7)};
+        double[] weights = {80.0, 81.0, 80.4, 79.8, 79.5};
+
+        TreeMap<YearMonth, MonthlyRollup> rollups = MonthlyRollup.rollUp(timestamps, weights, timestamps.length, ZONE);
+
+        assertEquals(2, rollups.size());
+        MonthlyRollup january = rollups.firstEntry().getValue();
+        assertEquals(2, january.getCount());
+        MonthlyRollup.Day lastDay = january.getDays().iterator().next();
+        assertEquals(31, lastDay.getDayOfMonth());
+        assertEquals(80.0, lastDay.getMinWeight(), 0);
+        assertEquals(81.0, lastDay.getMaxWeight(), 0);
+        assertEquals(80.5, lastDay.getMeanWeight(), 1e-9);
+        assertEquals(81.0, lastDay.getLastWeight(), 0);
+        assertEquals(at(1, 31, 0), january.dayStartMillis(lastDay, ZONE));
+
+        MonthlyRollup february = rollups.lastEntry().getValue();
+        assertEquals(3, february.getCount());
+        assertEquals(2, february.getDays().size());
+        assertEquals((80.4 + 79.8 + 79.5) / 3, february.getMeanWeight(), 1e-9);
+    }
+
+    @Test
+    public void mergeMatchesAddingEveryEntry() {
+        YearMonth march = YearMonth.of(2024, 3);
+        MonthlyRollup sequential = new MonthlyRollup(march);
+        MonthlyRollup stored = new MonthlyRollup(march);
+        MonthlyRollup imported = new MonthlyRollup(march);
+        long[] timestamps = {at(3, 2, 7), at(3, 2, 20), at(3, 5, 7), at(3, 2, 6)};
+        double[] weights = {79.0, 79.6, 78.8, 79.3};
+        for (int i = 0; i < timestamps.length; i++) {
+            sequential.add(timestamps[i], weights[i], ZONE);
+            (i % 2 == 0 ? stored : imported).add(timestamps[i], weights[i], ZONE);
+        }
+
+        stored.merge(imported);
+
+        assertEquals(sequential.toMap(), stored.toMap());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addRejectsEntriesFromAnotherMonth() {
+        new MonthlyRollup(YearMonth.of(2024, 1)).add(at(2, 1, 7), 80, ZONE);
+    }
+
+    @Test
+    public void mapRoundTripKeepsDays() {
+        MonthlyRollup rollup = new MonthlyRollup(YearMonth.of(2024, 4));
+        rollup.add(at(4, 1, 7), 78.5, ZONE);
+        rollup.add(at(4, 30, 7), 78.1, ZONE);
+
+        Map<String, Object> map = rollup.toMap();
+        MonthlyRollup restored = MonthlyRollup.fromMap(map);
+
+        assertEquals(YearMonth.of(2024, 4), restored.getMonth());
+        assertEquals(map, restored.toMap());
+        List<Integer> days = new ArrayList<>();
+        for (MonthlyRollup.Day day : restored.getDays()) {
+            days.add(day.getDayOfMonth());
+        }
+        assertEquals(List.of(1, 30), days);
+
+        map.put("bulan", "April");
+        assertNull(MonthlyRollup.fromMap(map));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.fitnessup.util.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the running summary against values computed from the full history.
+ */
+public class ProgressSummaryTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    private static final long START = 1_704_067_200_000L; // 2024-01-01
+
+    private static final long[] TIMESTAMPS = {START + 3 * DAY, START, START + 10 * DAY, START + 7 * DAY, START + 21 * DAY};
+    private static final double[] WEIGHTS = {80.2, 81.0, 79.1, 79.9, 78.0};
+
+    /**
+     * Least-squares slope computed directly from the entries, in kg per week
+     */
+    private static double directSlopePerWeek() {
+        double meanT = 0;
+        double meanW = 0;
+        for (int i = 0; i < TIMESTAMPS.length; i++) {
+            meanT += TIMESTAMPS[i] / (double) DAY;
+            meanW += WEIGHTS[i];
+        }
+        meanT /= TIMESTAMPS.length;
+        meanW /= TIMESTAMPS.length;
+        double covariance = 0;
+        double variance = 0;
+        for (int i = 0; i < TIMESTAMPS.length; i++) {
+            double t = TIMESTAMPS[i] / (double) DAY - meanT;
+            covariance += t * (WEIGHTS[i] - meanW);
+            variance += t * t;
+        }
+        return covariance / variance * 7;
+    }
+
+    @Test
+    public void addTracksEndsExtremesAndSlope() {
+        ProgressSummary summary = new ProgressSummary();
+        for (int i = 0; i < TIMESTAMPS.length; i++) {
+            summary.add(TIMESTAMPS[i], WEIGHTS[i], "id" + i);
+        }
+
+        assertEquals(5, summary.getCount());
+        assertEquals(START, summary.getFirstTimestampMillis());
+        assertEquals(81.0, summary.getFirstWeight(), 0);
+        assertEquals(START + 21 * DAY, summary.getLatestTimestampMillis());
+        assertEquals(78.0, summary.getLatestWeight(), 0);
+        assertEquals("id4", summary.getLatestEntryId());
+        assertEquals(78.0, summary.getMinWeight(), 0);
+        assertEquals(81.0, summary.getMaxWeight(), 0);
+        assertEquals(directSlopePerWeek(), summary.slopePerWeek(), 1e-9);
+    }
+
+    @Test
+    public void mergeMatchesAddingEveryEntry() {
+        ProgressSummary sequential = new ProgressSummary();
+        ProgressSummary existing = new ProgressSummary();
+        ProgressSummary imported = new ProgressSummary();
+        for (int i = 0; i < TIMESTAMPS.length; i++) {
+            sequential.add(TIMESTAMPS[i], WEIGHTS[i]);
+            (i < 2 ? existing : imported).add(TIMESTAMPS[i], WEIGHTS[i]);
+        }
+
+        existing.merge(imported);
+
+        assertEquals(sequential.getCount(), existing.getCount());
+        assertEquals(sequential.getFirstWeight(), existing.getFirstWeight(), 0);
+        assertEquals(sequential.getLatestWeight(), existing.getLatestWeight(), 0);
+        assertEquals(sequential.getMeanWeight(), existing.getMeanWeight(), 1e-9);
+        assertEquals(sequential.slopePerWeek(), existing.slopePerWeek(), 1e-9);
+    }
+
+    @Test
+    public void slopeNeedsTwoDistinctTimes() {
+        ProgressSummary summary = new ProgressSummary();
+        assertTrue(Double.isNaN(summary.slopePerWeek()));
+        summary.add(START, 80.0);
+        summary.add(START, 79.0);
+        assertTrue(Double.isNaN(summary.slopePerWeek()));
+        // Same time: the later add becomes the latest entry
+        assertEquals(79.0, summary.getLatestWeight(), 0);
+    }
+
+    @Test
+    public void mapRoundTripKeepsState() {
+        ProgressSummary summary = new ProgressSummary();
+        for (int i = 0; i < TIMESTAMPS.length; i++) {
+            summary.add(TIMESTAMPS[i], WEIGHTS[i], "id" + i);
+        }
+
+        Map<String, Object> map = summary.toMap();
+        ProgressSummary restored = ProgressSummary.fromMap(map);
+        restored.add(START + 28 * DAY, 77.5);
+        summary.add(START + 28 * DAY, 77.5);
+
+        assertEquals(summary.getCount(), restored.getCount());
+        assertEquals(summary.slopePerWeek(), restored.slopePerWeek(), 1e-12);
+        map.remove("jumlahEntri");
+        assertNull(ProgressSummary.fromMap(map));
+        assertNull(ProgressSummary.fromMap(null));
+    }
+}
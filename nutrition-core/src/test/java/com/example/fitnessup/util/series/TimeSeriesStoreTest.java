@@ -0,0 +1,154 @@
+package com.example.fitnessup.util.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Checks the compressed store round-trips points through appends, reopening and range scans.
+ */
+public class TimeSeriesStoreTest {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final long START_MILLIS = 1577836800000L; // 2020-01-01T00:00Z
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Irregular points: repeated and jumping timestamps, repeated and arbitrary values
+     */
+    private static WeightSeries irregularSeries(int count) {
+        Random random = new Random(7);
+        WeightSeries series = new WeightSeries(count);
+        long timestamp = START_MILLIS;
+        double weight = 80;
+        for (int i = 0; i < count; i++) {
+            switch (i % 5) {
+                case 0:
+                    timestamp += DAY_MILLIS;
+                    break;
+                case 1:
+                    timestamp += random.nextInt(1000); // Same moment or a few millis later
+                    break;
+                case 2:
+                    timestamp += random.nextInt(3) * DAY_MILLIS + random.nextInt(43_200_000);
+                    break;
+                case 3:
+                    timestamp += (long) random.nextInt(400) * 365 * DAY_MILLIS; // Beyond the 32-bit bucket
+                    break;
+                default:
+                    timestamp += 7 * DAY_MILLIS;
+            }
+            if (i % 3 != 0) {
+                weight = Math.round((weight + random.nextGaussian()) * 100) / 100.0;
+            }
+            series.add(timestamp, weight);
+        }
+        return series;
+    }
+
+    private static void assertSameSeries(WeightSeries expected, WeightSeries actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("timestamp " + i, expected.timestampAt(i), actual.timestampAt(i));
+            assertEquals("weight " + i, expected.weightAt(i), actual.weightAt(i), 0);
+        }
+    }
+
+    @Test
+    public void pointsSurviveReopeningAndAppendingAcrossSegments() throws IOException {
+        File directory = folder.newFolder();
+        int count = TimeSeriesStore.SEGMENT_POINTS * 2 + 100;
+        WeightSeries expected = irregularSeries(count);
+
+        try (TimeSeriesStore store = TimeSeriesStore.open(directory)) {
+            for (int i = 0; i < count / 2; i++) {
+                store.append(expected.timestampAt(i), expected.weightAt(i));
+            }
+        }
+        try (TimeSeriesStore store = TimeSeriesStore.open(directory)) {
+            for (int i = count / 2; i < count; i++) {
+                store.append(expected.timestampAt(i), expected.weightAt(i));
+            }
+        }
+
+        try (TimeSeriesStore store = TimeSeriesStore.open(directory)) {
+            WeightSeries read = new WeightSeries();
+            store.readInto(read);
+            assertSameSeries(expected, read);
+            assertEquals(count, store.size());
+            assertEquals(3, directory.list().length);
+            assertEquals(expected.timestampAt(0), store.firstTimestamp());
+            assertEquals(expected.weightAt(count - 1), store.lastValue(), 0);
+            assertEquals(expected.timestampAt(count - 1), store.lastTimestamp());
+        }
+    }
+
+    @Test
+    public void scanReturnsOnlyTheRange() throws IOException {
+        WeightSeries series = irregularSeries(TimeSeriesStore.SEGMENT_POINTS * 3);
+        try (TimeSeriesStore store = TimeSeriesStore.open(folder.newFolder())) {
+            store.replaceAll(series);
+            int from = series.firstIndexAfter(series.timestampAt(5000) - 1);
+            int to = series.firstIndexAfter(series.timestampAt(9000)) - 1;
+            int[] index = {from};
+
+            store.scan(series.timestampAt(from), series.timestampAt(to), (timestampMillis, value) -> {
+                assertEquals(series.timestampAt(index[0]), timestampMillis);
+                assertEquals(series.weightAt(index[0]), value, 0);
+                index[0]++;
+            });
+
+            assertEquals(to + 1, index[0]);
+        }
+    }
+
+    @Test
+    public void appendsMustBeInTimeOrderAndReplaceAllRewrites() throws IOException {
+        File directory = folder.newFolder();
+        try (TimeSeriesStore store = TimeSeriesStore.open(directory)) {
+            store.append(START_MILLIS, 80);
+            store.append(START_MILLIS, 80.5); // Equal timestamps are kept
+            try {
+                store.append(START_MILLIS - 1, 81);
+                fail("Out-of-order point was appended");
+            } catch (IllegalArgumentException expected) {
+                assertEquals(2, store.size());
+            }
+
+            WeightSeries replacement = new WeightSeries();
+            replacement.add(START_MILLIS - DAY_MILLIS, 79);
+            store.replaceAll(replacement);
+            assertEquals(1, store.size());
+            assertEquals(79, store.firstValue(), 0);
+
+            store.clear();
+            assertTrue(store.isEmpty());
+            assertEquals(0, directory.list().length);
+        }
+    }
+
+    @Test
+    public void dailyWeighInsCompressWell() throws IOException {
+        int count = 3653;
+        WeightSeries series = new WeightSeries(count);
+        for (int i = 0; i < count; i++) {
+            // Every morning at 07:00, weight drifting by 0.1 kg steps
+            series.add(START_MILLIS + i * DAY_MILLIS + 7 * 3_600_000L, 80 + ((i * 7) % 23 - 11) / 10.0);
+        }
+        try (TimeSeriesStore store = TimeSeriesStore.open(folder.newFolder())) {
+            store.replaceAll(series);
+            // Raw columns take 16 bytes per point; XOR leaves most of a decimal weight's mantissa
+            assertTrue(store.storedBytes() + " bytes", store.storedBytes() < count * 8L);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.fitnessup.util.series;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks sorted inserts, removal and the trend on the weight history columns.
+ */
+public class WeightSeriesTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void addKeepsEntriesSortedAndGrows() {
+        WeightSeries series = new WeightSeries(1);
+
+        assertEquals(0, series.add(10 * DAY, 79.0));
+        assertEquals(1, series.add(14 * DAY, 78.0));
+        // Out of order: lands in front of the newer entries
+        assertEquals(0, series.add(0, 80.0));
+        // Equal timestamp goes after the existing entry
+        assertEquals(2, series.add(10 * DAY, 78.5));
+
+        assertEquals(4, series.size());
+        assertEquals(0, series.timestampAt(0));
+        assertEquals(79.0, series.weightAt(1), 0);
+        assertEquals(78.5, series.weightAt(2), 0);
+        assertEquals(14 * DAY, series.timestampAt(3));
+    }
+
+    @Test
+    public void removeAtShiftsNewerEntries() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 80.0);
+        series.add(DAY, 79.5);
+        series.add(2 * DAY, 79.0);
+
+        series.removeAt(1);
+
+        assertEquals(2, series.size());
+        assertEquals(2 * DAY, series.timestampAt(1));
+        assertEquals(79.0, series.weightAt(1), 0);
+    }
+
+    @Test
+    public void indexOfMatchesTimeAndWeight() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 80.0);
+        series.add(DAY, 79.5);
+        series.add(DAY, 79.0);
+        series.add(2 * DAY, 79.0);
+
+        assertEquals(0, series.indexOf(0, 80.0));
+        assertEquals(2, series.indexOf(DAY, 79.0));
+        assertEquals(3, series.indexOf(2 * DAY, 79.0));
+        assertEquals(-1, series.indexOf(DAY, 78.0));
+        assertEquals(-1, series.indexOf(3 * DAY, 79.0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void removeAtRejectsIndexPastSize() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 80.0);
+        series.removeAt(1);
+    }
+
+    @Test
+    public void insertAtMirrorsExternalOrder() {
+        WeightSeries series = new WeightSeries();
+        series.insertAt(0, DAY, 80.0);
+        series.insertAt(1, DAY, 79.0);
+        // Equal timestamp in front of the existing ones, as a query may order ties
+        series.insertAt(0, DAY, 81.0);
+
+        assertEquals(81.0, series.weightAt(0), 0);
+        assertEquals(80.0, series.weightAt(1), 0);
+        assertEquals(79.0, series.weightAt(2), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void insertAtRejectsOutOfOrderEntry() {
+        WeightSeries series = new WeightSeries();
+        series.add(0, 80.0);
+        series.add(2 * DAY, 79.0);
+        series.insertAt(2, DAY, 79.5);
+    }
+
+    @Test
+    public void firstIndexAfterAndTrend() {
+        WeightSeries series = new WeightSeries();
+        assertTrue(Double.isNaN(series.changePerWeek()));
+
+        series.add(14 * DAY, 78.0);
+        series.add(0, 80.0);
+        series.add(10 * DAY, 79.0);
+
+        assertEquals(1, series.firstIndexAfter(0));
+        assertEquals(3, series.firstIndexAfter(14 * DAY));
+        assertEquals(-1.0, series.changePerWeek(), 1e-9);
+
+        series.clear();
+        assertTrue(series.isEmpty());
+    }
+}
@@ -22,3 +22,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "FitnessUp"
 include(":app")
+include(":nutrition-core")
+include(":benchmark")
+include(":mapper-processor")